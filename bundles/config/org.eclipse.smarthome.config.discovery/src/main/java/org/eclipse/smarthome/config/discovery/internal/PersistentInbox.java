@@ -30,6 +30,7 @@ import org.eclipse.smarthome.config.discovery.inbox.InboxListener;
 import org.eclipse.smarthome.config.discovery.inbox.events.InboxEventFactory;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.storage.BatchStorage;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.storage.StorageService;
 import org.eclipse.smarthome.core.thing.ManagedThingProvider;
@@ -56,6 +57,7 @@ import org.slf4j.LoggerFactory;
  * @author Michael Grammling - Added dynamic configuration updates
  * @author Dennis Nobel - Added persistence support
  * @author Andre Fuechsel - Added removeOlderResults
+ * @author agent - Remove expired and older results in bulk
  *
  */
 public final class PersistentInbox implements Inbox, DiscoveryListener, ThingRegistryChangeListener {
@@ -80,12 +82,14 @@ public final class PersistentInbox implements Inbox, DiscoveryListener, ThingReg
         @Override
         public void run() {
             long now = new Date().getTime();
+            List<ThingUID> expiredThings = new ArrayList<>();
             for (DiscoveryResult result : inbox.getAll()) {
                 if (isResultExpired(result, now)) {
                     logger.debug("Inbox entry for thing {} is expired and will be removed", result.getThingUID());
-                    remove(result.getThingUID());
+                    expiredThings.add(result.getThingUID());
                 }
             }
+            inbox.removeAll(expiredThings);
         }
 
         private boolean isResultExpired(DiscoveryResult result, long now) {
@@ -215,6 +219,36 @@ public final class PersistentInbox implements Inbox, DiscoveryListener, ThingReg
         return false;
     }
 
+    /**
+     * Removes the discovery results of the given things with a single storage operation.
+     *
+     * @param thingUIDs the things, whose discovery results should be removed
+     */
+    private synchronized void removeAll(Collection<ThingUID> thingUIDs) {
+        if (thingUIDs.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(thingUIDs.size());
+        for (ThingUID thingUID : thingUIDs) {
+            keys.add(thingUID.toString());
+        }
+        Collection<DiscoveryResult> removedResults;
+        if (discoveryResultStorage instanceof BatchStorage) {
+            removedResults = ((BatchStorage<DiscoveryResult>) discoveryResultStorage).removeAll(keys).values();
+        } else {
+            removedResults = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                DiscoveryResult removedResult = discoveryResultStorage.remove(key);
+                if (removedResult != null) {
+                    removedResults.add(removedResult);
+                }
+            }
+        }
+        for (DiscoveryResult removedResult : removedResults) {
+            notifyListeners(removedResult, EventType.removed);
+        }
+    }
+
     @Override
     public void removeInboxListener(InboxListener listener) throws IllegalStateException {
         if (listener != null) {
@@ -240,10 +274,10 @@ public final class PersistentInbox implements Inbox, DiscoveryListener, ThingReg
             ThingUID thingUID = discoveryResult.getThingUID();
             if (thingTypeUIDs.contains(thingUID.getThingTypeUID()) && discoveryResult.getTimestamp() < timestamp) {
                 removedThings.add(thingUID);
-                remove(thingUID);
                 logger.debug("Removed {} from inbox because it was older than {}", thingUID, new Date(timestamp));
             }
         }
+        removeAll(removedThings);
         return removedThings;
     }
 
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.persistence;
+
+/**
+ * An aggregating persistence service is a {@link QueryablePersistenceService}, which is able to aggregate the states
+ * of an item within a time window itself, so that the states do not have to be transferred to the caller.
+ *
+ * @author agent - Initial contribution
+ */
+public interface AggregatingPersistenceService extends QueryablePersistenceService {
+
+    /**
+     * Aggregates the states of a single item within the time window of the given filter criteria. Only the item name,
+     * the begin date and the end date of the filter are considered, the operator, the state, the ordering and the
+     * paging are ignored.
+     *
+     * @param filter the filter, which defines the item and the time window
+     * @return the aggregated states (not null)
+     */
+    HistoricAggregate aggregate(FilterCriteria filter);
+
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.persistence;
+
+import java.util.Collection;
+
+/**
+ * A persistence service which is able to store a batch of item states at once.
+ * <p>
+ * The persistence manager hands over item states asynchronously. If a service implements this interface, the buffered
+ * states are passed in batches to {@link #store(Collection)} instead of calling
+ * {@link #store(org.eclipse.smarthome.core.items.Item, String)} for each of them.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+public interface BatchPersistenceService extends PersistenceService {
+
+    /**
+     * Stores the given records. The records of an item and alias are ordered by their timestamp and contain the state
+     * of the item at that time, which might differ from the current state of the item. Records of different items are
+     * not necessarily ordered.
+     *
+     * @param records the records to store (not null, not empty)
+     */
+    void store(Collection<PersistenceRecord> records);
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.persistence;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+
+/**
+ * This class is a Java bean, which holds the aggregated states of an item within the time window of a
+ * {@link FilterCriteria}. Only states of type {@link DecimalType} are considered for the sum, the minimum, the maximum
+ * and the average.
+ *
+ * @author agent - Initial contribution
+ */
+public class HistoricAggregate {
+
+    /** the number of states within the window */
+    private int count = 0;
+
+    /** the number of decimal states within the window */
+    private int decimalCount = 0;
+
+    /** the number of states within the window, which differ from the previous state */
+    private int changeCount = 0;
+
+    /** the sum of the decimal states within the window */
+    private DecimalType sum = DecimalType.ZERO;
+
+    /** the time-weighted average of the decimal states */
+    private DecimalType timeWeightedAverage;
+
+    /** the last state before the window */
+    private HistoricItem initial;
+
+    /** the first state within the window */
+    private HistoricItem first;
+
+    /** the last state within the window */
+    private HistoricItem last;
+
+    /** the earliest minimal decimal state within the window */
+    private HistoricItem minimum;
+
+    /** the earliest maximal decimal state within the window */
+    private HistoricItem maximum;
+
+    /**
+     * Returns the number of states within the window.
+     *
+     * @return the number of states
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of decimal states within the window.
+     *
+     * @return the number of decimal states
+     */
+    public int getDecimalCount() {
+        return decimalCount;
+    }
+
+    /**
+     * Returns the number of states within the window, which differ from their previous state. The first state within
+     * the window is compared with the {@link #getInitial() initial} state.
+     *
+     * @return the number of changes
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Returns the sum of the decimal states within the window.
+     *
+     * @return the sum, zero if there are no decimal states
+     */
+    public DecimalType getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the average of the decimal states weighted by the time each state was held within the window. The
+     * initial state is held from the begin of the window, the last state until the end of the window or until now, if
+     * the window has no end.
+     *
+     * @return the time-weighted average or null, if no decimal state was held within the window
+     */
+    public DecimalType getTimeWeightedAverage() {
+        return timeWeightedAverage;
+    }
+
+    /**
+     * Returns the last state before the begin of the window, which is the state of the item at the begin of the window.
+     *
+     * @return the initial state or null, if there is none or the window has no begin
+     */
+    public HistoricItem getInitial() {
+        return initial;
+    }
+
+    /**
+     * Returns the first state within the window.
+     *
+     * @return the first state or null, if there are no states
+     */
+    public HistoricItem getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the last state within the window.
+     *
+     * @return the last state or null, if there are no states
+     */
+    public HistoricItem getLast() {
+        return last;
+    }
+
+    /**
+     * Returns the earliest of the minimal decimal states within the window.
+     *
+     * @return the minimum or null, if there are no decimal states
+     */
+    public HistoricItem getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Returns the earliest of the maximal decimal states within the window.
+     *
+     * @return the maximum or null, if there are no decimal states
+     */
+    public HistoricItem getMaximum() {
+        return maximum;
+    }
+
+    public HistoricAggregate setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public HistoricAggregate setDecimalCount(int decimalCount) {
+        this.decimalCount = decimalCount;
+        return this;
+    }
+
+    public HistoricAggregate setChangeCount(int changeCount) {
+        this.changeCount = changeCount;
+        return this;
+    }
+
+    public HistoricAggregate setSum(DecimalType sum) {
+        this.sum = sum;
+        return this;
+    }
+
+    public HistoricAggregate setTimeWeightedAverage(DecimalType timeWeightedAverage) {
+        this.timeWeightedAverage = timeWeightedAverage;
+        return this;
+    }
+
+    public HistoricAggregate setInitial(HistoricItem initial) {
+        this.initial = initial;
+        return this;
+    }
+
+    public HistoricAggregate setFirst(HistoricItem first) {
+        this.first = first;
+        return this;
+    }
+
+    public HistoricAggregate setLast(HistoricItem last) {
+        this.last = last;
+        return this;
+    }
+
+    public HistoricAggregate setMinimum(HistoricItem minimum) {
+        this.minimum = minimum;
+        return this;
+    }
+
+    public HistoricAggregate setMaximum(HistoricItem maximum) {
+        this.maximum = maximum;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoricAggregate [count=" + count + ", decimalCount=" + decimalCount + ", changeCount="
+                + changeCount + ", sum=" + sum + ", timeWeightedAverage=" + timeWeightedAverage + ", minimum="
+                + minimum + ", maximum=" + maximum + "]";
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.persistence;
+
+import java.util.Date;
+
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * A {@link PersistenceRecord} holds the state of an item at the time it was handed over for persistence. Records are
+ * passed to {@link BatchPersistenceService}s.
+ *
+ * @author agent - Initial contribution
+ */
+public final class PersistenceRecord {
+
+    private final Item item;
+
+    private final String alias;
+
+    private final State state;
+
+    private final Date timestamp;
+
+    /**
+     * Creates a new persistence record.
+     *
+     * @param item the item (must not be null)
+     * @param alias the alias under which the item should be persisted (may be null)
+     * @param state the state of the item (must not be null)
+     * @param timestamp the point in time of the state (must not be null)
+     */
+    public PersistenceRecord(Item item, String alias, State state, Date timestamp) {
+        this.item = item;
+        this.alias = alias;
+        this.state = state;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the item. Its current state might differ from the state of this record.
+     *
+     * @return the item
+     */
+    public Item getItem() {
+        return item;
+    }
+
+    /**
+     * Returns the name of the item.
+     *
+     * @return the item name
+     */
+    public String getItemName() {
+        return item.getName();
+    }
+
+    /**
+     * Returns the alias under which the item should be persisted.
+     *
+     * @return the alias or null, if the item name should be used
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Returns the state of the item at the time of this record.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the point in time of the state.
+     *
+     * @return the timestamp
+     */
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceRecord [item=" + item.getName() + ", alias=" + alias + ", state=" + state + ", timestamp="
+                + timestamp + "]";
+    }
+
+}
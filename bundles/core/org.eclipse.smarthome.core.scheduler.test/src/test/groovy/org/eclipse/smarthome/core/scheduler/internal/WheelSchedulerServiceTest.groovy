@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler.internal
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Tests for the {@link WheelSchedulerService}.
+ *
+ * @author agent - Initial contribution
+ */
+class WheelSchedulerServiceTest {
+
+    WheelSchedulerService schedulerService
+
+    @Before
+    void setUp() {
+        schedulerService = new WheelSchedulerService()
+        schedulerService.activate([tickDuration: 10, poolSize: 2])
+    }
+
+    @After
+    void tearDown() {
+        schedulerService.deactivate()
+    }
+
+    @Test
+    void 'assert that a job is executed after its delay'() {
+        def executed = new CountDownLatch(1)
+        long start = System.currentTimeMillis()
+        long executionTime = 0
+
+        def job = schedulerService.schedule({
+            executionTime = System.currentTimeMillis()
+            executed.countDown()
+        } as Runnable, 200, TimeUnit.MILLISECONDS)
+
+        assertThat job.getNextFireTime(), is(notNullValue())
+        assertThat executed.await(5, TimeUnit.SECONDS), is(true)
+        // the job is not executed before its deadline, but might be executed one tick earlier than the wall clock
+        assertThat executionTime - start >= 190, is(true)
+        waitFor { job.isDone() }
+        assertThat job.isCancelled(), is(false)
+        assertThat job.getNextFireTime(), is(nullValue())
+        assertThat schedulerService.getStatistics().getExecutions(), is(1L)
+    }
+
+    @Test
+    void 'assert that jobs with different delays are executed in the order of their deadlines'() {
+        def executions = Collections.synchronizedList([])
+        def executed = new CountDownLatch(3)
+
+        [300, 100, 200].each { delay ->
+            schedulerService.schedule({
+                executions.add(delay)
+                executed.countDown()
+            } as Runnable, delay, TimeUnit.MILLISECONDS)
+        }
+
+        assertThat executed.await(5, TimeUnit.SECONDS), is(true)
+        assertThat executions, is(equalTo([100, 200, 300]))
+    }
+
+    @Test
+    void 'assert that a cancelled job is not executed'() {
+        def executions = new AtomicInteger()
+
+        def job = schedulerService.schedule({ executions.incrementAndGet() } as Runnable, 200, TimeUnit.MILLISECONDS)
+
+        assertThat job.cancel(), is(true)
+        assertThat job.cancel(), is(false)
+        assertThat job.isCancelled(), is(true)
+        assertThat job.isDone(), is(true)
+        assertThat job.getNextFireTime(), is(nullValue())
+
+        Thread.sleep(400)
+        assertThat executions.get(), is(0)
+        assertThat schedulerService.getStatistics().getCancellations(), is(1L)
+        assertThat schedulerService.getStatistics().getScheduledJobs(), is(0)
+    }
+
+    @Test
+    void 'assert that a cron job is executed repeatedly until it is cancelled'() {
+        def executions = new AtomicInteger()
+
+        def job = schedulerService.schedule({ executions.incrementAndGet() } as Runnable, "* * * * * ?")
+
+        waitFor(5000) { executions.get() >= 2 }
+        assertThat job.cancel(), is(true)
+        waitFor { !job.isRunning() }
+        int executionsAfterCancel = executions.get()
+
+        Thread.sleep(1500)
+        assertThat executions.get(), is(executionsAfterCancel)
+        assertThat job.isCancelled(), is(true)
+        assertThat job.getNextFireTime(), is(nullValue())
+    }
+
+    @Test
+    void 'assert that the next fire time of a cron job matches its expression'() {
+        def job = schedulerService.schedule({} as Runnable, "0 0 12 * * ?")
+
+        def nextFireTime = Calendar.getInstance()
+        nextFireTime.setTime(job.getNextFireTime())
+        assertThat nextFireTime.get(Calendar.HOUR_OF_DAY), is(12)
+        assertThat nextFireTime.get(Calendar.MINUTE), is(0)
+        assertThat nextFireTime.get(Calendar.SECOND), is(0)
+        assertThat job.isDone(), is(false)
+        assertThat job.cancel(), is(true)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void 'assert that an invalid cron expression is rejected'() {
+        schedulerService.schedule({} as Runnable, "invalid")
+    }
+
+    private void waitFor(long timeout = 2000, Closure<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + timeout
+        while (!condition() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        assertThat condition(), is(true)
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler;
+
+import java.util.Date;
+
+/**
+ * A {@link ScheduledJob} is the handle of a job, which has been scheduled by the {@link SchedulerService}.
+ *
+ * @author agent - Initial contribution
+ */
+public interface ScheduledJob {
+
+    /**
+     * Cancels the job, so that it is not executed anymore. A running execution is not interrupted.
+     *
+     * @return true, if an execution has been prevented, false if the job has already been executed or cancelled
+     */
+    boolean cancel();
+
+    /**
+     * Returns whether the job has been cancelled.
+     *
+     * @return true, if the job has been cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns whether the job is currently executed.
+     *
+     * @return true, if the job is being executed
+     */
+    boolean isRunning();
+
+    /**
+     * Returns whether the job will not be executed anymore, because it has been cancelled or, if it is executed only
+     * once, because its execution has finished.
+     *
+     * @return true, if the job is done
+     */
+    boolean isDone();
+
+    /**
+     * Returns the point in time of the next execution.
+     *
+     * @return the next execution time or null, if the job is done or currently executed only once
+     */
+    Date getNextFireTime();
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link SchedulerService} executes jobs once after a delay, once at a point in time or repeatedly according to a
+ * cron expression. Scheduling and cancelling a job are constant time operations, so that a large number of short-lived
+ * jobs (e.g. for debouncing) can be scheduled and cancelled cheaply.
+ *
+ * Jobs are executed on a thread pool of the service and should not block for a long time.
+ *
+ * @author agent - Initial contribution
+ */
+public interface SchedulerService {
+
+    /**
+     * Schedules a job for a single execution after the given delay.
+     *
+     * @param job the job to execute (must not be null)
+     * @param delay the delay, a delay of zero or less executes the job as soon as possible
+     * @param unit the unit of the delay (must not be null)
+     * @return the handle of the scheduled job
+     */
+    ScheduledJob schedule(Runnable job, long delay, TimeUnit unit);
+
+    /**
+     * Schedules a job for a single execution at the given point in time.
+     *
+     * @param job the job to execute (must not be null)
+     * @param time the point in time, a point in time in the past executes the job as soon as possible (must not be
+     *            null)
+     * @return the handle of the scheduled job
+     */
+    ScheduledJob schedule(Runnable job, Date time);
+
+    /**
+     * Schedules a job for repeated execution according to a cron expression. The syntax of the expression is the one
+     * of the Quartz scheduler, e.g. "0 0/5 * * * ?" for every five minutes. If an execution is late, so that the next
+     * execution time has already passed, the missed executions are skipped.
+     *
+     * @param job the job to execute (must not be null)
+     * @param cronExpression the cron expression (must not be null)
+     * @return the handle of the scheduled job
+     * @throws IllegalArgumentException if the cron expression is invalid
+     */
+    ScheduledJob schedule(Runnable job, String cronExpression) throws IllegalArgumentException;
+
+    /**
+     * Returns the statistics of the jobs, which have been scheduled since the service has been started.
+     *
+     * @return the statistics
+     */
+    SchedulerStatistics getStatistics();
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler;
+
+/**
+ * This class is a Java bean, which holds the statistics of a {@link SchedulerService}. The lag of an execution is the
+ * time between its scheduled time and the start of the execution. All times are in milliseconds.
+ *
+ * @author agent - Initial contribution
+ */
+public class SchedulerStatistics {
+
+    private final int scheduledJobs;
+
+    private final long executions;
+
+    private final long cancellations;
+
+    private final long totalLag;
+
+    private final long maxLag;
+
+    public SchedulerStatistics(int scheduledJobs, long executions, long cancellations, long totalLag, long maxLag) {
+        this.scheduledJobs = scheduledJobs;
+        this.executions = executions;
+        this.cancellations = cancellations;
+        this.totalLag = totalLag;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * @return the number of jobs, which are currently waiting for their next execution
+     */
+    public int getScheduledJobs() {
+        return scheduledJobs;
+    }
+
+    /**
+     * @return the number of executions
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return the number of jobs, which have been cancelled before their next execution
+     */
+    public long getCancellations() {
+        return cancellations;
+    }
+
+    /**
+     * @return the average lag of the executions
+     */
+    public long getAverageLag() {
+        return executions > 0 ? totalLag / executions : 0;
+    }
+
+    /**
+     * @return the maximum lag of a single execution
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerStatistics [scheduledJobs=" + scheduledJobs + ", executions=" + executions
+                + ", cancellations=" + cancellations + ", averageLag=" + getAverageLag() + ", maxLag=" + maxLag + "]";
+    }
+
+}
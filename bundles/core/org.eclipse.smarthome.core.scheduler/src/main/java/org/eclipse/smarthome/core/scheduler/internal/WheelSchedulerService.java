@@ -0,0 +1,456 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler.internal;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.scheduler.ScheduledJob;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
+import org.eclipse.smarthome.core.scheduler.SchedulerStatistics;
+import org.quartz.CronExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link WheelSchedulerService} is a {@link SchedulerService}, which keeps the scheduled jobs in a hashed timing
+ * wheel. The wheel is an array of buckets, each covering one tick. A job is added to the bucket of its execution tick
+ * modulo the wheel size together with the number of rounds the wheel has to turn before the job is due. A worker
+ * thread advances the wheel once per tick and hands the due jobs of the current bucket over to a thread pool.
+ *
+ * Scheduling and cancelling a job only add the job to a queue, which is processed by the worker thread on the next
+ * tick, so that both are constant time operations without any locking. The precision of the execution time is limited
+ * by the tick duration. Cron expressions are evaluated by the {@link CronExpression} of Quartz.
+ *
+ * @author agent - Initial contribution
+ */
+public class WheelSchedulerService implements SchedulerService {
+
+    private static final String TICK_DURATION = "tickDuration";
+    private static final String POOL_SIZE = "poolSize";
+
+    private static final int DEFAULT_TICK_DURATION = 10;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /** the number of buckets, must be a power of two */
+    private static final int WHEEL_SIZE = 512;
+
+    /** the maximum number of new jobs, which are added to the wheel per tick */
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    private static final int WAITING = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+    private static final int DONE = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(WheelSchedulerService.class);
+
+    private final Queue<WheelJob> newJobs = new ConcurrentLinkedQueue<WheelJob>();
+
+    private final Queue<WheelJob> cancelledJobs = new ConcurrentLinkedQueue<WheelJob>();
+
+    private final AtomicInteger scheduledJobs = new AtomicInteger();
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private final AtomicLong cancellations = new AtomicLong();
+
+    private final AtomicLong totalLag = new AtomicLong();
+
+    private final AtomicLong maxLag = new AtomicLong();
+
+    private long tickDuration;
+
+    /** the time the worker has been started, all deadlines are relative to this time */
+    private long startTime;
+
+    private ExecutorService executor;
+
+    private Thread worker;
+
+    private volatile boolean running = false;
+
+    protected void activate(Map<String, Object> properties) {
+        int tickMillis = DEFAULT_TICK_DURATION;
+        int poolSize = DEFAULT_POOL_SIZE;
+        if (properties != null) {
+            tickMillis = getIntProperty(properties, TICK_DURATION, DEFAULT_TICK_DURATION);
+            poolSize = getIntProperty(properties, POOL_SIZE, DEFAULT_POOL_SIZE);
+        }
+        tickDuration = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ESH-scheduler-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+
+        startTime = System.nanoTime();
+        running = true;
+        worker = new Thread(new Worker(), "ESH-scheduler-wheel");
+        worker.setDaemon(true);
+        worker.start();
+        logger.debug("Scheduler service has been started with a tick duration of {} ms.", tickMillis);
+    }
+
+    protected void deactivate() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+        executor.shutdown();
+        newJobs.clear();
+        cancelledJobs.clear();
+        logger.debug("Scheduler service has been stopped: {}", getStatistics());
+    }
+
+    private int getIntProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.toString().trim());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            logger.warn("Invalid value '{}' for '{}', using {}.", new Object[] { value, name, defaultValue });
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public ScheduledJob schedule(Runnable job, long delay, TimeUnit unit) {
+        WheelJob wheelJob = new WheelJob(job, null);
+        wheelJob.arm(System.currentTimeMillis() + unit.toMillis(Math.max(delay, 0)));
+        return wheelJob;
+    }
+
+    @Override
+    public ScheduledJob schedule(Runnable job, Date time) {
+        WheelJob wheelJob = new WheelJob(job, null);
+        wheelJob.arm(time.getTime());
+        return wheelJob;
+    }
+
+    @Override
+    public ScheduledJob schedule(Runnable job, String cronExpression) throws IllegalArgumentException {
+        CronExpression expression;
+        try {
+            expression = new CronExpression(cronExpression);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid cron expression '" + cronExpression + "': " + e.getMessage(),
+                    e);
+        }
+        WheelJob wheelJob = new WheelJob(job, expression);
+        Date next = expression.getNextValidTimeAfter(new Date());
+        if (next != null) {
+            wheelJob.arm(next.getTime());
+        } else {
+            wheelJob.state.set(DONE);
+        }
+        return wheelJob;
+    }
+
+    @Override
+    public SchedulerStatistics getStatistics() {
+        return new SchedulerStatistics(scheduledJobs.get(), executions.get(), cancellations.get(),
+                TimeUnit.NANOSECONDS.toMillis(totalLag.get()), TimeUnit.NANOSECONDS.toMillis(maxLag.get()));
+    }
+
+    private void addExecution(long lag) {
+        executions.incrementAndGet();
+        totalLag.addAndGet(lag);
+        long current = maxLag.get();
+        while (lag > current && !maxLag.compareAndSet(current, lag)) {
+            current = maxLag.get();
+        }
+    }
+
+    /**
+     * The {@link Worker} advances the wheel. The buckets and the links of the jobs are only accessed by this thread.
+     */
+    private class Worker implements Runnable {
+
+        private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+
+        private long tick = 0;
+
+        @Override
+        public void run() {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+            while (running) {
+                long deadline = waitForNextTick();
+                if (deadline < 0) {
+                    break;
+                }
+                removeCancelledJobs();
+                addNewJobs();
+                wheel[(int) (tick & (WHEEL_SIZE - 1))].expireJobs(deadline);
+                tick++;
+            }
+        }
+
+        /**
+         * @return the deadline of the current tick or -1, if the worker has been stopped
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            while (true) {
+                long current = System.nanoTime() - startTime;
+                long sleepTime = TimeUnit.NANOSECONDS.toMillis(deadline - current + 999999);
+                if (sleepTime <= 0) {
+                    return deadline;
+                }
+                try {
+                    Thread.sleep(sleepTime);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return -1;
+                    }
+                }
+            }
+        }
+
+        private void addNewJobs() {
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+                WheelJob job = newJobs.poll();
+                if (job == null) {
+                    return;
+                }
+                if (job.state.get() != WAITING) {
+                    continue;
+                }
+                long jobTick = job.deadline / tickDuration;
+                job.remainingRounds = (jobTick - tick) / WHEEL_SIZE;
+                // jobs, which are already due, are expired with the current tick
+                wheel[(int) (Math.max(jobTick, tick) & (WHEEL_SIZE - 1))].add(job);
+            }
+        }
+
+        private void removeCancelledJobs() {
+            WheelJob job;
+            while ((job = cancelledJobs.poll()) != null) {
+                if (job.bucket != null) {
+                    job.bucket.remove(job);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * A {@link Bucket} is a doubly linked list of the jobs, which are due in the same tick of a round.
+     */
+    private static class Bucket {
+
+        private WheelJob head;
+
+        private WheelJob tail;
+
+        private void add(WheelJob job) {
+            job.bucket = this;
+            if (head == null) {
+                head = tail = job;
+            } else {
+                tail.next = job;
+                job.prev = tail;
+                tail = job;
+            }
+        }
+
+        private WheelJob remove(WheelJob job) {
+            WheelJob next = job.next;
+            if (job.prev != null) {
+                job.prev.next = next;
+            } else {
+                head = next;
+            }
+            if (next != null) {
+                next.prev = job.prev;
+            } else {
+                tail = job.prev;
+            }
+            job.prev = null;
+            job.next = null;
+            job.bucket = null;
+            return next;
+        }
+
+        private void expireJobs(long deadline) {
+            WheelJob job = head;
+            while (job != null) {
+                if (job.remainingRounds <= 0) {
+                    WheelJob expired = job;
+                    job = remove(job);
+                    expired.expire();
+                } else if (job.state.get() != WAITING) {
+                    job = remove(job);
+                } else {
+                    job.remainingRounds--;
+                    job = job.next;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * The {@link WheelJob} is the handle of a scheduled job. A repeated job is added to the wheel again after each
+     * execution.
+     */
+    private class WheelJob implements ScheduledJob, Runnable {
+
+        private final Runnable job;
+
+        private final CronExpression cronExpression;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private volatile boolean executing = false;
+
+        /** the execution time in milliseconds since the epoch */
+        private volatile long fireTime;
+
+        /** the execution time in nanoseconds relative to the start time of the service */
+        private volatile long deadline;
+
+        // the following fields are only accessed by the worker thread
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private WheelJob prev;
+
+        private WheelJob next;
+
+        private WheelJob(Runnable job, CronExpression cronExpression) {
+            this.job = job;
+            this.cronExpression = cronExpression;
+        }
+
+        private void arm(long time) {
+            fireTime = time;
+            deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(time - System.currentTimeMillis());
+            scheduledJobs.incrementAndGet();
+            newJobs.add(this);
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            scheduledJobs.decrementAndGet();
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the service has been stopped
+                state.set(DONE);
+            }
+        }
+
+        @Override
+        public void run() {
+            executing = true;
+            try {
+                addExecution(Math.max(System.nanoTime() - startTime - deadline, 0));
+                job.run();
+            } catch (RuntimeException e) {
+                logger.error("Error during the execution of a scheduled job", e);
+            } finally {
+                rearm();
+                executing = false;
+            }
+        }
+
+        private void rearm() {
+            Date next = null;
+            if (cronExpression != null && running) {
+                next = cronExpression.getNextValidTimeAfter(new Date(Math.max(System.currentTimeMillis(), fireTime)));
+            }
+            if (next == null) {
+                state.compareAndSet(EXPIRED, DONE);
+            } else if (state.compareAndSet(EXPIRED, WAITING)) {
+                arm(next.getTime());
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            while (true) {
+                int current = state.get();
+                if (current == WAITING) {
+                    if (state.compareAndSet(WAITING, CANCELLED)) {
+                        scheduledJobs.decrementAndGet();
+                        cancellations.incrementAndGet();
+                        cancelledJobs.add(this);
+                        return true;
+                    }
+                } else if (current == EXPIRED && cronExpression != null) {
+                    // prevents the repeated job from being added to the wheel again
+                    if (state.compareAndSet(EXPIRED, CANCELLED)) {
+                        cancellations.incrementAndGet();
+                        return true;
+                    }
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return executing;
+        }
+
+        @Override
+        public boolean isDone() {
+            int current = state.get();
+            return current == CANCELLED || current == DONE;
+        }
+
+        @Override
+        public Date getNextFireTime() {
+            return state.get() == WAITING ? new Date(fireTime) : null;
+        }
+
+    }
+
+}
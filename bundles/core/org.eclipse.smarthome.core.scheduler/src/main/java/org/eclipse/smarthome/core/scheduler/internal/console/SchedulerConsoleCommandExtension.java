@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.scheduler.internal.console;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
+import org.eclipse.smarthome.core.scheduler.SchedulerStatistics;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+
+/**
+ * {@link SchedulerConsoleCommandExtension} provides a console command to show the statistics of the
+ * {@link SchedulerService}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SchedulerConsoleCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String SUBCMD_STATS = "stats";
+
+    private SchedulerService schedulerService;
+
+    public SchedulerConsoleCommandExtension() {
+        super("scheduler", "Show the scheduler statistics.");
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Collections.singletonList(buildCommandUsage(SUBCMD_STATS,
+                "lists the number of scheduled jobs, executions, cancellations and the lag of the executions"));
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length > 0 && SUBCMD_STATS.equals(args[0])) {
+            SchedulerStatistics statistics = schedulerService.getStatistics();
+            console.println("scheduledJobs=" + statistics.getScheduledJobs() + ", executions="
+                    + statistics.getExecutions() + ", cancellations=" + statistics.getCancellations()
+                    + ", avgLag=" + statistics.getAverageLag() + "ms, maxLag=" + statistics.getMaxLag() + "ms");
+        } else {
+            printUsage(console);
+        }
+    }
+
+    protected void setSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
+    }
+
+    protected void unsetSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = null;
+    }
+
+}
@@ -75,4 +75,39 @@ class SafeMethodCallerTest {
         def target = new Target();
         SafeMethodCaller.call({ target.methodWithTimeout() } as SafeMethodCaller.Action, 100)
     }
+
+    @Test
+    void 'callSynchronously executes method in calling thread'() {
+        def callingThread = Thread.currentThread()
+        def result = SafeMethodCaller.callSynchronously({ Thread.currentThread() } as SafeMethodCaller.ActionWithException)
+
+        assertThat result, is(sameInstance(callingThread))
+    }
+
+    @Test(expected=ExecutionException)
+    void 'callSynchronously throws ExecutionException'() {
+        def target = new Target();
+        SafeMethodCaller.callSynchronously({ target.methodWithException() } as SafeMethodCaller.ActionWithException)
+    }
+
+    @Test
+    void 'callSynchronously returns result of late action if interrupts are disabled'() {
+        System.setProperty(SafeMethodCaller.INTERRUPT_ON_TIMEOUT_PROPERTY, "false")
+        try {
+            def result = SafeMethodCaller.callSynchronously({
+                Thread.sleep(300)
+                "Hello"
+            } as SafeMethodCaller.ActionWithException, 100)
+
+            assertThat result, is(equalTo("Hello"))
+        } finally {
+            System.clearProperty(SafeMethodCaller.INTERRUPT_ON_TIMEOUT_PROPERTY)
+        }
+    }
+
+    @Test(expected=TimeoutException)
+    void 'callSynchronously throws TimeoutException if watchdog interrupts action'() {
+        def target = new Target();
+        SafeMethodCaller.callSynchronously({ target.methodWithTimeout() } as SafeMethodCaller.ActionWithException, 100)
+    }
 }
@@ -174,6 +174,31 @@ class ItemRegistryOSGiTest extends OSGiTest {
         assertThat itemRegistry.getItems().size(), is(0)
     }
 
+    @Test
+    void 'assert lookups reflect updated and removed items'() {
+        registerService itemProvider
+
+        def item = new SwitchItem("indexedItem")
+        item.addTag(SENSOR_TAG)
+        itemsChangeListener.added(itemProvider, item)
+        assertThat itemRegistry.getItem("indexedItem"), is(sameInstance(item))
+        assertThat itemRegistry.getItemsByTag(SENSOR_TAG).contains(item), is(true)
+
+        def updatedItem = new NumberItem("indexedItem")
+        updatedItem.addTag(OTHER_TAG)
+        itemsChangeListener.updated(itemProvider, item, updatedItem)
+        assertThat itemRegistry.getItem("indexedItem"), is(sameInstance(updatedItem))
+        assertThat itemRegistry.getItemsByTag(SENSOR_TAG).contains(item), is(false)
+        assertThat itemRegistry.getItemsByTag(OTHER_TAG), is([updatedItem])
+        assertThat itemRegistry.getItemsOfType("Number").contains(updatedItem), is(true)
+        assertThat itemRegistry.getItemsOfType("Switch").find { it.name == "indexedItem" }, is(nullValue())
+
+        itemsChangeListener.removed(itemProvider, updatedItem)
+        assertThat itemRegistry.getItemsByTag(OTHER_TAG).size(), is(0)
+        assertThat itemRegistry.getItemsOfType("Number").contains(updatedItem), is(false)
+        assertThat itemRegistry.get("indexedItem"), is(nullValue())
+    }
+
     @Test
     void 'assert itemRegistry sets and removes members of GroupItems'() {
 
@@ -277,6 +302,46 @@ class ItemRegistryOSGiTest extends OSGiTest {
         assertThat itemRegistry.getItem("Keep") == modifiedItem, is(true)
     }
 
+    @Test
+    void 'assert itemRegistry replaces members of GroupItems when all items changed'() {
+        def items = new HashSet<Item>()
+        def member1 = new SwitchItem("member1")
+        member1.addGroupName("reloadGroup")
+        def member2 = new SwitchItem("member2")
+        member2.addGroupName("reloadGroup")
+        items.addAll([
+            new GroupItem("reloadGroup"),
+            member1,
+            member2
+        ])
+
+        def itemProvider2 = [
+            getAll: { new ArrayList<Item>(items) },
+            addProviderChangeListener: {def icl -> itemsChangeListener = icl},
+            removeProviderChangeListener: {def icl -> itemsChangeListener = icl },
+            allItemsChanged: {}] as ItemProvider
+
+        registerService itemProvider2
+
+        def groupItem = itemRegistry.getItem("reloadGroup") as GroupItem
+        assertThat groupItem.members.collect { it.name } as Set, is(["member1", "member2"] as Set)
+
+        // member2 is removed and member1 is modified
+        items.clear()
+        def modifiedMember1 = new NumberItem("member1")
+        modifiedMember1.addGroupName("reloadGroup")
+        items.addAll([
+            new GroupItem("reloadGroup"),
+            modifiedMember1
+        ])
+        itemsChangeListener.allItemsChanged(itemProvider2, null)
+
+        groupItem = itemRegistry.getItem("reloadGroup") as GroupItem
+        assertThat groupItem.members.size(), is(1)
+        assertThat groupItem.members.first(), is(sameInstance(modifiedMember1))
+        assertThat itemRegistry.get("member2"), is(nullValue())
+    }
+
     @Test
     void 'assert itemRegistry is thread safe'() {
         registerService itemProvider
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.internal.events
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import java.util.concurrent.Executor
+
+import org.eclipse.smarthome.core.events.Event
+import org.eclipse.smarthome.core.events.EventSubscriber
+import org.eclipse.smarthome.core.internal.events.EventSubscriberQueue.OverflowPolicy
+import org.junit.Before
+import org.junit.Test
+
+import com.google.common.collect.Sets
+
+
+/**
+ * The {@link EventSubscriberQueueTest} tests the overflow policies of the {@link EventSubscriberQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+class EventSubscriberQueueTest {
+
+    List<Runnable> scheduledRunnables
+
+    List<Event> receivedEvents
+
+    Executor executor
+
+    EventSubscriber subscriber
+
+    @Before
+    void setUp() {
+        scheduledRunnables = []
+        receivedEvents = []
+        executor = { runnable -> scheduledRunnables.add(runnable) } as Executor
+        subscriber = [
+            receive: { event -> receivedEvents.add(event) },
+            getSubscribedEventTypes: { Sets.newHashSet(EventSubscriber.ALL_EVENT_TYPES) },
+            getEventFilter: { null },
+        ] as EventSubscriber
+    }
+
+    @Test
+    void 'queue delivers events in order and schedules only one worker'() {
+        def queue = new EventSubscriberQueue(subscriber, 10, OverflowPolicy.BLOCK, executor)
+        def events = (1..3).collect { createEvent("smarthome/topic/" + it) }
+        events.each { queue.add(it) }
+
+        assertThat scheduledRunnables.size(), is(1)
+        assertThat queue.getQueueDepth(), is(3)
+
+        scheduledRunnables[0].run()
+        assertThat receivedEvents, is(events)
+        assertThat queue.getQueueDepth(), is(0)
+        assertThat queue.getDeliveredEvents(), is(3L)
+    }
+
+    @Test
+    void 'queue drops oldest event if full'() {
+        def queue = new EventSubscriberQueue(subscriber, 2, OverflowPolicy.DROP_OLDEST, executor)
+        def events = (1..3).collect { createEvent("smarthome/topic/" + it) }
+        events.each { queue.add(it) }
+
+        scheduledRunnables[0].run()
+        assertThat receivedEvents, is(events[1..2])
+        assertThat queue.getDroppedEvents(), is(1L)
+    }
+
+    @Test
+    void 'queue coalesces events of the same topic'() {
+        def queue = new EventSubscriberQueue(subscriber, 10, OverflowPolicy.COALESCE_BY_TOPIC, executor)
+        def eventA1 = createEvent("smarthome/topic/a")
+        def eventB = createEvent("smarthome/topic/b")
+        def eventA2 = createEvent("smarthome/topic/a")
+        [eventA1, eventB, eventA2].each { queue.add(it) }
+
+        scheduledRunnables[0].run()
+        assertThat receivedEvents, is([eventA2, eventB])
+        assertThat queue.getCoalescedEvents(), is(1L)
+    }
+
+    @Test
+    void 'queue blocks the dispatching thread until the subscriber has taken an event'() {
+        def queue = new EventSubscriberQueue(subscriber, 1, OverflowPolicy.BLOCK, executor)
+        def events = (1..2).collect { createEvent("smarthome/topic/" + it) }
+        queue.add(events[0])
+
+        def dispatcher = Thread.start { queue.add(events[1]) }
+        Thread.sleep(100)
+        assertThat dispatcher.isAlive(), is(true)
+        assertThat queue.getQueueDepth(), is(1)
+
+        scheduledRunnables[0].run()
+        dispatcher.join(1000)
+        assertThat dispatcher.isAlive(), is(false)
+        scheduledRunnables[-1].run()
+        assertThat receivedEvents, is(events)
+        assertThat queue.getDroppedEvents(), is(0L)
+    }
+
+    @Test
+    void 'closed queue ignores events'() {
+        def queue = new EventSubscriberQueue(subscriber, 10, OverflowPolicy.BLOCK, executor)
+        queue.close()
+        queue.add(createEvent("smarthome/topic/a"))
+
+        assertThat scheduledRunnables.size(), is(0)
+        assertThat queue.getQueueDepth(), is(0)
+    }
+
+    private Event createEvent(String topic) {
+        [ getType: { "TYPE" }, getPayload: { "{}" }, getTopic: { topic }, getSource: { null } ] as Event
+    }
+}
@@ -4,6 +4,7 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 
 import org.eclipse.smarthome.core.events.Event
+import org.eclipse.smarthome.core.events.EventBusStatistics
 import org.eclipse.smarthome.core.events.EventFactory
 import org.eclipse.smarthome.core.events.EventPublisher
 import org.eclipse.smarthome.core.events.EventSubscriber
@@ -116,6 +117,17 @@ class OSGiEventManagerOSGiTest extends OSGiTest {
         assertThat receivedEvent_TypeBasedSubscriber2.getTopic(), is(typeAEvent.getTopic())
     }
 
+    @Test
+    void 'OSGiEventManager dispatches the posted event instance without recreating it'() {
+        Event typeAEvent = createEvent(EVENT_TYPE_A)
+        eventPublisher.post(typeAEvent)
+
+        waitForAssert {assertThat receivedEvent_TypeBasedSubscriber1, not(null)}
+        assertThat receivedEvent_TypeBasedSubscriber1, is(sameInstance(typeAEvent))
+        waitForAssert {assertThat receivedEvent_allEventTypesSubscriber4, not(null)}
+        assertThat receivedEvent_allEventTypesSubscriber4, is(sameInstance(typeAEvent))
+    }
+
     @Test
     void 'OSGiEventManager dispatches diffent event types to corresponding subscribers correctly'() {
         Event typeAEvent = createEvent(EVENT_TYPE_A)
@@ -216,6 +228,30 @@ class OSGiEventManagerOSGiTest extends OSGiTest {
         }
     }
 
+    @Test
+    void 'OSGiEventManager provides the delivery statistics of each subscriber'() {
+        def eventBusStatistics = getService(EventBusStatistics)
+        assertThat eventBusStatistics, is(notNullValue())
+
+        def receivedEvents = []
+        def subscriber = [
+            receive: { event -> receivedEvents.add(event) },
+            getSubscribedEventTypes: { Sets.newHashSet(EVENT_TYPE_C) },
+            getEventFilter: { null },
+        ] as EventSubscriber
+        registerService("STATISTICS_SUBSCRIBER", EventSubscriber, subscriber)
+
+        eventPublisher.post(createEvent(EVENT_TYPE_C))
+        waitForAssert {assertThat receivedEvents.size(), is(1)}
+
+        def statistics = eventBusStatistics.getSubscriberStatistics().find { it.getSubscriber().is(subscriber) }
+        assertThat statistics, is(notNullValue())
+        assertThat statistics.getOverflowPolicyName(), is("BLOCK")
+        waitForAssert {assertThat statistics.getDeliveredEvents(), is(1L)}
+        assertThat statistics.getDroppedEvents(), is(0L)
+        assertThat statistics.getQueueDepth(), is(0)
+    }
+
     private Event createEvent(String eventType) {
         createEvent(eventType, "{a: 'A', b: 'B'}", "smarthome/some/topic")
     }
@@ -18,6 +18,7 @@ import org.eclipse.smarthome.core.items.ItemRegistry
 import org.eclipse.smarthome.core.items.events.ItemEventFactory
 import org.eclipse.smarthome.core.items.events.ItemStateChangedEvent
 import org.eclipse.smarthome.core.library.items.SwitchItem
+import org.eclipse.smarthome.core.library.types.DecimalType
 import org.eclipse.smarthome.core.library.types.OnOffType
 import org.eclipse.smarthome.test.OSGiTest
 import org.junit.Before
@@ -87,4 +88,19 @@ class ItemUpdaterOSGiTest extends OSGiTest {
         // make sure no state changed event has been sent
         assertThat lastReceivedEvent, is(null)
     }
+
+    @Test
+    void 'assert ItemUpdater rejects and counts updates of not accepted types'() {
+        ItemUpdater itemUpdater = getService(EventSubscriber, ItemUpdater)
+        assertThat itemUpdater, is(notNullValue())
+        assertThat itemUpdater.getRejectedUpdates("switch"), is(0L)
+
+        eventPublisher.post(ItemEventFactory.createStateEvent("switch", new DecimalType(3)))
+        waitForAssert { assertThat itemUpdater.getRejectedUpdates("switch"), is(1L) }
+
+        eventPublisher.post(ItemEventFactory.createStateEvent("switch", OnOffType.ON))
+        SwitchItem switchItem = itemRegistry.get("switch")
+        waitForAssert { assertThat switchItem.state, is(OnOffType.ON) }
+        assertThat itemUpdater.getRejectedUpdates("switch"), is(1L)
+    }
 }
@@ -11,7 +11,11 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 import static org.junit.matchers.JUnitMatchers.*
 
+import java.util.concurrent.atomic.AtomicBoolean
+
 import org.eclipse.smarthome.core.library.items.NumberItem
+import org.eclipse.smarthome.core.library.types.ArithmeticGroupFunction
+import org.eclipse.smarthome.core.library.types.DecimalType
 import org.eclipse.smarthome.core.library.items.SwitchItem
 import org.eclipse.smarthome.core.types.Command
 import org.eclipse.smarthome.core.types.RefreshType
@@ -67,6 +71,67 @@ class GroupItemTest {
         }
     }
 
+    @Test
+    void 'assert getAllMembers reflects changes of nested groups'() {
+        GroupItem rootGroupItem = new GroupItem("root")
+        GroupItem subGroup = new GroupItem("subGroup")
+        rootGroupItem.addMember(subGroup)
+        subGroup.addMember(new TestItem("member1"))
+        assertThat rootGroupItem.getAllMembers().size(), is(1)
+
+        def member2 = new TestItem("member2")
+        subGroup.addMember(member2)
+        assertThat rootGroupItem.getAllMembers().size(), is(2)
+
+        subGroup.removeMember(member2)
+        assertThat rootGroupItem.getAllMembers().size(), is(1)
+    }
+
+    @Test
+    void 'assert getAllMembers does not cache members collected during a concurrent change'() {
+        GroupItem rootGroupItem = new GroupItem("root")
+        GroupItem subGroup = new GroupItem("subGroup")
+        rootGroupItem.addMember(subGroup)
+
+        def stopped = new AtomicBoolean()
+        def readers = (1..2).collect {
+            Thread.start {
+                while (!stopped.get()) {
+                    rootGroupItem.getAllMembers()
+                }
+            }
+        }
+        try {
+            for (int i = 0; i < 10000; i++) {
+                def member = new TestItem("member" + i)
+                subGroup.addMember(member)
+                assertThat rootGroupItem.getAllMembers().contains(member), is(true)
+                subGroup.removeMember(member)
+                assertThat rootGroupItem.getAllMembers().contains(member), is(false)
+            }
+        } finally {
+            stopped.set(true)
+            readers*.join()
+        }
+    }
+
+    @Test
+    void 'assert incremental group function follows member changes'() {
+        GroupItem groupItem = new GroupItem("group", new NumberItem("base"), new ArithmeticGroupFunction.Sum())
+        def number1 = new NumberItem("number1")
+        def number2 = new NumberItem("number2")
+        groupItem.addMember(number1)
+        groupItem.addMember(number2)
+
+        number1.setState(new DecimalType(2))
+        number2.setState(new DecimalType(3))
+        assertThat groupItem.state, is(new DecimalType(5))
+
+        groupItem.removeMember(number2)
+        number1.setState(new DecimalType(4))
+        assertThat groupItem.state, is(new DecimalType(4))
+    }
+
     class TestItem extends GenericItem {
 
         public TestItem(String name) {
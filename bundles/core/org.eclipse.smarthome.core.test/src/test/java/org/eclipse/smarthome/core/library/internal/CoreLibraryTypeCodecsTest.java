@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeCodec;
+import org.eclipse.smarthome.core.types.TypeCodecRegistry;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class CoreLibraryTypeCodecsTest {
+
+    @BeforeClass
+    public static void registerCodecs() {
+        for (TypeCodec<?> codec : CoreLibraryTypeCodecs.createCodecs()) {
+            TypeCodecRegistry.register(codec);
+        }
+    }
+
+    @Test
+    public void parseValidValues() {
+        assertEquals(new DecimalType("12.5"), TypeCodecRegistry.getCodec(DecimalType.class).parse("12.5"));
+        assertEquals(new PercentType(100), TypeCodecRegistry.getCodec(PercentType.class).parse("100"));
+        assertEquals(new HSBType("120,100,50"), TypeCodecRegistry.getCodec(HSBType.class).parse("120,100,50"));
+        assertEquals(OnOffType.ON, TypeCodecRegistry.getCodec("OnOffType").parse("ON"));
+        assertEquals(UnDefType.NULL, TypeCodecRegistry.getCodec("UnDefType").parse("NULL"));
+    }
+
+    @Test
+    public void parsePointValuesLikeValueOf() {
+        TypeCodec<PointType> codec = TypeCodecRegistry.getCodec(PointType.class);
+        // PointType does not implement equals, so the points are compared by their string representation
+        assertEquals(PointType.valueOf("1.5,2.5").toString(), codec.parse("1.5,2.5").toString());
+        assertEquals(PointType.valueOf("1.5,2.5,10").toString(), codec.parse("1.5,2.5,10").toString());
+        // a value without coordinates is the default point
+        assertEquals(new PointType().toString(), codec.parse("5").toString());
+        assertNull(codec.parse("a,b"));
+    }
+
+    @Test
+    public void rejectInvalidValues() {
+        assertNull(TypeCodecRegistry.getCodec(DecimalType.class).parse("ON"));
+        assertNull(TypeCodecRegistry.getCodec(DecimalType.class).parse("1-"));
+        assertNull(TypeCodecRegistry.getCodec(PercentType.class).parse("100.2"));
+        assertNull(TypeCodecRegistry.getCodec(HSBType.class).parse("120,100"));
+        assertNull(TypeCodecRegistry.getCodec(OnOffType.class).parse("on"));
+    }
+
+    @Test
+    public void parseByAcceptedTypes() {
+        List<Class<? extends State>> stateTypes = Lists.<Class<? extends State>> newArrayList(UnDefType.class,
+                DecimalType.class, StringType.class);
+        assertEquals(UnDefType.UNDEF, TypeParser.parseState(stateTypes, "UNDEF"));
+        assertEquals(new DecimalType(3), TypeParser.parseState(stateTypes, "3"));
+        assertEquals(new StringType("three"), TypeParser.parseState(stateTypes, "three"));
+
+        List<Class<? extends Command>> commandTypes = Lists.<Class<? extends Command>> newArrayList(HSBType.class,
+                PercentType.class, OnOffType.class);
+        assertEquals(OnOffType.OFF, TypeParser.parseCommand(commandTypes, "OFF"));
+        assertEquals(new PercentType(50), TypeParser.parseCommand(commandTypes, "50"));
+        assertNull(TypeParser.parseCommand(commandTypes, "UP"));
+    }
+
+}
@@ -15,6 +15,8 @@ import java.util.Set;
 
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.GroupFunction;
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction.Aggregate;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.items.DimmerItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
@@ -201,6 +203,69 @@ public class ArithmeticGroupFunctionTest {
         assertEquals(new DecimalType("234.95"), state);
     }
 
+    @Test
+    public void testSumAggregate() {
+        TestItem item1 = new TestItem("TestItem1", new DecimalType("23.54"));
+        TestItem item2 = new TestItem("TestItem2", UnDefType.NULL);
+        items.add(item1);
+        items.add(item2);
+
+        IncrementalGroupFunction function = new ArithmeticGroupFunction.Sum();
+        Aggregate aggregate = function.createAggregate(items);
+        assertEquals(new DecimalType("23.54"), aggregate.getState());
+
+        item2.setState(new DecimalType("10"));
+        aggregate.update(item2);
+        assertEquals(new DecimalType("33.54"), aggregate.getState());
+
+        item1.setState(UnDefType.UNDEF);
+        aggregate.update(item1);
+        assertEquals(function.calculate(items), aggregate.getState());
+        assertEquals(new DecimalType("10"), aggregate.getState());
+    }
+
+    @Test
+    public void testMinMaxAggregate() {
+        TestItem item1 = new TestItem("TestItem1", new DecimalType("3"));
+        TestItem item2 = new TestItem("TestItem2", new DecimalType("7"));
+        TestItem item3 = new TestItem("TestItem3", new DecimalType("7"));
+        items.add(item1);
+        items.add(item2);
+        items.add(item3);
+
+        Aggregate min = new ArithmeticGroupFunction.Min().createAggregate(items);
+        Aggregate max = new ArithmeticGroupFunction.Max().createAggregate(items);
+        assertEquals(new DecimalType("3"), min.getState());
+        assertEquals(new DecimalType("7"), max.getState());
+
+        item1.setState(new DecimalType("8"));
+        item2.setState(UnDefType.UNDEF);
+        for (Item item : items) {
+            min.update(item);
+            max.update(item);
+        }
+        assertEquals(new DecimalType("7"), min.getState());
+        assertEquals(new DecimalType("8"), max.getState());
+    }
+
+    @Test
+    public void testNAndAggregate() {
+        TestItem item1 = new TestItem("TestItem1", OpenClosedType.OPEN);
+        TestItem item2 = new TestItem("TestItem2", OpenClosedType.OPEN);
+        items.add(item1);
+        items.add(item2);
+
+        IncrementalGroupFunction function = new ArithmeticGroupFunction.NAnd(OpenClosedType.OPEN,
+                OpenClosedType.CLOSED);
+        Aggregate aggregate = function.createAggregate(items);
+        assertEquals(OpenClosedType.CLOSED, aggregate.getState());
+
+        item2.setState(OpenClosedType.CLOSED);
+        aggregate.update(item2);
+        assertEquals(OpenClosedType.OPEN, aggregate.getState());
+        assertEquals(function.calculate(items), aggregate.getState());
+    }
+
     class TestItem extends GenericItem {
 
         public TestItem(String name, State state) {
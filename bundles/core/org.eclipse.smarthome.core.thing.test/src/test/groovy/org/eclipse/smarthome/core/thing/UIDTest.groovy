@@ -36,4 +36,21 @@ class UIDTest {
         assertThat channelUID.getId(), is("group#id")
         assertThat channelUID.getIdWithoutGroup(), is("id")
     }
+
+    @Test(expected=IllegalArgumentException)
+    void 'channel UID cannot be constructed with invalid characters'() {
+        new ChannelUID("binding:thing-type:thing:group#id.1")
+    }
+
+    @Test
+    void 'equal channel UIDs are interned to the same instance'() {
+        def thingUID = new ThingUID("binding:thing-type:thing")
+        def channelUID = new ChannelUID(thingUID, "id").intern()
+        def otherChannelUID = new ChannelUID("binding:thing-type:thing:id")
+        assertThat otherChannelUID, is(equalTo(channelUID))
+        assertThat otherChannelUID.hashCode(), is(channelUID.hashCode())
+        assertThat otherChannelUID.intern(), is(sameInstance(channelUID))
+        assertThat channelUID.toString(), is(sameInstance(channelUID.toString()))
+        assertThat channelUID.getThingUID(), is(equalTo(thingUID))
+    }
 }
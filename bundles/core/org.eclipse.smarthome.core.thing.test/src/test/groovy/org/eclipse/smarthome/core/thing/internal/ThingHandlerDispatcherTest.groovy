@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.thing.internal
+
+import static org.hamcrest.CoreMatchers.*
+import static org.junit.Assert.*
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.eclipse.smarthome.core.thing.ThingUID
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * {@link ThingHandlerDispatcherTest} tests the {@link ThingHandlerDispatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+class ThingHandlerDispatcherTest {
+
+    ExecutorService executor
+
+    ThingHandlerDispatcher dispatcher
+
+    @Before
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4)
+        dispatcher = new ThingHandlerDispatcher(executor)
+    }
+
+    @After
+    void tearDown() {
+        dispatcher.dispose()
+        executor.shutdownNow()
+    }
+
+    @Test
+    void 'ThingHandlerDispatcher executes the calls of a thing in order'() {
+        def thingUID = new ThingUID("binding:type:thing")
+        def calls = [].asSynchronized()
+        def latch = new CountDownLatch(100)
+
+        (0..<100).each { index ->
+            dispatcher.dispatch(thingUID, {
+                calls << index
+                latch.countDown()
+            } as Runnable)
+        }
+
+        assertThat latch.await(10, TimeUnit.SECONDS), is(true)
+        assertThat calls, is((0..<100).toList())
+        assertThat dispatcher.getMailboxDepth(thingUID), is(0)
+        assertThat dispatcher.getExecutedCalls(thingUID), is(100L)
+    }
+
+    @Test
+    void 'ThingHandlerDispatcher does not let a blocked thing delay other things'() {
+        def blockedThingUID = new ThingUID("binding:type:blocked")
+        def thingUID = new ThingUID("binding:type:thing")
+        def blocker = new CountDownLatch(1)
+        def called = new CountDownLatch(1)
+
+        dispatcher.dispatch(blockedThingUID, { blocker.await() } as Runnable)
+        dispatcher.dispatch(blockedThingUID, {} as Runnable)
+        dispatcher.dispatch(thingUID, { called.countDown() } as Runnable)
+
+        assertThat called.await(10, TimeUnit.SECONDS), is(true)
+        assertThat dispatcher.getMailboxDepth(blockedThingUID), is(1)
+        blocker.countDown()
+    }
+
+    @Test
+    void 'ThingHandlerDispatcher does not start the next call of a thing before a timed out call has returned'() {
+        def timeoutDispatcher = new ThingHandlerDispatcher(executor, 100)
+        def thingUID = new ThingUID("binding:type:thing")
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def interrupted = new AtomicInteger()
+        def calls = [].asSynchronized()
+        def latch = new CountDownLatch(2)
+
+        try {
+            timeoutDispatcher.dispatch(thingUID, {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()))
+                // exceeds the timeout and ignores the interrupt of the watchdog
+                long end = System.currentTimeMillis() + 500
+                while (System.currentTimeMillis() < end) {
+                    try {
+                        Thread.sleep(10)
+                    } catch (InterruptedException e) {
+                        interrupted.incrementAndGet()
+                    }
+                }
+                calls << "slow"
+                running.decrementAndGet()
+                latch.countDown()
+            } as Runnable)
+            timeoutDispatcher.dispatch(thingUID, {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()))
+                calls << "next"
+                running.decrementAndGet()
+                latch.countDown()
+            } as Runnable)
+
+            assertThat latch.await(10, TimeUnit.SECONDS), is(true)
+            assertThat calls, is(["slow", "next"])
+            assertThat maxRunning.get(), is(1)
+            assertThat interrupted.get(), is(1)
+        } finally {
+            timeoutDispatcher.dispose()
+        }
+    }
+
+    @Test
+    void 'ThingHandlerDispatcher limits the concurrency of a binding'() {
+        dispatcher.setMaxConcurrency("limited", 1)
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def latch = new CountDownLatch(30)
+
+        (0..<3).each { thing ->
+            def thingUID = new ThingUID("limited:type:thing" + thing)
+            (0..<10).each {
+                dispatcher.dispatch(thingUID, {
+                    maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()))
+                    Thread.sleep(1)
+                    running.decrementAndGet()
+                    latch.countDown()
+                } as Runnable)
+            }
+        }
+
+        assertThat latch.await(10, TimeUnit.SECONDS), is(true)
+        assertThat maxRunning.get(), is(1)
+    }
+
+    @Test
+    void 'ThingHandlerDispatcher applies the default limit to bindings without an own limit'() {
+        dispatcher.setDefaultMaxConcurrency(2)
+        def blocker = new CountDownLatch(1)
+        def started = new CountDownLatch(2)
+        def called = new CountDownLatch(1)
+
+        (0..<3).each { thing ->
+            dispatcher.dispatch(new ThingUID("limited:type:thing" + thing), {
+                started.countDown()
+                blocker.await()
+            } as Runnable)
+        }
+        dispatcher.dispatch(new ThingUID("other:type:thing"), { called.countDown() } as Runnable)
+
+        // the other binding still gets a worker
+        assertThat started.await(10, TimeUnit.SECONDS), is(true)
+        assertThat called.await(10, TimeUnit.SECONDS), is(true)
+        assertThat dispatcher.getMailboxDepth(new ThingUID("limited:type:thing2")), is(1)
+
+        blocker.countDown()
+    }
+}
@@ -153,7 +153,10 @@ class ThingLinkManagerOSGiTest extends OSGiTest{
 
     @Test
     void 'assert that existing things are linked'() {
-        def componentContext = [getBundleContext: {getBundleContext()}] as ComponentContext
+        def componentContext = [
+            getBundleContext: {getBundleContext()},
+            getProperties: { new Hashtable() }
+        ] as ComponentContext
         def thingManger = new ThingManager()
         try {
             ThingUID thingUID = new ThingUID("hue:lamp:lamp1")
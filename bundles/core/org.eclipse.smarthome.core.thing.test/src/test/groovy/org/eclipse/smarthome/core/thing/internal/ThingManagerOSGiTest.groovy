@@ -11,6 +11,7 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 import static org.junit.matchers.JUnitMatchers.*
 
+import org.eclipse.smarthome.config.core.Configuration
 import org.eclipse.smarthome.core.common.registry.RegistryChangeListener
 import org.eclipse.smarthome.core.events.Event
 import org.eclipse.smarthome.core.events.EventPublisher
@@ -223,6 +224,125 @@ class ThingManagerOSGiTest extends OSGiTest {
         waitForAssert { assertThat thingUpdatedWasCalled, is(true) }
     }
 
+    @Test
+    void 'ThingManager suppresses unchanged state updates and state updates within the deadband'() {
+
+        def itemName = "name"
+        def callback;
+
+        def configuration = new Configuration([
+            (StateUpdateCoalescer.CONFIG_DEADBAND): new BigDecimal(1),
+            (StateUpdateCoalescer.CONFIG_SUPPRESS_UNCHANGED): true
+        ])
+        def thing = ThingBuilder.create(THING_UID).withChannels([
+            new Channel(CHANNEL_UID, "Number", configuration)
+        ]).build()
+        managedThingProvider.add(thing)
+        managedItemChannelLinkProvider.add(new ItemChannelLink(itemName, CHANNEL_UID))
+        def thingHandler = [
+            setCallback: {callbackArg -> callback = callbackArg }
+        ] as ThingHandler
+
+        registerService(thingHandler,[
+            (ThingHandler.SERVICE_PROPERTY_THING_ID): thing.getUID(),
+            (ThingHandler.SERVICE_PROPERTY_THING_TYPE): thing.getThingTypeUID()
+        ] as Hashtable)
+
+        def receivedStates = [].asSynchronized()
+        def itemUpdateEventSubscriber = [
+            receive: { event -> receivedStates << (event as ItemStateEvent).getItemState() },
+            getSubscribedEventTypes: { Sets.newHashSet(ItemStateEvent.TYPE) },
+            getEventFilter: { new TopicEventFilter("smarthome/items/.*/state") },
+        ] as EventSubscriber
+        registerService(itemUpdateEventSubscriber)
+
+        def thingManager = getService(EventSubscriber, ThingManager)
+        def forwardedStateUpdates = thingManager.getForwardedStateUpdates()
+        def suppressedStateUpdates = thingManager.getSuppressedStateUpdates()
+
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(10))
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(10))
+        callback.stateUpdated(CHANNEL_UID, new DecimalType("10.5"))
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(12))
+
+        waitForAssert { assertThat receivedStates.size(), is(2) }
+        assertThat receivedStates, is([
+            new DecimalType(10),
+            new DecimalType(12)
+        ])
+        assertThat thingManager.getForwardedStateUpdates() - forwardedStateUpdates, is(2L)
+        assertThat thingManager.getSuppressedStateUpdates() - suppressedStateUpdates, is(2L)
+    }
+
+    @Test
+    void 'ThingManager coalesces state updates within the window and drops pending updates on thing updates'() {
+
+        def itemName = "name"
+        def window = 1000
+        def callback;
+
+        def configuration = new Configuration([
+            (StateUpdateCoalescer.CONFIG_WINDOW): new BigDecimal(window)
+        ])
+        def thing = ThingBuilder.create(THING_UID).withChannels([
+            new Channel(CHANNEL_UID, "Number", configuration)
+        ]).build()
+        managedThingProvider.add(thing)
+        managedItemChannelLinkProvider.add(new ItemChannelLink(itemName, CHANNEL_UID))
+        def thingHandler = [
+            setCallback: {callbackArg -> callback = callbackArg }
+        ] as ThingHandler
+
+        registerService(thingHandler,[
+            (ThingHandler.SERVICE_PROPERTY_THING_ID): thing.getUID(),
+            (ThingHandler.SERVICE_PROPERTY_THING_TYPE): thing.getThingTypeUID()
+        ] as Hashtable)
+
+        def receivedStates = [].asSynchronized()
+        def receiveTimes = [].asSynchronized()
+        def itemUpdateEventSubscriber = [
+            receive: { event ->
+                receiveTimes << System.currentTimeMillis()
+                receivedStates << (event as ItemStateEvent).getItemState()
+            },
+            getSubscribedEventTypes: { Sets.newHashSet(ItemStateEvent.TYPE) },
+            getEventFilter: { new TopicEventFilter("smarthome/items/.*/state") },
+        ] as EventSubscriber
+        registerService(itemUpdateEventSubscriber)
+
+        def thingManager = getService(EventSubscriber, ThingManager)
+        def forwardedStateUpdates = thingManager.getForwardedStateUpdates()
+        def coalescedStateUpdates = thingManager.getCoalescedStateUpdates()
+
+        // the first update is forwarded immediately, the latest update within the window at its end
+        long start = System.currentTimeMillis()
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(10))
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(11))
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(12))
+
+        waitForAssert { assertThat receivedStates.size(), is(2) }
+        assertThat receivedStates, is([
+            new DecimalType(10),
+            new DecimalType(12)
+        ])
+        assertThat receiveTimes[1] - start >= window - 50, is(true)
+        assertThat thingManager.getForwardedStateUpdates() - forwardedStateUpdates, is(2L)
+        assertThat thingManager.getCoalescedStateUpdates() - coalescedStateUpdates, is(1L)
+
+        // a pending update is dropped, if the thing is updated
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(13))
+        managedThingProvider.update(ThingBuilder.create(THING_UID).withChannels([
+            new Channel(CHANNEL_UID, "Number", configuration)
+        ]).build())
+        Thread.sleep(window + 500)
+        assertThat receivedStates.size(), is(2)
+
+        // the channel starts with a new window
+        callback.stateUpdated(CHANNEL_UID, new DecimalType(14))
+        waitForAssert { assertThat receivedStates.size(), is(3) }
+        assertThat receivedStates[2], is(new DecimalType(14))
+    }
+
     @Test
     void 'ThingManager handles post command correctly'() {
 
@@ -93,6 +93,18 @@ class ItemChannelLinkOSGiTest extends OSGiTest {
         assertThat boundThings.isEmpty(), is(true)
     }
 
+    @Test
+    void 'assert link indexes are updated on add and remove'() {
+        managedItemChannelLinkProvider.add ITEM_CHANNEL_LINK
+        assertThat itemChannelLinkRegistry.getLinkedItems(CHANNEL_UID), is([ "item" ] as Set)
+        assertThat itemChannelLinkRegistry.getLinks(CHANNEL_UID.getThingUID()), is([ ITEM_CHANNEL_LINK ] as Set)
+
+        managedItemChannelLinkProvider.remove(ITEM_CHANNEL_LINK.getID())
+        assertThat itemChannelLinkRegistry.getLinkedItems(CHANNEL_UID).isEmpty(), is(true)
+        assertThat itemChannelLinkRegistry.getBoundChannels("item").isEmpty(), is(true)
+        assertThat itemChannelLinkRegistry.getLinks(CHANNEL_UID.getThingUID()).isEmpty(), is(true)
+    }
+
     @Test
     void 'assert getBoundThings returns thing'() {
         managedItemChannelLinkProvider.add ITEM_CHANNEL_LINK
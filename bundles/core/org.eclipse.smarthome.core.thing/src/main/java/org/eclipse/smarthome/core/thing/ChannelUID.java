@@ -11,17 +11,26 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 /**
  * {@link ChannelUID} represents a unique identifier for channels.
  *
  * @author Oliver Libutzki - Initital contribution
  * @author Jochen Hiller - Bugfix 455434: added default constructor
  * @author Dennis Nobel - Added channel group id
+ * @author agent - Added intern pool and cached thing UID
  */
 public class ChannelUID extends UID {
 
     private static final String CHANNEL_GROUP_SEPERATOR = "#";
 
+    private static final Interner<ChannelUID> INTERNER = Interners.newWeakInterner();
+
+    /** the thing UID, which is computed on first use */
+    private transient ThingUID thingUID;
+
     /**
      * Default constructor in package scope only. Will allow to instantiate this
      * class by reflection. Not intended to be used for normal instantiation.
@@ -192,7 +201,7 @@ public class ChannelUID extends UID {
         if (index < length - 1) {
             super.validateSegment(segment, index, length);
         } else {
-            if (!segment.matches("[A-Za-z0-9_#-]*")) {
+            if (!isValidSegment(segment, true)) {
                 throw new IllegalArgumentException(
                         "UID segment '"
                                 + segment
@@ -207,7 +216,12 @@ public class ChannelUID extends UID {
      * @return the thing UID
      */
     public ThingUID getThingUID() {
-        return new ThingUID(Arrays.copyOfRange(getSegments(), 0, getSegments().length - 1));
+        ThingUID result = thingUID;
+        if (result == null) {
+            result = new ThingUID(Arrays.copyOfRange(getSegments(), 0, getSegments().length - 1));
+            thingUID = result;
+        }
+        return result;
     }
 
     /**
@@ -219,4 +233,15 @@ public class ChannelUID extends UID {
         String[] segments = getSegments();
         return new ThingTypeUID(segments[0], segments[1]);
     }
+
+    /**
+     * Returns a canonical instance of this channel UID. Equal channel UIDs share the same instance, so that its string
+     * representation and hash code are only computed once. The pool does not prevent unused instances from being
+     * garbage collected.
+     *
+     * @return the canonical channel UID, which is equal to this channel UID
+     */
+    public ChannelUID intern() {
+        return INTERNER.intern(this);
+    }
 }
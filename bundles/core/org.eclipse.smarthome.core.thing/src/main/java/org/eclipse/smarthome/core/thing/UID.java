@@ -9,8 +9,6 @@ package org.eclipse.smarthome.core.thing;
 
 import java.util.Arrays;
 
-import com.google.common.base.Joiner;
-
 /**
  * {@link UID} is the base class for unique identifiers within the SmartHome
  * framework. A UID must always start with a binding ID.
@@ -18,6 +16,7 @@ import com.google.common.base.Joiner;
  * @author Dennis Nobel - Initial contribution
  * @author Oliver Libutzki - Added possibility to define UIDs with variable amount of segments
  * @author Jochen Hiller - Bugfix 455434: added default constructor, object is now mutable
+ * @author agent - Cached string representation and hash code
  */
 public abstract class UID {
 
@@ -25,6 +24,12 @@ public abstract class UID {
     public static final String SEPARATOR = ":";
     private String[] segments;
 
+    /** the string representation, which is computed on first use, as the segments may be set by reflection */
+    private transient String asString;
+
+    /** the hash code, 0 if it has not been computed yet */
+    private transient int hashCode;
+
     /**
      * Default constructor in package scope only. Will allow to instantiate this
      * class by reflection. Not intended to be used for normal instantiation.
@@ -88,12 +93,30 @@ public abstract class UID {
     }
 
     protected void validateSegment(String segment, int index, int length) {
-        if (!segment.matches(SEGMENT_PATTERN)) {
+        if (!isValidSegment(segment, false)) {
             throw new IllegalArgumentException("UID segment '" + segment
                     + "' contains invalid characters. Each segment of the UID must match the pattern [A-Za-z0-9_-]*.");
         }
     }
 
+    /**
+     * Checks whether the given segment matches the {@link #SEGMENT_PATTERN} without using a regular expression.
+     *
+     * @param segment the segment
+     * @param allowGroupSeparator true, if the segment may also contain '#'
+     * @return true, if the segment is valid
+     */
+    static boolean isValidSegment(String segment, boolean allowGroupSeparator) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-'
+                    || (c == '#' && allowGroupSeparator))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the binding id.
      *
@@ -109,14 +132,30 @@ public abstract class UID {
     }
 
     public String getAsString() {
-        return Joiner.on(SEPARATOR).join(segments);
+        String result = asString;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < segments.length; i++) {
+                if (i > 0) {
+                    builder.append(SEPARATOR);
+                }
+                builder.append(segments[i]);
+            }
+            result = builder.toString();
+            asString = result;
+        }
+        return result;
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Arrays.hashCode(segments);
+        int result = hashCode;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + Arrays.hashCode(segments);
+            hashCode = result;
+        }
         return result;
     }
 
@@ -129,6 +168,8 @@ public abstract class UID {
         if (getClass() != obj.getClass())
             return false;
         UID other = (UID) obj;
+        if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode)
+            return false;
         if (!Arrays.equals(segments, other.segments))
             return false;
         return true;
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.thing.internal;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.types.ComplexType;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link StateUpdateCoalescer} reduces the state updates of chatty channels, before they are posted as item state
+ * events. It is configured by the following parameters of the channel configuration, which can be defaulted by the
+ * config description of the channel type:
+ * <ul>
+ * <li>{@value #CONFIG_WINDOW}: the minimum time in milliseconds between two forwarded updates. Updates within the
+ * window are coalesced, the latest one is forwarded at the end of the window.</li>
+ * <li>{@value #CONFIG_DEADBAND}: plain numeric updates (i.e. no colors), which differ less than the deadband from the
+ * last forwarded update, are suppressed.</li>
+ * <li>{@value #CONFIG_SUPPRESS_UNCHANGED}: if <code>true</code>, updates, which are equal to the last forwarded update,
+ * are suppressed.</li>
+ * </ul>
+ * Updates of channels without these parameters are forwarded immediately.
+ *
+ * @author agent - Initial contribution
+ */
+public class StateUpdateCoalescer {
+
+    public static final String CONFIG_WINDOW = "stateUpdateWindow";
+
+    public static final String CONFIG_DEADBAND = "stateUpdateDeadband";
+
+    public static final String CONFIG_SUPPRESS_UNCHANGED = "stateUpdateSuppressUnchanged";
+
+    /**
+     * The {@link Forwarder} posts the state updates, which have passed the coalescer.
+     */
+    public interface Forwarder {
+
+        /**
+         * Forwards a state update.
+         *
+         * @param channelUID the channel
+         * @param state the state
+         */
+        void forward(ChannelUID channelUID, State state);
+
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(StateUpdateCoalescer.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Forwarder forwarder;
+
+    private final ConcurrentMap<ChannelUID, ChannelCoalescer> channels = new ConcurrentHashMap<>();
+
+    private final AtomicLong forwardedUpdates = new AtomicLong();
+
+    private final AtomicLong suppressedUpdates = new AtomicLong();
+
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+
+    /** the marker of channels, whose updates are forwarded immediately */
+    private final ChannelCoalescer passThrough = new ChannelCoalescer(null, 0, null, false);
+
+    /**
+     * Creates a new coalescer.
+     *
+     * @param scheduler the scheduler, which forwards the coalesced updates at the end of a window
+     * @param forwarder the forwarder of the updates
+     */
+    public StateUpdateCoalescer(ScheduledExecutorService scheduler, Forwarder forwarder) {
+        this.scheduler = scheduler;
+        this.forwarder = forwarder;
+    }
+
+    /**
+     * Passes a state update of a channel through the coalescer.
+     *
+     * @param channelUID the channel
+     * @param state the state
+     * @param channel the channel definition, which is only used, if the channel is not known yet (can be null)
+     */
+    public void stateUpdated(ChannelUID channelUID, State state, Channel channel) {
+        ChannelCoalescer channelCoalescer = channels.get(channelUID);
+        if (channelCoalescer == null) {
+            channelCoalescer = createChannelCoalescer(channelUID, channel);
+            ChannelCoalescer existing = channels.putIfAbsent(channelUID, channelCoalescer);
+            if (existing != null) {
+                channelCoalescer = existing;
+            }
+        }
+        if (channelCoalescer == passThrough) {
+            forward(channelUID, state);
+        } else {
+            channelCoalescer.stateUpdated(state);
+        }
+    }
+
+    /**
+     * Returns true, if the channel is not known yet, so that its next update must pass the channel definition.
+     *
+     * @param channelUID the channel
+     * @return true, if the channel is not known yet
+     */
+    public boolean isUnknown(ChannelUID channelUID) {
+        return !channels.containsKey(channelUID);
+    }
+
+    /**
+     * Forgets the channels of a thing, e.g. because its configuration has been changed. Pending updates are dropped.
+     *
+     * @param thingUID the thing
+     */
+    public void removeChannels(ThingUID thingUID) {
+        Iterator<ChannelUID> iterator = channels.keySet().iterator();
+        while (iterator.hasNext()) {
+            ChannelUID channelUID = iterator.next();
+            if (channelUID.getThingUID().equals(thingUID)) {
+                ChannelCoalescer channelCoalescer = channels.remove(channelUID);
+                if (channelCoalescer != null) {
+                    channelCoalescer.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all pending updates and forgets all channels.
+     */
+    public void dispose() {
+        for (ChannelCoalescer channelCoalescer : channels.values()) {
+            channelCoalescer.cancel();
+        }
+        channels.clear();
+    }
+
+    /**
+     * Returns the number of state updates, which have been forwarded.
+     *
+     * @return the number of forwarded updates
+     */
+    public long getForwardedUpdates() {
+        return forwardedUpdates.get();
+    }
+
+    /**
+     * Returns the number of state updates, which have been suppressed because they were unchanged or within the
+     * deadband.
+     *
+     * @return the number of suppressed updates
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates.get();
+    }
+
+    /**
+     * Returns the number of state updates, which have been replaced by a later update within the same window.
+     *
+     * @return the number of coalesced updates
+     */
+    public long getCoalescedUpdates() {
+        return coalescedUpdates.get();
+    }
+
+    private void forward(ChannelUID channelUID, State state) {
+        forwardedUpdates.incrementAndGet();
+        forwarder.forward(channelUID, state);
+    }
+
+    private ChannelCoalescer createChannelCoalescer(ChannelUID channelUID, Channel channel) {
+        Configuration configuration = channel != null ? channel.getConfiguration() : null;
+        if (configuration == null) {
+            return passThrough;
+        }
+        long window = 0;
+        BigDecimal deadband = null;
+        boolean suppressUnchanged = false;
+        try {
+            Object value = configuration.get(CONFIG_WINDOW);
+            if (value != null) {
+                window = new BigDecimal(value.toString()).longValue();
+            }
+            value = configuration.get(CONFIG_DEADBAND);
+            if (value != null) {
+                deadband = new BigDecimal(value.toString()).abs();
+                if (deadband.signum() == 0) {
+                    deadband = null;
+                }
+            }
+            value = configuration.get(CONFIG_SUPPRESS_UNCHANGED);
+            if (value != null) {
+                suppressUnchanged = Boolean.parseBoolean(value.toString());
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid state update configuration of channel '{}': {}", channelUID, e.getMessage());
+            return passThrough;
+        }
+        if (window <= 0 && deadband == null && !suppressUnchanged) {
+            return passThrough;
+        }
+        return new ChannelCoalescer(channelUID, window, deadband, suppressUnchanged);
+    }
+
+    /**
+     * Coalesces the state updates of a single channel.
+     */
+    private class ChannelCoalescer implements Runnable {
+
+        private final ChannelUID channelUID;
+
+        private final long window;
+
+        private final BigDecimal deadband;
+
+        private final boolean suppressUnchanged;
+
+        /** the last forwarded state, guarded by this */
+        private State lastState;
+
+        /** the time of the last forwarded update in nanoseconds, guarded by this */
+        private long lastTime;
+
+        /** the state, which is forwarded at the end of the window, guarded by this */
+        private State pendingState;
+
+        /** the scheduled forwarding of the pending state, guarded by this */
+        private ScheduledFuture<?> pendingFuture;
+
+        private ChannelCoalescer(ChannelUID channelUID, long window, BigDecimal deadband, boolean suppressUnchanged) {
+            this.channelUID = channelUID;
+            this.window = window;
+            this.deadband = deadband;
+            this.suppressUnchanged = suppressUnchanged;
+        }
+
+        private synchronized void stateUpdated(State state) {
+            if (pendingFuture != null) {
+                // latest value wins
+                pendingState = state;
+                coalescedUpdates.incrementAndGet();
+                return;
+            }
+            if (isSuppressed(state)) {
+                suppressedUpdates.incrementAndGet();
+                return;
+            }
+            long now = System.nanoTime();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(now - lastTime);
+            if (window <= 0 || lastState == null || elapsed >= window) {
+                forwardState(state, now);
+            } else {
+                pendingState = state;
+                try {
+                    pendingFuture = scheduler.schedule(this, window - elapsed, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    forwardState(state, now);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void run() {
+            if (pendingFuture == null) {
+                // cancelled meanwhile
+                return;
+            }
+            pendingFuture = null;
+            State state = pendingState;
+            pendingState = null;
+            if (isSuppressed(state)) {
+                suppressedUpdates.incrementAndGet();
+            } else {
+                forwardState(state, System.nanoTime());
+            }
+        }
+
+        private synchronized void cancel() {
+            if (pendingFuture != null) {
+                pendingFuture.cancel(false);
+                pendingFuture = null;
+                pendingState = null;
+            }
+        }
+
+        private void forwardState(State state, long now) {
+            lastState = state;
+            lastTime = now;
+            forward(channelUID, state);
+        }
+
+        private boolean isSuppressed(State state) {
+            if (lastState == null) {
+                return false;
+            }
+            if (suppressUnchanged && state.equals(lastState)) {
+                return true;
+            }
+            // complex decimals like HSBType have further components, which the deadband does not cover
+            if (deadband != null && state instanceof DecimalType && !(state instanceof ComplexType)
+                    && state.getClass() == lastState.getClass()) {
+                BigDecimal difference = ((DecimalType) state).toBigDecimal()
+                        .subtract(((DecimalType) lastState).toBigDecimal()).abs();
+                return difference.compareTo(deadband) < 0;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,438 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.thing.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.SafeMethodCaller;
+import org.eclipse.smarthome.core.common.SafeMethodCaller.ActionWithException;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ThingHandlerDispatcher} calls {@link ThingHandler}s asynchronously. Each thing has a mailbox, whose calls
+ * are executed in the order they have been dispatched. The mailboxes are drained by the workers of a shared executor,
+ * so that the calls of different things are executed in parallel and a slow handler only delays the calls of its own
+ * thing.
+ *
+ * The number of mailboxes of a binding, which are drained at the same time, can be limited, so that a single binding
+ * cannot occupy all workers. The calls are executed in the worker thread and their timeout is supervised by the
+ * watchdog of the {@link SafeMethodCaller}, which interrupts a handler exceeding it. The next call of a thing is not
+ * started before the previous one has returned, even if it exceeded the timeout.
+ *
+ * @author agent - Initial contribution
+ */
+public class ThingHandlerDispatcher {
+
+    /** the maximum number of calls a worker executes for a thing, before it lets other things take their turn */
+    private static final int BATCH_SIZE = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(ThingHandlerDispatcher.class);
+
+    private final Executor executor;
+
+    private final int timeout;
+
+    private final ConcurrentMap<ThingUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /** the maximum number of concurrently drained mailboxes by binding id, guarded by bindings */
+    private final Map<String, Integer> maxConcurrency = new HashMap<>();
+
+    /** the limit of bindings without an own limit, 0 for no limit, guarded by bindings */
+    private int defaultMaxConcurrency = 0;
+
+    /** the drained and waiting mailboxes by binding id, guarded by itself */
+    private final Map<String, BindingMailboxes> bindings = new HashMap<>();
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param executor the executor, which drains the mailboxes (must not be null and should not reject tasks)
+     */
+    public ThingHandlerDispatcher(Executor executor) {
+        this(executor, SafeMethodCaller.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param executor the executor, which drains the mailboxes (must not be null and should not reject tasks)
+     * @param timeout the timeout of a call in milliseconds
+     */
+    public ThingHandlerDispatcher(Executor executor, int timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Dispatches a call of the handler of a thing. The call is executed after all calls, which have been dispatched
+     * for the same thing before.
+     *
+     * @param thingUID the thing
+     * @param call the call of the handler
+     */
+    public void dispatch(ThingUID thingUID, Runnable call) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        if (mailbox == null) {
+            mailbox = new Mailbox(thingUID);
+            Mailbox existing = mailboxes.putIfAbsent(thingUID, mailbox);
+            if (existing != null) {
+                mailbox = existing;
+            }
+        }
+        if (mailbox.add(call)) {
+            schedule(mailbox);
+        }
+    }
+
+    /**
+     * Discards the pending calls of a thing, e.g. because its handler has been removed. A call, which is currently
+     * executed, is not interrupted.
+     *
+     * @param thingUID the thing
+     */
+    public void remove(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.remove(thingUID);
+        if (mailbox != null) {
+            mailbox.clear();
+        }
+    }
+
+    /**
+     * Discards the pending calls of all things.
+     */
+    public void dispose() {
+        for (ThingUID thingUID : mailboxes.keySet()) {
+            remove(thingUID);
+        }
+    }
+
+    /**
+     * Sets the maximum number of things of a binding, whose calls are executed at the same time.
+     *
+     * @param bindingId the binding id
+     * @param concurrency the maximum number of things, 0 for the default limit
+     */
+    public void setMaxConcurrency(String bindingId, int concurrency) {
+        List<Mailbox> ready;
+        synchronized (bindings) {
+            if (concurrency > 0) {
+                maxConcurrency.put(bindingId, concurrency);
+            } else {
+                maxConcurrency.remove(bindingId);
+            }
+            ready = pollReady(bindingId);
+        }
+        execute(ready);
+    }
+
+    /**
+     * Sets the maximum number of things of a binding without an own limit, whose calls are executed at the same time.
+     *
+     * @param concurrency the maximum number of things, 0 for no limit
+     */
+    public void setDefaultMaxConcurrency(int concurrency) {
+        List<Mailbox> ready = new ArrayList<>();
+        synchronized (bindings) {
+            defaultMaxConcurrency = Math.max(concurrency, 0);
+            for (String bindingId : bindings.keySet()) {
+                ready.addAll(pollReady(bindingId));
+            }
+        }
+        execute(ready);
+    }
+
+    /**
+     * Removes the limits of all bindings, so that the default limit applies to them.
+     */
+    public void clearMaxConcurrency() {
+        List<Mailbox> ready = new ArrayList<>();
+        synchronized (bindings) {
+            maxConcurrency.clear();
+            for (String bindingId : bindings.keySet()) {
+                ready.addAll(pollReady(bindingId));
+            }
+        }
+        execute(ready);
+    }
+
+    /**
+     * Returns the number of pending calls of a thing.
+     *
+     * @param thingUID the thing
+     * @return the number of pending calls
+     */
+    public int getMailboxDepth(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        return mailbox == null ? 0 : mailbox.getDepth();
+    }
+
+    /**
+     * Returns the number of calls of a thing, which have been executed.
+     *
+     * @param thingUID the thing
+     * @return the number of executed calls
+     */
+    public long getExecutedCalls(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        return mailbox == null ? 0 : mailbox.executedCalls.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds a call of a thing waited in its mailbox.
+     *
+     * @param thingUID the thing
+     * @return the average queue latency in milliseconds
+     */
+    public double getAverageQueueLatency(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        return mailbox == null ? 0 : average(mailbox.totalWaitTime.get(), mailbox.executedCalls.get());
+    }
+
+    /**
+     * Returns the average time in milliseconds the handler of a thing took to execute a call.
+     *
+     * @param thingUID the thing
+     * @return the average handler latency in milliseconds
+     */
+    public double getAverageHandlerLatency(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        return mailbox == null ? 0 : average(mailbox.totalProcessingTime.get(), mailbox.executedCalls.get());
+    }
+
+    /**
+     * Returns the maximum time in milliseconds the handler of a thing took to execute a call.
+     *
+     * @param thingUID the thing
+     * @return the maximum handler latency in milliseconds
+     */
+    public double getMaxHandlerLatency(ThingUID thingUID) {
+        Mailbox mailbox = mailboxes.get(thingUID);
+        return mailbox == null ? 0 : mailbox.maxProcessingTime / 1000000.0;
+    }
+
+    private static double average(long totalTime, long calls) {
+        return calls == 0 ? 0 : totalTime / (calls * 1000000.0);
+    }
+
+    private void schedule(Mailbox mailbox) {
+        List<Mailbox> ready;
+        synchronized (bindings) {
+            getBindingMailboxes(mailbox.bindingId).waiting.add(mailbox);
+            ready = pollReady(mailbox.bindingId);
+        }
+        execute(ready);
+    }
+
+    private void release(Mailbox mailbox, boolean pending) {
+        List<Mailbox> ready;
+        synchronized (bindings) {
+            BindingMailboxes bindingMailboxes = getBindingMailboxes(mailbox.bindingId);
+            bindingMailboxes.running--;
+            if (pending) {
+                bindingMailboxes.waiting.add(mailbox);
+            }
+            ready = pollReady(mailbox.bindingId);
+        }
+        execute(ready);
+    }
+
+    /**
+     * Returns the waiting mailboxes of a binding, which can be drained within its concurrency limit. Must be called
+     * while holding the lock of bindings.
+     */
+    private List<Mailbox> pollReady(String bindingId) {
+        BindingMailboxes bindingMailboxes = bindings.get(bindingId);
+        if (bindingMailboxes == null || bindingMailboxes.waiting.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Integer limit = maxConcurrency.get(bindingId);
+        if (limit == null) {
+            limit = defaultMaxConcurrency;
+        }
+        List<Mailbox> ready = new ArrayList<>();
+        while (!bindingMailboxes.waiting.isEmpty() && (limit == 0 || bindingMailboxes.running < limit)) {
+            ready.add(bindingMailboxes.waiting.poll());
+            bindingMailboxes.running++;
+        }
+        return ready;
+    }
+
+    private BindingMailboxes getBindingMailboxes(String bindingId) {
+        BindingMailboxes bindingMailboxes = bindings.get(bindingId);
+        if (bindingMailboxes == null) {
+            bindingMailboxes = new BindingMailboxes();
+            bindings.put(bindingId, bindingMailboxes);
+        }
+        return bindingMailboxes;
+    }
+
+    private void execute(List<Mailbox> ready) {
+        for (Mailbox mailbox : ready) {
+            try {
+                executor.execute(mailbox);
+            } catch (RejectedExecutionException e) {
+                logger.warn("Could not execute the pending calls of the handler of thing '{}'.", mailbox.thingUID);
+                mailbox.discard();
+                release(mailbox, false);
+            }
+        }
+    }
+
+    private static class BindingMailboxes {
+
+        /** the number of mailboxes, which are drained at the moment */
+        private int running = 0;
+
+        /** the mailboxes, which wait for a worker */
+        private final Deque<Mailbox> waiting = new ArrayDeque<>();
+
+    }
+
+    private static class Call {
+
+        private final Runnable runnable;
+
+        private final long enqueueTime;
+
+        private Call(Runnable runnable, long enqueueTime) {
+            this.runnable = runnable;
+            this.enqueueTime = enqueueTime;
+        }
+
+    }
+
+    /**
+     * The calls of the handler of a single thing.
+     */
+    private class Mailbox implements Runnable {
+
+        private final ThingUID thingUID;
+
+        private final String bindingId;
+
+        /** the pending calls, guarded by itself */
+        private final Deque<Call> calls = new ArrayDeque<>();
+
+        /** true, if the mailbox is drained or waits for a worker, guarded by calls */
+        private boolean scheduled = false;
+
+        private final AtomicLong executedCalls = new AtomicLong();
+
+        private final AtomicLong totalWaitTime = new AtomicLong();
+
+        private final AtomicLong totalProcessingTime = new AtomicLong();
+
+        private volatile long maxProcessingTime = 0;
+
+        private Mailbox(ThingUID thingUID) {
+            this.thingUID = thingUID;
+            this.bindingId = thingUID.getBindingId();
+        }
+
+        /**
+         * Adds a call and returns true, if the mailbox must be scheduled.
+         */
+        private boolean add(Runnable runnable) {
+            synchronized (calls) {
+                calls.add(new Call(runnable, System.nanoTime()));
+                if (scheduled) {
+                    return false;
+                }
+                scheduled = true;
+                return true;
+            }
+        }
+
+        private void clear() {
+            synchronized (calls) {
+                calls.clear();
+            }
+        }
+
+        /**
+         * Discards the pending calls of a mailbox, which cannot be drained.
+         */
+        private void discard() {
+            synchronized (calls) {
+                calls.clear();
+                scheduled = false;
+            }
+        }
+
+        private int getDepth() {
+            synchronized (calls) {
+                return calls.size();
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean pending = true;
+            for (int i = 0; i < BATCH_SIZE && pending; i++) {
+                Call call;
+                synchronized (calls) {
+                    call = calls.poll();
+                }
+                if (call != null) {
+                    executeCall(call);
+                }
+                synchronized (calls) {
+                    if (calls.isEmpty()) {
+                        scheduled = false;
+                        pending = false;
+                    }
+                }
+            }
+            release(this, pending);
+        }
+
+        private void executeCall(final Call call) {
+            long startTime = System.nanoTime();
+            totalWaitTime.addAndGet(startTime - call.enqueueTime);
+            try {
+                SafeMethodCaller.callSynchronously(new ActionWithException<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        call.runnable.run();
+                        return null;
+                    }
+                }, timeout);
+            } catch (TimeoutException e) {
+                logger.warn("Handler for thing '{}' took more than {}ms for processing event",
+                        thingUID, timeout);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                logger.error("Exception occured while calling handler: " + cause.getMessage(), cause);
+            }
+            long processingTime = System.nanoTime() - startTime;
+            executedCalls.incrementAndGet();
+            totalProcessingTime.addAndGet(processingTime);
+            if (processingTime > maxProcessingTime) {
+                maxProcessingTime = processingTime;
+            }
+        }
+
+    }
+
+}
@@ -379,11 +379,7 @@ public class ThingLinkManager {
     }
 
     private String getFirstLinkedItem(UID uid) {
-        for (ItemThingLink link : itemThingLinkRegistry.getAll()) {
-            if (link.getUID().equals(uid)) {
-                return link.getItemName();
-            }
-        }
-        return null;
+        Set<String> linkedItems = itemThingLinkRegistry.getLinkedItems(uid);
+        return linkedItems.isEmpty() ? null : linkedItems.iterator().next();
     }
 }
@@ -9,9 +9,13 @@ package org.eclipse.smarthome.core.thing.internal;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -28,6 +32,7 @@ import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ManagedThingProvider;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -66,11 +71,25 @@ import org.slf4j.LoggerFactory;
  * @author Michael Grammling - Added dynamic configuration update
  * @author Stefan Bußweiler - Added new thing status handling, migration to new event mechanism
  * @author Simon Kaufmann - Added remove handling
+ * @author agent - Added coalescing of state updates, dispatching of handler calls by thing
  */
 public class ThingManager extends AbstractItemEventSubscriber implements ThingTracker {
 
     private static final String FORCEREMOVE_THREADPOOL_NAME = "forceRemove";
 
+    private static final String THING_MANAGER_THREADPOOL_NAME = "thingManager";
+
+    private static final String THING_HANDLER_THREADPOOL_NAME = "thingHandler";
+
+    /** the prefix of the configuration properties, which limit the concurrency of a binding */
+    private static final String MAX_CONCURRENCY_PREFIX = "maxConcurrency.";
+
+    /** the configuration property, which limits the concurrency of bindings without an own limit */
+    private static final String DEFAULT_MAX_CONCURRENCY_PROPERTY = "defaultMaxConcurrency";
+
+    /** the default concurrency limit of a binding, below the default size of the thing handler pool */
+    private static final int DEFAULT_MAX_CONCURRENCY = 3;
+
     private final class ThingHandlerTracker extends ServiceTracker<ThingHandler, ThingHandler> {
 
         public ThingHandlerTracker(BundleContext context) {
@@ -129,21 +148,49 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
 
     private ThingHandlerTracker thingHandlerTracker;
 
+    private final ThingHandlerDispatcher thingHandlerDispatcher = new ThingHandlerDispatcher(
+            ThreadPoolManager.getScheduledPool(THING_HANDLER_THREADPOOL_NAME));
+
+    private final StateUpdateCoalescer stateUpdateCoalescer = new StateUpdateCoalescer(
+            ThreadPoolManager.getScheduledPool(THING_MANAGER_THREADPOOL_NAME), new StateUpdateCoalescer.Forwarder() {
+
+                @Override
+                public void forward(ChannelUID channelUID, State state) {
+                    Set<String> items = itemChannelLinkRegistry.getLinkedItems(channelUID);
+                    if (!items.isEmpty()) {
+                        String source = channelUID.intern().toString();
+                        for (String item : items) {
+                            eventPublisher.post(ItemEventFactory.createStateEvent(item, state, source));
+                        }
+                    }
+                }
+            });
+
     private ThingHandlerCallback thingHandlerCallback = new ThingHandlerCallback() {
 
         @Override
         public void stateUpdated(ChannelUID channelUID, State state) {
-            Set<String> items = itemChannelLinkRegistry.getLinkedItems(channelUID);
-            for (String item : items) {
-                eventPublisher.post(ItemEventFactory.createStateEvent(item, state, channelUID.toString()));
+            if (itemChannelLinkRegistry.getLinkedItems(channelUID).isEmpty()) {
+                return;
             }
+            Channel channel = null;
+            if (stateUpdateCoalescer.isUnknown(channelUID)) {
+                Thing thing = getThing(channelUID.getThingUID());
+                if (thing != null) {
+                    channel = thing.getChannel(channelUID.getId());
+                }
+            }
+            stateUpdateCoalescer.stateUpdated(channelUID, state, channel);
         }
 
         @Override
         public void postCommand(ChannelUID channelUID, Command command) {
             Set<String> items = itemChannelLinkRegistry.getLinkedItems(channelUID);
-            for (String item : items) {
-                eventPublisher.post(ItemEventFactory.createCommandEvent(item, command, channelUID.toString()));
+            if (!items.isEmpty()) {
+                String source = channelUID.intern().toString();
+                for (String item : items) {
+                    eventPublisher.post(ItemEventFactory.createCommandEvent(item, command, source));
+                }
             }
         }
 
@@ -276,6 +323,8 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
                 ThingStatusDetail.HANDLER_MISSING_ERROR);
         setThingStatus(thing, statusInfo);
         thingHandler.setCallback(null);
+        stateUpdateCoalescer.removeChannels(thing.getUID());
+        thingHandlerDispatcher.remove(thing.getUID());
     }
 
     @Override
@@ -292,20 +341,12 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
                     if (handler != null) {
                         logger.debug("Delegating command '{}' for item '{}' to handler for channel '{}'", command,
                                 itemName, channelUID);
-                        try {
-                            SafeMethodCaller.call(new SafeMethodCaller.ActionWithException<Void>() {
-                                @Override
-                                public Void call() throws Exception {
-                                    handler.handleCommand(channelUID, command);
-                                    return null;
-                                }
-                            });
-                        } catch (TimeoutException ex) {
-                            logger.warn("Handler for thing '{}' takes more than {}ms for processing event",
-                                    handler.getThing().getUID(), SafeMethodCaller.DEFAULT_TIMEOUT);
-                        } catch (Exception ex) {
-                            logger.error("Exception occured while calling handler: " + ex.getMessage(), ex);
-                        }
+                        thingHandlerDispatcher.dispatch(thing.getUID(), new Runnable() {
+                            @Override
+                            public void run() {
+                                handler.handleCommand(channelUID, command);
+                            }
+                        });
                     } else {
                         logger.warn("Cannot delegate command '{}' for item '{}' to handler for channel '{}', "
                                 + "because no handler is assigned. Maybe the binding is not installed or not "
@@ -335,20 +376,12 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
                     if (handler != null) {
                         logger.debug("Delegating update '{}' for item '{}' to handler for channel '{}'", newState,
                                 itemName, channelUID);
-                        try {
-                            SafeMethodCaller.call(new SafeMethodCaller.ActionWithException<Void>() {
-                                @Override
-                                public Void call() throws Exception {
-                                    handler.handleUpdate(channelUID, newState);
-                                    return null;
-                                }
-                            });
-                        } catch (TimeoutException ex) {
-                            logger.warn("Handler for thing {} takes more than {}ms for processing event",
-                                    handler.getThing().getUID(), SafeMethodCaller.DEFAULT_TIMEOUT);
-                        } catch (Exception ex) {
-                            logger.error("Exception occured while calling handler: " + ex.getMessage(), ex);
-                        }
+                        thingHandlerDispatcher.dispatch(thing.getUID(), new Runnable() {
+                            @Override
+                            public void run() {
+                                handler.handleUpdate(channelUID, newState);
+                            }
+                        });
                     } else {
                         logger.warn("Cannot delegate update '{}' for item '{}' to handler for channel '{}', "
                                 + "because no handler is assigned. Maybe the binding is not installed or not "
@@ -409,6 +442,8 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
 
         logger.debug("Thing '{}' is no longer tracked by ThingManager.", thing.getUID());
         this.things.remove(thing);
+        stateUpdateCoalescer.removeChannels(thingId);
+        thingHandlerDispatcher.remove(thingId);
     }
 
     @Override
@@ -423,6 +458,8 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
         }
 
         thingLinkManager.thingUpdated(thing);
+        // the channel configurations may have been changed
+        stateUpdateCoalescer.removeChannels(thingUID);
 
         final ThingHandler thingHandler = thingHandlers.get(thingUID);
         if (thingHandler != null) {
@@ -432,7 +469,7 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
                 }
                 // prevent infinite loops by not informing handler about self-initiated update
                 if (!thingUpdatedLock.contains(thingUID)) {
-                    SafeMethodCaller.call(new SafeMethodCaller.ActionWithException<Void>() {
+                    SafeMethodCaller.callSynchronously(new SafeMethodCaller.ActionWithException<Void>() {
 
                         @Override
                         public Void call() throws Exception {
@@ -550,6 +587,49 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
         this.bundleContext = componentContext.getBundleContext();
         this.thingHandlerTracker = new ThingHandlerTracker(this.bundleContext);
         this.thingHandlerTracker.open();
+        Dictionary<?, ?> properties = componentContext.getProperties();
+        Map<String, Object> configuration = new HashMap<>();
+        for (Enumeration<?> keys = properties.keys(); keys.hasMoreElements();) {
+            String key = keys.nextElement().toString();
+            configuration.put(key, properties.get(key));
+        }
+        modified(configuration);
+    }
+
+    /**
+     * Configures the maximum number of things of a binding, whose handlers are called at the same time, by properties
+     * of the form <code>maxConcurrency.&lt;bindingId&gt;=&lt;things&gt;</code>. The limit of the other bindings is
+     * configured by <code>defaultMaxConcurrency=&lt;things&gt;</code> (0 for no limit) and defaults to
+     * {@value #DEFAULT_MAX_CONCURRENCY}.
+     *
+     * @param configuration the configuration properties
+     */
+    protected void modified(Map<String, Object> configuration) {
+        thingHandlerDispatcher.clearMaxConcurrency();
+        int defaultMaxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        Object defaultValue = configuration.get(DEFAULT_MAX_CONCURRENCY_PROPERTY);
+        if (defaultValue != null) {
+            try {
+                defaultMaxConcurrency = Integer.parseInt(defaultValue.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid default concurrency limit of bindings: {}", defaultValue);
+            }
+        }
+        thingHandlerDispatcher.setDefaultMaxConcurrency(defaultMaxConcurrency);
+        for (Entry<String, Object> entry : configuration.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(MAX_CONCURRENCY_PREFIX) || entry.getValue() == null) {
+                continue;
+            }
+            String bindingId = key.substring(MAX_CONCURRENCY_PREFIX.length());
+            try {
+                int maxConcurrency = Integer.parseInt(entry.getValue().toString().trim());
+                thingHandlerDispatcher.setMaxConcurrency(bindingId, maxConcurrency);
+                logger.debug("Limited the concurrency of binding '{}' to {} things.", bindingId, maxConcurrency);
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid concurrency limit of binding '{}': {}", bindingId, entry.getValue());
+            }
+        }
     }
 
     protected void addThingHandlerFactory(ThingHandlerFactory thingHandlerFactory) {
@@ -575,6 +655,67 @@ public class ThingManager extends AbstractItemEventSubscriber implements ThingTr
         this.thingRegistry.removeThingTracker(this);
         this.thingHandlerTracker.close();
         this.thingLinkManager.stopListening();
+        this.stateUpdateCoalescer.dispose();
+        this.thingHandlerDispatcher.dispose();
+    }
+
+    /**
+     * Returns the number of commands and updates, which wait for the handler of a thing.
+     *
+     * @param thingUID the thing
+     * @return the number of pending handler calls
+     */
+    public int getHandlerMailboxDepth(ThingUID thingUID) {
+        return thingHandlerDispatcher.getMailboxDepth(thingUID);
+    }
+
+    /**
+     * Returns the average time in milliseconds the handler of a thing took to process a command or update.
+     *
+     * @param thingUID the thing
+     * @return the average handler latency in milliseconds
+     */
+    public double getAverageHandlerLatency(ThingUID thingUID) {
+        return thingHandlerDispatcher.getAverageHandlerLatency(thingUID);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds the handler of a thing took to process a command or update.
+     *
+     * @param thingUID the thing
+     * @return the maximum handler latency in milliseconds
+     */
+    public double getMaxHandlerLatency(ThingUID thingUID) {
+        return thingHandlerDispatcher.getMaxHandlerLatency(thingUID);
+    }
+
+    /**
+     * Returns the number of channel state updates, which have been posted as item state events.
+     *
+     * @return the number of forwarded state updates
+     */
+    public long getForwardedStateUpdates() {
+        return stateUpdateCoalescer.getForwardedUpdates();
+    }
+
+    /**
+     * Returns the number of channel state updates, which have been suppressed, because they were unchanged or within
+     * the deadband of the channel.
+     *
+     * @return the number of suppressed state updates
+     */
+    public long getSuppressedStateUpdates() {
+        return stateUpdateCoalescer.getSuppressedUpdates();
+    }
+
+    /**
+     * Returns the number of channel state updates, which have been replaced by a later update within the coalescing
+     * window of the channel.
+     *
+     * @return the number of coalesced state updates
+     */
+    public long getCoalescedStateUpdates() {
+        return stateUpdateCoalescer.getCoalescedUpdates();
     }
 
     protected void removeThingHandlerFactory(ThingHandlerFactory thingHandlerFactory) {
@@ -57,12 +57,12 @@ public class ThingRegistryImpl extends AbstractRegistry<Thing, ThingUID>implemen
      */
     @Override
     public Thing get(ThingUID uid) {
-        for (Thing thing : getAll()) {
-            if (thing.getUID().equals(uid)) {
-                return thing;
-            }
-        }
-        return null;
+        return getByKey(uid);
+    }
+
+    @Override
+    protected ThingUID getKey(Thing element) {
+        return element.getUID();
     }
 
     @Override
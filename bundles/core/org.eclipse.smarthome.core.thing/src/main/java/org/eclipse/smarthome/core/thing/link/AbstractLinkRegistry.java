@@ -7,16 +7,25 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
-import java.util.Collection;
-import java.util.LinkedHashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.UID;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * {@link AbstractLinkRegistry} is an abstract class for link based registries,
  * which handle {@link AbstractLink}s.
+ * <p>
+ * The registry maintains indexes of the linked items by UID, of the linked UIDs by item name and of the links by
+ * thing UID. The indexes are updated whenever links are added or removed and contain immutable sets, so that lookups
+ * neither iterate over all links nor copy the result.
  *
  * @author Dennis Nobel - Initial contribution
  *
@@ -25,6 +34,12 @@ import org.eclipse.smarthome.core.thing.UID;
  */
 public abstract class AbstractLinkRegistry<L extends AbstractLink> extends AbstractRegistry<L, String> {
 
+    private final ConcurrentMap<UID, Set<String>> linkedItemsByUID = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<UID>> linkedUIDsByItemName = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<ThingUID, Set<L>> linksByThingUID = new ConcurrentHashMap<>();
+
     /**
      * Returns if an item for a given item name is linked to a channel or thing for a
      * given UID.
@@ -36,41 +51,143 @@ public abstract class AbstractLinkRegistry<L extends AbstractLink> extends Abstr
      * @return true if linked, false otherwise
      */
     public boolean isLinked(String itemName, UID uid) {
-
-        for (AbstractLink link : getAll()) {
-            if (link.getUID().equals(uid) && link.getItemName().equals(itemName)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getLinkedItems(uid).contains(itemName);
     }
 
     /**
-     * Returns the item name, which is bound to the given UID.
+     * Returns the names of the items, which are bound to the given UID.
      *
      * @param uid
      *            UID
-     * @return item name or null if no item is bound to the given UID
+     * @return read-only snapshot of the item names, which is empty if no item is bound to the given UID
      */
     public Set<String> getLinkedItems(UID uid) {
-        Set<String> linkedItems = new LinkedHashSet<>();
-        for (AbstractLink link : getAll()) {
-            if (link.getUID().equals(uid)) {
-                linkedItems.add(link.getItemName());
-            }
-        }
-        return linkedItems;
+        return getSnapshot(linkedItemsByUID, uid);
+    }
+
+    /**
+     * Returns the UIDs, which are bound to the given item name.
+     *
+     * @param itemName
+     *            item name
+     * @return read-only snapshot of the UIDs, which is empty if the item is not bound to any UID
+     */
+    public Set<UID> getLinkedUIDs(String itemName) {
+        return getSnapshot(linkedUIDsByItemName, itemName);
+    }
+
+    /**
+     * Returns all links to the given thing or to one of its channels.
+     *
+     * @param thingUID
+     *            thing UID
+     * @return read-only snapshot of the links, which is empty if there is no link to the thing
+     */
+    public Set<L> getLinks(ThingUID thingUID) {
+        return getSnapshot(linksByThingUID, thingUID);
     }
 
     @Override
     public L get(String key) {
-        Collection<L> links = getAll();
-        for (L link : links) {
-            if (link.getID().equals(key)) {
-                return link;
+        return getByKey(key);
+    }
+
+    @Override
+    protected String getKey(L element) {
+        return element.getID();
+    }
+
+    @Override
+    protected void addToIndex(L element) {
+        synchronized (linkedItemsByUID) {
+            super.addToIndex(element);
+            reindexLink(element);
+        }
+    }
+
+    @Override
+    protected void removeFromIndex(L element) {
+        synchronized (linkedItemsByUID) {
+            super.removeFromIndex(element);
+            reindexLink(element);
+        }
+    }
+
+    @Override
+    protected void updateIndex(L oldElement, L element) {
+        synchronized (linkedItemsByUID) {
+            super.updateIndex(oldElement, element);
+            reindexLink(oldElement);
+            reindexLink(element);
+        }
+    }
+
+    /**
+     * Updates the link indexes for the ID of the given link from the index by key.
+     */
+    private void reindexLink(L link) {
+        String itemName = link.getItemName();
+        UID uid = link.getUID();
+        if (uid instanceof ChannelUID) {
+            // the indexed channel UIDs are shared, so that their string representation is computed only once
+            uid = ((ChannelUID) uid).intern();
+        }
+        ThingUID thingUID = getThingUID(uid);
+        L indexedLink = getByKey(link.getID());
+        if (thingUID != null) {
+            // the link instance must be replaced, because links are only compared by their ID
+            removeFromSnapshot(linksByThingUID, thingUID, link);
+        }
+        if (indexedLink != null) {
+            addToSnapshot(linkedItemsByUID, uid, itemName);
+            addToSnapshot(linkedUIDsByItemName, itemName, uid);
+            if (thingUID != null) {
+                addToSnapshot(linksByThingUID, thingUID, indexedLink);
             }
+        } else {
+            removeFromSnapshot(linkedItemsByUID, uid, itemName);
+            removeFromSnapshot(linkedUIDsByItemName, itemName, uid);
+        }
+    }
+
+    private ThingUID getThingUID(UID uid) {
+        if (uid instanceof ThingUID) {
+            return (ThingUID) uid;
+        } else if (uid instanceof ChannelUID) {
+            return ((ChannelUID) uid).getThingUID();
         }
         return null;
     }
+
+    private static <K, V> Set<V> getSnapshot(ConcurrentMap<K, Set<V>> index, K key) {
+        Set<V> values = key != null ? index.get(key) : null;
+        return values != null ? values : Collections.<V> emptySet();
+    }
+
+    private static <K, V> void addToSnapshot(ConcurrentMap<K, Set<V>> index, K key, V value) {
+        Set<V> values = index.get(key);
+        if (values == null) {
+            index.put(key, ImmutableSet.of(value));
+        } else if (!values.contains(value)) {
+            index.put(key, ImmutableSet.<V> builder().addAll(values).add(value).build());
+        }
+    }
+
+    private static <K, V> void removeFromSnapshot(ConcurrentMap<K, Set<V>> index, K key, V value) {
+        Set<V> values = index.get(key);
+        if (values != null && values.contains(value)) {
+            ImmutableSet.Builder<V> builder = ImmutableSet.builder();
+            for (V existingValue : values) {
+                if (!existingValue.equals(value)) {
+                    builder.add(existingValue);
+                }
+            }
+            Set<V> remainingValues = builder.build();
+            if (remainingValues.isEmpty()) {
+                index.remove(key);
+            } else {
+                index.put(key, remainingValues);
+            }
+        }
+    }
 }
@@ -33,19 +33,12 @@ public class ItemChannelLinkRegistry extends AbstractLinkRegistry<ItemChannelLin
      *
      * @param itemName
      *            item name
-     * @return set of bound channels for the given item name
+     * @return read-only set of bound channels for the given item name
      */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public Set<ChannelUID> getBoundChannels(String itemName) {
-
-        Set<ChannelUID> channelUIDs = new HashSet<>();
-
-        for (ItemChannelLink itemChannelLink : getAll()) {
-            if (itemChannelLink.getItemName().equals(itemName)) {
-                channelUIDs.add(itemChannelLink.getUID());
-            }
-        }
-
-        return channelUIDs;
+        // all UIDs of item channel links are channel UIDs
+        return (Set) getLinkedUIDs(itemName);
     }
 
     /**
@@ -7,7 +7,6 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.eclipse.smarthome.core.thing.ThingUID;
@@ -26,16 +25,12 @@ public class ItemThingLinkRegistry extends AbstractLinkRegistry<ItemThingLink> {
      *
      * @param itemName
      *            item name
-     * @return list of linked thing UIDs or an empty list of no thing is linked to the item
+     * @return read-only set of linked thing UIDs or an empty set if no thing is linked to the item
      */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public Set<ThingUID> getLinkedThings(String itemName) {
-        Set<ThingUID> linkedThings = new LinkedHashSet<>();
-        for (ItemThingLink link : getAll()) {
-            if (link.getItemName().equals(itemName)) {
-                linkedThings.add(link.getUID());
-            }
-        }
-        return linkedThings;
+        // all UIDs of item thing links are thing UIDs
+        return (Set) getLinkedUIDs(itemName);
     }
 
     /**
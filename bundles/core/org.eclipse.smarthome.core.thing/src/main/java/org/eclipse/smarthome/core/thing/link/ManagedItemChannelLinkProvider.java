@@ -7,7 +7,9 @@
  */
 package org.eclipse.smarthome.core.thing.link;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.smarthome.core.common.registry.DefaultAbstractManagedProvider;
 import org.eclipse.smarthome.core.thing.ThingUID;
@@ -39,11 +41,13 @@ public class ManagedItemChannelLinkProvider extends DefaultAbstractManagedProvid
 
     public void removeLinksForThing(ThingUID thingUID) {
         Collection<ItemChannelLink> itemChannelLinks = getAll();
+        List<String> linkIds = new ArrayList<>();
         for (ItemChannelLink itemChannelLink : itemChannelLinks) {
             if (itemChannelLink.getUID().getThingUID().equals(thingUID)) {
-                this.remove(itemChannelLink.getID());
+                linkIds.add(itemChannelLink.getID());
             }
         }
+        removeAll(linkIds);
     }
 
 }
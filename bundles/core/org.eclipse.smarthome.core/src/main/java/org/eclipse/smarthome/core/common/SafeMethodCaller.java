@@ -1,6 +1,10 @@
 package org.eclipse.smarthome.core.common;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -14,6 +18,14 @@ import org.slf4j.LoggerFactory;
  * thread is opened, so that a method call can not block the execution of the system. It also catches Errors and wraps
  * them into a {@link ExecutionException}, so that the caller does not have to catch {@link Throwable}. This helper
  * class is useful when calling third party code like bindings.
+ * <p>
+ * The <code>callSynchronously</code> methods provide an alternative mode, which avoids the thread hand-off: The action
+ * is executed in the calling thread and a single watchdog thread supervises the deadlines of all running actions. If an
+ * action exceeds its timeout, the watchdog logs the stack trace of the blocked thread and interrupts it, unless the
+ * system property {@value #INTERRUPT_ON_TIMEOUT_PROPERTY} is set to false. As an action, which does not react on
+ * interrupts, still blocks the calling thread, this mode is meant for callers, which call each subscriber or handler
+ * from its own queue, like the event subscriber queues and the thing handler dispatcher, so that a blocked action
+ * only delays its own queue.
  *
  * @author Dennis Nobel - Initial contribution
  */
@@ -42,6 +54,22 @@ public class SafeMethodCaller {
      */
     public static int DEFAULT_TIMEOUT = 5000 /* milliseconds */;
 
+    /**
+     * System property, which defines whether the watchdog interrupts threads whose synchronously called action exceeded
+     * its timeout (default: true).
+     */
+    public static final String INTERRUPT_ON_TIMEOUT_PROPERTY = "smarthome.safecall.interruptOnTimeout";
+
+    /**
+     * Interval in milliseconds in which the watchdog checks the deadlines of synchronously called actions.
+     */
+    private static final int WATCHDOG_INTERVAL = 100 /* milliseconds */;
+
+    private static final Set<Deadline> deadlines = Collections
+            .newSetFromMap(new ConcurrentHashMap<Deadline, Boolean>());
+
+    private static volatile Thread watchdogThread;
+
     /**
      * Executes the action in a new thread with a default timeout (see {@link SafeMethodCaller#DEFAULT_TIMEOUT}). If an
      * exception occurs while calling the action or the action does not terminate within the timeout this method
@@ -124,6 +152,72 @@ public class SafeMethodCaller {
         }
     }
 
+    /**
+     * Executes the action in the calling thread with a default timeout (see {@link SafeMethodCaller#DEFAULT_TIMEOUT}),
+     * which is supervised by the watchdog. If an exception occurs while calling the action this method rethrows the
+     * exception.
+     *
+     * @param action action to be called
+     * @return result
+     * @throws TimeoutException if the action was interrupted by the watchdog, because it exceeded the timeout
+     * @throws ExecutionException if the action throws an Exception or an Error
+     */
+    public static <V> V callSynchronously(ActionWithException<V> action) throws TimeoutException, ExecutionException {
+        return callSynchronously(action, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Executes the action in the calling thread with a given timeout, which is supervised by the watchdog. If the action
+     * does not terminate within the timeout, the watchdog logs the stack trace of the calling thread and interrupts it,
+     * unless {@value #INTERRUPT_ON_TIMEOUT_PROPERTY} is set to false. If an exception occurs while calling the action
+     * this method rethrows the exception.
+     *
+     * @param action action to be called
+     * @param timeout timeout of the action in milliseconds
+     * @return result
+     * @throws TimeoutException if the action was interrupted by the watchdog, because it exceeded the timeout
+     * @throws ExecutionException if the action throws an Exception or an Error
+     */
+    public static <V> V callSynchronously(ActionWithException<V> action, int timeout)
+            throws TimeoutException, ExecutionException {
+        return callSupervised(action, timeout);
+    }
+
+    /**
+     * Executes the action in the calling thread with a default timeout (see {@link SafeMethodCaller#DEFAULT_TIMEOUT}),
+     * which is supervised by the watchdog. If an exception occurs while calling the action this method just logs the
+     * exception, but does not rethrow it. In case an exception occurred the result will always be null.
+     *
+     * @param action action to be called
+     * @return result or null if an exception occurred
+     */
+    public static <V> V callSynchronously(Action<V> action) {
+        return callSynchronously(action, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Executes the action in the calling thread with a given timeout, which is supervised by the watchdog. If an
+     * exception occurs while calling the action this method just logs the exception, but does not rethrow it. In case
+     * an exception occurred the result will always be null.
+     *
+     * @param action action to be called
+     * @param timeout timeout of the action in milliseconds
+     * @return result or null if an exception occurred
+     */
+    public static <V> V callSynchronously(Action<V> action, int timeout) {
+        try {
+            return callSupervised(action, timeout);
+        } catch (ExecutionException ex) {
+            getLogger().error("Exception occured while calling action", ex.getCause());
+            return null;
+        } catch (TimeoutException ex) {
+            getLogger().error(
+                    "Timeout occured while calling method. Execution took longer than " + timeout + " milliseconds.",
+                    ex);
+            return null;
+        }
+    }
+
     /**
      * This method tries to find the method which was called within the action.
      *
@@ -154,11 +248,118 @@ public class SafeMethodCaller {
     private static <V> V callAsynchronous(Callable<V> callable, int timeout)
             throws InterruptedException, ExecutionException, TimeoutException {
         Future<V> future = ThreadPoolManager.getPool("safeCall").submit(callable);
-        return future.get(timeout, TimeUnit.MILLISECONDS);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (CancellationException ex) {
+            // the pool is saturated and has rejected the call, so we execute it in the calling thread instead of
+            // failing with a timeout
+            getLogger().debug("Pool 'safeCall' rejected the call, executing it in the calling thread.");
+            return callSupervised(callable, timeout);
+        }
+    }
+
+    private static <V> V callSupervised(Callable<V> callable, int timeout)
+            throws ExecutionException, TimeoutException {
+        Deadline deadline = new Deadline(Thread.currentThread(), callable, timeout);
+        deadlines.add(deadline);
+        ensureWatchdogRunning();
+        try {
+            return callable.call();
+        } catch (Throwable throwable) {
+            if (deadline.interrupted) {
+                TimeoutException timeoutException = new TimeoutException(
+                        "Action was interrupted, because it took longer than " + timeout + " milliseconds.");
+                timeoutException.initCause(throwable);
+                throw timeoutException;
+            }
+            throw new ExecutionException(throwable);
+        } finally {
+            deadlines.remove(deadline);
+            synchronized (deadline) {
+                deadline.completed = true;
+                if (deadline.interrupted) {
+                    // clear the interrupted flag, the interrupt was meant for the action only
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private static void ensureWatchdogRunning() {
+        Thread thread = watchdogThread;
+        if (thread == null || !thread.isAlive()) {
+            synchronized (deadlines) {
+                if (watchdogThread == null || !watchdogThread.isAlive()) {
+                    watchdogThread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            superviseDeadlines();
+                        }
+                    }, "ESH-safeCall-watchdog");
+                    watchdogThread.setDaemon(true);
+                    watchdogThread.start();
+                }
+            }
+        }
+    }
+
+    private static void superviseDeadlines() {
+        while (true) {
+            try {
+                Thread.sleep(WATCHDOG_INTERVAL);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (Deadline deadline : deadlines) {
+                if (!deadline.reported && now - deadline.expiry > 0) {
+                    deadline.reported = true;
+                    TimeoutException stackTrace = new TimeoutException("Stack trace of thread '"
+                            + deadline.thread.getName() + "'");
+                    stackTrace.setStackTrace(deadline.thread.getStackTrace());
+                    getLogger().warn("Calling action '{}' takes more than {}ms.", deadline.action.getClass().getName(),
+                            deadline.timeout);
+                    getLogger().debug("Action '{}' exceeded its timeout.", deadline.action.getClass().getName(),
+                            stackTrace);
+                    if (isInterruptOnTimeout()) {
+                        synchronized (deadline) {
+                            if (!deadline.completed) {
+                                deadline.interrupted = true;
+                                deadline.thread.interrupt();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isInterruptOnTimeout() {
+        return !"false".equalsIgnoreCase(System.getProperty(INTERRUPT_ON_TIMEOUT_PROPERTY));
     }
 
     private static Logger getLogger() {
         return LoggerFactory.getLogger(SafeMethodCaller.class);
     }
 
+    /**
+     * The deadline of an action, which is executed in the calling thread.
+     */
+    private static class Deadline {
+        private final Thread thread;
+        private final Object action;
+        private final int timeout;
+        private final long expiry;
+        private volatile boolean reported = false;
+        private boolean completed = false;
+        private volatile boolean interrupted = false;
+
+        private Deadline(Thread thread, Object action, int timeout) {
+            this.thread = thread;
+            this.action = action;
+            this.timeout = timeout;
+            this.expiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        }
+    }
+
 }
@@ -13,6 +13,7 @@ import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
@@ -191,6 +192,10 @@ public class ThreadPoolManager {
                             // Log and discard
                             logger.warn("Thread pool '{}' rejected execution of {}",
                                     new Object[] { poolName, runnable.getClass() });
+                            if (runnable instanceof Future) {
+                                // do not let callers wait for a result which will never be computed
+                                ((Future<?>) runnable).cancel(false);
+                            }
                             super.rejectedExecution(runnable, threadPoolExecutor);
                         }
                     });
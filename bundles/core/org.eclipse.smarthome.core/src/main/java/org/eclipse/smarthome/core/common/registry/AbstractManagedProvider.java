@@ -7,8 +7,14 @@
  */
 package org.eclipse.smarthome.core.common.registry;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.eclipse.smarthome.core.storage.BatchStorage;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.storage.StorageService;
 import org.slf4j.Logger;
@@ -30,7 +36,13 @@ import com.google.common.collect.ImmutableList;
  * {@link DefaultAbstractManagedProvider} can be used as base class.
  * </p>
  *
+ * <p>
+ * Many elements can be removed at once by {@link #removeAll(Collection)}, which removes them with a single bulk
+ * operation, if the storage is a {@link BatchStorage}.
+ * </p>
+ *
  * @author Dennis Nobel - Initial contribution
+ * @author agent - Added bulk removal
  *
  * @param <E>
  *            type of the element
@@ -64,6 +76,19 @@ public abstract class AbstractManagedProvider<E, K, PE> extends AbstractProvider
 
     @Override
     public Collection<E> getAll() {
+        if (storage instanceof BatchStorage) {
+            List<E> elements = new ArrayList<>();
+            Iterator<Map.Entry<String, PE>> entries = ((BatchStorage<PE>) storage).entries();
+            while (entries.hasNext()) {
+                Map.Entry<String, PE> entry = entries.next();
+                E element = toElement(entry.getKey(), entry.getValue());
+                if (element != null) {
+                    elements.add(element);
+                }
+            }
+            return ImmutableList.copyOf(elements);
+        }
+
         final Function<String, E> toElementList = new Function<String, E>() {
             @Override
             public E apply(String elementKey) {
@@ -120,6 +145,47 @@ public abstract class AbstractManagedProvider<E, K, PE> extends AbstractProvider
         return null;
     }
 
+    /**
+     * Removes many elements at once and returns the removed elements.
+     *
+     * @param keys
+     *            keys of the elements that should be removed
+     * @return elements that were removed, keys without an element are ignored
+     */
+    public Collection<E> removeAll(Collection<K> keys) {
+        List<String> keysAsString = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Cannot remove null element");
+            }
+            keysAsString.add(keyToString(key));
+        }
+
+        Map<String, PE> persistableElements;
+        if (storage instanceof BatchStorage) {
+            persistableElements = ((BatchStorage<PE>) storage).removeAll(keysAsString);
+        } else {
+            persistableElements = new LinkedHashMap<>();
+            for (String keyAsString : keysAsString) {
+                PE persistableElement = storage.remove(keyAsString);
+                if (persistableElement != null) {
+                    persistableElements.put(keyAsString, persistableElement);
+                }
+            }
+        }
+
+        List<E> elements = new ArrayList<>(persistableElements.size());
+        for (Map.Entry<String, PE> persistableElement : persistableElements.entrySet()) {
+            E element = toElement(persistableElement.getKey(), persistableElement.getValue());
+            if (element != null) {
+                notifyListenersAboutRemovedElement(element);
+                elements.add(element);
+            }
+        }
+        logger.debug("Removed {} elements from {}.", elements.size(), this.getClass().getSimpleName());
+        return elements;
+    }
+
     @Override
     public E update(E element) {
 
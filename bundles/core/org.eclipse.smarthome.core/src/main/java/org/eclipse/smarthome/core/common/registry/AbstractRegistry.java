@@ -8,7 +8,9 @@
 package org.eclipse.smarthome.core.common.registry;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -23,6 +25,11 @@ import com.google.common.collect.Iterables;
 /**
  * The {@link AbstractRegistry} is an abstract implementation of the {@link Registry} interface, that can be used as
  * base class for {@link Registry} implementations.
+ * <p>
+ * If a subclass provides the key of an element by overriding {@link #getKey(Object)}, the registry maintains an index
+ * of all elements by their key, which is updated whenever elements are added, updated or removed. Subclasses can look
+ * up elements in constant time by {@link #getByKey(Object)} and can maintain further indexes by overriding
+ * {@link #addToIndex(Object)}, {@link #removeFromIndex(Object)} and {@link #updateIndex(Object, Object)}.
  *
  * @author Dennis Nobel - Initial contribution
  * @author Stefan Bußweiler - Migration to new event mechanism 
@@ -46,6 +53,10 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
 
     protected EventPublisher eventPublisher;
 
+    private final Map<K, E> elementsByKey = new ConcurrentHashMap<>();
+
+    private final Set<K> ambiguousKeys = Collections.newSetFromMap(new ConcurrentHashMap<K, Boolean>());
+
     @Override
     public void added(Provider<E> provider, E element) {
         Collection<E> elements = elementMap.get(provider);
@@ -53,6 +64,7 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
             try {
                 onAddElement(element);
                 elements.add(element);
+                addToIndex(element);
                 notifyListenersAboutAddedElement(element);
             } catch (Exception ex) {
                 logger.warn("Could not add element: " + ex.getMessage(), ex);
@@ -77,6 +89,7 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
             try {
                 onRemoveElement(element);
                 elements.remove(element);
+                removeFromIndex(element);
                 notifyListenersAboutRemovedElement(element);
             } catch (Exception ex) {
                 logger.warn("Could not remove element: " + ex.getMessage(), ex);
@@ -97,6 +110,7 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
                 onUpdateElement(oldElement, element);
                 elements.remove(oldElement);
                 elements.add(element);
+                updateIndex(oldElement, element);
                 notifyListenersAboutUpdatedElement(oldElement, element);
             } catch (Exception ex) {
                 logger.warn("Could not update element: " + ex.getMessage(), ex);
@@ -182,6 +196,7 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
                 try {
                     onAddElement(element);
                     elements.add(element);
+                    addToIndex(element);
                     notifyListenersAboutAddedElement(element);
                 } catch (Exception ex) {
                     logger.warn("Could not add element: " + ex.getMessage(), ex);
@@ -256,7 +271,10 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
                 }
             }
 
-            elementMap.remove(provider);
+            Collection<E> removedElements = elementMap.remove(provider);
+            for (E element : removedElements) {
+                removeFromIndex(element);
+            }
 
             provider.removeProviderChangeListener(this);
 
@@ -268,6 +286,107 @@ public abstract class AbstractRegistry<E, K> implements ProviderChangeListener<E
         }
     }
 
+    /**
+     * Returns the key of the given element. Subclasses should override this method in order to enable the index of
+     * elements by key, otherwise this method returns null and no index is maintained.
+     *
+     * @param element
+     *            element
+     * @return the key of the element or null
+     */
+    protected K getKey(E element) {
+        return null;
+    }
+
+    /**
+     * Returns the element for the given key from the index. Requires that {@link #getKey(Object)} is overridden.
+     *
+     * @param key
+     *            key
+     * @return the element or null, if no element with the given key exists
+     */
+    protected E getByKey(K key) {
+        return key != null ? elementsByKey.get(key) : null;
+    }
+
+    /**
+     * This method is called after an element was added to the registry in order to update the indexes.
+     *
+     * @param element
+     *            added element
+     */
+    protected void addToIndex(E element) {
+        K key = getKey(element);
+        if (key != null) {
+            E existingElement = elementsByKey.get(key);
+            if (existingElement == null) {
+                elementsByKey.put(key, element);
+            } else if (existingElement != element) {
+                // several providers provide an element with the same key, the first one wins
+                ambiguousKeys.add(key);
+            }
+        }
+    }
+
+    /**
+     * This method is called after an element was removed from the registry in order to update the indexes.
+     *
+     * @param element
+     *            removed element
+     */
+    protected void removeFromIndex(E element) {
+        K key = getKey(element);
+        if (key != null) {
+            if (ambiguousKeys.contains(key)) {
+                reindex(key);
+            } else {
+                elementsByKey.remove(key);
+            }
+        }
+    }
+
+    /**
+     * This method is called after an element was updated in the registry in order to update the indexes.
+     *
+     * @param oldElement
+     *            old element (before update)
+     * @param element
+     *            updated element (after update)
+     */
+    protected void updateIndex(E oldElement, E element) {
+        K oldKey = getKey(oldElement);
+        K key = getKey(element);
+        if (key != null && key.equals(oldKey) && !ambiguousKeys.contains(key)) {
+            elementsByKey.put(key, element);
+        } else {
+            removeFromIndex(oldElement);
+            addToIndex(element);
+        }
+    }
+
+    private void reindex(K key) {
+        E firstElement = null;
+        int count = 0;
+        for (Collection<E> elements : elementMap.values()) {
+            for (E element : elements) {
+                if (key.equals(getKey(element))) {
+                    if (firstElement == null) {
+                        firstElement = element;
+                    }
+                    count++;
+                }
+            }
+        }
+        if (firstElement != null) {
+            elementsByKey.put(key, firstElement);
+        } else {
+            elementsByKey.remove(key);
+        }
+        if (count <= 1) {
+            ambiguousKeys.remove(key);
+        }
+    }
+
     protected void setEventPublisher(EventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
     }
@@ -7,6 +7,8 @@
  */
 package org.eclipse.smarthome.core.events;
 
+import com.google.common.base.Supplier;
+
 /**
  * Abstract implementation of the {@link Event} interface.
  * 
@@ -16,7 +18,9 @@ public abstract class AbstractEvent implements Event {
 
     private final String topic;
 
-    private final String payload;
+    private volatile String payload;
+
+    private volatile Supplier<String> payloadSupplier;
 
     private final String source;
 
@@ -33,6 +37,20 @@ public abstract class AbstractEvent implements Event {
         this.source = source;
     }
 
+    /**
+     * Must be called in subclass constructor to create a new event with a payload which is serialized on demand. The
+     * supplier is called at most once, when {@link #getPayload()} is called for the first time.
+     * 
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the serialized payload
+     * @param source the source
+     */
+    public AbstractEvent(String topic, Supplier<String> payloadSupplier, String source) {
+        this.topic = topic;
+        this.payloadSupplier = payloadSupplier;
+        this.source = source;
+    }
+
     @Override
     public String getTopic() {
         return topic;
@@ -40,9 +58,27 @@ public abstract class AbstractEvent implements Event {
 
     @Override
     public String getPayload() {
+        if (payload == null) {
+            synchronized (this) {
+                Supplier<String> supplier = payloadSupplier;
+                if (payload == null && supplier != null) {
+                    payload = supplier.get();
+                    payloadSupplier = null;
+                }
+            }
+        }
         return payload;
     }
 
+    /**
+     * Returns whether the payload of this event is serialized on demand and has not been requested yet.
+     * 
+     * @return true if the payload has not been serialized yet, false otherwise
+     */
+    public boolean isPayloadDeferred() {
+        return payloadSupplier != null;
+    }
+
     @Override
     public String getSource() {
         return source;
@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.events;
+
+import java.util.Collection;
+
+/**
+ * The {@link EventBusStatistics} is provided by the event bus and gives access to the delivery statistics of all
+ * registered {@link EventSubscriber}s.
+ *
+ * @author agent - Initial contribution
+ */
+public interface EventBusStatistics {
+
+    /**
+     * Returns the delivery statistics of all registered subscribers.
+     *
+     * @return the statistics per subscriber (not null)
+     */
+    Collection<EventSubscriberStatistics> getSubscriberStatistics();
+
+}
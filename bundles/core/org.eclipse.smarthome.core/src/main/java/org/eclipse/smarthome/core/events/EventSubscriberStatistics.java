@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.events;
+
+/**
+ * The {@link EventSubscriberStatistics} provides the queue depth, the drop counts and the latency of the event
+ * delivery to a single {@link EventSubscriber}.
+ *
+ * @author agent - Initial contribution
+ */
+public interface EventSubscriberStatistics {
+
+    /**
+     * Returns the subscriber the statistics belong to.
+     *
+     * @return the subscriber (not null)
+     */
+    EventSubscriber getSubscriber();
+
+    /**
+     * Returns the name of the policy which is applied if an event is posted while the queue of the subscriber is full.
+     *
+     * @return the name of the overflow policy (not null)
+     */
+    String getOverflowPolicyName();
+
+    /**
+     * Returns the number of currently queued events.
+     *
+     * @return the queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the maximum number of events which were queued at the same time.
+     *
+     * @return the maximum queue depth
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * Returns the number of events delivered to the subscriber.
+     *
+     * @return the number of delivered events
+     */
+    long getDeliveredEvents();
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    long getDroppedEvents();
+
+    /**
+     * Returns the number of queued events which were replaced by a newer event of the same topic.
+     *
+     * @return the number of coalesced events
+     */
+    long getCoalescedEvents();
+
+    /**
+     * Returns the average time in milliseconds an event waited in the queue before it was delivered.
+     *
+     * @return the average queue latency in milliseconds
+     */
+    double getAverageQueueLatency();
+
+    /**
+     * Returns the average time in milliseconds the subscriber took to process an event.
+     *
+     * @return the average processing time in milliseconds
+     */
+    double getAverageProcessingTime();
+
+    /**
+     * Returns the maximum time in milliseconds the subscriber took to process an event.
+     *
+     * @return the maximum processing time in milliseconds
+     */
+    double getMaxProcessingTime();
+
+}
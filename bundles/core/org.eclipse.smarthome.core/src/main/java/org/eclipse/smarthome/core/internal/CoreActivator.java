@@ -7,6 +7,7 @@
  */
 package org.eclipse.smarthome.core.internal;
 
+import org.eclipse.smarthome.core.library.internal.CoreLibraryActivator;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -21,12 +22,15 @@ public class CoreActivator implements BundleActivator {
 
     private static BundleContext context;
 
+    private final CoreLibraryActivator coreLibraryActivator = new CoreLibraryActivator();
+
     /**
      * Called whenever the OSGi framework starts our bundle
      */
     @Override
     public void start(BundleContext bc) throws Exception {
         context = bc;
+        coreLibraryActivator.start(bc);
         logger.debug("Core bundle has been started.");
     }
 
@@ -35,6 +39,7 @@ public class CoreActivator implements BundleActivator {
      */
     @Override
     public void stop(BundleContext bc) throws Exception {
+        coreLibraryActivator.stop(bc);
         context = null;
         logger.debug("Core bundle has been stopped.");
     }
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.internal.events;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.SafeMethodCaller;
+import org.eclipse.smarthome.core.common.SafeMethodCaller.ActionWithException;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.events.EventSubscriberStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EventSubscriberQueue} is a bounded queue of events for a single {@link EventSubscriber}. The queue is
+ * drained by a worker of the given executor, so that a slow subscriber does not block the delivery of events to other
+ * subscribers. At most one worker drains the queue at a time, which guarantees the event order per subscriber.
+ *
+ * If the queue is full, the {@link OverflowPolicy} decides whether the dispatching thread is blocked, the oldest
+ * event is dropped or pending events of the same topic are replaced by the new one. Dropped events and blocked
+ * dispatching threads are logged as a warning at most every {@value #WARNING_INTERVAL} milliseconds.
+ *
+ * @author agent - Initial contribution
+ */
+public class EventSubscriberQueue implements Runnable, EventSubscriberStatistics {
+
+    /**
+     * Defines how an {@link EventSubscriberQueue} behaves if an event is added to a full queue.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The dispatching thread waits until the subscriber has taken an event from the queue.
+         */
+        BLOCK,
+        /**
+         * The oldest queued event is dropped.
+         */
+        DROP_OLDEST,
+        /**
+         * A queued event with the same topic is replaced by the new event. If there is no such event, the oldest
+         * queued event is dropped.
+         */
+        COALESCE_BY_TOPIC
+    }
+
+    private static class QueuedEvent {
+        private Event event;
+        private long enqueueTime;
+
+        private QueuedEvent(Event event, long enqueueTime) {
+            this.event = event;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+
+    private static final long WARNING_INTERVAL = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(EventSubscriberQueue.class);
+
+    private final EventSubscriber subscriber;
+
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Executor executor;
+
+    private final Deque<QueuedEvent> queue = new ArrayDeque<QueuedEvent>();
+
+    private final Map<String, QueuedEvent> queuedEventsByTopic = new HashMap<String, QueuedEvent>();
+
+    private boolean scheduled = false;
+
+    private boolean closed = false;
+
+    private int maxQueueDepth = 0;
+
+    private final AtomicLong deliveredEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong coalescedEvents = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final AtomicLong totalProcessingTime = new AtomicLong();
+
+    private volatile long maxProcessingTime = 0;
+
+    private long lastDropWarning = 0;
+
+    private long lastBlockWarning = 0;
+
+    private long droppedSinceLastWarning = 0;
+
+    /**
+     * Creates a new event subscriber queue.
+     *
+     * @param subscriber the subscriber which receives the queued events (must not be null)
+     * @param capacity the maximum number of queued events (must be positive)
+     * @param overflowPolicy the overflow policy (must not be null)
+     * @param executor the executor which drains the queue (must not be null)
+     */
+    public EventSubscriberQueue(EventSubscriber subscriber, int capacity, OverflowPolicy overflowPolicy,
+            Executor executor) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the queue must be positive.");
+        }
+        this.subscriber = subscriber;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds the event to the queue. Depending on the {@link OverflowPolicy} this method blocks if the queue is full.
+     *
+     * @param event the event to add (must not be null)
+     */
+    public void add(Event event) {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.COALESCE_BY_TOPIC) {
+                QueuedEvent queuedEvent = queuedEventsByTopic.get(event.getTopic());
+                if (queuedEvent != null) {
+                    queuedEvent.event = event;
+                    coalescedEvents.incrementAndGet();
+                    return;
+                }
+            }
+            while (queue.size() >= capacity) {
+                if (overflowPolicy == OverflowPolicy.BLOCK) {
+                    long now = System.currentTimeMillis();
+                    if (now - lastBlockWarning >= WARNING_INTERVAL) {
+                        logger.warn("Dispatching of events waits for subscriber '{}', because its queue is full "
+                                + "(capacity {}).", subscriber, capacity);
+                        lastBlockWarning = now;
+                    }
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        eventDropped();
+                        return;
+                    }
+                    if (closed) {
+                        return;
+                    }
+                } else {
+                    QueuedEvent droppedEvent = queue.poll();
+                    queuedEventsByTopic.remove(droppedEvent.event.getTopic());
+                    eventDropped();
+                    logger.trace("Dropped event '{}' for subscriber '{}', because its queue is full.",
+                            droppedEvent.event, subscriber);
+                }
+            }
+            QueuedEvent queuedEvent = new QueuedEvent(event, System.nanoTime());
+            queue.add(queuedEvent);
+            if (overflowPolicy == OverflowPolicy.COALESCE_BY_TOPIC) {
+                queuedEventsByTopic.put(event.getTopic(), queuedEvent);
+            }
+            if (queue.size() > maxQueueDepth) {
+                maxQueueDepth = queue.size();
+            }
+            if (!scheduled) {
+                scheduled = true;
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled = false;
+                    logger.warn("Could not schedule the delivery of events to subscriber '{}'.", subscriber);
+                }
+            }
+        }
+    }
+
+    private void eventDropped() {
+        droppedEvents.incrementAndGet();
+        droppedSinceLastWarning++;
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning >= WARNING_INTERVAL) {
+            logger.warn("Dropped {} event(s) for subscriber '{}', because its queue is full (capacity {}, policy {}).",
+                    droppedSinceLastWarning, subscriber, capacity, overflowPolicy);
+            lastDropWarning = now;
+            droppedSinceLastWarning = 0;
+        }
+    }
+
+    /**
+     * Discards all queued events and releases blocked dispatching threads. Events added afterwards are ignored.
+     */
+    public void close() {
+        synchronized (queue) {
+            closed = true;
+            queue.clear();
+            queuedEventsByTopic.clear();
+            queue.notifyAll();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            QueuedEvent queuedEvent;
+            synchronized (queue) {
+                queuedEvent = queue.poll();
+                if (queuedEvent == null) {
+                    scheduled = false;
+                    return;
+                }
+                queuedEventsByTopic.remove(queuedEvent.event.getTopic());
+                queue.notifyAll();
+            }
+            deliver(queuedEvent);
+        }
+    }
+
+    private void deliver(QueuedEvent queuedEvent) {
+        final Event event = queuedEvent.event;
+        long startTime = System.nanoTime();
+        totalWaitTime.addAndGet(startTime - queuedEvent.enqueueTime);
+        try {
+            // the subscriber is called by the worker of its own queue, so no further thread hand-off is needed
+            SafeMethodCaller.callSynchronously(new ActionWithException<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    subscriber.receive(event);
+                    return null;
+                }
+            });
+        } catch (TimeoutException timeoutException) {
+            logger.warn("Dispatching event to subscriber '{}' took more than {}ms.", subscriber,
+                    SafeMethodCaller.DEFAULT_TIMEOUT);
+        } catch (ExecutionException executionException) {
+            Throwable t = executionException.getCause();
+            logger.error("Dispatching event to subscriber '" + subscriber + "' failed: " + t.getMessage(), t);
+        }
+        long processingTime = System.nanoTime() - startTime;
+        deliveredEvents.incrementAndGet();
+        totalProcessingTime.addAndGet(processingTime);
+        if (processingTime > maxProcessingTime) {
+            maxProcessingTime = processingTime;
+        }
+    }
+
+    @Override
+    public EventSubscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Returns the overflow policy of this queue.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    @Override
+    public String getOverflowPolicyName() {
+        return overflowPolicy.name();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        synchronized (queue) {
+            return maxQueueDepth;
+        }
+    }
+
+    @Override
+    public long getDeliveredEvents() {
+        return deliveredEvents.get();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    @Override
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    @Override
+    public double getAverageQueueLatency() {
+        long delivered = deliveredEvents.get();
+        return delivered == 0 ? 0 : totalWaitTime.get() / (delivered * 1000000.0);
+    }
+
+    @Override
+    public double getAverageProcessingTime() {
+        long delivered = deliveredEvents.get();
+        return delivered == 0 ? 0 : totalProcessingTime.get() / (delivered * 1000000.0);
+    }
+
+    @Override
+    public double getMaxProcessingTime() {
+        return maxProcessingTime / 1000000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "EventSubscriberQueue [subscriber=" + subscriber + ", policy=" + overflowPolicy + ", depth="
+                + getQueueDepth() + ", maxDepth=" + getMaxQueueDepth() + ", delivered=" + getDeliveredEvents()
+                + ", dropped=" + getDroppedEvents() + ", coalesced=" + getCoalescedEvents() + ", avgLatency="
+                + String.format("%.2f", getAverageQueueLatency()) + "ms, avgProcessing="
+                + String.format("%.2f", getAverageProcessingTime()) + "ms]";
+    }
+
+}
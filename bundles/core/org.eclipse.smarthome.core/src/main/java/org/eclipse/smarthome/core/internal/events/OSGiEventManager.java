@@ -10,21 +10,32 @@ package org.eclipse.smarthome.core.internal.events;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeoutException;
-
-import org.eclipse.smarthome.core.common.SafeMethodCaller;
-import org.eclipse.smarthome.core.common.SafeMethodCaller.ActionWithException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.core.events.AbstractEvent;
+import org.eclipse.smarthome.core.events.EventBusStatistics;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.core.events.EventFactory;
 import org.eclipse.smarthome.core.events.EventFilter;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.events.EventSubscriberStatistics;
+import org.eclipse.smarthome.core.internal.events.EventSubscriberQueue.OverflowPolicy;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
@@ -47,11 +58,23 @@ import com.google.common.collect.SetMultimap;
  * to the {@link EventSubscriber}s if the provided filter applies.
  *
  * The {@link OSGiEventManager} also serves as {@link EventPublisher} by implementing the EventPublisher interface.
- * Events are send in an asynchronous way via OSGi Event Admin mechanism.
+ * Posted events are handed over as they are to the subscribers in an asynchronous way, i.e. they are neither
+ * serialized nor recreated by an {@link EventFactory}. The OSGi Event Admin is only used as a bridge for foreign
+ * consumers, which can be enabled by setting the configuration property {@value #BRIDGE_TO_EVENT_ADMIN} to true.
+ * Events posted to the OSGi Event Admin by other components are still dispatched to the subscribers.
+ *
+ * Each {@link EventSubscriber} receives its events from its own bounded {@link EventSubscriberQueue}, so that a slow
+ * subscriber does not delay the delivery to other subscribers. The capacity of the queues can be configured by the
+ * property {@value #QUEUE_SIZE}. By default the dispatching waits if the queue of a subscriber is full, so that no
+ * command or state event is lost. The {@link OverflowPolicy} can be configured by the property
+ * {@value #OVERFLOW_POLICY} and overridden for a subscriber type by the property
+ * {@value #OVERFLOW_POLICY}.&lt;subscriber class name&gt;. The queue depth, drop counts and latency of each
+ * subscriber are provided by the {@link EventBusStatistics} service.
  *
  * @author Stefan Bußweiler - Initial contribution
+ * @author agent - Per-subscriber event queues and delivery statistics
  */
-public class OSGiEventManager implements EventHandler, EventPublisher {
+public class OSGiEventManager implements EventHandler, EventPublisher, EventBusStatistics {
 
     @SuppressWarnings("rawtypes")
     private class EventSubscriberServiceTracker extends ServiceTracker {
@@ -76,9 +99,45 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
 
     }
 
+    /**
+     * Configuration property which defines whether posted events are also forwarded to the OSGi Event Admin.
+     */
+    protected static final String BRIDGE_TO_EVENT_ADMIN = "bridgeToEventAdmin";
+
+    /**
+     * Configuration property which defines the capacity of the event queue of each subscriber.
+     */
+    protected static final String QUEUE_SIZE = "queueSize";
+
+    /**
+     * Configuration property which defines the default {@link OverflowPolicy} of the subscriber queues.
+     */
+    protected static final String OVERFLOW_POLICY = "overflowPolicy";
+
+    private static final String ORIGIN_PROPERTY = "esh.origin";
+
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
     private Logger logger = LoggerFactory.getLogger(OSGiEventManager.class);
 
-    private EventAdmin osgiEventAdmin;
+    private volatile EventAdmin osgiEventAdmin;
+
+    private volatile boolean bridgeToEventAdmin = false;
+
+    private volatile ExecutorService dispatchExecutor;
+
+    private volatile ExecutorService subscriberExecutor;
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private OverflowPolicy defaultOverflowPolicy = OverflowPolicy.BLOCK;
+
+    private final Map<String, OverflowPolicy> overflowPolicies = new HashMap<String, OverflowPolicy>();
+
+    private final Map<EventSubscriber, EventSubscriberQueue> subscriberQueues =
+            new ConcurrentHashMap<EventSubscriber, EventSubscriberQueue>();
+
+    private final String origin = UUID.randomUUID().toString();
 
     private final Map<String, EventFactory> typedEventFactories = new ConcurrentHashMap<String, EventFactory>();
 
@@ -88,6 +147,9 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
     private EventSubscriberServiceTracker eventSubscriberServiceTracker;
 
     protected void activate(ComponentContext componentContext) {
+        readConfiguration(componentContext.getProperties());
+        dispatchExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("ESH-eventDispatcher"));
+        subscriberExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("ESH-eventSubscriber"));
         eventSubscriberServiceTracker = new EventSubscriberServiceTracker(componentContext.getBundleContext());
         eventSubscriberServiceTracker.open();
     }
@@ -96,6 +158,60 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         if (eventSubscriberServiceTracker != null) {
             eventSubscriberServiceTracker.close();
         }
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+            dispatchExecutor = null;
+        }
+        for (EventSubscriberQueue queue : subscriberQueues.values()) {
+            queue.close();
+        }
+        subscriberQueues.clear();
+        if (subscriberExecutor != null) {
+            subscriberExecutor.shutdown();
+            subscriberExecutor = null;
+        }
+    }
+
+    private void readConfiguration(Dictionary<?, ?> properties) {
+        Object bridgeConfig = properties.get(BRIDGE_TO_EVENT_ADMIN);
+        if (bridgeConfig != null) {
+            bridgeToEventAdmin = Boolean.valueOf(bridgeConfig.toString());
+        }
+        Object queueSizeConfig = properties.get(QUEUE_SIZE);
+        if (queueSizeConfig != null) {
+            try {
+                int size = Integer.parseInt(queueSizeConfig.toString());
+                if (size > 0) {
+                    queueSize = size;
+                } else {
+                    logger.warn("Ignoring invalid event queue size '{}' - value must be positive.", size);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid event queue size '{}' - value must be an integer.", queueSizeConfig);
+            }
+        }
+        Enumeration<?> keys = properties.keys();
+        while (keys.hasMoreElements()) {
+            String key = keys.nextElement().toString();
+            if (key.equals(OVERFLOW_POLICY) || key.startsWith(OVERFLOW_POLICY + ".")) {
+                Object policyConfig = properties.get(key);
+                try {
+                    OverflowPolicy policy = OverflowPolicy.valueOf(policyConfig.toString().trim().toUpperCase());
+                    if (key.equals(OVERFLOW_POLICY)) {
+                        defaultOverflowPolicy = policy;
+                    } else {
+                        overflowPolicies.put(key.substring(OVERFLOW_POLICY.length() + 1), policy);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring invalid overflow policy '{}' for '{}'.", policyConfig, key);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Collection<EventSubscriberStatistics> getSubscriberStatistics() {
+        return new ArrayList<EventSubscriberStatistics>(subscriberQueues.values());
     }
 
     protected void setEventAdmin(EventAdmin eventAdmin) {
@@ -103,7 +219,9 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
     }
 
     protected void unsetEventAdmin(EventAdmin eventAdmin) {
-        this.osgiEventAdmin = null;
+        if (this.osgiEventAdmin == eventAdmin) {
+            this.osgiEventAdmin = null;
+        }
     }
 
     protected void addEventFactory(EventFactory eventFactory) {
@@ -133,6 +251,11 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         Object topicObj = osgiEvent.getProperty("topic");
         Object sourceObj = osgiEvent.getProperty("source");
 
+        if (origin.equals(osgiEvent.getProperty(ORIGIN_PROPERTY))) {
+            // the event has been posted by this event manager and was already dispatched to the subscribers
+            return;
+        }
+
         if (typeObj instanceof String && payloadObj instanceof String && topicObj instanceof String) {
             String typeStr = (String) typeObj;
             String payloadStr = (String) payloadObj;
@@ -181,18 +304,11 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
             try {
                 EventFilter filter = eventSubscriber.getEventFilter();
                 if (filter == null || filter.apply(event)) {
-                    SafeMethodCaller.call(new ActionWithException<Void>() {
-
-                        @Override
-                        public Void call() throws Exception {
-                            eventSubscriber.receive(event);
-                            return null;
-                        }
-                    });
+                    EventSubscriberQueue queue = subscriberQueues.get(eventSubscriber);
+                    if (queue != null) {
+                        queue.add(event);
+                    }
                 }
-            } catch (TimeoutException timeoutException) {
-                logger.warn("Dispatching event to subscriber '{}' takes more than {}ms.", eventSubscriber.toString(),
-                        SafeMethodCaller.DEFAULT_TIMEOUT);
             } catch (Throwable t) {
                 logger.error("Dispatching/filtering event for subscriber '" + EventSubscriber.class.getName()
                         + "' failed: " + t.getMessage(), t);
@@ -214,10 +330,48 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
 
     @Override
     public void post(final Event event) throws IllegalArgumentException, IllegalStateException {
-        EventAdmin eventAdmin = this.osgiEventAdmin;
+        ExecutorService executor = this.dispatchExecutor;
         assertValidArgument(event);
-        assertValidState(eventAdmin);
-        postAsOSGiEvent(eventAdmin, event);
+        assertValidState(executor);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    bridgeEvent(event);
+                    dispatchPostedEvent(event);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("The event bus module is not available!", e);
+        }
+    }
+
+    private void dispatchPostedEvent(final Event event) {
+        if (typedEventFactories.containsKey(event.getType())) {
+            Set<EventSubscriber> eventSubscribers = getEventSubscribers(event.getType());
+            if (!eventSubscribers.isEmpty()) {
+                dispatchESHEvent(eventSubscribers, event);
+            }
+        } else {
+            logger.warn("Could not find an Event Factory for the event type '" + event.getType() + "'.");
+        }
+    }
+
+    private void bridgeEvent(final Event event) {
+        EventAdmin eventAdmin = this.osgiEventAdmin;
+        if (bridgeToEventAdmin && eventAdmin != null) {
+            String payload = event.getPayload();
+            if (payload == null || payload.isEmpty()) {
+                logger.warn("Event of type '{}' is not forwarded to the OSGi Event Admin, because it has no payload.",
+                        event.getType());
+                return;
+            }
+            try {
+                postAsOSGiEvent(eventAdmin, event);
+            } catch (IllegalStateException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
     }
 
     private void postAsOSGiEvent(final EventAdmin eventAdmin, final Event event) throws IllegalStateException {
@@ -225,13 +379,14 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
             AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
                 @Override
                 public Void run() throws Exception {
-                    Dictionary<String, Object> properties = new Hashtable<String, Object>(3);
+                    Dictionary<String, Object> properties = new Hashtable<String, Object>(5);
                     properties.put("type", event.getType());
                     properties.put("payload", event.getPayload());
                     properties.put("topic", event.getTopic());
                     if (event.getSource() != null) {
                         properties.put("source", event.getSource());
                     }
+                    properties.put(ORIGIN_PROPERTY, origin);
                     eventAdmin.postEvent(new org.osgi.service.event.Event("smarthome", properties));
                     return null;
                 }
@@ -248,19 +403,30 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         Preconditions.checkArgument(event != null, "Argument 'event' must not be null.");
         Preconditions.checkArgument(event.getType() != null && !event.getType().isEmpty(),
                 String.format(errorMsg, "type"));
-        Preconditions.checkArgument(event.getPayload() != null && !event.getPayload().isEmpty(),
-                String.format(errorMsg, "payload"));
+        Preconditions.checkArgument(isPayloadDeferred(event)
+                || (event.getPayload() != null && !event.getPayload().isEmpty()), String.format(errorMsg, "payload"));
         Preconditions.checkArgument(event.getTopic() != null && !event.getTopic().isEmpty(),
                 String.format(errorMsg, "topic"));
     }
 
-    private void assertValidState(EventAdmin eventAdmin) throws IllegalStateException {
-        Preconditions.checkArgument(eventAdmin != null, "The event bus module is not available!");
+    private boolean isPayloadDeferred(Event event) {
+        // do not force the serialization of payloads which might never be requested by any subscriber
+        return event instanceof AbstractEvent && ((AbstractEvent) event).isPayloadDeferred();
+    }
+
+    private void assertValidState(ExecutorService executor) throws IllegalStateException {
+        Preconditions.checkArgument(executor != null, "The event bus module is not available!");
     }
 
     private void addEventSubscriber(EventSubscriber eventSubscriber) {
         Set<String> subscribedEventTypes = eventSubscriber.getSubscribedEventTypes();
 
+        ExecutorService executor = this.subscriberExecutor;
+        if (executor != null && !subscriberQueues.containsKey(eventSubscriber)) {
+            subscriberQueues.put(eventSubscriber, new EventSubscriberQueue(eventSubscriber, queueSize,
+                    getOverflowPolicy(eventSubscriber), executor));
+        }
+
         for (String subscribedEventType : subscribedEventTypes) {
             synchronized (this) {
                 if (!typedEventSubscribers.containsEntry(subscribedEventType, eventSubscriber)) {
@@ -276,6 +442,34 @@ public class OSGiEventManager implements EventHandler, EventPublisher {
         for (String subscribedEventType : subscribedEventTypes) {
             typedEventSubscribers.remove(subscribedEventType, eventSubscriber);
         }
+
+        EventSubscriberQueue queue = subscriberQueues.remove(eventSubscriber);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    private OverflowPolicy getOverflowPolicy(EventSubscriber eventSubscriber) {
+        OverflowPolicy policy = overflowPolicies.get(eventSubscriber.getClass().getName());
+        return policy != null ? policy : defaultOverflowPolicy;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private final String namePrefix;
+
+        public NamedThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
 }
@@ -9,10 +9,14 @@ package org.eclipse.smarthome.core.internal.items;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.smarthome.core.common.registry.AbstractRegistry;
@@ -37,6 +41,9 @@ import org.slf4j.LoggerFactory;
  * keeps track of all declared items of all item providers and keeps their
  * current state in memory. This is the central point where states are kept and
  * thus it is a core part for all stateful services.
+ * <p>
+ * Items are indexed by their name, their type, their tags and the names of the groups they are member of, so that the
+ * lookups do not need to iterate over all items.
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Stefan Bußweiler - Migration to new event mechanism
@@ -48,6 +55,12 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
 
     protected List<StateDescriptionProvider> stateDescriptionProviders = new CopyOnWriteArrayList<>();
 
+    private final ConcurrentMap<String, Set<String>> itemNamesByType = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> itemNamesByTag = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> itemNamesByGroup = new ConcurrentHashMap<>();
+
     @Override
     public void allItemsChanged(ItemProvider provider, Collection<String> oldItemNames) {
 
@@ -71,29 +84,42 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
             }
         }
 
+        // the old items are detached from their groups and the indexes before the provided items are added, so that
+        // neither the new groups nor the groups of other providers keep removed or outdated members
         Collection<Item> providedItems = provider.getAll();
         List<Item> items = new CopyOnWriteArrayList<Item>();
+        if (oldItems != null) {
+            for (Item oldItem : oldItems) {
+                removeFromGroupItems(oldItem, oldItem.getGroupNames());
+                if (oldItem instanceof GroupItem) {
+                    GroupItem oldGroupItem = (GroupItem) oldItem;
+                    for (Item member : oldGroupItem.getMembers()) {
+                        oldGroupItem.removeMember(member);
+                    }
+                }
+            }
+        }
         elementMap.put(provider, items);
+        if (oldItems != null) {
+            for (Item oldItem : oldItems) {
+                removeFromIndex(oldItem);
+            }
+        }
+
+        List<Item> addedItems = new ArrayList<Item>();
+        List<Item> updatedItems = new ArrayList<Item>();
         for (Item item : providedItems) {
             Item oldItem = oldItemsMap.get(item.getName());
-            if (oldItem == null) {
-                // it is a new item
+            if (oldItem == null || !oldItem.equals(item)) {
+                // it is a new or a modified item
                 try {
-                    onAddElement(item);
+                    initializeGenericItem(item);
                     items.add(item);
-                    for (RegistryChangeListener<Item> listener : listeners) {
-                        listener.added(item);
-                    }
-                } catch (IllegalArgumentException ex) {
-                    logger.warn("Could not add item: " + ex.getMessage(), ex);
-                }
-            } else if (!oldItem.equals(item)) {
-                // it is a modified item
-                try {
-                    onAddElement(item);
-                    items.add(item);
-                    for (RegistryChangeListener<Item> listener : listeners) {
-                        listener.updated(oldItem, item);
+                    addToIndex(item);
+                    if (oldItem == null) {
+                        addedItems.add(item);
+                    } else {
+                        updatedItems.add(item);
                     }
                 } catch (IllegalArgumentException ex) {
                     logger.warn("Could not add item: " + ex.getMessage(), ex);
@@ -101,7 +127,27 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
             } else {
                 // it has not been modified, so keep the old instance
                 items.add(oldItem);
+                addToIndex(oldItem);
+            }
+        }
+
+        // all provided items are indexed now, so that the groups can be filled
+        for (Item item : items) {
+            addToGroups(item);
+        }
+
+        for (Item item : addedItems) {
+            for (RegistryChangeListener<Item> listener : listeners) {
+                listener.added(item);
             }
+        }
+        for (Item item : updatedItems) {
+            Item oldItem = oldItemsMap.get(item.getName());
+            for (RegistryChangeListener<Item> listener : listeners) {
+                listener.updated(oldItem, item);
+            }
+        }
+        for (Item item : providedItems) {
             oldItemsMap.remove(item.getName());
         }
 
@@ -123,11 +169,9 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
      */
     @Override
     public Item getItem(String name) throws ItemNotFoundException {
-
-        for (Item item : getItems()) {
-            if (item.getName().equals(name)) {
-                return item;
-            }
+        Item item = getByKey(name);
+        if (item != null) {
+            return item;
         }
 
         throw new ItemNotFoundException(name);
@@ -135,11 +179,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
 
     @Override
     public Item get(String itemName) {
-        try {
-            return getItem(itemName);
-        } catch (ItemNotFoundException ignored) {
-            return null;
-        }
+        return getByKey(itemName);
     }
 
     /*
@@ -179,7 +219,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
     public Collection<Item> getItemsOfType(String type) {
         Collection<Item> matchedItems = new ArrayList<Item>();
 
-        for (Item item : getItems()) {
+        for (Item item : resolveItemNames(itemNamesByType.get(type))) {
             if (item.getType().equals(type)) {
                 matchedItems.add(item);
             }
@@ -237,6 +277,11 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
      * @throws IllegalArgumentException if the item has no valid name
      */
     private void initializeItem(Item item) throws IllegalArgumentException {
+        initializeGenericItem(item);
+        addToGroups(item);
+    }
+
+    private void initializeGenericItem(Item item) throws IllegalArgumentException {
         if (isValidItemName(item.getName())) {
             if (item instanceof GenericItem) {
                 GenericItem genericItem = (GenericItem) item;
@@ -244,22 +289,24 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
                 genericItem.setStateDescriptionProviders(stateDescriptionProviders);
                 genericItem.initialize();
             }
-
-            if (item instanceof GroupItem) {
-                // fill group with its members
-                addMembersToGroupItem((GroupItem) item);
-            }
-
-            // add the item to all relevant groups
-            addToGroupItems(item, item.getGroupNames());
         } else {
             throw new IllegalArgumentException(
                     "Ignoring item '" + item.getName() + "' as it does not comply with" + " the naming convention.");
         }
     }
 
+    private void addToGroups(Item item) {
+        if (item instanceof GroupItem) {
+            // fill group with its members
+            addMembersToGroupItem((GroupItem) item);
+        }
+
+        // add the item to all relevant groups
+        addToGroupItems(item, item.getGroupNames());
+    }
+
     private void addMembersToGroupItem(GroupItem groupItem) {
-        for (Item i : getItems()) {
+        for (Item i : resolveItemNames(itemNamesByGroup.get(groupItem.getName()))) {
             if (i.getGroupNames().contains(groupItem.getName())) {
                 groupItem.addMember(i);
             }
@@ -279,6 +326,96 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
         }
     }
 
+    @Override
+    protected String getKey(Item element) {
+        return element.getName();
+    }
+
+    @Override
+    protected void addToIndex(Item element) {
+        super.addToIndex(element);
+        addToSecondaryIndexes(element);
+    }
+
+    @Override
+    protected void removeFromIndex(Item element) {
+        super.removeFromIndex(element);
+        removeFromSecondaryIndexes(element);
+        // another provider might still provide an item with the same name
+        Item remainingItem = getByKey(element.getName());
+        if (remainingItem != null) {
+            addToSecondaryIndexes(remainingItem);
+        }
+    }
+
+    @Override
+    protected void updateIndex(Item oldElement, Item element) {
+        removeFromSecondaryIndexes(oldElement);
+        super.updateIndex(oldElement, element);
+        addToSecondaryIndexes(element);
+    }
+
+    private void addToSecondaryIndexes(Item item) {
+        String name = item.getName();
+        addToIndex(itemNamesByType, item.getType(), name);
+        for (String tag : item.getTags()) {
+            addToIndex(itemNamesByTag, tag, name);
+        }
+        for (String groupName : item.getGroupNames()) {
+            addToIndex(itemNamesByGroup, groupName, name);
+        }
+    }
+
+    private void removeFromSecondaryIndexes(Item item) {
+        String name = item.getName();
+        removeFromIndex(itemNamesByType, item.getType(), name);
+        for (String tag : item.getTags()) {
+            removeFromIndex(itemNamesByTag, tag, name);
+        }
+        for (String groupName : item.getGroupNames()) {
+            removeFromIndex(itemNamesByGroup, groupName, name);
+        }
+    }
+
+    private void addToIndex(ConcurrentMap<String, Set<String>> index, String key, String itemName) {
+        if (key == null) {
+            return;
+        }
+        Set<String> itemNames = index.get(key);
+        if (itemNames == null) {
+            Set<String> newItemNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            itemNames = index.putIfAbsent(key, newItemNames);
+            if (itemNames == null) {
+                itemNames = newItemNames;
+            }
+        }
+        itemNames.add(itemName);
+    }
+
+    private void removeFromIndex(ConcurrentMap<String, Set<String>> index, String key, String itemName) {
+        if (key == null) {
+            return;
+        }
+        Set<String> itemNames = index.get(key);
+        if (itemNames != null) {
+            itemNames.remove(itemName);
+        }
+    }
+
+    private List<Item> resolveItemNames(Set<String> itemNames) {
+        if (itemNames == null || itemNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Item> items = new ArrayList<Item>(itemNames.size());
+        for (String itemName : itemNames) {
+            Item item = getByKey(itemName);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
     @Override
     protected void onAddElement(Item element) throws IllegalArgumentException {
         initializeItem(element);
@@ -330,8 +467,24 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
 
     @Override
     public Collection<Item> getItemsByTag(String... tags) {
+        if (tags.length == 0) {
+            return new ArrayList<Item>(getItems());
+        }
+
+        // start with the smallest set of candidates, the other tags are checked on the item itself
+        Set<String> candidates = null;
+        for (String tag : tags) {
+            Set<String> itemNames = itemNamesByTag.get(tag);
+            if (itemNames == null || itemNames.isEmpty()) {
+                return new ArrayList<Item>();
+            }
+            if (candidates == null || itemNames.size() < candidates.size()) {
+                candidates = itemNames;
+            }
+        }
+
         List<Item> filteredItems = new ArrayList<Item>();
-        for (Item item : getItems()) {
+        for (Item item : resolveItemNames(candidates)) {
             if (itemHasTags(item, tags)) {
                 filteredItems.add(item);
             }
@@ -356,7 +509,7 @@ public class ItemRegistryImpl extends AbstractRegistry<Item, String>implements I
         Collection<Item> items = getItemsByTag(tags);
         for (Item item : items) {
             if (typeFilter.isInstance(item)) {
-                filteredItems.add((T) filteredItems);
+                filteredItems.add((T) item);
             }
         }
         return filteredItems;
@@ -7,6 +7,14 @@
  */
 package org.eclipse.smarthome.core.internal.items;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.GroupItem;
@@ -27,6 +35,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Stefan Bußweiler - Migration to new ESH event concept
+ * @author agent - Cached accepted state types and counted rejected updates
  */
 public class ItemUpdater extends AbstractItemEventSubscriber {
 
@@ -36,6 +45,15 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
 
     private EventPublisher eventPublisher;
 
+    /**
+     * Caches, whether an item class accepts a state class. The accepted data types are defined by the item class,
+     * except for group items, whose accepted data types are defined by their base item.
+     */
+    private final ConcurrentMap<Class<?>, Map<Class<? extends State>, Boolean>> acceptance = new ConcurrentHashMap<>();
+
+    /** the number of rejected updates by item name */
+    private final ConcurrentMap<String, AtomicLong> rejectedUpdates = new ConcurrentHashMap<>();
+
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
     }
@@ -59,26 +77,7 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
             State newState = updateEvent.getItemState();
             try {
                 GenericItem item = (GenericItem) itemRegistry.getItem(itemName);
-                boolean isAccepted = false;
-                if (item.getAcceptedDataTypes().contains(newState.getClass())) {
-                    isAccepted = true;
-                } else {
-                    // Look for class hierarchy
-                    for (Class<? extends State> state : item.getAcceptedDataTypes()) {
-                        try {
-                            if (!state.isEnum()
-                                    && state.newInstance().getClass().isAssignableFrom(newState.getClass())) {
-                                isAccepted = true;
-                                break;
-                            }
-                        } catch (InstantiationException e) {
-                            logger.warn("InstantiationException on {}", e.getMessage()); // Should never happen
-                        } catch (IllegalAccessException e) {
-                            logger.warn("IllegalAccessException on {}", e.getMessage()); // Should never happen
-                        }
-                    }
-                }
-                if (isAccepted) {
+                if (isAccepted(item, newState.getClass())) {
                     State oldState = item.getState();
                     item.setState(newState);
                     if (!oldState.equals(newState)) {
@@ -88,8 +87,9 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
                         }
                     }
                 } else {
-                    logger.debug("Received update of a not accepted type (" + newState.getClass().getSimpleName()
-                            + ") for item " + itemName);
+                    countRejectedUpdate(itemName);
+                    logger.debug("Received update of a not accepted type ({}) for item {}",
+                            newState.getClass().getSimpleName(), itemName);
                 }
             } catch (ItemNotFoundException e) {
                 logger.debug("Received update for non-existing item: {}", e.getMessage());
@@ -97,6 +97,82 @@ public class ItemUpdater extends AbstractItemEventSubscriber {
         }
     }
 
+    private boolean isAccepted(GenericItem item, Class<? extends State> stateClass) {
+        Class<?> itemClass = item.getClass();
+        if (item instanceof GroupItem) {
+            GenericItem baseItem = ((GroupItem) item).getBaseItem();
+            if (baseItem == null) {
+                // the accepted data types depend on the members
+                return isAccepted(item.getAcceptedDataTypes(), stateClass);
+            }
+            itemClass = baseItem.getClass();
+        }
+        Map<Class<? extends State>, Boolean> acceptedStates = acceptance.get(itemClass);
+        if (acceptedStates == null) {
+            acceptedStates = new ConcurrentHashMap<>();
+            Map<Class<? extends State>, Boolean> existing = acceptance.putIfAbsent(itemClass, acceptedStates);
+            if (existing != null) {
+                acceptedStates = existing;
+            }
+        }
+        Boolean accepted = acceptedStates.get(stateClass);
+        if (accepted == null) {
+            accepted = isAccepted(item.getAcceptedDataTypes(), stateClass);
+            acceptedStates.put(stateClass, accepted);
+        }
+        return accepted;
+    }
+
+    private boolean isAccepted(List<Class<? extends State>> acceptedDataTypes, Class<? extends State> stateClass) {
+        if (acceptedDataTypes.contains(stateClass)) {
+            return true;
+        }
+        // look for class hierarchy
+        for (Class<? extends State> acceptedDataType : acceptedDataTypes) {
+            if (!acceptedDataType.isEnum() && acceptedDataType.isAssignableFrom(stateClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countRejectedUpdate(String itemName) {
+        AtomicLong counter = rejectedUpdates.get(itemName);
+        if (counter == null) {
+            counter = new AtomicLong();
+            AtomicLong existing = rejectedUpdates.putIfAbsent(itemName, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of updates of the given item, which have been rejected because the item does not accept
+     * the type of the state.
+     *
+     * @param itemName the name of the item
+     * @return the number of rejected updates
+     */
+    public long getRejectedUpdates(String itemName) {
+        AtomicLong counter = rejectedUpdates.get(itemName);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Returns the number of rejected updates of all items, which have rejected at least one update.
+     *
+     * @return the number of rejected updates by item name
+     */
+    public Map<String, Long> getRejectedUpdates() {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : rejectedUpdates.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
     @Override
     protected void receiveCommand(ItemCommandEvent commandEvent) {
         // if the item is a group, we have to pass the command to it as it needs to pass the command to its members
@@ -13,7 +13,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction.Aggregate;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
@@ -33,6 +35,24 @@ public class GroupItem extends GenericItem implements StateChangeListener {
 
     protected GroupFunction function;
 
+    /**
+     * The aggregate of an {@link IncrementalGroupFunction} for the current members, which is created lazily and
+     * discarded whenever the members change. It is guarded by the {@link #members}.
+     */
+    private Aggregate aggregate;
+
+    /**
+     * Is incremented whenever the members of this group or of a contained group change, after the change has been
+     * made.
+     */
+    private final AtomicInteger membersVersion = new AtomicInteger();
+
+    /**
+     * The cached result of {@link #getAllMembers()}, which is only valid as long as its version equals the
+     * {@link #membersVersion}.
+     */
+    private volatile AllMembers allMembers;
+
     public GroupItem(String name) {
         this(name, null);
     }
@@ -77,9 +97,17 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      * @return all members of this and all contained {@link GroupItem}s
      */
     public Set<Item> getAllMembers() {
-        Set<Item> allMembers = new HashSet<Item>();
-        collectMembers(allMembers, members);
-        return ImmutableSet.copyOf(allMembers);
+        // the version is read before the members are collected, so that members collected during a concurrent change
+        // are cached with an outdated version and are never returned from the cache
+        int version = membersVersion.get();
+        AllMembers allMembers = this.allMembers;
+        if (allMembers == null || allMembers.version != version) {
+            Set<Item> collectedMembers = new HashSet<Item>();
+            collectMembers(collectedMembers, members);
+            allMembers = new AllMembers(version, ImmutableSet.copyOf(collectedMembers));
+            this.allMembers = allMembers;
+        }
+        return allMembers.items;
     }
 
     private void collectMembers(Set<Item> allMembers, Set<Item> members) {
@@ -98,6 +126,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             GenericItem genericItem = (GenericItem) item;
             genericItem.addStateChangeListener(this);
         }
+        membersChanged();
     }
 
     public void removeMember(Item item) {
@@ -106,6 +135,46 @@ public class GroupItem extends GenericItem implements StateChangeListener {
             GenericItem genericItem = (GenericItem) item;
             genericItem.removeStateChangeListener(this);
         }
+        membersChanged();
+    }
+
+    /**
+     * Discards the cached members and the aggregate of this group and the cached members of all groups, which contain
+     * this group.
+     */
+    private void membersChanged() {
+        synchronized (members) {
+            aggregate = null;
+        }
+        invalidateAllMembers();
+    }
+
+    private void invalidateAllMembers() {
+        membersVersion.incrementAndGet();
+        // parent groups listen to the state changes of their members
+        for (StateChangeListener listener : listeners) {
+            if (listener instanceof GroupItem) {
+                ((GroupItem) listener).invalidateAllMembers();
+            }
+        }
+    }
+
+    /**
+     * Calculates the group state after the state of the given member has changed. For an
+     * {@link IncrementalGroupFunction} only the given member is taken into account, unless the members have changed.
+     */
+    private State calculateState(Item member) {
+        if (!(function instanceof IncrementalGroupFunction)) {
+            return function.calculate(members);
+        }
+        synchronized (members) {
+            if (aggregate == null) {
+                aggregate = ((IncrementalGroupFunction) function).createAggregate(members);
+            } else {
+                aggregate.update(member);
+            }
+            return aggregate.getState();
+        }
     }
 
     /**
@@ -243,7 +312,7 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
-        setState(function.calculate(members));
+        setState(calculateState(item));
     }
 
     /**
@@ -251,7 +320,20 @@ public class GroupItem extends GenericItem implements StateChangeListener {
      */
     @Override
     public void stateUpdated(Item item, State state) {
-        setState(function.calculate(members));
+        setState(calculateState(item));
+    }
+
+    private static class AllMembers {
+
+        private final int version;
+
+        private final Set<Item> items;
+
+        private AllMembers(int version, Set<Item> items) {
+            this.version = version;
+            this.items = items;
+        }
+
     }
 
 }
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.items;
+
+import java.util.Set;
+
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * An incremental group function is a {@link GroupFunction}, which is able to update the group state when the state of
+ * a single member changes, without recalculating it from the states of all members.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public interface IncrementalGroupFunction extends GroupFunction {
+
+    /**
+     * Creates an aggregate, which holds the intermediate results of the group function for the given items.
+     *
+     * @param items the items to calculate a group state for
+     * @return the aggregate for the given items
+     */
+    public Aggregate createAggregate(Set<Item> items);
+
+    /**
+     * An aggregate holds the intermediate results of an {@link IncrementalGroupFunction} for a fixed set of items.
+     * It is not thread-safe.
+     */
+    public interface Aggregate {
+
+        /**
+         * Updates the aggregate with the current state of the given item.
+         *
+         * @param item the item, whose state has changed
+         */
+        public void update(Item item);
+
+        /**
+         * Returns the group state for the current states of all items of this aggregate. The result is the same as
+         * the result of {@link GroupFunction#calculate(Set)} for these items.
+         *
+         * @return the calculated group state
+         */
+        public State getState();
+    }
+
+}
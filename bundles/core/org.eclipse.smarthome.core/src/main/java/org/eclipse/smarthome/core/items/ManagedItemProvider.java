@@ -70,9 +70,7 @@ public class ManagedItemProvider extends AbstractManagedProvider<Item, String, P
         Item item = get(itemName);
         if (recursive && item instanceof GroupItem) {
             List<String> members = getMemberNamesRecursively((GroupItem) item, getAll());
-            for (String member : members) {
-                this.remove(member);
-            }
+            removeAll(members);
         }
         if (item != null) {
             this.remove(item.getName());
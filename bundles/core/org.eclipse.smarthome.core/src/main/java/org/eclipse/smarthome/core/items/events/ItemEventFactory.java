@@ -17,12 +17,13 @@ import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.dto.ItemDTO;
 import org.eclipse.smarthome.core.items.dto.ItemDTOMapper;
 import org.eclipse.smarthome.core.types.Command;
-import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.Type;
-import org.eclipse.smarthome.core.types.UnDefType;
+import org.eclipse.smarthome.core.types.TypeCodec;
+import org.eclipse.smarthome.core.types.TypeCodecRegistry;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Sets;
 
 /**
@@ -30,6 +31,7 @@ import com.google.common.collect.Sets;
  * {@link ItemStateEvent}s.
  *
  * @author Stefan Bußweiler - Initial contribution
+ * @author agent - Parse types with type codecs instead of reflection
  */
 public class ItemEventFactory extends AbstractEventFactory {
 
@@ -119,12 +121,15 @@ public class ItemEventFactory extends AbstractEventFactory {
     }
 
     private Object parse(String typeName, String valueToParse) throws Exception {
-        if (typeName.equals(UnDefType.class.getSimpleName())) {
-            return UnDefType.valueOf(valueToParse);
-        }
-        if (typeName.equals(RefreshType.class.getSimpleName())) {
-            return RefreshType.valueOf(valueToParse);
+        TypeCodec<?> codec = TypeCodecRegistry.getCodec(typeName);
+        if (codec != null) {
+            Object value = codec.parse(valueToParse);
+            if (value == null) {
+                throw new IllegalArgumentException("'" + valueToParse + "' is not a valid " + typeName + ".");
+            }
+            return value;
         }
+        // types without a codec must be part of the core library
         Class<?> stateClass = Class.forName(CORE_LIBRARY_PACKAGE + typeName);
         Method valueOfMethod = stateClass.getMethod("valueOf", String.class);
         return valueOfMethod.invoke(stateClass, valueToParse);
@@ -162,9 +167,7 @@ public class ItemEventFactory extends AbstractEventFactory {
     public static ItemCommandEvent createCommandEvent(String itemName, Command command, String source) {
         assertValidArguments(itemName, command, "command");
         String topic = buildTopic(ITEM_COMAND_EVENT_TOPIC, itemName);
-        ItemEventPayloadBean bean = new ItemEventPayloadBean(command.getClass().getSimpleName(), command.toString());
-        String payload = serializePayload(bean);
-        return new ItemCommandEvent(topic, payload, itemName, command, source);
+        return new ItemCommandEvent(topic, new TypePayloadSupplier(command), itemName, command, source);
     }
 
     /**
@@ -195,9 +198,7 @@ public class ItemEventFactory extends AbstractEventFactory {
     public static ItemStateEvent createStateEvent(String itemName, State state, String source) {
         assertValidArguments(itemName, state, "state");
         String topic = buildTopic(ITEM_STATE_EVENT_TOPIC, itemName);
-        ItemEventPayloadBean bean = new ItemEventPayloadBean(state.getClass().getSimpleName(), state.toString());
-        String payload = serializePayload(bean);
-        return new ItemStateEvent(topic, payload, itemName, state, source);
+        return new ItemStateEvent(topic, new TypePayloadSupplier(state), itemName, state, source);
     }
 
     /**
@@ -225,14 +226,20 @@ public class ItemEventFactory extends AbstractEventFactory {
      *
      * @throws IllegalArgumentException if itemName or state is null
      */
-    public static ItemStateChangedEvent createStateChangedEvent(String itemName, State newState, State oldState) {
+    public static ItemStateChangedEvent createStateChangedEvent(String itemName, final State newState,
+            final State oldState) {
         assertValidArguments(itemName, newState, "state");
         String topic = buildTopic(ITEM_STATE_CHANGED_EVENT_TOPIC, itemName);
-        ItemStateChangedEventPayloadBean bean = new ItemStateChangedEventPayloadBean(
-                newState.getClass().getSimpleName(), newState.toString(), oldState.getClass().getSimpleName(),
-                oldState.toString());
-        String payload = serializePayload(bean);
-        return new ItemStateChangedEvent(topic, payload, itemName, newState, oldState);
+        Supplier<String> payloadSupplier = new Supplier<String>() {
+            @Override
+            public String get() {
+                ItemStateChangedEventPayloadBean bean = new ItemStateChangedEventPayloadBean(
+                        newState.getClass().getSimpleName(), newState.toString(),
+                        oldState.getClass().getSimpleName(), oldState.toString());
+                return serializePayload(bean);
+            }
+        };
+        return new ItemStateChangedEvent(topic, payloadSupplier, itemName, newState, oldState);
     }
 
     /**
@@ -310,6 +317,23 @@ public class ItemEventFactory extends AbstractEventFactory {
         Preconditions.checkArgument(item != null, "The argument '" + argumentName + "' must no be null.");
     }
 
+    /**
+     * Serializes the payload of an item command or state event on demand, so that events which are only dispatched
+     * within the runtime do not pay for the Json serialization.
+     */
+    private static class TypePayloadSupplier implements Supplier<String> {
+        private final Type type;
+
+        public TypePayloadSupplier(Type type) {
+            this.type = type;
+        }
+
+        @Override
+        public String get() {
+            return serializePayload(new ItemEventPayloadBean(type.getClass().getSimpleName(), type.toString()));
+        }
+    }
+
     /**
      * This is a java bean that is used to serialize/deserialize item event payload.
      */
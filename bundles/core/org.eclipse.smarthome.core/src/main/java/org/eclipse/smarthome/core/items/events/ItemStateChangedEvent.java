@@ -10,6 +10,8 @@ package org.eclipse.smarthome.core.items.events;
 import org.eclipse.smarthome.core.events.AbstractEvent;
 import org.eclipse.smarthome.core.types.State;
 
+import com.google.common.base.Supplier;
+
 /**
  * {@link ItemStateChangedEvent}s can be used to deliver item state changes through the Eclipse SmartHome event bus. In
  * contrast to the {@link ItemStateEvent} the {@link ItemStateChangedEvent} is only sent if the state changed.
@@ -47,6 +49,23 @@ public class ItemStateChangedEvent extends AbstractEvent {
         this.oldItemState = oldItemState;
     }
 
+    /**
+     * Constructs a new item state changed event with a payload which is serialized on demand.
+     *
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the payload
+     * @param itemName the item name
+     * @param newItemState the new item state
+     * @param oldItemState the old item state
+     */
+    protected ItemStateChangedEvent(String topic, Supplier<String> payloadSupplier, String itemName,
+            State newItemState, State oldItemState) {
+        super(topic, payloadSupplier, null);
+        this.itemName = itemName;
+        this.itemState = newItemState;
+        this.oldItemState = oldItemState;
+    }
+
     @Override
     public String getType() {
         return TYPE;
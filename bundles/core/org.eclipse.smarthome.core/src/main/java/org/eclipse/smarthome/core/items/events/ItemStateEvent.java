@@ -10,6 +10,8 @@ package org.eclipse.smarthome.core.items.events;
 import org.eclipse.smarthome.core.events.AbstractEvent;
 import org.eclipse.smarthome.core.types.State;
 
+import com.google.common.base.Supplier;
+
 /**
  * {@link ItemStateEvent}s can be used to deliver item status updates through the Eclipse SmartHome event bus.
  * State events must be created with the {@link ItemEventFactory}.
@@ -42,6 +44,22 @@ public class ItemStateEvent extends AbstractEvent {
         this.itemState = itemState;
     }
 
+    /**
+     * Constructs a new item state event with a payload which is serialized on demand.
+     * 
+     * @param topic the topic
+     * @param payloadSupplier the supplier of the payload
+     * @param itemName the item name
+     * @param itemState the item state
+     * @param source the source, can be null
+     */
+    protected ItemStateEvent(String topic, Supplier<String> payloadSupplier, String itemName, State itemState,
+            String source) {
+        super(topic, payloadSupplier, source);
+        this.itemName = itemName;
+        this.itemState = itemState;
+    }
+
     @Override
     public String getType() {
         return TYPE;
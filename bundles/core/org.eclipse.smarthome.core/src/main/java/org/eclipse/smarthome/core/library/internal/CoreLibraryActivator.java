@@ -7,11 +7,28 @@
  */
 package org.eclipse.smarthome.core.library.internal;
 
+import java.util.List;
+
+import org.eclipse.smarthome.core.types.TypeCodec;
+import org.eclipse.smarthome.core.types.TypeCodecRegistry;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
 
+/**
+ * The {@link CoreLibraryActivator} registers the {@link TypeCodec}s of the core library types. Bindings can provide
+ * codecs for their own types by registering them as OSGi services.
+ *
+ * @author agent - Added type codecs
+ */
+@SuppressWarnings("rawtypes")
 public class CoreLibraryActivator implements BundleActivator {
 
+    private List<TypeCodec<?>> codecs;
+
+    private ServiceTracker<TypeCodec, TypeCodec> codecTracker;
+
     /*
      * (non-Javadoc)
      * 
@@ -19,6 +36,25 @@ public class CoreLibraryActivator implements BundleActivator {
      */
     @Override
     public void start(BundleContext context) throws Exception {
+        codecs = CoreLibraryTypeCodecs.createCodecs();
+        for (TypeCodec<?> codec : codecs) {
+            TypeCodecRegistry.register(codec);
+        }
+        codecTracker = new ServiceTracker<TypeCodec, TypeCodec>(context, TypeCodec.class, null) {
+            @Override
+            public TypeCodec addingService(ServiceReference<TypeCodec> reference) {
+                TypeCodec codec = super.addingService(reference);
+                TypeCodecRegistry.register(codec);
+                return codec;
+            }
+
+            @Override
+            public void removedService(ServiceReference<TypeCodec> reference, TypeCodec codec) {
+                TypeCodecRegistry.unregister(codec);
+                super.removedService(reference, codec);
+            }
+        };
+        codecTracker.open();
     }
 
     /*
@@ -28,6 +64,16 @@ public class CoreLibraryActivator implements BundleActivator {
      */
     @Override
     public void stop(BundleContext context) throws Exception {
+        if (codecTracker != null) {
+            codecTracker.close();
+            codecTracker = null;
+        }
+        if (codecs != null) {
+            for (TypeCodec<?> codec : codecs) {
+                TypeCodecRegistry.unregister(codec);
+            }
+            codecs = null;
+        }
     }
 
 }
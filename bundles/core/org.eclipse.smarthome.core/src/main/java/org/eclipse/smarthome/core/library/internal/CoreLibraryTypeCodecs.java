@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.IncreaseDecreaseType;
+import org.eclipse.smarthome.core.library.types.NextPreviousType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PlayPauseType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.RawType;
+import org.eclipse.smarthome.core.library.types.RewindFastforwardType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.AbstractTypeCodec;
+import org.eclipse.smarthome.core.types.EnumTypeCodec;
+import org.eclipse.smarthome.core.types.TypeCodec;
+
+/**
+ * Provides the {@link TypeCodec}s of the core library types. The codecs check the syntax of a value before parsing it,
+ * so that values of other types are rejected without throwing an exception.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public final class CoreLibraryTypeCodecs {
+
+    private static final BigDecimal HUNDRED = new BigDecimal(100);
+
+    private CoreLibraryTypeCodecs() {
+    }
+
+    /**
+     * Creates the codecs of all core library types.
+     *
+     * @return the codecs
+     */
+    public static List<TypeCodec<?>> createCodecs() {
+        List<TypeCodec<?>> codecs = new ArrayList<>();
+        codecs.add(new EnumTypeCodec<>(IncreaseDecreaseType.class));
+        codecs.add(new EnumTypeCodec<>(NextPreviousType.class));
+        codecs.add(new EnumTypeCodec<>(OnOffType.class));
+        codecs.add(new EnumTypeCodec<>(OpenClosedType.class));
+        codecs.add(new EnumTypeCodec<>(PlayPauseType.class));
+        codecs.add(new EnumTypeCodec<>(RewindFastforwardType.class));
+        codecs.add(new EnumTypeCodec<>(StopMoveType.class));
+        codecs.add(new EnumTypeCodec<>(UpDownType.class));
+        codecs.add(new AbstractTypeCodec<DecimalType>(DecimalType.class) {
+            @Override
+            public DecimalType parse(String value) {
+                BigDecimal number = parseNumber(value);
+                return number != null ? new DecimalType(number) : null;
+            }
+        });
+        codecs.add(new AbstractTypeCodec<PercentType>(PercentType.class) {
+            @Override
+            public PercentType parse(String value) {
+                BigDecimal number = parseNumber(value);
+                if (number == null || number.signum() < 0 || number.compareTo(HUNDRED) > 0) {
+                    return null;
+                }
+                return new PercentType(number);
+            }
+        });
+        codecs.add(new AbstractTypeCodec<HSBType>(HSBType.class) {
+            @Override
+            public HSBType parse(String value) {
+                String[] constituents = value.split(",");
+                if (constituents.length != 3) {
+                    return null;
+                }
+                for (String constituent : constituents) {
+                    if (parseNumber(constituent) == null) {
+                        return null;
+                    }
+                }
+                return HSBType.valueOf(value);
+            }
+        });
+        codecs.add(new AbstractTypeCodec<PointType>(PointType.class) {
+            @Override
+            public PointType parse(String value) {
+                // like PointType.valueOf, a value without coordinates is parsed as the default point
+                try {
+                    return PointType.valueOf(value);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        });
+        codecs.add(new AbstractTypeCodec<DateTimeType>(DateTimeType.class) {
+            @Override
+            public DateTimeType parse(String value) {
+                if (value.isEmpty() || !Character.isDigit(value.charAt(0))) {
+                    return null;
+                }
+                try {
+                    return DateTimeType.valueOf(value);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        });
+        codecs.add(new AbstractTypeCodec<RawType>(RawType.class) {
+            @Override
+            public RawType parse(String value) {
+                try {
+                    return RawType.valueOf(value);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        });
+        codecs.add(new AbstractTypeCodec<StringType>(StringType.class) {
+            @Override
+            public StringType parse(String value) {
+                return new StringType(value);
+            }
+        });
+        return codecs;
+    }
+
+    /**
+     * Parses a decimal number. Strings, which cannot be a number, are rejected without creating an exception.
+     *
+     * @param value the string to parse
+     * @return the number or <code>null</code>, if the string is not a valid number
+     */
+    private static BigDecimal parseNumber(String value) {
+        boolean digit = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return null;
+            }
+        }
+        if (!digit) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
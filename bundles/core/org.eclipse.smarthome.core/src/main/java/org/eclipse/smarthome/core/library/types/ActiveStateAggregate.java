@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link ActiveStateAggregate} is the base class of the aggregates of the logical group functions. It counts the
+ * items, whose state equals the active state.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+abstract class ActiveStateAggregate implements IncrementalGroupFunction.Aggregate {
+
+    private final State activeState;
+
+    private final Map<Item, Boolean> itemsActive = new IdentityHashMap<>();
+
+    private int activeCount = 0;
+
+    ActiveStateAggregate(State activeState) {
+        this.activeState = activeState;
+    }
+
+    /**
+     * Adds the current states of the given items to this aggregate.
+     *
+     * @param items the items (may be null)
+     * @return this aggregate
+     */
+    ActiveStateAggregate addAll(Set<Item> items) {
+        if (items != null) {
+            for (Item item : items) {
+                update(item);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void update(Item item) {
+        boolean active = activeState.equals(item.getState());
+        Boolean wasActive = itemsActive.put(item, active);
+        if (wasActive != null && wasActive) {
+            activeCount--;
+        }
+        if (active) {
+            activeCount++;
+        }
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return the number of items
+     */
+    protected int getCount() {
+        return itemsActive.size();
+    }
+
+    /**
+     * Returns the number of items in the active state.
+     *
+     * @return the number of active items
+     */
+    protected int getActiveCount() {
+        return activeCount;
+    }
+
+}
@@ -14,6 +14,7 @@ import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
 import org.eclipse.smarthome.core.items.GroupFunction;
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
@@ -21,6 +22,9 @@ import org.eclipse.smarthome.core.types.UnDefType;
 /**
  * This interface is only a container for functions that require the core type library
  * for its calculations.
+ * <p>
+ * The 'and', 'or', 'avg', 'sum', 'min' and 'max' functions are {@link IncrementalGroupFunction}s, which update the
+ * group state in constant or logarithmic time when the state of a single member changes.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
@@ -37,7 +41,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Kai Kreuzer - Initial contribution and API
      *
      */
-    static class And implements GroupFunction {
+    static class And implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -68,6 +72,29 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new ActiveStateAggregate(activeState) {
+                @Override
+                public State getState() {
+                    return getResult(getCount() > 0 && getActiveCount() == getCount());
+                }
+            }.addAll(items);
+        }
+
+        /**
+         * Returns the group state of the incremental aggregate.
+         *
+         * @param allActive true, if there are items and all of them are in the active state
+         * @return the group state
+         */
+        protected State getResult(boolean allActive) {
+            return allActive ? activeState : passiveState;
+        }
+
         /**
          * @{inheritDoc
          */
@@ -113,7 +140,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Kai Kreuzer - Initial contribution and API
      *
      */
-    static class Or implements GroupFunction {
+    static class Or implements IncrementalGroupFunction {
 
         protected final State activeState;
         protected final State passiveState;
@@ -141,6 +168,29 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return passiveState;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new ActiveStateAggregate(activeState) {
+                @Override
+                public State getState() {
+                    return getResult(getActiveCount() > 0);
+                }
+            }.addAll(items);
+        }
+
+        /**
+         * Returns the group state of the incremental aggregate.
+         *
+         * @param anyActive true, if at least one item is in the active state
+         * @return the group state
+         */
+        protected State getResult(boolean anyActive) {
+            return anyActive ? activeState : passiveState;
+        }
+
         /**
          * @{inheritDoc
          */
@@ -192,6 +242,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State getResult(boolean allActive) {
+            return super.getResult(!allActive);
+        }
+
     }
 
     /**
@@ -215,6 +270,11 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return notResult;
         }
 
+        @Override
+        protected State getResult(boolean anyActive) {
+            return super.getResult(!anyActive);
+        }
+
     }
 
     /**
@@ -223,7 +283,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Kai Kreuzer - Initial contribution and API
      *
      */
-    static class Avg implements GroupFunction {
+    static class Avg implements IncrementalGroupFunction {
 
         public Avg() {
         }
@@ -251,6 +311,14 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             }
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new DecimalAggregate.Avg().addAll(items);
+        }
+
         /**
          * @{inheritDoc
          */
@@ -271,7 +339,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Thomas.Eichstaedt-Engelen
      *
      */
-    static class Sum implements GroupFunction {
+    static class Sum implements IncrementalGroupFunction {
 
         public Sum() {
         }
@@ -293,6 +361,14 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return new DecimalType(sum);
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new DecimalAggregate.Sum().addAll(items);
+        }
+
         /**
          * @{inheritDoc
          */
@@ -313,7 +389,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Kai Kreuzer - Initial contribution and API
      *
      */
-    static class Min implements GroupFunction {
+    static class Min implements IncrementalGroupFunction {
 
         public Min() {
         }
@@ -340,6 +416,14 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new DecimalAggregate.Extremum(false).addAll(items);
+        }
+
         /**
          * @{inheritDoc
          */
@@ -360,7 +444,7 @@ public interface ArithmeticGroupFunction extends GroupFunction {
      * @author Kai Kreuzer - Initial contribution and API
      *
      */
-    static class Max implements GroupFunction {
+    static class Max implements IncrementalGroupFunction {
 
         public Max() {
         }
@@ -387,6 +471,14 @@ public interface ArithmeticGroupFunction extends GroupFunction {
             return UnDefType.UNDEF;
         }
 
+        /**
+         * @{inheritDoc
+         */
+        @Override
+        public Aggregate createAggregate(Set<Item> items) {
+            return new DecimalAggregate.Extremum(true).addAll(items);
+        }
+
         /**
          * @{inheritDoc
          */
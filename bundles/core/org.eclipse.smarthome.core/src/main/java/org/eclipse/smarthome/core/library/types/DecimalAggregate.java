@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.library.types;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.smarthome.core.items.IncrementalGroupFunction;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+
+/**
+ * The {@link DecimalAggregate} is the base class of the aggregates of the arithmetic group functions, which operate on
+ * the decimal states of the items. It remembers the decimal value of each item, so that a state change only replaces
+ * the previous value of the changed item.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+abstract class DecimalAggregate implements IncrementalGroupFunction.Aggregate {
+
+    private final Map<Item, BigDecimal> values = new IdentityHashMap<>();
+
+    /**
+     * Adds the current states of the given items to this aggregate.
+     *
+     * @param items the items (may be null)
+     * @return this aggregate
+     */
+    DecimalAggregate addAll(Set<Item> items) {
+        if (items != null) {
+            for (Item item : items) {
+                update(item);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void update(Item item) {
+        DecimalType itemState = (DecimalType) item.getStateAs(DecimalType.class);
+        BigDecimal oldValue;
+        if (itemState != null) {
+            BigDecimal value = itemState.toBigDecimal();
+            oldValue = values.put(item, value);
+            if (oldValue != null) {
+                removeValue(oldValue);
+            }
+            addValue(value);
+        } else {
+            oldValue = values.remove(item);
+            if (oldValue != null) {
+                removeValue(oldValue);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items with a decimal state.
+     *
+     * @return the number of values
+     */
+    protected int getCount() {
+        return values.size();
+    }
+
+    protected abstract void addValue(BigDecimal value);
+
+    protected abstract void removeValue(BigDecimal value);
+
+    /**
+     * Keeps the exact sum of all values.
+     */
+    static class Sum extends DecimalAggregate {
+
+        protected BigDecimal sum = BigDecimal.ZERO;
+
+        @Override
+        protected void addValue(BigDecimal value) {
+            sum = sum.add(value);
+        }
+
+        @Override
+        protected void removeValue(BigDecimal value) {
+            sum = sum.subtract(value);
+        }
+
+        @Override
+        public State getState() {
+            return new DecimalType(sum);
+        }
+    }
+
+    /**
+     * Keeps the exact sum and the number of all values.
+     */
+    static class Avg extends Sum {
+
+        @Override
+        public State getState() {
+            int count = getCount();
+            if (count > 0) {
+                return new DecimalType(sum.divide(new BigDecimal(count), RoundingMode.HALF_UP));
+            } else {
+                return UnDefType.UNDEF;
+            }
+        }
+    }
+
+    /**
+     * Keeps all values ordered, so that the minimum or maximum is available in logarithmic time.
+     */
+    static class Extremum extends DecimalAggregate {
+
+        private final TreeMap<BigDecimal, Integer> occurrences = new TreeMap<>();
+
+        private final boolean max;
+
+        Extremum(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        protected void addValue(BigDecimal value) {
+            Integer count = occurrences.get(value);
+            occurrences.put(value, count == null ? 1 : count + 1);
+        }
+
+        @Override
+        protected void removeValue(BigDecimal value) {
+            Integer count = occurrences.get(value);
+            if (count == null || count <= 1) {
+                occurrences.remove(value);
+            } else {
+                occurrences.put(value, count - 1);
+            }
+        }
+
+        @Override
+        public State getState() {
+            if (occurrences.isEmpty()) {
+                return UnDefType.UNDEF;
+            }
+            return new DecimalType(max ? occurrences.lastKey() : occurrences.firstKey());
+        }
+    }
+
+}
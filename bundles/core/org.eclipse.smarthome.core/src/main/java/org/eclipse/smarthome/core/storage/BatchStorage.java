@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.storage;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A {@link BatchStorage} is a {@link Storage}, which can remove many keys at once and iterate over a snapshot of its
+ * mappings. The removals of a bulk operation are applied atomically, so that either all or none of them are persisted,
+ * and implementations can persist them with a single write instead of one write per key.
+ *
+ * @author agent - Initial contribution
+ */
+public interface BatchStorage<T> extends Storage<T> {
+
+    /**
+     * Removes the mappings of all given keys.
+     *
+     * @param keys the keys of the mappings to remove
+     * @return the removed values by their key, keys without a mapping are not contained
+     */
+    Map<String, T> removeAll(Collection<String> keys);
+
+    /**
+     * Returns an iterator over a consistent snapshot of all mappings of this Storage. Mutations after the call are not
+     * reflected by the iterator. The values may be read lazily while iterating.
+     *
+     * @return the iterator of the mappings
+     */
+    Iterator<Map.Entry<String, T>> entries();
+
+}
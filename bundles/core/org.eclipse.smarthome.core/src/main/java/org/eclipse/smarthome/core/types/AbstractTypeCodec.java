@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.types;
+
+/**
+ * Base class of {@link TypeCodec}s, whose values are formatted by their <code>toString()</code> method.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> the type, which is converted by the codec
+ */
+public abstract class AbstractTypeCodec<T extends Type> implements TypeCodec<T> {
+
+    private final Class<T> type;
+
+    /**
+     * Creates a new codec.
+     *
+     * @param type the type, which is converted by the codec (must not be null)
+     */
+    protected AbstractTypeCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public String format(T value) {
+        return value.toString();
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.types;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link TypeCodec} for types, which are implemented as enums. The constants are looked up by their name, so that an
+ * invalid name does not cause an exception.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <E> the enum type
+ */
+public class EnumTypeCodec<E extends Enum<E> & Type> extends AbstractTypeCodec<E> {
+
+    private final Map<String, E> constants = new HashMap<>();
+
+    /**
+     * Creates a new codec.
+     *
+     * @param type the enum type (must not be null)
+     */
+    public EnumTypeCodec(Class<E> type) {
+        super(type);
+        for (E constant : type.getEnumConstants()) {
+            constants.put(constant.name(), constant);
+        }
+    }
+
+    @Override
+    public E parse(String value) {
+        return constants.get(value);
+    }
+
+    @Override
+    public String format(E value) {
+        return value.name();
+    }
+
+}
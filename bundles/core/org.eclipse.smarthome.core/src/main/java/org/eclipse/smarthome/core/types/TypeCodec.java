@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.types;
+
+/**
+ * A {@link TypeCodec} converts the values of a {@link Type} from and to their string representation without using
+ * reflection. Codecs are registered at the {@link TypeCodecRegistry} by the simple name of their type, which is the
+ * name used in serialized item events.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> the type, which is converted by the codec
+ */
+public interface TypeCodec<T extends Type> {
+
+    /**
+     * Returns the type, which is converted by this codec.
+     *
+     * @return the type
+     */
+    Class<T> getType();
+
+    /**
+     * Parses a string into a value of the type.
+     *
+     * @param value the string to parse (must not be null)
+     * @return the parsed value or <code>null</code>, if the string is not a valid value of the type
+     */
+    T parse(String value);
+
+    /**
+     * Formats a value of the type into a string, which can be parsed by {@link #parse(String)}.
+     *
+     * @param value the value to format (must not be null)
+     * @return the string representation of the value
+     */
+    String format(T value);
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.core.types;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link TypeCodecRegistry} holds the {@link TypeCodec}s of all known types. The codecs of the core types are
+ * registered by the core bundle, bindings can register codecs for their own types. Types without a codec are
+ * still converted by reflection using their static <code>valueOf(String)</code> method.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public final class TypeCodecRegistry {
+
+    private static final ConcurrentMap<String, TypeCodec<?>> codecsByName = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, TypeCodec<?>> codecsByType = new ConcurrentHashMap<>();
+
+    static {
+        register(new EnumTypeCodec<>(UnDefType.class));
+        register(new EnumTypeCodec<>(RefreshType.class));
+    }
+
+    private TypeCodecRegistry() {
+    }
+
+    /**
+     * Registers a codec. A previously registered codec for the same type is replaced.
+     *
+     * @param codec the codec (must not be null)
+     */
+    public static void register(TypeCodec<?> codec) {
+        Class<?> type = codec.getType();
+        codecsByType.put(type, codec);
+        codecsByName.put(type.getSimpleName(), codec);
+    }
+
+    /**
+     * Unregisters a codec. Nothing happens, if another codec has been registered for its type meanwhile.
+     *
+     * @param codec the codec (must not be null)
+     */
+    public static void unregister(TypeCodec<?> codec) {
+        Class<?> type = codec.getType();
+        codecsByType.remove(type, codec);
+        codecsByName.remove(type.getSimpleName(), codec);
+    }
+
+    /**
+     * Returns the codec of the given type.
+     *
+     * @param type the type
+     * @return the codec or <code>null</code>, if no codec has been registered for the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type> TypeCodec<T> getCodec(Class<T> type) {
+        return (TypeCodec<T>) codecsByType.get(type);
+    }
+
+    /**
+     * Returns the codec of the type with the given simple name, e.g. <code>DecimalType</code>.
+     *
+     * @param typeName the simple name of the type
+     * @return the codec or <code>null</code>, if no codec has been registered for the type
+     */
+    public static TypeCodec<?> getCodec(String typeName) {
+        return codecsByName.get(typeName);
+    }
+
+}
@@ -15,6 +15,7 @@ import java.util.List;
  * This is a helper class that helps parsing a string into an openHAB type (state or command).
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Added type codecs
  *
  */
 public class TypeParser {
@@ -34,17 +35,10 @@ public class TypeParser {
      * @return the corresponding State instance or <code>null</code>
      */
     public static State parseState(List<Class<? extends State>> types, String s) {
-        for (Class<? extends Type> type : types) {
-            try {
-                Method valueOf = type.getMethod("valueOf", String.class);
-                State state = (State) valueOf.invoke(type, s);
-                if (state != null)
-                    return state;
-            } catch (NoSuchMethodException e) {
-            } catch (IllegalArgumentException e) {
-            } catch (IllegalAccessException e) {
-            } catch (InvocationTargetException e) {
-            }
+        for (Class<? extends State> type : types) {
+            State state = parseType(type, s);
+            if (state != null)
+                return state;
         }
         return null;
     }
@@ -65,16 +59,35 @@ public class TypeParser {
      */
     public static Command parseCommand(List<Class<? extends Command>> types, String s) {
         for (Class<? extends Command> type : types) {
-            try {
-                Method valueOf = type.getMethod("valueOf", String.class);
-                Command value = (Command) valueOf.invoke(type, s);
-                if (value != null)
-                    return value;
-            } catch (NoSuchMethodException e) {
-            } catch (IllegalArgumentException e) {
-            } catch (IllegalAccessException e) {
-            } catch (InvocationTargetException e) {
-            }
+            Command value = parseType(type, s);
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+
+    /**
+     * Determines a value of the given type from a string. The {@link TypeCodec} of the type is used, if one has been
+     * registered at the {@link TypeCodecRegistry}, otherwise the static <code>valueOf(String)</code> method of the
+     * type is called.
+     *
+     * @param type the type of the value
+     * @param s the string to parse
+     * @return the corresponding value or <code>null</code>, if the string is not a valid value of the type
+     */
+    public static <T extends Type> T parseType(Class<T> type, String s) {
+        TypeCodec<T> codec = TypeCodecRegistry.getCodec(type);
+        if (codec != null && s != null) {
+            return codec.parse(s);
+        }
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            return type.cast(valueOf.invoke(type, s));
+        } catch (NoSuchMethodException e) {
+        } catch (IllegalArgumentException e) {
+        } catch (IllegalAccessException e) {
+        } catch (InvocationTargetException e) {
+        } catch (ClassCastException e) {
         }
         return null;
     }
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.console.internal.extension;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.smarthome.core.events.EventBusStatistics;
+import org.eclipse.smarthome.core.events.EventSubscriberStatistics;
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+
+/**
+ * Console command extension to show the delivery statistics of the event subscribers
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class EventConsoleCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String SUBCMD_STATS = "stats";
+
+    private volatile EventBusStatistics eventBusStatistics;
+
+    public EventConsoleCommandExtension() {
+        super("events", "Show the event delivery statistics.");
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Collections.singletonList(buildCommandUsage(SUBCMD_STATS,
+                "lists queue depth, dropped events and latency of each event subscriber"));
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length > 0 && SUBCMD_STATS.equals(args[0])) {
+            printStatistics(console);
+        } else {
+            printUsage(console);
+        }
+    }
+
+    private void printStatistics(Console console) {
+        EventBusStatistics eventBusStatistics = this.eventBusStatistics;
+        if (eventBusStatistics == null) {
+            console.println("The event bus does not provide statistics.");
+            return;
+        }
+        Collection<EventSubscriberStatistics> statistics = eventBusStatistics.getSubscriberStatistics();
+        if (statistics.isEmpty()) {
+            console.println("No event subscriber registered.");
+            return;
+        }
+        for (EventSubscriberStatistics subscriberStatistics : statistics) {
+            console.println(subscriberStatistics.getSubscriber().getClass().getName() + " ["
+                    + subscriberStatistics.getOverflowPolicyName() + "]: depth="
+                    + subscriberStatistics.getQueueDepth() + ", maxDepth=" + subscriberStatistics.getMaxQueueDepth()
+                    + ", delivered=" + subscriberStatistics.getDeliveredEvents() + ", dropped="
+                    + subscriberStatistics.getDroppedEvents() + ", coalesced="
+                    + subscriberStatistics.getCoalescedEvents() + ", avgLatency="
+                    + String.format("%.2f", subscriberStatistics.getAverageQueueLatency()) + "ms, avgProcessing="
+                    + String.format("%.2f", subscriberStatistics.getAverageProcessingTime()) + "ms, maxProcessing="
+                    + String.format("%.2f", subscriberStatistics.getMaxProcessingTime()) + "ms");
+        }
+    }
+
+    protected void setEventBusStatistics(EventBusStatistics eventBusStatistics) {
+        this.eventBusStatistics = eventBusStatistics;
+    }
+
+    protected void unsetEventBusStatistics(EventBusStatistics eventBusStatistics) {
+        this.eventBusStatistics = null;
+    }
+
+}
@@ -38,8 +38,11 @@ public class EventLogger implements EventSubscriber {
     @Override
     public void receive(Event event) {
         Logger logger = getLogger(event.getType());
-        logger.trace("Received event of type '{}' under the topic '{}' with payload: '{}'", event.getType(),
-                event.getTopic(), event.getPayload());
+        if (logger.isTraceEnabled()) {
+            // only request the payload if needed, as it might be serialized on demand
+            logger.trace("Received event of type '{}' under the topic '{}' with payload: '{}'", event.getType(),
+                    event.getTopic(), event.getPayload());
+        }
         logger.info(event.toString());
     }
 
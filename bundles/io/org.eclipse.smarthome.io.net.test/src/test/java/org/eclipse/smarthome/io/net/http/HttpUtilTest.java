@@ -8,12 +8,28 @@
 package org.eclipse.smarthome.io.net.http;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.methods.DeleteMethod;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.eclipse.smarthome.io.net.internal.HttpPool;
 import org.junit.Test;
 
 /**
@@ -44,4 +60,178 @@ public class HttpUtilTest {
         assertEquals(DeleteMethod.class, HttpUtil.createHttpMethod("DELETE", "").getClass());
     }
 
+    @Test
+    public void testExecuteUrlAsyncFailure() throws Exception {
+        // find a port, on which nobody is listening
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        final CountDownLatch failed = new CountDownLatch(1);
+        Future<String> response = HttpUtil.executeUrlAsync("GET", "http://localhost:" + port + "/", null, null, null,
+                5000, new HttpResponseCallback() {
+                    @Override
+                    public void completed(String responseBody) {
+                    }
+
+                    @Override
+                    public void failed(Exception exception) {
+                        failed.countDown();
+                    }
+                });
+
+        try {
+            response.get(10, TimeUnit.SECONDS);
+            fail("The request must fail.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteUrlReusesPooledConnection() throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0);
+        AtomicInteger connections = startServer(serverSocket, "hello");
+        String url = "http://localhost:" + serverSocket.getLocalPort() + "/";
+        try {
+            assertEquals("hello", HttpUtil.executeUrl("GET", url, 5000));
+            assertEquals("hello", HttpUtil.executeUrl("GET", url, 5000));
+
+            final CountDownLatch completed = new CountDownLatch(1);
+            Future<String> response = HttpUtil.executeUrlAsync("GET", url, null, null, null, 5000,
+                    new HttpResponseCallback() {
+                        @Override
+                        public void completed(String responseBody) {
+                            if ("hello".equals(responseBody)) {
+                                completed.countDown();
+                            }
+                        }
+
+                        @Override
+                        public void failed(Exception exception) {
+                        }
+                    });
+            assertEquals("hello", response.get(10, TimeUnit.SECONDS));
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+
+            // all requests have been sent over the same persistent connection
+            assertEquals(1, connections.get());
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void testExecuteUrlAfterPoolShutdown() throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0);
+        AtomicInteger connections = startServer(serverSocket, "hello");
+        String url = "http://localhost:" + serverSocket.getLocalPort() + "/";
+        try {
+            assertEquals("hello", HttpUtil.executeUrl("GET", url, 5000));
+
+            // closes the pooled connection, a new pool is created by the next request
+            HttpPool.shutdown();
+            assertEquals("hello", HttpUtil.executeUrl("GET", url, 5000));
+            assertEquals("hello", HttpUtil.executeUrlAsync("GET", url, 5000).get(10, TimeUnit.SECONDS));
+            assertEquals(2, connections.get());
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void testPoolShutdownFailsCallbacksOfRequestsNotStarted() throws Exception {
+        // the server accepts connections, but never answers, so that the only thread of the pool is blocked
+        ServerSocket serverSocket = new ServerSocket(0);
+        String url = "http://localhost:" + serverSocket.getLocalPort() + "/";
+        HttpPool.shutdown();
+        System.setProperty("smarthome.http.asyncThreads", "1");
+        System.setProperty("smarthome.http.shutdownTimeout", "100");
+        try {
+            HttpUtil.executeUrlAsync("GET", url, 60000);
+            final CountDownLatch failed = new CountDownLatch(1);
+            Future<String> response = HttpUtil.executeUrlAsync("GET", url, null, null, null, 60000,
+                    new HttpResponseCallback() {
+                        @Override
+                        public void completed(String responseBody) {
+                        }
+
+                        @Override
+                        public void failed(Exception exception) {
+                            failed.countDown();
+                        }
+                    });
+
+            HttpPool.shutdown();
+
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            assertTrue(response.isCancelled());
+            try {
+                response.get(10, TimeUnit.SECONDS);
+                fail("The request must have been cancelled.");
+            } catch (CancellationException e) {
+                // expected
+            }
+        } finally {
+            System.clearProperty("smarthome.http.asyncThreads");
+            System.clearProperty("smarthome.http.shutdownTimeout");
+            serverSocket.close();
+            HttpPool.shutdown();
+        }
+    }
+
+    /**
+     * Starts a minimal HTTP/1.1 server, which answers every request with the given body and keeps the connections
+     * open.
+     *
+     * @return the number of accepted connections
+     */
+    private AtomicInteger startServer(final ServerSocket serverSocket, final String body) {
+        final AtomicInteger connections = new AtomicInteger();
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        final Socket socket = serverSocket.accept();
+                        connections.incrementAndGet();
+                        Thread handler = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                serve(socket, body);
+                            }
+                        });
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException e) {
+                        // the server has been closed
+                    }
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return connections;
+    }
+
+    private void serve(Socket socket, String body) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+            OutputStream out = socket.getOutputStream();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    // end of the request headers, the requests do not have a body
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + body.length()
+                            + "\r\n\r\n" + body).getBytes("US-ASCII"));
+                    out.flush();
+                }
+            }
+            socket.close();
+        } catch (IOException e) {
+            // the connection has been closed
+        }
+    }
+
 }
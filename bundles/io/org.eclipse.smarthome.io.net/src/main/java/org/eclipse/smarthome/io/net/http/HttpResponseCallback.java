@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.net.http;
+
+/**
+ * A {@link HttpResponseCallback} is notified, when an asynchronous request of {@link HttpUtil} has been completed. The
+ * callback is called by the thread, which executed the request, so it should return quickly.
+ *
+ * @author agent - Initial contribution
+ */
+public interface HttpResponseCallback {
+
+    /**
+     * Called, if a response has been received.
+     *
+     * @param responseBody the response body
+     */
+    void completed(String responseBody);
+
+    /**
+     * Called, if the request could not be executed.
+     *
+     * @param exception the cause of the failure
+     */
+    void failed(Exception exception);
+
+}
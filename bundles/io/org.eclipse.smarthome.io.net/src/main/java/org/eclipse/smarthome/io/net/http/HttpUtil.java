@@ -12,6 +12,10 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,20 +38,65 @@ import org.apache.commons.httpclient.methods.PutMethod;
 import org.apache.commons.httpclient.params.HttpMethodParams;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.io.net.internal.HttpPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Some common methods to be used in both HTTP-In-Binding and HTTP-Out-Binding
  *
+ * <p>
+ * All requests share a pool of persistent connections, so that subsequent requests to the same host reuse an open
+ * connection. The pool is configured by the system properties {@code smarthome.http.maxConnectionsPerHost} (default
+ * 5), {@code smarthome.http.maxConnections} (default 50) and {@code smarthome.http.idleTimeout} (the time in
+ * milliseconds after which an idle connection is closed, default 60000). Asynchronous requests are executed by
+ * {@code smarthome.http.asyncThreads} threads (default 10). The connections and threads are released, when the bundle
+ * is stopped.
+ * </p>
+ *
  * @author Thomas.Eichstaedt-Engelen
  * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Added connection pool and asynchronous requests
  */
 public class HttpUtil {
 
     /** {@link Pattern} which matches the credentials out of an URL */
     private static final Pattern URL_CREDENTIALS_PATTERN = Pattern.compile("http://(.*?):(.*?)@.*");
 
+    /**
+     * The proxy settings of the <code>http.proxyXXX</code> System variables.
+     */
+    private static class ProxySettings {
+
+        private String host = null;
+        private int port = 80;
+        private String user = null;
+        private String password = null;
+        private String nonProxyHosts = null;
+
+        private static ProxySettings fromSystemProperties() {
+            ProxySettings proxy = new ProxySettings();
+            String proxySet = System.getProperty("http.proxySet");
+            if ("true".equalsIgnoreCase(proxySet)) {
+                proxy.host = System.getProperty("http.proxyHost");
+                String proxyPortString = System.getProperty("http.proxyPort");
+                if (StringUtils.isNotBlank(proxyPortString)) {
+                    try {
+                        proxy.port = Integer.valueOf(proxyPortString);
+                    } catch (NumberFormatException e) {
+                        LoggerFactory.getLogger(HttpUtil.class).warn(
+                                "'{}' is not a valid proxy port - using port 80 instead");
+                    }
+                }
+                proxy.user = System.getProperty("http.proxyUser");
+                proxy.password = System.getProperty("http.proxyPassword");
+                proxy.nonProxyHosts = System.getProperty("http.nonProxyHosts");
+            }
+            return proxy;
+        }
+
+    }
+
     /**
      * Executes the given <code>url</code> with the given <code>httpMethod</code>.
      * Furthermore the <code>http.proxyXXX</code> System variables are read and
@@ -99,33 +148,93 @@ public class HttpUtil {
      */
     public static String executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
             String contentType, int timeout) {
-        String proxySet = System.getProperty("http.proxySet");
-
-        String proxyHost = null;
-        int proxyPort = 80;
-        String proxyUser = null;
-        String proxyPassword = null;
-        String nonProxyHosts = null;
-
-        if ("true".equalsIgnoreCase(proxySet)) {
-            proxyHost = System.getProperty("http.proxyHost");
-            String proxyPortString = System.getProperty("http.proxyPort");
-            if (StringUtils.isNotBlank(proxyPortString)) {
+        ProxySettings proxy = ProxySettings.fromSystemProperties();
+        return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, proxy.host, proxy.port,
+                proxy.user, proxy.password, proxy.nonProxyHosts);
+    }
+
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> asynchronously.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param timeout the socket timeout to wait for data (in milliseconds)
+     *
+     * @return the future response body, which fails with an {@link IOException} when the request went wrong
+     * @see #executeUrlAsync(String, String, Properties, InputStream, String, int, HttpResponseCallback)
+     */
+    public static Future<String> executeUrlAsync(String httpMethod, String url, int timeout) {
+        return executeUrlAsync(httpMethod, url, null, null, null, timeout, null);
+    }
+
+    /**
+     * Executes the given <code>url</code> with the given <code>httpMethod</code> asynchronously. The request is
+     * executed by a shared pool of threads, so that the calling thread is never blocked. Furthermore the
+     * <code>http.proxyXXX</code> System variables are read and set into the {@link HttpClient}.
+     *
+     * @param httpMethod the HTTP method to use
+     * @param url the url to execute
+     * @param httpHeaders optional http request headers which has to be sent within request
+     * @param content the content to be send to the given <code>url</code> or <code>null</code> if no content should be
+     *            send.
+     * @param contentType the content type of the given <code>content</code>
+     * @param timeout the socket timeout to wait for data (in milliseconds)
+     * @param callback an optional callback, which is notified when the request has been completed, has failed or has
+     *            been cancelled before it was executed
+     *
+     * @return the future response body, which fails with an {@link IOException} when the request went wrong
+     */
+    public static Future<String> executeUrlAsync(final String httpMethod, final String url,
+            final Properties httpHeaders, final InputStream content, final String contentType, final int timeout,
+            final HttpResponseCallback callback) {
+        // the method is created by the caller, so that an unknown method is reported immediately
+        createHttpMethod(httpMethod, url);
+        // either the request or the cancellation before its start notifies the callback
+        final AtomicBoolean started = new AtomicBoolean();
+        FutureTask<String> request = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                ProxySettings proxy = ProxySettings.fromSystemProperties();
+                String responseBody;
                 try {
-                    proxyPort = Integer.valueOf(proxyPortString);
-                } catch (NumberFormatException e) {
-                    LoggerFactory.getLogger(HttpUtil.class).warn(
-                            "'{}' is not a valid proxy port - using port 80 instead");
+                    responseBody = execute(httpMethod, url, httpHeaders, content, contentType, timeout, proxy.host,
+                            proxy.port, proxy.user, proxy.password, proxy.nonProxyHosts);
+                } catch (IOException e) {
+                    notifyFailed(callback, e);
+                    throw e;
+                }
+                if (callback != null) {
+                    try {
+                        callback.completed(responseBody);
+                    } catch (RuntimeException e) {
+                        LoggerFactory.getLogger(HttpUtil.class).error("HTTP callback failed", e);
+                    }
                 }
+                return responseBody;
             }
-            proxyUser = System.getProperty("http.proxyUser");
-            proxyPassword = System.getProperty("http.proxyPassword");
-            nonProxyHosts = System.getProperty("http.nonProxyHosts");
-        }
-
-        return executeUrl(httpMethod, url, httpHeaders, content, contentType, timeout, proxyHost, proxyPort, proxyUser,
-                proxyPassword, nonProxyHosts);
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled() && started.compareAndSet(false, true)) {
+                    notifyFailed(callback, new IOException("The request has been cancelled before it was executed."));
+                }
+            }
+        };
+        HttpPool.getInstance().getExecutor().execute(request);
+        return request;
+    }
 
+    private static void notifyFailed(HttpResponseCallback callback, IOException exception) {
+        if (callback != null) {
+            try {
+                callback.failed(exception);
+            } catch (RuntimeException e) {
+                LoggerFactory.getLogger(HttpUtil.class).error("HTTP callback failed", e);
+            }
+        }
     }
 
     /**
@@ -148,8 +257,27 @@ public class HttpUtil {
     public static String executeUrl(String httpMethod, String url, Properties httpHeaders, InputStream content,
             String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
             String proxyPassword, String nonProxyHosts) {
+        Logger logger = LoggerFactory.getLogger(HttpUtil.class);
+        try {
+            return execute(httpMethod, url, httpHeaders, content, contentType, timeout, proxyHost, proxyPort, proxyUser,
+                    proxyPassword, nonProxyHosts);
+        } catch (HttpException he) {
+            logger.error("Fatal protocol violation: {}", he.toString());
+        } catch (IOException ioe) {
+            logger.error("Fatal transport error: {}", ioe.toString());
+        }
 
-        HttpClient client = new HttpClient();
+        return null;
+    }
+
+    private static String execute(String httpMethod, String url, Properties httpHeaders, InputStream content,
+            String contentType, int timeout, String proxyHost, Integer proxyPort, String proxyUser,
+            String proxyPassword, String nonProxyHosts) throws IOException {
+
+        // the client is lightweight, the connections are kept by the shared connection manager
+        HttpClient client = new HttpClient(HttpPool.getInstance().getConnectionManager());
+        // do not wait longer for a free connection of the pool than for data
+        client.getParams().setConnectionManagerTimeout(timeout);
 
         // only configure a proxy if a host is provided
         if (StringUtils.isNotBlank(proxyHost) && proxyPort != null && shouldUseProxy(url, nonProxyHosts)) {
@@ -190,27 +318,22 @@ public class HttpUtil {
         }
 
         try {
-
             int statusCode = client.executeMethod(method);
             if (statusCode != HttpStatus.SC_OK) {
                 logger.warn("Method failed: " + method.getStatusLine());
             }
 
-            String responseBody = IOUtils.toString(method.getResponseBodyAsStream());
+            // the body is read completely, so that the connection can be reused
+            InputStream responseStream = method.getResponseBodyAsStream();
+            String responseBody = responseStream != null ? IOUtils.toString(responseStream) : "";
             if (!responseBody.isEmpty()) {
                 logger.trace(responseBody);
             }
 
             return responseBody;
-        } catch (HttpException he) {
-            logger.error("Fatal protocol violation: {}", he.toString());
-        } catch (IOException ioe) {
-            logger.error("Fatal transport error: {}", ioe.toString());
         } finally {
             method.releaseConnection();
         }
-
-        return null;
     }
 
     /**
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.net.internal;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.io.net.http.HttpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link HttpPool} holds the connection pool and the executor of asynchronous requests, which are shared by all
+ * requests of the {@link HttpUtil}. The pool is created on first use and is shut down, when the bundle is stopped.
+ * <p>
+ * The pool can be configured by the system properties 'smarthome.http.maxConnectionsPerHost' (default 10),
+ * 'smarthome.http.maxConnections' (default 50), 'smarthome.http.idleTimeout' (in milliseconds, default 60000),
+ * 'smarthome.http.asyncThreads' (default 10) and 'smarthome.http.shutdownTimeout' (in milliseconds, default 5000).
+ * A request waits for a free connection, if the limit of its host has been reached. The default limit per host
+ * equals the number of threads for asynchronous requests, so that asynchronous requests to a single slow host do not
+ * wait for each other's connections.
+ *
+ * @author agent - Initial contribution
+ */
+public final class HttpPool {
+
+    private static final String PROPERTY_PREFIX = "smarthome.http.";
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpPool.class);
+
+    private static volatile HttpPool instance;
+
+    private final MultiThreadedHttpConnectionManager connectionManager;
+
+    private final IdleConnectionTimeoutThread idleConnectionTimeoutThread;
+
+    private final ExecutorService executor;
+
+    private final long shutdownTimeout;
+
+    private HttpPool() {
+        int threads = getIntProperty("asyncThreads", 10);
+        shutdownTimeout = getIntProperty("shutdownTimeout", 5000);
+
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(getIntProperty("maxConnectionsPerHost", threads));
+        params.setMaxTotalConnections(getIntProperty("maxConnections", 50));
+        // a persistent connection may have been closed by the server meanwhile
+        params.setStaleCheckingEnabled(true);
+
+        long idleTimeout = getIntProperty("idleTimeout", 60000);
+        idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+        idleConnectionTimeoutThread.setName("ESH-http-idle");
+        idleConnectionTimeoutThread.setConnectionTimeout(idleTimeout);
+        idleConnectionTimeoutThread.setTimeoutInterval(Math.max(idleTimeout / 2, 1000));
+        idleConnectionTimeoutThread.addConnectionManager(connectionManager);
+        idleConnectionTimeoutThread.start();
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ESH-http-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+    }
+
+    /**
+     * Returns the shared pool, which is created if necessary.
+     *
+     * @return the pool
+     */
+    public static HttpPool getInstance() {
+        HttpPool pool = instance;
+        if (pool == null) {
+            synchronized (HttpPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new HttpPool();
+                    instance = pool;
+                    logger.debug("HTTP connection pool has been created.");
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Closes the pooled connections and stops the threads of the shared pool. Pending asynchronous requests are still
+     * executed until the shutdown timeout has elapsed. Afterwards, running requests are interrupted and requests,
+     * which have not been started, are cancelled, so that their callbacks are notified about the failure. A subsequent
+     * request creates a new pool.
+     */
+    public static void shutdown() {
+        HttpPool pool;
+        synchronized (HttpPool.class) {
+            pool = instance;
+            instance = null;
+        }
+        if (pool != null) {
+            pool.shutdownExecutor();
+            pool.idleConnectionTimeoutThread.shutdown();
+            pool.connectionManager.shutdown();
+            logger.debug("HTTP connection pool has been shut down.");
+        }
+    }
+
+    private void shutdownExecutor() {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> pendingRequests = executor.shutdownNow();
+        for (Runnable pendingRequest : pendingRequests) {
+            if (pendingRequest instanceof Future) {
+                ((Future<?>) pendingRequest).cancel(false);
+            }
+        }
+        logger.warn("Asynchronous HTTP requests did not finish within {}ms, {} pending requests have been cancelled.",
+                shutdownTimeout, pendingRequests.size());
+    }
+
+    /**
+     * Returns the manager of the pooled connections.
+     *
+     * @return the connection manager
+     */
+    public MultiThreadedHttpConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    /**
+     * Returns the executor of asynchronous requests.
+     *
+     * @return the executor
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                int intValue = Integer.parseInt(value.trim());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            logger.warn("Invalid value '{}' for '{}', using {}.",
+                    new Object[] { value, PROPERTY_PREFIX + name, defaultValue });
+        }
+        return defaultValue;
+    }
+
+}
@@ -10,10 +10,9 @@ package org.eclipse.smarthome.io.rest.sitemap.internal;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -22,6 +21,10 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.container.TimeoutHandler;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -31,11 +34,9 @@ import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
-import org.eclipse.smarthome.core.items.StateChangeListener;
-import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.eclipse.smarthome.io.rest.core.item.EnrichedItemDTOMapper;
 import org.eclipse.smarthome.model.sitemap.Chart;
@@ -55,6 +56,7 @@ import org.eclipse.smarthome.model.sitemap.Video;
 import org.eclipse.smarthome.model.sitemap.Webview;
 import org.eclipse.smarthome.model.sitemap.Widget;
 import org.eclipse.smarthome.ui.items.ItemUIRegistry;
+import org.eclipse.smarthome.ui.items.PageChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,10 +71,16 @@ import io.swagger.annotations.ApiResponses;
  * This class acts as a REST resource for sitemaps and provides different methods to interact with them, like retrieving
  * a list of all available sitemaps or just getting the widgets of a single page.
  * </p>
+ * <p>
+ * Long polling requests for a page are suspended until a state of an item on the page changes, so that they do not
+ * occupy a thread while waiting. The page is rendered by a thread of the sitemap thread pool, so that the thread,
+ * which has changed the item state, is not blocked.
+ * </p>
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Chris Jackson
  * @author Yordan Zhelev - Added Swagger annotations
+ * @author agent - Suspend long polls until the page changes
  */
 @Path(SitemapResource.PATH_SITEMAPS)
 @Api
@@ -84,6 +92,8 @@ public class SitemapResource implements RESTResource {
 
     private static final long TIMEOUT_IN_MS = 30000;
 
+    private static final String THREADPOOL_NAME = "sitemap";
+
     @Context
     UriInfo uriInfo;
 
@@ -137,19 +147,31 @@ public class SitemapResource implements RESTResource {
     @ApiOperation(value = "Polls the data for a sitemap.", response = PageDTO.class)
     @ApiResponses(value = { @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 404, message = "Sitemap with requested name does not exist or page does not exist, or page refers to a non-linkable widget") })
-    public Response getPageData(@Context HttpHeaders headers,
+    public void getPageData(@Context HttpHeaders headers, @Suspended AsyncResponse asyncResponse,
             @PathParam("sitemapname") @ApiParam(value = "sitemap name") String sitemapname,
             @PathParam("pageid") @ApiParam(value = "page id") String pageId) {
         logger.debug("Received HTTP GET request at '{}'", uriInfo.getPath());
+        URI uri = uriInfo.getBaseUriBuilder().build();
 
         if (headers.getRequestHeader("X-Atmosphere-Transport") != null) {
             // Make the REST-API pseudo-compatible with openHAB 1.x
             // The client asks Atmosphere for server push functionality,
             // so we do a simply listening for changes on the appropriate items
-            blockUnlessChangeOccurs(sitemapname, pageId);
+            EList<Widget> widgets = getPageWidgets(sitemapname, pageId);
+            if (widgets != null) {
+                resumeOnChange(asyncResponse, sitemapname, pageId, uri, widgets);
+                return;
+            }
+        }
+        resumeWithPage(asyncResponse, sitemapname, pageId, uri);
+    }
+
+    private void resumeWithPage(AsyncResponse asyncResponse, String sitemapName, String pageId, URI uri) {
+        try {
+            asyncResponse.resume(Response.ok(getPageBean(sitemapName, pageId, uri)).build());
+        } catch (RuntimeException e) {
+            asyncResponse.resume(e);
         }
-        Object responseObject = getPageBean(sitemapname, pageId, uriInfo.getBaseUriBuilder().build());
-        return Response.ok(responseObject).build();
     }
 
     private PageDTO getPageBean(String sitemapName, String pageId, URI uri) {
@@ -427,119 +449,69 @@ public class SitemapResource implements RESTResource {
         return null;
     }
 
-    private void blockUnlessChangeOccurs(String sitemapname, String pageId) {
+    private EList<Widget> getPageWidgets(String sitemapname, String pageId) {
         Sitemap sitemap = getSitemap(sitemapname);
         if (sitemap != null) {
             if (pageId.equals(sitemap.getName())) {
-                waitForChanges(sitemap.getChildren());
+                return sitemap.getChildren();
             } else {
                 Widget pageWidget = itemUIRegistry.getWidget(sitemap, pageId);
                 if (pageWidget instanceof LinkableWidget) {
-                    EList<Widget> children = itemUIRegistry.getChildren((LinkableWidget) pageWidget);
-                    waitForChanges(children);
+                    return itemUIRegistry.getChildren((LinkableWidget) pageWidget);
                 }
             }
         }
+        return null;
     }
 
     /**
-     * This method only returns when a change has occurred to any item on the
-     * page to display or if the timeout is reached
+     * Suspends a request for a page until a change has occurred to any item on the page or the timeout is reached
+     * and then resumes it with the page.
      *
+     * @param asyncResponse
+     *            the response of the request
+     * @param sitemapName
+     *            the name of the sitemap
+     * @param pageId
+     *            the id of the page
+     * @param uri
+     *            the base uri of the request
      * @param widgets
      *            the widgets of the page to observe
      */
-    private boolean waitForChanges(EList<Widget> widgets) {
-        long startTime = (new Date()).getTime();
-        boolean timeout = false;
-        BlockingStateChangeListener listener = new BlockingStateChangeListener();
-        // let's get all items for these widgets
-        Set<GenericItem> items = getAllItems(widgets);
-        for (GenericItem item : items) {
-            item.addStateChangeListener(listener);
-        }
-        while (!listener.hasChangeOccurred() && !timeout) {
-            timeout = (new Date()).getTime() - startTime > TIMEOUT_IN_MS;
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                timeout = true;
-                break;
-            }
-        }
-        for (GenericItem item : items) {
-            item.removeStateChangeListener(listener);
-        }
-        return !timeout;
-    }
-
-    /**
-     * Collects all items that are represented by a given list of widgets
-     *
-     * @param widgets
-     *            the widget list to get the items for added to all bundles containing REST resources
-     * @return all items that are represented by the list of widgets
-     */
-    private Set<GenericItem> getAllItems(EList<Widget> widgets) {
-        Set<GenericItem> items = new HashSet<GenericItem>();
-        if (itemUIRegistry != null) {
-            for (Widget widget : widgets) {
-                String itemName = widget.getItem();
-                if (itemName != null) {
-                    try {
-                        Item item = itemUIRegistry.getItem(itemName);
-                        if (item instanceof GenericItem) {
-                            final GenericItem gItem = (GenericItem) item;
-                            items.add(gItem);
+    private void resumeOnChange(final AsyncResponse asyncResponse, final String sitemapName, final String pageId,
+            final URI uri, EList<Widget> widgets) {
+        final PageChangeListener listener = new PageChangeListener(itemUIRegistry, widgets) {
+            @Override
+            protected void pageChanged() {
+                try {
+                    ThreadPoolManager.getPool(THREADPOOL_NAME).execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            resumeWithPage(asyncResponse, sitemapName, pageId, uri);
                         }
-                    } catch (ItemNotFoundException e) {
-                        // ignore
-                    }
-                } else {
-                    if (widget instanceof Frame) {
-                        items.addAll(getAllItems(((Frame) widget).getChildren()));
-                    }
+                    });
+                } catch (RejectedExecutionException e) {
+                    asyncResponse.resume(e);
                 }
             }
-        }
-        return items;
-    }
-
-    /**
-     * This is a state change listener, which is merely used to determine, if a
-     * state change has occurred on one of a list of items.
-     *
-     * @author Kai Kreuzer - Initial contribution and API
-     *
-     */
-    private static class BlockingStateChangeListener implements StateChangeListener {
-
-        private boolean changed = false;
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void stateChanged(Item item, State oldState, State newState) {
-            changed = true;
-        }
-
-        /**
-         * determines, whether a state change has occurred since its creation
-         *
-         * @return true, if a state has changed
-         */
-        public boolean hasChangeOccurred() {
-            return changed;
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void stateUpdated(Item item, State state) {
-            // ignore if the state did not change
-        }
+        };
+        asyncResponse.setTimeout(TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(new TimeoutHandler() {
+            @Override
+            public void handleTimeout(AsyncResponse response) {
+                if (listener.unregister()) {
+                    resumeWithPage(asyncResponse, sitemapName, pageId, uri);
+                }
+            }
+        });
+        asyncResponse.register(new CompletionCallback() {
+            @Override
+            public void onComplete(Throwable throwable) {
+                listener.unregister();
+            }
+        });
+        listener.register();
     }
 
 }
@@ -11,8 +11,19 @@ import static org.hamcrest.CoreMatchers.*
 import static org.junit.Assert.*
 import static org.junit.matchers.JUnitMatchers.*
 
+import java.nio.ByteBuffer
+import java.nio.channels.ServerSocketChannel
+import java.nio.channels.SocketChannel
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil
+import org.eclipse.smarthome.io.rest.sse.internal.util.TopicFilterTrie
 import org.eclipse.smarthome.test.OSGiTest
+import org.glassfish.jersey.media.sse.OutboundEvent
 import org.junit.Test
 
 class SseResourceOSGiTest extends OSGiTest {
@@ -99,4 +110,72 @@ class SseResourceOSGiTest extends OSGiTest {
         assertThat "smarthome/items/anyitem/added".matches(regexes[0]), is(true);
         assertThat "smarthome/items/anyitem/removed".matches(regexes[0]), is(false);
     }
+
+    @Test
+    public void testTopicFilterTrie() {
+        def trie = new TopicFilterTrie<String>()
+        trie.add("smarthome/*/test/test/test/test", "first")
+        trie.add("smarthome/test/*/test/test/test", "second")
+        trie.add("smarthome/items/*/added, qivicon", "third")
+        trie.add("*added", "fourth")
+
+        assertThat trie.match("smarthome/test/test/test/test/test"), is(["first", "second"] as Set)
+        assertThat trie.match("smarthome/asdf/test/test/test/test"), is(["first"] as Set)
+        assertThat trie.match("smarthome/asdf/ASDF/test/test/test"), is([] as Set)
+        assertThat trie.match("smarthome/items/anyitem/added"), is(["third", "fourth"] as Set)
+        assertThat trie.match("smarthome/items/anyitem/removed"), is([] as Set)
+        assertThat trie.match("qivicon/asdf/ASDF/test/test/test"), is(["third"] as Set)
+
+        trie.add("", "all")
+        assertThat trie.match("smarthome/things/anything/updated"), is(["all"] as Set)
+
+        assertThat trie.remove("third"), is(true)
+        assertThat trie.remove("third"), is(false)
+        assertThat trie.match("smarthome/items/anyitem/added"), is(["fourth", "all"] as Set)
+    }
+
+    @Test
+    public void testDropAbortsWriteToClientWhichDoesNotRead() {
+        def server = ServerSocketChannel.open()
+        server.socket().bind(new InetSocketAddress(InetAddress.getByName("localhost"), 0))
+        // the client never reads, so a write blocks as soon as the TCP window is full
+        def client = SocketChannel.open(server.socket().getLocalSocketAddress())
+        def connection = server.accept()
+        def executor = Executors.newSingleThreadExecutor()
+        def aborted = new CountDownLatch(1)
+        try {
+            def eventOutput = new SseEventOutput(10, executor) {
+                @Override
+                public void write(OutboundEvent event) throws IOException {
+                    def data = ByteBuffer.allocate(64 * 1024)
+                    try {
+                        while (true) {
+                            data.clear()
+                            connection.write(data)
+                        }
+                    } catch (IOException e) {
+                        aborted.countDown()
+                        throw e
+                    }
+                }
+            }
+            def event = new OutboundEvent.Builder().name("message").data(String.class, "test").build()
+
+            assertThat eventOutput.offer(event), is(true)
+            waitForAssert({ assertThat eventOutput.isStalled(100), is(true) }, 5000)
+
+            eventOutput.drop()
+
+            assertThat aborted.await(5, TimeUnit.SECONDS), is(true)
+            assertThat eventOutput.offer(event), is(false)
+            // the pool thread is free again and not affected by the interrupt
+            def interrupted = executor.submit({ Thread.currentThread().isInterrupted() } as Callable).get(5, TimeUnit.SECONDS)
+            assertThat interrupted, is(false)
+        } finally {
+            executor.shutdownNow()
+            client.close()
+            connection.close()
+            server.close()
+        }
+    }
 }
@@ -14,8 +14,14 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
@@ -30,18 +36,30 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.io.rest.sse.internal.SseEventOutput;
 import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
+import org.eclipse.smarthome.io.rest.sse.internal.util.TopicFilterTrie;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
+import org.glassfish.jersey.media.sse.OutboundEvent;
 import org.glassfish.jersey.media.sse.SseFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * SSE Resource for pushing events to currently listening clients.
+ *
+ * The topic filters of all clients are kept in a {@link TopicFilterTrie}, so that the clients of an event are found
+ * by a single lookup. Each client has its own bounded buffer of pending events, which is written by a thread of a
+ * bounded pool. A client, which cannot keep up with the events or whose write is stalled for longer than the write
+ * timeout, is dropped and has to reconnect. Stalled writes are checked periodically, so that a client which does not
+ * read releases its pool thread even if no further events are sent to it.
  * 
  * @author Ivan Iliev - Initial Contribution and API
  * @author Yordan Zhelev - Added Swagger annotations
+ * @author agent - Added topic trie and per-client event buffers
+ * @author agent - Abort stalled writes
  * 
  */
 @Path("events")
@@ -49,9 +67,25 @@ import org.glassfish.jersey.media.sse.SseFeature;
 @Api
 public class SseResource {
 
-    private final SseBroadcaster broadcaster;
+    private static final int DEFAULT_BUFFER_SIZE = 1000;
 
-    private final ExecutorService executorService;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final int DEFAULT_WRITE_TIMEOUT = 10000;
+
+    private static final String THREADPOOL_NAME = "sse";
+
+    private final Logger logger = LoggerFactory.getLogger(SseResource.class);
+
+    private final TopicFilterTrie<SseEventOutput> eventOutputs = new TopicFilterTrie<SseEventOutput>();
+
+    private ThreadPoolExecutor executorService;
+
+    private ScheduledFuture<?> stallChecker;
+
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private volatile long writeTimeout = DEFAULT_WRITE_TIMEOUT;
 
     @Context
     private UriInfo uriInfo;
@@ -62,9 +96,54 @@ public class SseResource {
     @Context
     private HttpServletRequest request;
 
-    public SseResource() {
-        this.executorService = Executors.newSingleThreadExecutor();
-        this.broadcaster = new SseBroadcaster();
+    protected void activate(Map<String, Object> properties) {
+        bufferSize = getIntProperty(properties, "bufferSize", DEFAULT_BUFFER_SIZE);
+        writeTimeout = getIntProperty(properties, "writeTimeout", DEFAULT_WRITE_TIMEOUT);
+        int poolSize = getIntProperty(properties, "poolSize", DEFAULT_POOL_SIZE);
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        // each client has at most one pending task, so the queue is bounded by the number of clients
+        executorService = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ESH-sse-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executorService.allowCoreThreadTimeOut(true);
+
+        stallChecker = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME).scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                dropStalledClients();
+            }
+        }, writeTimeout, writeTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private int getIntProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.toString());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+            }
+            logger.warn("Ignoring invalid SSE {} '{}', using {} instead.", new Object[] { name, value, defaultValue });
+        }
+        return defaultValue;
+    }
+
+    protected void deactivate() {
+        stallChecker.cancel(false);
+        for (SseEventOutput eventOutput : eventOutputs.getSubscribers()) {
+            eventOutputs.remove(eventOutput);
+            eventOutput.drop();
+        }
+        executorService.shutdown();
     }
 
     /**
@@ -89,10 +168,10 @@ public class SseResource {
             return Response.status(Status.BAD_REQUEST).build();
         }
 
-        // construct an EventOutput that will only write out events that match
+        // construct an EventOutput that will only receive events that match
         // the given filter
-        final EventOutput eventOutput = new SseEventOutput(eventFilter);
-        broadcaster.add(eventOutput);
+        final SseEventOutput eventOutput = new SseEventOutput(bufferSize, executorService);
+        eventOutputs.add(eventFilter, eventOutput);
 
         if (!SseUtil.SERVLET3_SUPPORT) {
             // if we don't have sevlet 3.0 async support, we want to make sure
@@ -115,7 +194,8 @@ public class SseResource {
 
     /**
      * Broadcasts an event described by the given parameter to all currently
-     * listening clients.
+     * listening clients, whose topic filter matches the topic of the event.
+     * This method never blocks.
      * 
      * @param sseEventType
      *            the SSE event type
@@ -123,11 +203,37 @@ public class SseResource {
      *            the event
      */
     public void broadcastEvent(final Event event) {
-        executorService.execute(new Runnable() {
-            @Override
-            public void run() {
-                broadcaster.broadcast(SseUtil.buildEvent(event));
+        Set<SseEventOutput> matches = eventOutputs.match(event.getTopic());
+        if (matches.isEmpty()) {
+            return;
+        }
+        OutboundEvent outboundEvent = SseUtil.buildEvent(event);
+        for (SseEventOutput eventOutput : matches) {
+            if (eventOutput.isStalled(writeTimeout)) {
+                logger.debug("Dropping SSE connection, as writing an event takes more than {} ms.", writeTimeout);
+                drop(eventOutput);
+            } else if (!eventOutput.offer(outboundEvent)) {
+                // the client has disconnected or cannot keep up with the events
+                if (!eventOutput.isClosed()) {
+                    logger.debug("Dropping SSE connection, as {} events are pending.", bufferSize);
+                }
+                drop(eventOutput);
             }
-        });
+        }
+    }
+
+    private void dropStalledClients() {
+        for (SseEventOutput eventOutput : eventOutputs.getSubscribers()) {
+            if (eventOutput.isStalled(writeTimeout)) {
+                logger.debug("Dropping SSE connection, as writing an event takes more than {} ms.", writeTimeout);
+                drop(eventOutput);
+            }
+        }
+    }
+
+    private void drop(SseEventOutput eventOutput) {
+        eventOutputs.remove(eventOutput);
+        // closing flushes the output, which must not block the broadcasting thread
+        eventOutput.drop();
     }
 }
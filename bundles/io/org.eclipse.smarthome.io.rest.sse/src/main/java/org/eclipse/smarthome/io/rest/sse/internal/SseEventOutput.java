@@ -8,39 +8,215 @@
 package org.eclipse.smarthome.io.rest.sse.internal;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
-import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
-import org.eclipse.smarthome.io.rest.sse.internal.util.SseUtil;
 import org.glassfish.jersey.media.sse.EventOutput;
 import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * {@link EventOutput} implementation that takes a filter parameter and only writes out events that match this filter.
- * Should only be used when the {@link OutboundEvent}s sent through this {@link EventOutput} contain a data object of
- * type {@link EventBean}
- * 
+ * {@link EventOutput} implementation that buffers the events of a single client in a bounded ring buffer. Events are
+ * offered by the broadcasting thread without ever blocking it and are written to the client by a task on the given
+ * executor, so that a slow client does not delay the events of all other clients. If the buffer of a client is full,
+ * the event is not accepted and the client should be dropped.
+ *
+ * A write to a client, which does not read, blocks as soon as the TCP window is full. Dropping the client interrupts
+ * such a write, which closes the connection and frees the writing thread.
+ *
  * @author Ivan Iliev - Initial contribution and API
- * 
+ * @author agent - Added ring buffer and asynchronous writing
+ *
  */
 public class SseEventOutput extends EventOutput {
 
-    private List<String> regexFilters;
+    private final Logger logger = LoggerFactory.getLogger(SseEventOutput.class);
 
-    public SseEventOutput(String topicFilter) {
+    private final Executor executor;
+
+    /** the pending events, guarded by itself */
+    private final OutboundEvent[] buffer;
+
+    /** the index of the oldest pending event, guarded by buffer */
+    private int head = 0;
+
+    /** the number of pending events, guarded by buffer */
+    private int size = 0;
+
+    /** true, while a task is writing the pending events, guarded by buffer */
+    private boolean writing = false;
+
+    /** true, if the client has been dropped and the output must be closed, guarded by buffer */
+    private boolean dropped = false;
+
+    /** the thread, which is currently writing an event, null if no event is written, guarded by buffer */
+    private Thread writerThread = null;
+
+    /** the time in milliseconds, when writing the current event has started, 0 if no event is written */
+    private volatile long writeStartTime = 0;
+
+    private final Runnable writer = new Runnable() {
+        @Override
+        public void run() {
+            writePendingEvents();
+        }
+    };
+
+    /**
+     * Creates a new event output.
+     *
+     * @param bufferSize the maximum number of pending events (must be positive)
+     * @param executor the executor, which writes the pending events (must not be null)
+     */
+    public SseEventOutput(int bufferSize, Executor executor) {
         super();
-        this.regexFilters = SseUtil.convertToRegex(topicFilter);
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be positive.");
+        }
+        this.buffer = new OutboundEvent[bufferSize];
+        this.executor = executor;
+    }
+
+    /**
+     * Adds an event to the buffer and schedules writing it. This method never blocks.
+     *
+     * @param event the event (must not be null)
+     * @return true, if the event has been accepted, false if the buffer is full or the output has been closed or
+     *         dropped
+     */
+    public boolean offer(OutboundEvent event) {
+        if (isClosed()) {
+            return false;
+        }
+        synchronized (buffer) {
+            if (dropped || size == buffer.length) {
+                return false;
+            }
+            buffer[(head + size) % buffer.length] = event;
+            size++;
+            if (writing) {
+                return true;
+            }
+            writing = true;
+        }
+        try {
+            executor.execute(writer);
+        } catch (RejectedExecutionException e) {
+            // the executor has been stopped
+            clear();
+            return false;
+        }
+        return true;
     }
 
-    @Override
-    public void write(OutboundEvent chunk) throws IOException {
-        EventBean event = (EventBean) chunk.getData();
+    /**
+     * Returns true, if writing the current event to the client takes longer than the given timeout.
+     *
+     * @param timeout the timeout in milliseconds
+     * @return true, if the client is stalled
+     */
+    public boolean isStalled(long timeout) {
+        long startTime = writeStartTime;
+        return startTime != 0 && System.currentTimeMillis() - startTime > timeout;
+    }
 
-        for (String filter : regexFilters) {
-            if (event.topic.matches(filter)) {
-                super.write(chunk);
+    /**
+     * Discards the pending events and closes the output. If an event is currently written, the write is interrupted
+     * and the output is closed by the writing task, so that no thread remains blocked by the client. This method never
+     * blocks.
+     */
+    public void drop() {
+        synchronized (buffer) {
+            if (dropped) {
                 return;
             }
+            dropped = true;
+            Arrays.fill(buffer, null);
+            head = 0;
+            size = 0;
+            if (writing) {
+                if (writerThread != null) {
+                    // aborts a write, which is blocked by a client that does not read
+                    writerThread.interrupt();
+                }
+                return;
+            }
+            writing = true;
+        }
+        try {
+            executor.execute(writer);
+        } catch (RejectedExecutionException e) {
+            // the executor has been stopped, nothing is written anymore
+            closeQuietly();
+        }
+    }
+
+    private void writePendingEvents() {
+        while (true) {
+            OutboundEvent event;
+            synchronized (buffer) {
+                if (dropped) {
+                    writing = false;
+                    break;
+                }
+                if (size == 0) {
+                    writing = false;
+                    return;
+                }
+                event = buffer[head];
+                buffer[head] = null;
+                head = (head + 1) % buffer.length;
+                size--;
+                writerThread = Thread.currentThread();
+            }
+            writeStartTime = System.currentTimeMillis();
+            IOException failure = null;
+            try {
+                write(event);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                writeStartTime = 0;
+                finishWrite();
+            }
+            if (failure != null) {
+                logger.debug("Closing SSE connection, as an event could not be written: {}", failure.getMessage());
+                clear();
+                closeQuietly();
+                return;
+            }
+        }
+        closeQuietly();
+    }
+
+    private void finishWrite() {
+        boolean wasDropped;
+        synchronized (buffer) {
+            writerThread = null;
+            wasDropped = dropped;
+        }
+        if (wasDropped) {
+            // the interrupt of drop() must not affect the next task of the pool thread
+            Thread.interrupted();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            logger.debug("SSE connection could not be closed: {}", e.getMessage());
+        }
+    }
+
+    private void clear() {
+        synchronized (buffer) {
+            Arrays.fill(buffer, null);
+            head = 0;
+            size = 0;
+            writing = false;
         }
     }
 
@@ -7,6 +7,7 @@
  */
 package org.eclipse.smarthome.io.rest.sse.internal.util;
 
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -19,6 +20,8 @@ import org.eclipse.smarthome.core.events.Event;
 import org.eclipse.smarthome.io.rest.sse.beans.EventBean;
 import org.glassfish.jersey.media.sse.OutboundEvent;
 
+import com.google.gson.Gson;
+
 /**
  * Utility class containing helper methods for the SSE implementation.
  * 
@@ -28,6 +31,10 @@ import org.glassfish.jersey.media.sse.OutboundEvent;
 public class SseUtil {
     static final String TOPIC_VALIDATE_PATTERN = "(\\w*\\*?\\/?,?\\s*)*";
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final Gson gson = new Gson();
+
     static {
         boolean servlet3 = false;
         try {
@@ -46,7 +53,8 @@ public class SseUtil {
 
     /**
      * Creates a new {@link OutboundEvent} object containing an {@link EventBean} created for the given Eclipse
-     * SmartHome {@link Event}.
+     * SmartHome {@link Event}. The event bean is serialized to JSON once, so that the same bytes are written to all
+     * clients, which receive the event.
      * 
      * @param event the event
      * 
@@ -59,8 +67,8 @@ public class SseUtil {
         eventBean.payload = event.getPayload();
 
         OutboundEvent.Builder eventBuilder = new OutboundEvent.Builder();
-        OutboundEvent outboundEvent = eventBuilder.name("message").mediaType(MediaType.APPLICATION_JSON_TYPE)
-                .data(eventBean).build();
+        OutboundEvent outboundEvent = eventBuilder.name("message").mediaType(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+                .data(byte[].class, gson.toJson(eventBean).getBytes(UTF8)).build();
 
         return outboundEvent;
     }
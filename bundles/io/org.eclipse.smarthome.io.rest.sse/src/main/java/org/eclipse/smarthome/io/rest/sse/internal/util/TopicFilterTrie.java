@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.rest.sse.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * The {@link TopicFilterTrie} matches event topics against the topic filters of many subscribers at once. The
+ * characters of all filters are merged into a single trie, so that a topic is matched by walking the trie once instead
+ * of evaluating a regular expression for each filter of each subscriber.
+ *
+ * The filters have the same semantics as the regular expressions of {@link SseUtil#convertToRegex(String)}: a filter
+ * is split at commas, a wildcard (*) matches any sequence of characters and each token matches all topics, which start
+ * with it.
+ *
+ * The trie is rebuilt whenever a subscriber is added or removed, while topics are matched against an immutable
+ * snapshot without any locking.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> the type of the subscribers
+ */
+public class TopicFilterTrie<T> {
+
+    private static final char WILDCARD = '*';
+
+    /** the filter tokens of each subscriber, guarded by this */
+    private final Map<T, List<String>> subscriptions = new LinkedHashMap<T, List<String>>();
+
+    private volatile Node<T> root = new Node<T>(false);
+
+    /**
+     * Adds a subscriber with the given topic filter. If the subscriber has already been added, its filter is replaced.
+     *
+     * @param topicFilter the topic filter (may be null or empty to match all topics)
+     * @param subscriber the subscriber (must not be null)
+     */
+    public synchronized void add(String topicFilter, T subscriber) {
+        subscriptions.put(subscriber, tokenize(topicFilter));
+        root = build();
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber the subscriber
+     * @return true, if the subscriber has been removed, false if it has not been added before
+     */
+    public synchronized boolean remove(T subscriber) {
+        if (subscriptions.remove(subscriber) == null) {
+            return false;
+        }
+        root = build();
+        return true;
+    }
+
+    /**
+     * Returns all subscribers.
+     *
+     * @return an unmodifiable snapshot of the subscribers
+     */
+    public synchronized Set<T> getSubscribers() {
+        return Collections.unmodifiableSet(new LinkedHashSet<T>(subscriptions.keySet()));
+    }
+
+    /**
+     * Returns all subscribers with a topic filter, which matches the given topic.
+     *
+     * @param topic the topic (must not be null)
+     * @return the matching subscribers, an empty set if there are none
+     */
+    public Set<T> match(String topic) {
+        Set<T> matches = new LinkedHashSet<T>();
+        Set<Node<T>> active = new LinkedHashSet<Node<T>>();
+        activate(active, root);
+        for (int i = 0; i < topic.length() && !active.isEmpty(); i++) {
+            char c = topic.charAt(i);
+            Set<Node<T>> next = new LinkedHashSet<Node<T>>();
+            for (Node<T> node : active) {
+                matches.addAll(node.subscribers);
+                if (node.wildcard) {
+                    next.add(node);
+                }
+                Node<T> child = node.children.get(c);
+                if (child != null) {
+                    activate(next, child);
+                }
+            }
+            active = next;
+        }
+        for (Node<T> node : active) {
+            matches.addAll(node.subscribers);
+        }
+        return matches;
+    }
+
+    /**
+     * Splits a topic filter into its tokens the same way as {@link SseUtil#convertToRegex(String)}.
+     */
+    private static List<String> tokenize(String topicFilter) {
+        List<String> tokens = new ArrayList<String>();
+        if (StringUtils.isEmpty(topicFilter)) {
+            tokens.add("");
+        } else {
+            StringTokenizer tokenizer = new StringTokenizer(topicFilter, ",");
+            while (tokenizer.hasMoreElements()) {
+                tokens.add(tokenizer.nextToken().trim());
+            }
+        }
+        return tokens;
+    }
+
+    private Node<T> build() {
+        Node<T> newRoot = new Node<T>(false);
+        for (Map.Entry<T, List<String>> subscription : subscriptions.entrySet()) {
+            for (String token : subscription.getValue()) {
+                Node<T> node = newRoot;
+                for (int i = 0; i < token.length(); i++) {
+                    char c = token.charAt(i);
+                    if (c == WILDCARD) {
+                        // consecutive wildcards are equivalent to a single one
+                        if (!node.wildcard) {
+                            if (node.wildcardChild == null) {
+                                node.wildcardChild = new Node<T>(true);
+                            }
+                            node = node.wildcardChild;
+                        }
+                    } else {
+                        Node<T> child = node.children.get(c);
+                        if (child == null) {
+                            child = new Node<T>(false);
+                            node.children.put(c, child);
+                        }
+                        node = child;
+                    }
+                }
+                // as every token is a prefix, the first match of a subscriber is sufficient
+                if (!node.subscribers.contains(subscription.getKey())) {
+                    node.subscribers.add(subscription.getKey());
+                }
+            }
+        }
+        return newRoot;
+    }
+
+    /**
+     * Adds a node and, as a wildcard also matches no character at all, its wildcard child to the active nodes.
+     */
+    private static <T> void activate(Set<Node<T>> active, Node<T> node) {
+        active.add(node);
+        if (node.wildcardChild != null) {
+            active.add(node.wildcardChild);
+        }
+    }
+
+    /**
+     * A node of the trie. A wildcard node stays active for any following character. The nodes are not modified after
+     * the trie has been built.
+     */
+    private static class Node<T> {
+
+        private final boolean wildcard;
+
+        private final Map<Character, Node<T>> children = new HashMap<Character, Node<T>>();
+
+        /** the child for a wildcard, which is reached without consuming a character */
+        private Node<T> wildcardChild;
+
+        /** the subscribers, whose filter token ends at this node */
+        private final List<T> subscribers = new ArrayList<T>(1);
+
+        private Node(boolean wildcard) {
+            this.wildcard = wildcard;
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MqttTopicTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class MqttTopicTrieTest {
+
+    private MqttTopicTrie<String> trie;
+
+    @Before
+    public void setUp() {
+        trie = new MqttTopicTrie<String>();
+    }
+
+    @Test
+    public void testExactFilter() {
+        trie.add("sport/tennis/player1", "exact");
+
+        assertEquals(set("exact"), trie.match("sport/tennis/player1"));
+        assertEquals(set(), trie.match("sport/tennis"));
+        assertEquals(set(), trie.match("sport/tennis/player1/ranking"));
+        assertEquals(set(), trie.match("sport/tennis/player2"));
+    }
+
+    @Test
+    public void testSingleLevelWildcard() {
+        trie.add("sport/tennis/+", "tennis");
+        trie.add("sport/+/player1", "player1");
+        trie.add("+", "top");
+
+        assertEquals(set("tennis", "player1"), trie.match("sport/tennis/player1"));
+        assertEquals(set("tennis"), trie.match("sport/tennis/player2"));
+        assertEquals(set("player1"), trie.match("sport/golf/player1"));
+        assertEquals(set(), trie.match("sport/tennis"));
+        assertEquals(set(), trie.match("sport/tennis/player1/ranking"));
+        assertEquals(set("top"), trie.match("sport"));
+    }
+
+    @Test
+    public void testMultiLevelWildcard() {
+        trie.add("sport/#", "sport");
+        trie.add("sport/tennis/#", "tennis");
+        trie.add("#", "all");
+
+        assertEquals(set("sport", "all"), trie.match("sport"));
+        assertEquals(set("sport", "tennis", "all"), trie.match("sport/tennis"));
+        assertEquals(set("sport", "tennis", "all"), trie.match("sport/tennis/player1/ranking"));
+        assertEquals(set("all"), trie.match("news"));
+    }
+
+    @Test
+    public void testWildcardsAreCombined() {
+        trie.add("+/tennis/#", "tennis");
+        trie.add("sport/+/+", "twoLevels");
+
+        assertEquals(set("tennis", "twoLevels"), trie.match("sport/tennis/player1"));
+        assertEquals(set("tennis"), trie.match("sport/tennis"));
+        assertEquals(set("tennis"), trie.match("news/tennis/player1/ranking"));
+        assertEquals(set("twoLevels"), trie.match("sport/golf/player1"));
+    }
+
+    @Test
+    public void testEmptyLevels() {
+        trie.add("/finance", "leadingSlash");
+        trie.add("sport//player1", "emptyLevel");
+        trie.add("+/+", "twoLevels");
+
+        assertEquals(set("leadingSlash", "twoLevels"), trie.match("/finance"));
+        assertEquals(set(), trie.match("finance"));
+        assertEquals(set("emptyLevel"), trie.match("sport//player1"));
+        assertEquals(set(), trie.match("sport/tennis/player1"));
+        assertEquals(set("twoLevels"), trie.match("sport/"));
+    }
+
+    @Test
+    public void testRemove() {
+        trie.add("sport/tennis/+", "tennis");
+        trie.add("sport/#", "sport");
+
+        assertTrue(trie.remove("tennis"));
+        assertFalse(trie.remove("tennis"));
+        assertEquals(set("sport"), trie.match("sport/tennis/player1"));
+
+        assertTrue(trie.remove("sport"));
+        assertEquals(set(), trie.match("sport/tennis/player1"));
+        assertEquals(set(), trie.match("sport"));
+
+        // the removed nodes can be added again
+        trie.add("sport/tennis/+", "tennis");
+        assertEquals(set("tennis"), trie.match("sport/tennis/player1"));
+    }
+
+    @Test
+    public void testRemoveKeepsSharedNodes() {
+        trie.add("sport/tennis/player1", "player1");
+        trie.add("sport/tennis/player1/ranking", "ranking");
+
+        assertTrue(trie.remove("player1"));
+        assertEquals(set(), trie.match("sport/tennis/player1"));
+        assertEquals(set("ranking"), trie.match("sport/tennis/player1/ranking"));
+    }
+
+    @Test
+    public void testAddReplacesTheFilterOfASubscriber() {
+        trie.add("sport/tennis", "subscriber");
+        trie.add("sport/golf", "subscriber");
+
+        assertEquals(set(), trie.match("sport/tennis"));
+        assertEquals(set("subscriber"), trie.match("sport/golf"));
+    }
+
+    private static Set<String> set(String... subscribers) {
+        if (subscribers.length == 0) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(Arrays.asList(subscribers));
+    }
+
+}
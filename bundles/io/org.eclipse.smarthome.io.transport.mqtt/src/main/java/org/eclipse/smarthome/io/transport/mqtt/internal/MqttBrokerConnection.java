@@ -10,8 +10,15 @@ package org.eclipse.smarthome.io.transport.mqtt.internal;
 import java.security.cert.X509Certificate;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.Timer;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
@@ -44,6 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Davy Vanherbergen
  * @author Markus Rathgeb - added connection state callback
+ * @author agent - added topic trie and asynchronous message dispatching
  */
 public class MqttBrokerConnection implements MqttCallback {
 
@@ -79,6 +87,15 @@ public class MqttBrokerConnection implements MqttCallback {
 
     private List<MqttMessageConsumer> consumers = new CopyOnWriteArrayList<MqttMessageConsumer>();
 
+    private final MqttTopicTrie<MqttMessageConsumer> consumerTopics = new MqttTopicTrie<>();
+
+    /**
+     * Dispatches the received messages to the consumers, so that the callback thread of the client is never blocked.
+     * A single thread keeps the order of the messages. It is created, when the connection is started, and is shut down,
+     * when the connection is closed.
+     */
+    private volatile ExecutorService dispatcher;
+
     private List<MqttMessageProducer> producers = new CopyOnWriteArrayList<MqttMessageProducer>();
 
     private Timer reconnectTimer;
@@ -88,10 +105,24 @@ public class MqttBrokerConnection implements MqttCallback {
      *
      * @param name for the connection.
      */
-    public MqttBrokerConnection(String name) {
+    public MqttBrokerConnection(final String name) {
         this.name = name;
     }
 
+    private ExecutorService createDispatcher() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ESH-mqtt-" + name);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private void setConnected(final MqttConnectionObserver connectionObserver, final boolean connected) {
         try {
             connectionObserver.setConnected(connected);
@@ -129,6 +160,10 @@ public class MqttBrokerConnection implements MqttCallback {
 
         logger.info("Starting MQTT broker connection '{}'", name);
 
+        if (dispatcher == null) {
+            dispatcher = createDispatcher();
+        }
+
         if (client != null) {
             if (!this.url.equals(client.getServerURI()) || !this.clientId.equals(client.getClientId())) {
                 if (client.isConnected()) {
@@ -482,6 +517,7 @@ public class MqttBrokerConnection implements MqttCallback {
      */
     public synchronized void addConsumer(MqttMessageConsumer subscriber) {
         consumers.add(subscriber);
+        consumerTopics.add(subscriber.getTopic(), subscriber);
         if (started) {
             startConsumer(subscriber);
         }
@@ -540,7 +576,7 @@ public class MqttBrokerConnection implements MqttCallback {
             logger.error("Error unsubscribing topic from broker", e);
         }
         consumers.remove(subscriber);
-
+        consumerTopics.remove(subscriber);
     }
 
     /**
@@ -556,6 +592,11 @@ public class MqttBrokerConnection implements MqttCallback {
             logger.error("Error closing connection to broker", e);
         }
         setStarted(false);
+        if (dispatcher != null) {
+            // the messages, which have already been received, are still delivered
+            dispatcher.shutdown();
+            dispatcher = null;
+        }
     }
 
     @Override
@@ -587,45 +628,33 @@ public class MqttBrokerConnection implements MqttCallback {
     }
 
     @Override
-    public void messageArrived(String topic, MqttMessage message) throws Exception {
-
-        logger.trace("Received message on topic '{}' : {}", topic, new String(message.getPayload()));
-        for (MqttMessageConsumer consumer : consumers) {
-            if (isTopicMatch(topic, consumer.getTopic())) {
-                consumer.processMessage(topic, message.getPayload());
-            }
+    public void messageArrived(final String topic, MqttMessage message) throws Exception {
+        final byte[] payload = message.getPayload();
+        if (logger.isTraceEnabled()) {
+            logger.trace("Received message on topic '{}' : {}", topic, new String(payload));
         }
-    }
-
-    /**
-     * Check if the topic on which a message was received matches provided target topic. The matching will take into
-     * account the + and # wildcards.
-     *
-     * @param source topic from received message
-     * @param target topic as defined with possible wildcards.
-     * @return true if both topics match.
-     */
-    private boolean isTopicMatch(String source, String target) {
-        if (source.equals(target)) {
-            return true;
+        final Set<MqttMessageConsumer> matchingConsumers = consumerTopics.match(topic);
+        ExecutorService executor = dispatcher;
+        if (matchingConsumers.isEmpty() || executor == null) {
+            return;
         }
-        if (target.indexOf('+') == -1 && target.indexOf('#') == -1) {
-            return false;
-        } else {
-
-            String regex = target;
-            regex = StringUtils.replace(regex, "+", "[^/]*");
-            regex = StringUtils.replace(regex, "#", ".*");
-            boolean result = source.matches(regex);
-            if (result) {
-                logger.trace("Topic match for '{}' and '{}' using regex {}", source, target, regex);
-                return true;
-            } else {
-                logger.trace("No topic match for '{}' and '{}' using regex {}", source, target, regex);
-                return false;
-            }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (MqttMessageConsumer consumer : matchingConsumers) {
+                        try {
+                            consumer.processMessage(topic, payload);
+                        } catch (RuntimeException e) {
+                            logger.error("Error processing message on topic '" + topic + "'", e);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the connection has been closed meanwhile
+            logger.debug("Dropping message on topic '{}', as the connection to broker '{}' is closed.", topic, name);
         }
-
     }
 
     /**
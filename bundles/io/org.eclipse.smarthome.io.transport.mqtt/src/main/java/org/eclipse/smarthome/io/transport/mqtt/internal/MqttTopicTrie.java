@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.io.transport.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * The {@link MqttTopicTrie} resolves the subscribers of an MQTT topic. The topic filters of the subscribers are stored
+ * level by level, so that a topic is matched in time proportional to its number of levels instead of the number of
+ * subscribers.
+ *
+ * The wildcards follow the MQTT specification: <code>+</code> matches exactly one level and <code>#</code> as the last
+ * level matches the parent level and any number of sub levels, e.g. <code>sport/#</code> matches <code>sport</code>
+ * and <code>sport/tennis/player1</code>.
+ *
+ * Subscribers are added and removed under a lock, while topics are matched without locking.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> the type of the subscribers
+ */
+public class MqttTopicTrie<T> {
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static class Node<T> {
+
+        /** the child nodes by their level, including the single level wildcard */
+        private final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<>();
+
+        /** the subscribers of the filters, which end at this node */
+        private final Set<T> subscribers = new CopyOnWriteArraySet<>();
+
+        /** the subscribers of the filters, which end with a multi level wildcard below this node */
+        private final Set<T> multiLevelSubscribers = new CopyOnWriteArraySet<>();
+
+        private boolean isEmpty() {
+            return children.isEmpty() && subscribers.isEmpty() && multiLevelSubscribers.isEmpty();
+        }
+
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /** the topic filter of each subscriber, guarded by this */
+    private final Map<T, String> filters = new HashMap<>();
+
+    /**
+     * Adds a subscriber for the given topic filter. A subscriber has a single topic filter, so that a previously added
+     * filter of the subscriber is replaced.
+     *
+     * @param filter the topic filter, which may contain wildcards
+     * @param subscriber the subscriber
+     */
+    public synchronized void add(String filter, T subscriber) {
+        remove(subscriber);
+        Node<T> node = root;
+        List<String> levels = split(filter);
+        int size = levels.size();
+        if (levels.get(size - 1).equals(MULTI_LEVEL_WILDCARD)) {
+            size--;
+        }
+        for (int i = 0; i < size; i++) {
+            String level = levels.get(i);
+            Node<T> child = node.children.get(level);
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(level, child);
+            }
+            node = child;
+        }
+        if (size < levels.size()) {
+            node.multiLevelSubscribers.add(subscriber);
+        } else {
+            node.subscribers.add(subscriber);
+        }
+        filters.put(subscriber, filter);
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber the subscriber
+     * @return true, if the subscriber has been removed, false if it has not been added
+     */
+    public synchronized boolean remove(T subscriber) {
+        String filter = filters.remove(subscriber);
+        if (filter == null) {
+            return false;
+        }
+        List<String> levels = split(filter);
+        boolean multiLevel = levels.get(levels.size() - 1).equals(MULTI_LEVEL_WILDCARD);
+        if (multiLevel) {
+            levels.remove(levels.size() - 1);
+        }
+        List<Node<T>> path = new ArrayList<>(levels.size() + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels) {
+            node = node.children.get(level);
+            path.add(node);
+        }
+        if (multiLevel) {
+            node.multiLevelSubscribers.remove(subscriber);
+        } else {
+            node.subscribers.remove(subscriber);
+        }
+        // remove the nodes, which are not needed anymore
+        for (int i = levels.size(); i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(levels.get(i - 1));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the subscribers, whose topic filter matches the given topic.
+     *
+     * @param topic the topic of a message (must not contain wildcards)
+     * @return the matching subscribers
+     */
+    public Set<T> match(String topic) {
+        Set<T> result = collect(root, topic, 0, null);
+        if (result == null) {
+            return Collections.emptySet();
+        }
+        return result;
+    }
+
+    private Set<T> collect(Node<T> node, String topic, int start, Set<T> result) {
+        // a multi level wildcard matches all sub levels
+        result = addAll(result, node.multiLevelSubscribers);
+        int end = topic.indexOf('/', start);
+        String level = end == -1 ? topic.substring(start) : topic.substring(start, end);
+        Node<T> child = node.children.get(level);
+        Node<T> wildcardChild = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (end == -1) {
+            // the last level of the topic, a multi level wildcard also matches its parent level
+            if (child != null) {
+                result = addAll(result, child.subscribers);
+                result = addAll(result, child.multiLevelSubscribers);
+            }
+            if (wildcardChild != null && wildcardChild != child) {
+                result = addAll(result, wildcardChild.subscribers);
+                result = addAll(result, wildcardChild.multiLevelSubscribers);
+            }
+        } else {
+            if (child != null) {
+                result = collect(child, topic, end + 1, result);
+            }
+            if (wildcardChild != null && wildcardChild != child) {
+                result = collect(wildcardChild, topic, end + 1, result);
+            }
+        }
+        return result;
+    }
+
+    private Set<T> addAll(Set<T> result, Set<T> subscribers) {
+        if (subscribers.isEmpty()) {
+            return result;
+        }
+        if (result == null) {
+            result = new HashSet<>();
+        }
+        result.addAll(subscribers);
+        return result;
+    }
+
+    private static List<String> split(String filter) {
+        List<String> levels = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = filter.indexOf('/', start)) != -1) {
+            levels.add(filter.substring(start, end));
+            start = end + 1;
+        }
+        levels.add(filter.substring(start));
+        return levels;
+    }
+
+}
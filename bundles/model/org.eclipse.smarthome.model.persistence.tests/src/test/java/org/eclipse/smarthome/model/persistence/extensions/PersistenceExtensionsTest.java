@@ -8,18 +8,26 @@
 package org.eclipse.smarthome.model.persistence.extensions;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
+import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.model.persistence.tests.TestPersistenceService;
 import org.joda.time.DateMidnight;
+import org.joda.time.DateTime;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,6 +35,7 @@ import org.junit.Test;
 /**
  * @author Kai Kreuzer - Initial contribution and API
  * @author Chris Jackson
+ * @author agent - Test for services which ignore paging
  */
 @SuppressWarnings("deprecation")
 public class PersistenceExtensionsTest {
@@ -102,4 +111,82 @@ public class PersistenceExtensionsTest {
         DecimalType average = PersistenceExtensions.averageSince(item, new DateMidnight(2003, 1, 1), "test");
         assertEquals("2100", average.toString());
     }
+
+    @Test(timeout = 10000)
+    public void testMaximumSinceWithServiceIgnoringPaging() {
+        PagingIgnoringPersistenceService service = new PagingIgnoringPersistenceService(1000);
+        ext.addPersistenceService(service);
+        try {
+            item.setState(new DecimalType(5));
+            HistoricItem historicItem = PersistenceExtensions.maximumSince(item, new DateMidnight(2000, 1, 1),
+                    service.getName());
+            assertEquals("999", historicItem.getState().toString());
+            assertEquals(2, service.queries);
+        } finally {
+            ext.removePersistenceService(service);
+        }
+    }
+
+    @Test
+    public void testChangedSince() {
+        assertTrue(PersistenceExtensions.changedSince(item, new DateMidnight(2005, 1, 1), "test"));
+        assertFalse(PersistenceExtensions.changedSince(item, new DateMidnight(1940, 1, 1), "test"));
+    }
+
+    @Test
+    public void testUpdatedSince() {
+        assertTrue(PersistenceExtensions.updatedSince(item, new DateMidnight(2005, 1, 1), "test"));
+        assertFalse(PersistenceExtensions.updatedSince(item, new DateMidnight(2013, 1, 1), "test"));
+    }
+
+    /**
+     * A persistence service which returns all its states for every query, regardless of the requested page.
+     */
+    private static class PagingIgnoringPersistenceService implements QueryablePersistenceService {
+
+        private final List<HistoricItem> historicItems = new ArrayList<HistoricItem>();
+
+        private int queries = 0;
+
+        public PagingIgnoringPersistenceService(int size) {
+            for (int i = 0; i < size; i++) {
+                final int value = i;
+                historicItems.add(new HistoricItem() {
+                    @Override
+                    public Date getTimestamp() {
+                        return new DateTime(2001, 1, 1, 0, 0).plusMinutes(value).toDate();
+                    }
+
+                    @Override
+                    public State getState() {
+                        return new DecimalType(value);
+                    }
+
+                    @Override
+                    public String getName() {
+                        return "Test";
+                    }
+                });
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "pagingIgnoring";
+        }
+
+        @Override
+        public void store(Item item) {
+        }
+
+        @Override
+        public void store(Item item, String alias) {
+        }
+
+        @Override
+        public Iterable<HistoricItem> query(FilterCriteria filter) {
+            queries++;
+            return historicItems;
+        }
+    }
 }
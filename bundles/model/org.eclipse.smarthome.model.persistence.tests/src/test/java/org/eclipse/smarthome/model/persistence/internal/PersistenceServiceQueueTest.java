@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.persistence.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.BatchPersistenceService;
+import org.eclipse.smarthome.core.persistence.PersistenceRecord;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.model.persistence.internal.PersistenceServiceQueue.OverflowPolicy;
+import org.junit.Test;
+
+/**
+ * Tests the overflow policies and the counters of the {@link PersistenceServiceQueue}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PersistenceServiceQueueTest {
+
+    private static final int CAPACITY = 3;
+
+    /** large enough, so that only closing the queue flushes the records */
+    private static final int FLUSH_SIZE = 100;
+
+    private static final long FLUSH_INTERVAL = 3600000;
+
+    private final RecordingPersistenceService service = new RecordingPersistenceService();
+
+    @Test
+    public void coalescingReplacesThePendingRecordInPlace() {
+        PersistenceServiceQueue queue = createQueue(OverflowPolicy.COALESCE);
+        queue.add(createRecord("A", 1));
+        queue.add(createRecord("B", 1));
+        queue.add(createRecord("C", 1));
+        queue.add(createRecord("A", 2));
+
+        assertEquals(CAPACITY, queue.getQueueDepth());
+        assertEquals(1, queue.getCoalescedRecords());
+        assertEquals(0, queue.getDroppedRecords());
+
+        queue.close();
+
+        assertEquals(Arrays.asList("A=2", "B=1", "C=1"), service.records);
+        assertEquals(CAPACITY, queue.getStoredRecords());
+    }
+
+    @Test
+    public void coalescingDropsTheOldestRecordIfNoRecordOfTheItemIsPending() {
+        PersistenceServiceQueue queue = createQueue(OverflowPolicy.COALESCE);
+        queue.add(createRecord("A", 1));
+        queue.add(createRecord("B", 1));
+        queue.add(createRecord("C", 1));
+        queue.add(createRecord("D", 1));
+        // the record of A has been dropped, so the next record of A cannot be coalesced
+        queue.add(createRecord("A", 2));
+        queue.add(createRecord("D", 2));
+
+        assertEquals(2, queue.getDroppedRecords());
+        assertEquals(1, queue.getCoalescedRecords());
+
+        queue.close();
+
+        assertEquals(Arrays.asList("C=1", "D=2", "A=2"), service.records);
+    }
+
+    @Test
+    public void dropOldestDropsTheOldestRecord() {
+        PersistenceServiceQueue queue = createQueue(OverflowPolicy.DROP_OLDEST);
+        queue.add(createRecord("A", 1));
+        queue.add(createRecord("B", 1));
+        queue.add(createRecord("C", 1));
+        queue.add(createRecord("A", 2));
+
+        assertEquals(1, queue.getDroppedRecords());
+        assertEquals(0, queue.getCoalescedRecords());
+
+        queue.close();
+
+        assertEquals(Arrays.asList("B=1", "C=1", "A=2"), service.records);
+    }
+
+    private PersistenceServiceQueue createQueue(OverflowPolicy overflowPolicy) {
+        return new PersistenceServiceQueue(service, CAPACITY, FLUSH_SIZE, FLUSH_INTERVAL, overflowPolicy);
+    }
+
+    private PersistenceRecord createRecord(String itemName, int value) {
+        GenericItem item = new GenericItem("Number", itemName) {
+            @Override
+            public List<Class<? extends State>> getAcceptedDataTypes() {
+                return null;
+            }
+
+            @Override
+            public List<Class<? extends Command>> getAcceptedCommandTypes() {
+                return null;
+            }
+        };
+        return new PersistenceRecord(item, null, new DecimalType(value), new Date());
+    }
+
+    private static class RecordingPersistenceService implements BatchPersistenceService {
+
+        private final List<String> records = new ArrayList<String>();
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public void store(Item item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void store(Item item, String alias) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized void store(Collection<PersistenceRecord> records) {
+            for (PersistenceRecord record : records) {
+                this.records.add(record.getItemName() + "=" + record.getState());
+            }
+        }
+
+    }
+
+}
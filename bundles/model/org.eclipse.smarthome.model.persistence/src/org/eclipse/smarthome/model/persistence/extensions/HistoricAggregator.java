@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.persistence.extensions;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.AggregatingPersistenceService;
+import org.eclipse.smarthome.core.persistence.HistoricAggregate;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link HistoricAggregator} calculates a {@link HistoricAggregate} from the historic items of a persistence
+ * service, which is not an {@link AggregatingPersistenceService}. The historic items are processed one after the other
+ * and are not kept.
+ *
+ * @author agent - Initial contribution
+ */
+class HistoricAggregator {
+
+    private final long begin;
+
+    private final long end;
+
+    private final HistoricAggregate aggregate = new HistoricAggregate();
+
+    private HistoricItem previous;
+
+    private BigDecimal sum = BigDecimal.ZERO;
+
+    private DecimalType minimum;
+
+    private DecimalType maximum;
+
+    private double weightedSum = 0;
+
+    private long weightedTime = 0;
+
+    /**
+     * Creates a new aggregator for the given time window.
+     *
+     * @param begin the begin of the window (may be null)
+     * @param end the end of the window (may be null, if the window ends now)
+     */
+    HistoricAggregator(Date begin, Date end) {
+        this.begin = begin != null ? begin.getTime() : Long.MIN_VALUE;
+        this.end = end != null ? end.getTime() : System.currentTimeMillis();
+    }
+
+    /**
+     * Sets the last state before the begin of the window. Must be called before the first historic item is added.
+     *
+     * @param initial the initial historic item (may be null)
+     */
+    void setInitial(HistoricItem initial) {
+        aggregate.setInitial(initial);
+        previous = initial;
+    }
+
+    /**
+     * Adds the next historic item within the window.
+     *
+     * @param historicItem the historic item (must not be null)
+     */
+    void add(HistoricItem historicItem) {
+        State state = historicItem.getState();
+        if (previous != null) {
+            if (!state.equals(previous.getState())) {
+                aggregate.setChangeCount(aggregate.getChangeCount() + 1);
+            }
+            addWeight(previous, historicItem.getTimestamp().getTime());
+        }
+        if (aggregate.getFirst() == null) {
+            aggregate.setFirst(historicItem);
+        }
+        aggregate.setCount(aggregate.getCount() + 1);
+        if (state instanceof DecimalType) {
+            DecimalType value = (DecimalType) state;
+            aggregate.setDecimalCount(aggregate.getDecimalCount() + 1);
+            sum = sum.add(value.toBigDecimal());
+            if (minimum == null || value.compareTo(minimum) < 0) {
+                minimum = value;
+                aggregate.setMinimum(historicItem);
+            }
+            if (maximum == null || value.compareTo(maximum) > 0) {
+                maximum = value;
+                aggregate.setMaximum(historicItem);
+            }
+        }
+        previous = historicItem;
+    }
+
+    /**
+     * Returns the aggregate of all added historic items. Must only be called once.
+     *
+     * @return the aggregate
+     */
+    HistoricAggregate getAggregate() {
+        if (previous != null) {
+            addWeight(previous, end);
+        }
+        if (aggregate.getCount() > 0) {
+            aggregate.setLast(previous);
+        }
+        aggregate.setSum(new DecimalType(sum));
+        if (weightedTime > 0) {
+            aggregate.setTimeWeightedAverage(new DecimalType(weightedSum / weightedTime));
+        } else if (previous != null && previous.getState() instanceof DecimalType) {
+            aggregate.setTimeWeightedAverage((DecimalType) previous.getState());
+        }
+        return aggregate;
+    }
+
+    private void addWeight(HistoricItem historicItem, long until) {
+        if (historicItem.getState() instanceof DecimalType) {
+            long from = Math.max(historicItem.getTimestamp().getTime(), begin);
+            if (until > from) {
+                weightedSum += ((DecimalType) historicItem.getState()).doubleValue() * (until - from);
+                weightedTime += until - from;
+            }
+        }
+    }
+
+}
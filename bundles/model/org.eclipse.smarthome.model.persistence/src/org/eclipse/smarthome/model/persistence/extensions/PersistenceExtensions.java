@@ -7,18 +7,21 @@
  */
 package org.eclipse.smarthome.model.persistence.extensions;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Dictionary;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.AggregatingPersistenceService;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
 import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricAggregate;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
@@ -37,10 +40,14 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - Initial contribution and API
  * @author Chris Jackson
  * @author Gaël L'hopital
+ * @author agent - Paged aggregation of historic states
  *
  */
 public class PersistenceExtensions implements ManagedService {
 
+    /** the number of states, which are queried at once when aggregating states */
+    private static final int AGGREGATION_PAGE_SIZE = 1000;
+
     private static Map<String, PersistenceService> services = new HashMap<String, PersistenceService>();
     private static String defaultService = null;
 
@@ -158,24 +165,13 @@ public class PersistenceExtensions implements ManagedService {
      * @return true, if item state had changed
      */
     static public Boolean changedSince(Item item, AbstractInstant timestamp, String serviceName) {
-        Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-        Iterator<HistoricItem> it = result.iterator();
-        HistoricItem itemThen = historicState(item, timestamp);
-        if (itemThen == null) {
+        HistoricAggregate aggregate = aggregateSince(item, timestamp, serviceName, true);
+        if (aggregate.getInitial() == null) {
             // Can't get the state at the start time
             // If we've got results more recent that this, it must have changed
-            return (it.hasNext());
-        }
-
-        State state = itemThen.getState();
-        while (it.hasNext()) {
-            HistoricItem hItem = it.next();
-            if (state != null && !hItem.getState().equals(state)) {
-                return true;
-            }
-            state = hItem.getState();
+            return aggregate.getCount() > 0;
         }
-        return false;
+        return aggregate.getChangeCount() > 0;
     }
 
     /**
@@ -204,7 +200,7 @@ public class PersistenceExtensions implements ManagedService {
      * @return true, if item state was updated
      */
     static public Boolean updatedSince(Item item, AbstractInstant timestamp, String serviceName) {
-        Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
+        Iterable<HistoricItem> result = getStatesSince(item, timestamp, serviceName, 0, 1);
         if (result.iterator().hasNext()) {
             return true;
         } else {
@@ -240,43 +236,16 @@ public class PersistenceExtensions implements ManagedService {
      * @return a historic item with the maximum state value since the given point in time
      */
     static public HistoricItem maximumSince(final Item item, AbstractInstant timestamp, String serviceName) {
-        Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-        Iterator<HistoricItem> it = result.iterator();
-        HistoricItem maximumHistoricItem = null;
+        HistoricItem maximumHistoricItem = aggregateSince(item, timestamp, serviceName, false).getMaximum();
         DecimalType maximum = (DecimalType) item.getStateAs(DecimalType.class);
-        while (it.hasNext()) {
-            HistoricItem historicItem = it.next();
-            State state = historicItem.getState();
-            if (state instanceof DecimalType) {
-                DecimalType value = (DecimalType) state;
-                if (maximum == null || value.compareTo(maximum) > 0) {
-                    maximum = value;
-                    maximumHistoricItem = historicItem;
-                }
-            }
-        }
-        if (maximumHistoricItem == null && maximum != null) {
+        if (maximumHistoricItem != null
+                && (maximum == null || ((DecimalType) maximumHistoricItem.getState()).compareTo(maximum) > 0)) {
+            return maximumHistoricItem;
+        } else if (maximum != null) {
             // the maximum state is the current one, so construct a historic item on the fly
-            final DecimalType state = maximum;
-            return new HistoricItem() {
-
-                @Override
-                public Date getTimestamp() {
-                    return Calendar.getInstance().getTime();
-                }
-
-                @Override
-                public State getState() {
-                    return state;
-                }
-
-                @Override
-                public String getName() {
-                    return item.getName();
-                }
-            };
+            return createCurrentHistoricItem(item, maximum);
         } else {
-            return maximumHistoricItem;
+            return null;
         }
     }
 
@@ -308,43 +277,16 @@ public class PersistenceExtensions implements ManagedService {
      * @return the historic item with the minimum state value since the given point in time
      */
     static public HistoricItem minimumSince(final Item item, AbstractInstant timestamp, String serviceName) {
-        Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-        Iterator<HistoricItem> it = result.iterator();
-        HistoricItem minimumHistoricItem = null;
+        HistoricItem minimumHistoricItem = aggregateSince(item, timestamp, serviceName, false).getMinimum();
         DecimalType minimum = (DecimalType) item.getStateAs(DecimalType.class);
-        while (it.hasNext()) {
-            HistoricItem historicItem = it.next();
-            State state = historicItem.getState();
-            if (state instanceof DecimalType) {
-                DecimalType value = (DecimalType) state;
-                if (minimum == null || value.compareTo(minimum) < 0) {
-                    minimum = value;
-                    minimumHistoricItem = historicItem;
-                }
-            }
-        }
-        if (minimumHistoricItem == null && minimum != null) {
+        if (minimumHistoricItem != null
+                && (minimum == null || ((DecimalType) minimumHistoricItem.getState()).compareTo(minimum) < 0)) {
+            return minimumHistoricItem;
+        } else if (minimum != null) {
             // the minimal state is the current one, so construct a historic item on the fly
-            final DecimalType state = minimum;
-            return new HistoricItem() {
-
-                @Override
-                public Date getTimestamp() {
-                    return Calendar.getInstance().getTime();
-                }
-
-                @Override
-                public State getState() {
-                    return state;
-                }
-
-                @Override
-                public String getName() {
-                    return item.getName();
-                }
-            };
+            return createCurrentHistoricItem(item, minimum);
         } else {
-            return minimumHistoricItem;
+            return null;
         }
     }
 
@@ -374,30 +316,79 @@ public class PersistenceExtensions implements ManagedService {
      * @return the average state value since the given point in time
      */
     static public DecimalType averageSince(Item item, AbstractInstant timestamp, String serviceName) {
-        Iterable<HistoricItem> result = getAllStatesSince(item, timestamp, serviceName);
-        Iterator<HistoricItem> it = result.iterator();
+        HistoricAggregate aggregate = aggregateSince(item, timestamp, serviceName, false);
 
         DecimalType value = (DecimalType) item.getStateAs(DecimalType.class);
         if (value == null) {
             value = DecimalType.ZERO;
         }
 
-        double average = value.doubleValue();
-        int quantity = 1;
-        while (it.hasNext()) {
-            State state = it.next().getState();
-            if (state instanceof DecimalType) {
-                value = (DecimalType) state;
-                average += value.doubleValue();
-                quantity++;
-            }
-        }
-        average /= quantity;
+        double average = value.doubleValue() + aggregate.getSum().doubleValue();
+        average /= aggregate.getDecimalCount() + 1;
 
         return new DecimalType(average);
     }
 
-    static private Iterable<HistoricItem> getAllStatesSince(Item item, AbstractInstant timestamp, String serviceName) {
+    /**
+     * Aggregates the states of a given <code>item</code> since a certain point in time. If the
+     * {@link PersistenceService} identified by the <code>serviceName</code> is an
+     * {@link AggregatingPersistenceService}, it aggregates the states itself, otherwise the states are queried page by
+     * page and aggregated one after the other. The paging stops at the first page, which is not full or which ends
+     * with the same timestamp as the previous page, so that services which ignore the page number are queried at most
+     * twice.
+     *
+     * @param item the item to aggregate the states for
+     * @param timestamp the point in time to start the aggregation
+     * @param serviceName the name of the {@link PersistenceService} to use
+     * @param initial true, if the state before the point in time is needed
+     * @return the aggregated states
+     */
+    static private HistoricAggregate aggregateSince(Item item, AbstractInstant timestamp, String serviceName,
+            boolean initial) {
+        PersistenceService service = services.get(serviceName);
+        if (service instanceof AggregatingPersistenceService) {
+            FilterCriteria filter = new FilterCriteria();
+            filter.setBeginDate(timestamp.toDate());
+            filter.setItemName(item.getName());
+            return ((AggregatingPersistenceService) service).aggregate(filter);
+        }
+
+        HistoricAggregator aggregator = new HistoricAggregator(timestamp.toDate(), null);
+        if (initial && service instanceof QueryablePersistenceService) {
+            aggregator.setInitial(historicState(item, new DateTime(timestamp.getMillis() - 1), serviceName));
+        }
+        int pageNumber = 0;
+        Date lastTimestamp = null;
+        while (true) {
+            List<HistoricItem> page = new ArrayList<HistoricItem>(AGGREGATION_PAGE_SIZE);
+            for (HistoricItem historicItem : getStatesSince(item, timestamp, serviceName, pageNumber,
+                    AGGREGATION_PAGE_SIZE)) {
+                page.add(historicItem);
+            }
+            if (page.isEmpty()) {
+                break;
+            }
+            Date pageLastTimestamp = page.get(page.size() - 1).getTimestamp();
+            if (lastTimestamp != null && lastTimestamp.equals(pageLastTimestamp)) {
+                // the page repeats the previous one, so the service does not support paging
+                break;
+            }
+            for (HistoricItem historicItem : page) {
+                aggregator.add(historicItem);
+            }
+            // a page, which is smaller or larger than requested, is the last one or means that the service does not
+            // support paging
+            if (page.size() != AGGREGATION_PAGE_SIZE) {
+                break;
+            }
+            lastTimestamp = pageLastTimestamp;
+            pageNumber++;
+        }
+        return aggregator.getAggregate();
+    }
+
+    static private Iterable<HistoricItem> getStatesSince(Item item, AbstractInstant timestamp, String serviceName,
+            int pageNumber, int pageSize) {
         PersistenceService service = services.get(serviceName);
         if (service instanceof QueryablePersistenceService) {
             QueryablePersistenceService qService = (QueryablePersistenceService) service;
@@ -405,6 +396,8 @@ public class PersistenceExtensions implements ManagedService {
             filter.setBeginDate(timestamp.toDate());
             filter.setItemName(item.getName());
             filter.setOrdering(Ordering.ASCENDING);
+            filter.setPageNumber(pageNumber);
+            filter.setPageSize(pageSize);
             return qService.query(filter);
         } else {
             LoggerFactory.getLogger(PersistenceExtensions.class).warn(
@@ -412,6 +405,26 @@ public class PersistenceExtensions implements ManagedService {
             return Collections.emptySet();
         }
     }
+
+    static private HistoricItem createCurrentHistoricItem(final Item item, final State state) {
+        return new HistoricItem() {
+
+            @Override
+            public Date getTimestamp() {
+                return Calendar.getInstance().getTime();
+            }
+
+            @Override
+            public State getState() {
+                return state;
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+        };
+    }
     
 	/**
 	 * Query for the last update timestamp of a given <code>item</code>.
@@ -482,6 +495,7 @@ public class PersistenceExtensions implements ManagedService {
 	 * @return the difference between now and then, null if not calculable
 	 */
 	static public DecimalType deltaSince(Item item, AbstractInstant timestamp, String serviceName) {
+		// the delta only depends on the state at the given point in time, so it needs no aggregation of the states since
 		HistoricItem itemThen = historicState(item, timestamp, serviceName);
 		if (itemThen != null) {
 			DecimalType valueThen = (DecimalType) itemThen.getState();
@@ -14,30 +14,33 @@ import org.eclipse.smarthome.model.core.ModelRepository;
 import org.eclipse.smarthome.model.persistence.persistence.PersistenceConfiguration;
 import org.eclipse.smarthome.model.persistence.persistence.PersistenceModel;
 import org.eclipse.smarthome.model.persistence.persistence.Strategy;
-import org.quartz.Job;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Implementation of Quartz {@link Job}-Interface. It takes a PersistenceModel and a CronStrategy,
- * scans through the relevant configurations and persists the concerned items.
+ * This job is scheduled by the {@link PersistenceManager} for each cron strategy. It takes a PersistenceModel and a
+ * CronStrategy, scans through the relevant configurations and persists the concerned items. The states are handed to
+ * the persistence service by the {@link PersistenceManager}, so that a batch persistence service receives them through
+ * its queue.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Persist through the queue of the persistence manager
  */
-public class PersistItemsJob implements Job {
+public class PersistItemsJob implements Runnable {
 
     private final Logger logger = LoggerFactory.getLogger(PersistItemsJob.class);
 
-    public static final String JOB_DATA_PERSISTMODEL = "model";
-    public static final String JOB_DATA_STRATEGYNAME = "strategy";
+    private final String modelName;
 
-    @Override
-    public void execute(JobExecutionContext context) throws JobExecutionException {
-        String modelName = (String) context.getJobDetail().getJobDataMap().get(JOB_DATA_PERSISTMODEL);
-        String strategyName = (String) context.getJobDetail().getJobDataMap().get(JOB_DATA_STRATEGYNAME);
+    private final String strategyName;
+
+    public PersistItemsJob(String modelName, String strategyName) {
+        this.modelName = modelName;
+        this.strategyName = strategyName;
+    }
 
+    @Override
+    public void run() {
         PersistenceManager persistenceManager = PersistenceManager.getInstance();
         if (persistenceManager != null) {
             ModelRepository modelRepository = persistenceManager.modelRepository;
@@ -50,10 +53,7 @@ public class PersistItemsJob implements Job {
                     for (PersistenceConfiguration config : persistModel.getConfigs()) {
                         if (hasStrategy(persistModel, config, strategyName)) {
                             for (Item item : persistenceManager.getAllItems(config)) {
-                                long startTime = System.currentTimeMillis();
-                                persistenceService.store(item, config.getAlias());
-                                logger.trace("Storing item '{}' with persistence service '{}' took {}ms", new Object[] {
-                                        item.getName(), modelName, System.currentTimeMillis() - startTime });
+                                persistenceManager.store(persistenceService, item, config.getAlias());
                             }
                         }
                     }
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.persistence.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.smarthome.io.console.Console;
+import org.eclipse.smarthome.io.console.extensions.AbstractConsoleCommandExtension;
+
+/**
+ * Console command extension to show the statistics of the write-behind queues of the batch persistence services.
+ *
+ * @author agent - Initial contribution
+ */
+public class PersistenceConsoleCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String SUBCMD_STATS = "stats";
+
+    public PersistenceConsoleCommandExtension() {
+        super("persistence", "Show the persistence queue statistics.");
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return Collections.singletonList(buildCommandUsage(SUBCMD_STATS,
+                "lists queue depth, stored, dropped, coalesced and failed records of each batch persistence service"));
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length > 0 && SUBCMD_STATS.equals(args[0])) {
+            printStatistics(console);
+        } else {
+            printUsage(console);
+        }
+    }
+
+    private void printStatistics(Console console) {
+        PersistenceManager persistenceManager = PersistenceManager.getInstance();
+        if (persistenceManager == null) {
+            console.println("Persistence manager is not available.");
+            return;
+        }
+        Collection<PersistenceServiceQueue> queues = persistenceManager.getQueues();
+        if (queues.isEmpty()) {
+            console.println("No records have been queued for a batch persistence service.");
+            return;
+        }
+        for (PersistenceServiceQueue queue : queues) {
+            console.println(queue.getServiceName() + " [" + queue.getOverflowPolicy() + "]: depth="
+                    + queue.getQueueDepth() + ", stored=" + queue.getStoredRecords() + ", dropped="
+                    + queue.getDroppedRecords() + ", coalesced=" + queue.getCoalescedRecords() + ", failed="
+                    + queue.getFailedRecords());
+        }
+    }
+
+}
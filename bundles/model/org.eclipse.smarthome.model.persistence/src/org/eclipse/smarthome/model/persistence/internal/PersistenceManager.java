@@ -7,12 +7,11 @@
  */
 package org.eclipse.smarthome.model.persistence.internal;
 
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
-
 import java.text.DateFormat;
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,15 +29,20 @@ import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
 import org.eclipse.smarthome.core.items.StateChangeListener;
+import org.eclipse.smarthome.core.persistence.BatchPersistenceService;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.persistence.PersistenceRecord;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
+import org.eclipse.smarthome.core.scheduler.ScheduledJob;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.eclipse.smarthome.model.core.EventType;
 import org.eclipse.smarthome.model.core.ModelRepository;
 import org.eclipse.smarthome.model.core.ModelRepositoryChangeListener;
+import org.eclipse.smarthome.model.persistence.internal.PersistenceServiceQueue.OverflowPolicy;
 import org.eclipse.smarthome.model.persistence.persistence.AllConfig;
 import org.eclipse.smarthome.model.persistence.persistence.CronStrategy;
 import org.eclipse.smarthome.model.persistence.persistence.GroupConfig;
@@ -47,65 +51,127 @@ import org.eclipse.smarthome.model.persistence.persistence.PersistenceConfigurat
 import org.eclipse.smarthome.model.persistence.persistence.PersistenceModel;
 import org.eclipse.smarthome.model.persistence.persistence.Strategy;
 import org.eclipse.smarthome.model.persistence.scoping.GlobalStrategies;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.Job;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
-import org.quartz.impl.matchers.GroupMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class is the central part of the persistence management and delegation. It reads the persistence
  * models, schedules timers and manages the invocation of {@link PersistenceService}s upon events.
+ * <p>
+ * State changes and updates are not passed synchronously to {@link BatchPersistenceService}s, but through a
+ * {@link PersistenceServiceQueue} per service, which can be configured by the properties 'bufferSize', 'flushSize',
+ * 'flushInterval' (in milliseconds) and 'overflowPolicy' ('DROP_OLDEST' or 'COALESCE'). The states persisted by cron
+ * strategies are queued the same way. Other services are called synchronously, because they store the current state
+ * of the item.
+ * <p>
+ * The persistence configurations, which apply to an item with a change or update strategy, are kept in a routing
+ * table by item name. It is updated whenever a persistence model, an item or the members of a group change.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Added write-behind queues and routing table
  *
  */
 public class PersistenceManager implements ModelRepositoryChangeListener,
         ItemRegistryChangeListener, StateChangeListener {
 
+    protected static final String BUFFER_SIZE = "bufferSize";
+
+    protected static final String FLUSH_SIZE = "flushSize";
+
+    protected static final String FLUSH_INTERVAL = "flushInterval";
+
+    protected static final String OVERFLOW_POLICY = "overflowPolicy";
+
+    private static final int DEFAULT_BUFFER_SIZE = 10000;
+
+    private static final int DEFAULT_FLUSH_SIZE = 100;
+
+    private static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(PersistenceManager.class);
 
     private static PersistenceManager instance;
 
     // the scheduler used for timer events
-    private Scheduler scheduler;
+    private SchedulerService schedulerService;
+
+    /** keeps the scheduled jobs of the cron strategies for each persistence service */
+    private final Map<String, List<ScheduledJob>> timerJobs = new HashMap<String, List<ScheduledJob>>();
 
     /* default */ModelRepository modelRepository;
 
     private ItemRegistry itemRegistry;
 
-    /* default */Map<String, PersistenceService> persistenceServices = new HashMap<String, PersistenceService>();
+    /* default */Map<String, PersistenceService> persistenceServices = new ConcurrentHashMap<String, PersistenceService>();
+
+    /** keeps the write-behind queue for each persistence service */
+    private final Map<String, PersistenceServiceQueue> serviceQueues = new HashMap<String, PersistenceServiceQueue>();
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private int flushSize = DEFAULT_FLUSH_SIZE;
+
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
 
     /** keeps a list of configurations for each persistence service */
     protected Map<String, List<PersistenceConfiguration>> persistenceConfigurations = new ConcurrentHashMap<String, List<PersistenceConfiguration>>();
 
+    /** keeps the routes of the state changes and updates for each item name */
+    private final Map<String, List<PersistenceRoute>> routes = new ConcurrentHashMap<String, List<PersistenceRoute>>();
+
     /** keeps a list of default strategies for each persistence service */
     protected Map<String, List<Strategy>> defaultStrategies = Collections
             .synchronizedMap(new HashMap<String, List<Strategy>>());
 
     public PersistenceManager() {
         PersistenceManager.instance = this;
-        try {
-            scheduler = StdSchedulerFactory.getDefaultScheduler();
-        } catch (SchedulerException e) {
-            logger.error("initializing scheduler throws exception", e);
-        }
     }
 
     static/* default */PersistenceManager getInstance() {
         return instance;
     }
 
-    public void activate() {
+    public void activate(Map<String, Object> properties) {
+        if (properties != null) {
+            bufferSize = getIntProperty(properties, BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+            flushSize = getIntProperty(properties, FLUSH_SIZE, DEFAULT_FLUSH_SIZE);
+            flushInterval = getIntProperty(properties, FLUSH_INTERVAL, (int) DEFAULT_FLUSH_INTERVAL);
+            Object policy = properties.get(OVERFLOW_POLICY);
+            if (policy != null) {
+                try {
+                    overflowPolicy = OverflowPolicy.valueOf(policy.toString().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid overflow policy '{}', using '{}'.", policy, overflowPolicy);
+                }
+            }
+        }
     }
 
     public void deactivate() {
+        synchronized (serviceQueues) {
+            for (PersistenceServiceQueue queue : serviceQueues.values()) {
+                queue.close();
+            }
+            serviceQueues.clear();
+        }
+    }
+
+    private int getIntProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.toString().trim());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            logger.warn("Invalid value '{}' for '{}', using {}.", new Object[] { value, name, defaultValue });
+        }
+        return defaultValue;
     }
 
     public void setModelRepository(ModelRepository modelRepository) {
@@ -126,6 +192,14 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
         this.modelRepository = null;
     }
 
+    public void setSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
+    }
+
+    public void unsetSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = null;
+    }
+
     public void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
         itemRegistry.addRegistryChangeListener(this);
@@ -147,6 +221,13 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
     public void removePersistenceService(PersistenceService persistenceService) {
         stopEventHandling(persistenceService.getName());
         persistenceServices.remove(persistenceService.getName());
+        PersistenceServiceQueue queue;
+        synchronized (serviceQueues) {
+            queue = serviceQueues.remove(persistenceService.getName());
+        }
+        if (queue != null) {
+            queue.close();
+        }
     }
 
     @Override
@@ -184,6 +265,7 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
                     }
                 }
                 createTimers(modelName);
+                rebuildRoutes();
             }
         }
     }
@@ -197,6 +279,7 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
         persistenceConfigurations.remove(modelName);
         defaultStrategies.remove(modelName);
         removeTimers(modelName);
+        rebuildRoutes();
     }
 
     @Override
@@ -210,29 +293,137 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
     }
 
     /**
-     * Calls all persistence services which use change or update policy for the given item
+     * Queues the item state for all batch persistence services and calls all other persistence services which use
+     * change or update policy for the given item
      * 
      * @param item the item to persist
      * @param onlyChanges true, if it has the change strategy, false otherwise
      */
     private void handleStateEvent(Item item, boolean onlyChanges) {
-        synchronized (persistenceConfigurations) {
-            for (Entry<String, List<PersistenceConfiguration>> entry : persistenceConfigurations.entrySet()) {
-                String serviceName = entry.getKey();
-                if (persistenceServices.containsKey(serviceName)) {
-                    for (PersistenceConfiguration config : entry.getValue()) {
-                        if (hasStrategy(serviceName, config, onlyChanges ? GlobalStrategies.CHANGE
-                                : GlobalStrategies.UPDATE)) {
-                            if (appliesToItem(config, item)) {
-                                persistenceServices.get(serviceName).store(item, config.getAlias());
-                            }
-                        }
-                    }
+        List<PersistenceRoute> itemRoutes = routes.get(item.getName());
+        if (itemRoutes == null) {
+            return;
+        }
+        State state = item.getState();
+        Date timestamp = new Date();
+        for (PersistenceRoute route : itemRoutes) {
+            if (onlyChanges ? route.onChange : route.onUpdate) {
+                PersistenceService service = persistenceServices.get(route.serviceName);
+                if (service != null) {
+                    store(service, item, route.alias, state, timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the current state of the item, if the service is a batch persistence service, and stores it directly
+     * otherwise.
+     *
+     * @param service the persistence service
+     * @param item the item to persist
+     * @param alias the alias of the item, null if there is none
+     */
+    /* default */void store(PersistenceService service, Item item, String alias) {
+        store(service, item, alias, item.getState(), new Date());
+    }
+
+    private void store(PersistenceService service, Item item, String alias, State state, Date timestamp) {
+        if (service instanceof BatchPersistenceService) {
+            PersistenceServiceQueue queue = getQueue((BatchPersistenceService) service);
+            if (queue != null) {
+                queue.add(new PersistenceRecord(item, alias, state, timestamp));
+            }
+        } else {
+            service.store(item, alias);
+        }
+    }
+
+    /**
+     * Rebuilds the routes of all items, e.g. after a persistence model has changed.
+     */
+    private void rebuildRoutes() {
+        synchronized (routes) {
+            if (itemRegistry == null) {
+                routes.clear();
+                return;
+            }
+            Map<String, List<PersistenceRoute>> newRoutes = new HashMap<String, List<PersistenceRoute>>();
+            for (Item item : itemRegistry.getItems()) {
+                List<PersistenceRoute> itemRoutes = calculateRoutes(item);
+                if (!itemRoutes.isEmpty()) {
+                    newRoutes.put(item.getName(), itemRoutes);
+                }
+            }
+            routes.keySet().retainAll(newRoutes.keySet());
+            routes.putAll(newRoutes);
+        }
+    }
+
+    /**
+     * Updates the routes of the given item and, if it is a group, of all its members.
+     */
+    private void updateRoutes(Item item) {
+        synchronized (routes) {
+            updateRoutesOfItem(item);
+            if (item instanceof GroupItem) {
+                for (Item member : ((GroupItem) item).getAllMembers()) {
+                    updateRoutesOfItem(member);
                 }
             }
         }
     }
 
+    private void updateRoutesOfItem(Item item) {
+        List<PersistenceRoute> itemRoutes = calculateRoutes(item);
+        if (itemRoutes.isEmpty()) {
+            routes.remove(item.getName());
+        } else {
+            routes.put(item.getName(), itemRoutes);
+        }
+    }
+
+    private List<PersistenceRoute> calculateRoutes(Item item) {
+        List<PersistenceRoute> itemRoutes = new ArrayList<PersistenceRoute>();
+        for (Entry<String, List<PersistenceConfiguration>> entry : persistenceConfigurations.entrySet()) {
+            String serviceName = entry.getKey();
+            for (PersistenceConfiguration config : entry.getValue()) {
+                boolean onChange = hasStrategy(serviceName, config, GlobalStrategies.CHANGE);
+                boolean onUpdate = hasStrategy(serviceName, config, GlobalStrategies.UPDATE);
+                if ((onChange || onUpdate) && appliesToItem(config, item)) {
+                    itemRoutes.add(new PersistenceRoute(serviceName, config.getAlias(), onChange, onUpdate));
+                }
+            }
+        }
+        return itemRoutes;
+    }
+
+    private PersistenceServiceQueue getQueue(BatchPersistenceService service) {
+        synchronized (serviceQueues) {
+            PersistenceServiceQueue queue = serviceQueues.get(service.getName());
+            if (queue == null) {
+                if (persistenceServices.get(service.getName()) != service) {
+                    // the service has been removed in the meantime
+                    return null;
+                }
+                queue = new PersistenceServiceQueue(service, bufferSize, flushSize, flushInterval, overflowPolicy);
+                serviceQueues.put(service.getName(), queue);
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * Returns the write-behind queues of the batch persistence services, e.g. to show their statistics.
+     *
+     * @return the queues (not null)
+     */
+    /* default */Collection<PersistenceServiceQueue> getQueues() {
+        synchronized (serviceQueues) {
+            return new ArrayList<PersistenceServiceQueue>(serviceQueues.values());
+        }
+    }
+
     /**
      * Checks if a given persistence configuration entry has a certain strategy for the given service
      * 
@@ -335,13 +526,19 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
 
     @Override
     public void allItemsChanged(Collection<String> oldItemNames) {
+        rebuildRoutes();
         for (Item item : itemRegistry.getItems()) {
-            added(item);
+            initialize(item);
+            if (item instanceof GenericItem) {
+                GenericItem genericItem = (GenericItem) item;
+                genericItem.addStateChangeListener(this);
+            }
         }
     }
 
     @Override
     public void added(Item item) {
+        updateRoutes(item);
         initialize(item);
         if (item instanceof GenericItem) {
             GenericItem genericItem = (GenericItem) item;
@@ -403,15 +600,20 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
             GenericItem genericItem = (GenericItem) item;
             genericItem.removeStateChangeListener(this);
         }
+        synchronized (routes) {
+            routes.remove(item.getName());
+            if (item instanceof GroupItem) {
+                for (Item member : ((GroupItem) item).getAllMembers()) {
+                    updateRoutesOfItem(member);
+                }
+            }
+        }
     }
 
     /**
-     * Creates and schedules a new quartz-job and trigger with model and rule name as jobData.
-     * 
-     * @param rule the rule to schedule
-     * @param trigger the defined trigger
+     * Schedules a new {@link PersistItemsJob} for each cron strategy of a persistence model.
      * 
-     * @throws SchedulerException if there is an internal Scheduler error.
+     * @param modelName the name of the persistence model without file extension
      */
     private void createTimers(String modelName) {
         PersistenceModel persistModel = (PersistenceModel) modelRepository.getModel(modelName + ".persist");
@@ -420,24 +622,23 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
                 if (strategy instanceof CronStrategy) {
                     CronStrategy cronStrategy = (CronStrategy) strategy;
                     String cronExpression = cronStrategy.getCronExpression();
-                    JobKey jobKey = new JobKey(strategy.getName(), modelName);
+                    String jobName = modelName + "." + strategy.getName();
                     try {
-                        JobDetail job = newJob(PersistItemsJob.class)
-                                .usingJobData(PersistItemsJob.JOB_DATA_PERSISTMODEL,
-                                        cronStrategy.eResource().getURI().trimFileExtension().path())
-                                .usingJobData(PersistItemsJob.JOB_DATA_STRATEGYNAME, cronStrategy.getName())
-                                .withIdentity(jobKey).build();
-
-                        Trigger quartzTrigger = newTrigger().withSchedule(
-                                CronScheduleBuilder.cronSchedule(cronExpression)).build();
-
-                        scheduler.scheduleJob(job, quartzTrigger);
+                        ScheduledJob job = schedulerService.schedule(new PersistItemsJob(cronStrategy.eResource()
+                                .getURI().trimFileExtension().path(), cronStrategy.getName()), cronExpression);
+                        synchronized (timerJobs) {
+                            List<ScheduledJob> jobs = timerJobs.get(modelName);
+                            if (jobs == null) {
+                                jobs = new ArrayList<ScheduledJob>();
+                                timerJobs.put(modelName, jobs);
+                            }
+                            jobs.add(job);
+                        }
 
-                        logger.debug("Scheduled strategy {} with cron expression {}", new Object[] { jobKey.toString(),
-                                cronExpression });
-                    } catch (SchedulerException e) {
+                        logger.debug("Scheduled strategy {} with cron expression {}", jobName, cronExpression);
+                    } catch (IllegalArgumentException e) {
                         logger.error("Failed to schedule job for strategy {} with cron expression {}", new String[] {
-                                jobKey.toString(), cronExpression }, e);
+                                jobName, cronExpression }, e);
                     }
                 }
             }
@@ -445,33 +646,56 @@ public class PersistenceManager implements ModelRepositoryChangeListener,
     }
 
     /**
-     * Delete all {@link Job}s of the group <code>persistModelName</code>
+     * Cancels all scheduled jobs of the cron strategies of a persistence model.
      * 
-     * @throws SchedulerException if there is an internal Scheduler error.
+     * @param persistModelName the name of the persistence model without file extension
      */
     private void removeTimers(String persistModelName) {
-        try {
-            Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(persistModelName));
-            for (JobKey jobKey : jobKeys) {
-                try {
-                    boolean success = scheduler.deleteJob(jobKey);
-                    if (success) {
-                        logger.debug("Removed scheduled cron job for strategy '{}'", jobKey.toString());
-                    } else {
-                        logger.warn("Failed to delete cron jobs '{}'", jobKey.getName());
-                    }
-                } catch (SchedulerException e) {
-                    logger.warn("Failed to delete cron jobs '{}'", jobKey.getName());
-                }
+        List<ScheduledJob> jobs;
+        synchronized (timerJobs) {
+            jobs = timerJobs.remove(persistModelName);
+        }
+        if (jobs != null) {
+            for (ScheduledJob job : jobs) {
+                job.cancel();
             }
-        } catch (SchedulerException e) {
-            logger.warn("Failed to delete cron jobs of group '{}'", persistModelName);
+            logger.debug("Removed {} scheduled cron jobs of '{}'", jobs.size(), persistModelName);
         }
     }
 
     @Override
     public void updated(Item oldItem, Item item) {
-        // not needed here
+        if (oldItem instanceof GenericItem) {
+            ((GenericItem) oldItem).removeStateChangeListener(this);
+        }
+        synchronized (routes) {
+            if (oldItem instanceof GroupItem) {
+                for (Item member : ((GroupItem) oldItem).getAllMembers()) {
+                    updateRoutesOfItem(member);
+                }
+            }
+            updateRoutes(item);
+        }
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).addStateChangeListener(this);
+        }
+    }
+
+    /**
+     * A route of the state changes or updates of an item to a persistence service.
+     */
+    private static final class PersistenceRoute {
+        private final String serviceName;
+        private final String alias;
+        private final boolean onChange;
+        private final boolean onUpdate;
+
+        private PersistenceRoute(String serviceName, String alias, boolean onChange, boolean onUpdate) {
+            this.serviceName = serviceName;
+            this.alias = alias;
+            this.onChange = onChange;
+            this.onUpdate = onUpdate;
+        }
     }
 
 }
@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.persistence.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.persistence.BatchPersistenceService;
+import org.eclipse.smarthome.core.persistence.PersistenceRecord;
+import org.eclipse.smarthome.core.persistence.PersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PersistenceServiceQueue} decouples the state propagation of the items from a
+ * {@link BatchPersistenceService}. Records are buffered in a bounded queue, which is drained by a worker thread of the
+ * service, whenever the flush size is reached and after each flush interval. The service receives the records in
+ * batches of at most the flush size.
+ *
+ * Other {@link PersistenceService}s are not queued, because they can only store the current state of an item and not
+ * the state of a record.
+ *
+ * If the queue is full, the oldest record is dropped. With the coalesce policy a pending record of the same item and
+ * alias is replaced in place by the new record instead, if there is one.
+ *
+ * @author agent - Initial contribution
+ */
+public class PersistenceServiceQueue {
+
+    /**
+     * Defines how a {@link PersistenceServiceQueue} behaves if a record is added to a full queue.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The oldest record is dropped.
+         */
+        DROP_OLDEST,
+        /**
+         * A pending record of the same item and alias is replaced, otherwise the oldest record is dropped.
+         */
+        COALESCE
+    }
+
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(PersistenceServiceQueue.class);
+
+    private final BatchPersistenceService service;
+
+    private final int capacity;
+
+    private final int flushSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final ScheduledExecutorService executor;
+
+    private final Deque<QueuedRecord> queue = new ArrayDeque<QueuedRecord>();
+
+    /** the queued records by item and alias, only maintained for the coalesce policy */
+    private final Map<String, QueuedRecord> pendingRecords = new HashMap<String, QueuedRecord>();
+
+    private boolean flushScheduled = false;
+
+    private final AtomicLong storedRecords = new AtomicLong();
+
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    private final AtomicLong coalescedRecords = new AtomicLong();
+
+    private final AtomicLong failedRecords = new AtomicLong();
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * Creates a new queue and starts its worker thread.
+     *
+     * @param service the batch persistence service (must not be null)
+     * @param capacity the maximum number of buffered records (must be positive)
+     * @param flushSize the number of records, which triggers a flush and limits the size of a batch (must be positive)
+     * @param flushInterval the interval in milliseconds, after which buffered records are flushed (must be positive)
+     * @param overflowPolicy the overflow policy (must not be null)
+     */
+    public PersistenceServiceQueue(BatchPersistenceService service, int capacity, int flushSize, long flushInterval,
+            OverflowPolicy overflowPolicy) {
+        if (capacity < 1 || flushSize < 1 || flushInterval < 1) {
+            throw new IllegalArgumentException("Capacity, flush size and flush interval must be positive.");
+        }
+        this.service = service;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.overflowPolicy = overflowPolicy;
+        final String threadName = "ESH-persistence-" + service.getName();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.executor.scheduleWithFixedDelay(flushTask, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a record to the queue. This method never blocks.
+     *
+     * @param record the record (must not be null)
+     */
+    public void add(PersistenceRecord record) {
+        synchronized (queue) {
+            String key = getKey(record);
+            QueuedRecord pendingRecord = null;
+            if (queue.size() >= capacity) {
+                pendingRecord = overflowPolicy == OverflowPolicy.COALESCE ? pendingRecords.get(key) : null;
+                if (pendingRecord != null) {
+                    // the newer record takes the place of the pending one in the queue
+                    pendingRecord.record = record;
+                    coalescedRecords.incrementAndGet();
+                } else {
+                    QueuedRecord droppedRecord = queue.poll();
+                    removePending(droppedRecord);
+                    droppedRecords.incrementAndGet();
+                    logger.trace("Dropped record '{}' for persistence service '{}', because its queue is full.",
+                            droppedRecord.record, service.getName());
+                }
+            }
+            if (pendingRecord == null) {
+                QueuedRecord queuedRecord = new QueuedRecord(record);
+                queue.add(queuedRecord);
+                if (overflowPolicy == OverflowPolicy.COALESCE) {
+                    pendingRecords.put(key, queuedRecord);
+                }
+            }
+            if (queue.size() >= flushSize && !flushScheduled) {
+                flushScheduled = true;
+                try {
+                    executor.execute(flushTask);
+                } catch (RejectedExecutionException e) {
+                    flushScheduled = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores all buffered records and stops the worker thread. Records added afterwards are not stored.
+     */
+    public void close() {
+        try {
+            executor.execute(flushTask);
+        } catch (RejectedExecutionException e) {
+            // already closed
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                logger.warn("Persistence service '{}' did not store the remaining {} records within {}ms.",
+                        service.getName(), getQueueDepth(), SHUTDOWN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush() {
+        while (true) {
+            List<PersistenceRecord> records = new ArrayList<PersistenceRecord>();
+            synchronized (queue) {
+                while (records.size() < flushSize && !queue.isEmpty()) {
+                    QueuedRecord queuedRecord = queue.poll();
+                    removePending(queuedRecord);
+                    records.add(queuedRecord.record);
+                }
+                if (records.isEmpty()) {
+                    flushScheduled = false;
+                    return;
+                }
+            }
+            store(records);
+        }
+    }
+
+    private void store(List<PersistenceRecord> records) {
+        long startTime = System.currentTimeMillis();
+        try {
+            service.store(records);
+            storedRecords.addAndGet(records.size());
+        } catch (RuntimeException e) {
+            failedRecords.addAndGet(records.size());
+            logger.error("Persistence service '" + service.getName() + "' failed to store " + records.size()
+                    + " records: " + e.getMessage(), e);
+        }
+        logger.trace("Storing {} records with persistence service '{}' took {}ms", new Object[] { records.size(),
+                service.getName(), System.currentTimeMillis() - startTime });
+    }
+
+    private void removePending(QueuedRecord queuedRecord) {
+        if (overflowPolicy == OverflowPolicy.COALESCE) {
+            String key = getKey(queuedRecord.record);
+            if (pendingRecords.get(key) == queuedRecord) {
+                pendingRecords.remove(key);
+            }
+        }
+    }
+
+    private String getKey(PersistenceRecord record) {
+        return record.getAlias() == null ? record.getItemName() : record.getItemName() + ":" + record.getAlias();
+    }
+
+    /**
+     * Returns the name of the persistence service of this queue.
+     *
+     * @return the name of the persistence service
+     */
+    public String getServiceName() {
+        return service.getName();
+    }
+
+    /**
+     * Returns the policy, which is applied if a record is added to a full queue.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of currently buffered records.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Returns the number of records handed over to the persistence service.
+     *
+     * @return the number of stored records
+     */
+    public long getStoredRecords() {
+        return storedRecords.get();
+    }
+
+    /**
+     * Returns the number of records dropped because the queue was full.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    /**
+     * Returns the number of records replaced by a newer record of the same item because the queue was full.
+     *
+     * @return the number of coalesced records
+     */
+    public long getCoalescedRecords() {
+        return coalescedRecords.get();
+    }
+
+    /**
+     * Returns the number of records the persistence service failed to store.
+     *
+     * @return the number of failed records
+     */
+    public long getFailedRecords() {
+        return failedRecords.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceServiceQueue [service=" + service.getName() + ", policy=" + overflowPolicy + ", depth="
+                + getQueueDepth() + ", stored=" + getStoredRecords() + ", dropped=" + getDroppedRecords()
+                + ", coalesced=" + getCoalescedRecords() + ", failed=" + getFailedRecords() + "]";
+    }
+
+    /**
+     * Holds a record in the queue. Coalescing replaces the record of the holder, so that the queue is not searched.
+     * Guarded by the queue.
+     */
+    private static class QueuedRecord {
+
+        private PersistenceRecord record;
+
+        private QueuedRecord(PersistenceRecord record) {
+            this.record = record;
+        }
+
+    }
+
+}
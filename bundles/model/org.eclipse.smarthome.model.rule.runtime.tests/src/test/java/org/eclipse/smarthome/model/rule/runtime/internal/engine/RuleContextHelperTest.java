@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.eclipse.smarthome.model.rule.rules.RuleModel;
+import org.eclipse.smarthome.model.rule.rules.RulesFactory;
+import org.eclipse.smarthome.model.script.engine.Script;
+import org.eclipse.smarthome.model.script.engine.ScriptEngine;
+import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
+import org.eclipse.smarthome.model.script.engine.ScriptParsingException;
+import org.eclipse.xtext.xbase.XExpression;
+import org.eclipse.xtext.xbase.interpreter.IEvaluationContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link RuleContextHelper} reuses the script of a rule and creates it again after a model reload.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleContextHelperTest {
+
+    private CountingScriptEngine scriptEngine;
+
+    private Resource resource;
+
+    @Before
+    public void setUp() {
+        scriptEngine = new CountingScriptEngine();
+        resource = new ResourceImpl(URI.createURI("test.rules"));
+    }
+
+    @Test
+    public void scriptIsCreatedOnceAndReusedForEveryExecution() {
+        Rule rule = loadModel("rule");
+
+        Script script = RuleContextHelper.getScript(rule, scriptEngine);
+
+        assertSame(script, RuleContextHelper.getScript(rule, scriptEngine));
+        assertSame(script, RuleContextHelper.getScript(rule, scriptEngine));
+        assertEquals(1, scriptEngine.createdScripts);
+    }
+
+    @Test
+    public void scriptIsCreatedAgainAfterTheModelIsReloaded() {
+        Rule rule = loadModel("rule");
+        Script script = RuleContextHelper.getScript(rule, scriptEngine);
+
+        // the model repository unloads the resource and loads it again, which creates new rule objects
+        resource.unload();
+        Rule reloadedRule = loadModel("rule");
+        Script reloadedScript = RuleContextHelper.getScript(reloadedRule, scriptEngine);
+
+        assertNotSame(script, reloadedScript);
+        assertSame(reloadedScript, RuleContextHelper.getScript(reloadedRule, scriptEngine));
+        assertEquals(2, scriptEngine.createdScripts);
+        assertTrue(rule.eAdapters().isEmpty());
+    }
+
+    @Test
+    public void scriptIsCreatedAgainForAnotherScriptEngine() {
+        Rule rule = loadModel("rule");
+        Script script = RuleContextHelper.getScript(rule, scriptEngine);
+
+        CountingScriptEngine otherScriptEngine = new CountingScriptEngine();
+        Script otherScript = RuleContextHelper.getScript(rule, otherScriptEngine);
+
+        assertNotSame(script, otherScript);
+        assertEquals(1, otherScriptEngine.createdScripts);
+    }
+
+    private Rule loadModel(String ruleName) {
+        Rule rule = RulesFactory.eINSTANCE.createRule();
+        rule.setName(ruleName);
+        RuleModel ruleModel = RulesFactory.eINSTANCE.createRuleModel();
+        ruleModel.getRules().add(rule);
+        resource.getContents().add(ruleModel);
+        return rule;
+    }
+
+    private static class CountingScriptEngine implements ScriptEngine {
+
+        private int createdScripts = 0;
+
+        @Override
+        public Script newScriptFromString(String scriptAsString) throws ScriptParsingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object executeScript(String scriptAsString) throws ScriptParsingException, ScriptExecutionException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Script newScriptFromXExpression(XExpression expression) {
+            createdScripts++;
+            return new Script() {
+                @Override
+                public Object execute() throws ScriptExecutionException {
+                    return null;
+                }
+
+                @Override
+                public Object execute(IEvaluationContext evaluationContext) throws ScriptExecutionException {
+                    return null;
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleExecutor.OverflowPolicy;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RuleExecutor}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleExecutorTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private RuleExecutor ruleExecutor;
+
+    @After
+    public void tearDown() {
+        if (ruleExecutor != null) {
+            ruleExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void runsOfTheSameRuleAreSerializedInOrder() throws InterruptedException {
+        ruleExecutor = new RuleExecutor(4, 100, OverflowPolicy.REJECT);
+        final List<Integer> runs = new CopyOnWriteArrayList<Integer>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            final int run = i;
+            assertTrue(ruleExecutor.execute("rule", new Runnable() {
+                @Override
+                public void run() {
+                    int current = running.incrementAndGet();
+                    if (current > maxRunning.get()) {
+                        maxRunning.set(current);
+                    }
+                    sleep(10);
+                    runs.add(run);
+                    running.decrementAndGet();
+                    finished.countDown();
+                }
+            }));
+        }
+
+        assertTrue(finished.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), runs);
+        assertEquals(1, maxRunning.get());
+        // waits for the statistics of the last run
+        ruleExecutor.shutdown();
+        assertEquals(10, ruleExecutor.getStatistics().get("rule").getExecutedRuns());
+    }
+
+    @Test
+    public void differentRulesAreExecutedInParallel() throws InterruptedException {
+        ruleExecutor = new RuleExecutor(2, 100, OverflowPolicy.REJECT);
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final CountDownLatch met = new CountDownLatch(2);
+
+        for (String ruleName : Arrays.asList("rule1", "rule2")) {
+            ruleExecutor.execute(ruleName, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // only passes, if both rules are running at the same time
+                        barrier.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                        met.countDown();
+                    } catch (Exception e) {
+                        // the latch is not counted down
+                    }
+                }
+            });
+        }
+
+        assertTrue(met.await(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void runsAreRejectedIfTheQueueIsFull() throws InterruptedException {
+        ruleExecutor = new RuleExecutor(1, 2, OverflowPolicy.REJECT);
+        final List<String> runs = new CopyOnWriteArrayList<String>();
+        CountDownLatch release = blockRule("rule1", runs);
+
+        assertTrue(ruleExecutor.execute("rule1", new RecordingRun(runs, "2")));
+        assertTrue(ruleExecutor.execute("rule2", new RecordingRun(runs, "3")));
+        assertFalse(ruleExecutor.execute("rule1", new RecordingRun(runs, "4")));
+        assertFalse(ruleExecutor.execute("rule2", new RecordingRun(runs, "5")));
+
+        release.countDown();
+        waitForRuns(runs, 3);
+        assertTrue(runs.containsAll(Arrays.asList("1", "2", "3")));
+        assertEquals(1, ruleExecutor.getStatistics().get("rule1").getRejectedRuns());
+        assertEquals(1, ruleExecutor.getStatistics().get("rule2").getRejectedRuns());
+
+        // the queue has been drained
+        assertTrue(ruleExecutor.execute("rule1", new RecordingRun(runs, "6")));
+        waitForRuns(runs, 4);
+    }
+
+    @Test
+    public void theOldestPendingRunOfTheSameRuleIsDiscardedIfTheQueueIsFull() throws InterruptedException {
+        ruleExecutor = new RuleExecutor(1, 2, OverflowPolicy.DISCARD_OLDEST);
+        final List<String> runs = new CopyOnWriteArrayList<String>();
+        CountDownLatch release = blockRule("rule1", runs);
+
+        assertTrue(ruleExecutor.execute("rule1", new RecordingRun(runs, "2")));
+        assertTrue(ruleExecutor.execute("rule1", new RecordingRun(runs, "3")));
+        // replaces run 2
+        assertTrue(ruleExecutor.execute("rule1", new RecordingRun(runs, "4")));
+        // rule2 has no pending run, which could be discarded
+        assertFalse(ruleExecutor.execute("rule2", new RecordingRun(runs, "5")));
+
+        release.countDown();
+        waitForRuns(runs, 3);
+        assertEquals(Arrays.asList("1", "3", "4"), runs);
+        ruleExecutor.shutdown();
+        assertEquals(1, ruleExecutor.getStatistics().get("rule1").getRejectedRuns());
+        assertEquals(3, ruleExecutor.getStatistics().get("rule1").getExecutedRuns());
+    }
+
+    @Test
+    public void runsAreRejectedAfterShutdown() {
+        ruleExecutor = new RuleExecutor(1, 10, OverflowPolicy.REJECT);
+        ruleExecutor.shutdown();
+
+        assertFalse(ruleExecutor.execute("rule", new RecordingRun(new CopyOnWriteArrayList<String>(), "1")));
+    }
+
+    /**
+     * Starts a run "1" of a rule, which blocks the only worker until the returned latch is counted down.
+     */
+    private CountDownLatch blockRule(String ruleName, final List<String> runs) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        assertTrue(ruleExecutor.execute(ruleName, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                runs.add("1");
+            }
+        }));
+        // the running run does not count as pending run anymore
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        return release;
+    }
+
+    private void waitForRuns(List<String> runs, int count) {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (runs.size() < count && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        assertEquals(count, runs.size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingRun implements Runnable {
+
+        private final List<String> runs;
+
+        private final String name;
+
+        private RecordingRun(List<String> runs, String name) {
+            this.runs = runs;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            runs.add(name);
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.items.ColorItem;
+import org.eclipse.smarthome.core.library.items.NumberItem;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.model.rule.rules.ChangedEventTrigger;
+import org.eclipse.smarthome.model.rule.rules.CommandEventTrigger;
+import org.eclipse.smarthome.model.rule.rules.EventTrigger;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.eclipse.smarthome.model.rule.rules.RulesFactory;
+import org.eclipse.smarthome.model.rule.rules.UpdateEventTrigger;
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RuleTriggerIndex}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleTriggerIndexTest {
+
+    private RuleTriggerIndex index;
+
+    private NumberItem numberItem;
+
+    private ColorItem colorItem;
+
+    @Before
+    public void setUp() {
+        index = new RuleTriggerIndex();
+        numberItem = new NumberItem("number");
+        colorItem = new ColorItem("color");
+    }
+
+    @Test
+    public void decimalValuesMatchRegardlessOfTheirScale() {
+        Rule rule = createRule("rule", updateTrigger("number", "5"));
+        index.addRule(rule);
+
+        assertEquals(Arrays.asList(rule), index.getUpdateRules(numberItem, new DecimalType("5")));
+        assertEquals(Arrays.asList(rule), index.getUpdateRules(numberItem, new DecimalType("5.00")));
+        assertEquals(Arrays.asList(rule), index.getUpdateRules(numberItem, new DecimalType("0.5E1")));
+        assertEquals(Collections.emptyList(), index.getUpdateRules(numberItem, new DecimalType("5.01")));
+    }
+
+    @Test
+    public void zeroMatchesRegardlessOfItsScale() {
+        Rule rule = createRule("rule", changedTrigger("number", "0", "10"));
+        index.addRule(rule);
+
+        assertEquals(Arrays.asList(rule),
+                index.getChangeRules(numberItem, new DecimalType("0.000"), new DecimalType("1E1")));
+        assertEquals(Collections.emptyList(),
+                index.getChangeRules(numberItem, new DecimalType("0.000"), new DecimalType("11")));
+    }
+
+    @Test
+    public void colorValuesMatchRegardlessOfTheScaleOfTheirComponents() {
+        Rule rule = createRule("rule", commandTrigger("color", "120,100,50"));
+        index.addRule(rule);
+
+        assertEquals(Arrays.asList(rule), index.getCommandRules(colorItem, new HSBType("120,100,50")));
+        assertEquals(Arrays.asList(rule), index.getCommandRules(colorItem, new HSBType("120.0,100.00,50.000")));
+        assertEquals(Collections.emptyList(), index.getCommandRules(colorItem, new HSBType("120,100,51")));
+    }
+
+    @Test
+    public void rulesWithoutValueAreTriggeredByAnyValue() {
+        Rule anyRule = createRule("any", updateTrigger("number", null));
+        Rule valueRule = createRule("value", updateTrigger("number", "5"));
+        index.addRule(anyRule);
+        index.addRule(valueRule);
+
+        assertEquals(Arrays.asList(anyRule, valueRule), index.getUpdateRules(numberItem, new DecimalType("5.0")));
+        assertEquals(Arrays.asList(anyRule), index.getUpdateRules(numberItem, new DecimalType("6")));
+    }
+
+    @Test
+    public void changeRulesAreMergedWithoutDuplicates() {
+        Rule rule = createRule("rule", changedTrigger("number", "1", null), changedTrigger("number", null, "2"));
+        Rule otherRule = createRule("other", changedTrigger("number", "1", "2"));
+        index.addRule(rule);
+        index.addRule(otherRule);
+
+        assertEquals(Arrays.asList(rule, otherRule),
+                index.getChangeRules(numberItem, new DecimalType("1"), new DecimalType("2")));
+        assertEquals(Arrays.asList(rule), index.getChangeRules(numberItem, new DecimalType("1"), new DecimalType("3")));
+    }
+
+    @Test
+    public void returnedListsAreNotChangedByModificationsOfTheIndex() {
+        Rule rule = createRule("rule", updateTrigger("number", null));
+        Rule otherRule = createRule("other", updateTrigger("number", null));
+        index.addRule(rule);
+
+        List<Rule> rules = index.getUpdateRules(numberItem, new DecimalType("1"));
+        index.addRule(otherRule);
+        List<Rule> allRules = index.getUpdateRules(numberItem, new DecimalType("1"));
+        index.removeRule(TriggerTypes.UPDATE, rule);
+
+        assertEquals(Arrays.asList(rule), rules);
+        assertEquals(Arrays.asList(rule, otherRule), allRules);
+        assertEquals(Arrays.asList(otherRule), index.getUpdateRules(numberItem, new DecimalType("1")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void returnedListsAreImmutable() {
+        index.addRule(createRule("rule", updateTrigger("number", null)));
+
+        index.getUpdateRules(numberItem, new DecimalType("1")).clear();
+    }
+
+    @Test
+    public void removeRuleOnlyRemovesTheTriggersOfTheGivenType() {
+        Rule rule = createRule("rule", updateTrigger("number", null), commandTrigger("number", null));
+        index.addRule(rule);
+
+        index.removeRule(TriggerTypes.UPDATE, rule);
+
+        assertTrue(index.getUpdateRules(numberItem, new DecimalType("1")).isEmpty());
+        assertEquals(Arrays.asList(rule), index.getCommandRules(numberItem, new DecimalType("1")));
+        assertEquals(Collections.singleton(rule), index.getRules(TriggerTypes.COMMAND));
+    }
+
+    private Rule createRule(String name, EventTrigger... triggers) {
+        Rule rule = RulesFactory.eINSTANCE.createRule();
+        rule.setName(name);
+        rule.getEventtrigger().addAll(Arrays.asList(triggers));
+        return rule;
+    }
+
+    private EventTrigger updateTrigger(String itemName, String state) {
+        UpdateEventTrigger trigger = RulesFactory.eINSTANCE.createUpdateEventTrigger();
+        trigger.setItem(itemName);
+        trigger.setState(state);
+        return trigger;
+    }
+
+    private EventTrigger changedTrigger(String itemName, String oldState, String newState) {
+        ChangedEventTrigger trigger = RulesFactory.eINSTANCE.createChangedEventTrigger();
+        trigger.setItem(itemName);
+        trigger.setOldState(oldState);
+        trigger.setNewState(newState);
+        return trigger;
+    }
+
+    private EventTrigger commandTrigger(String itemName, String command) {
+        CommandEventTrigger trigger = RulesFactory.eINSTANCE.createCommandEventTrigger();
+        trigger.setItem(itemName);
+        trigger.setCommand(command);
+        return trigger;
+    }
+
+}
@@ -15,36 +15,40 @@ import org.eclipse.smarthome.model.rule.runtime.internal.RuleRuntimeActivator;
 import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
-import org.quartz.Job;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
+import org.eclipse.xtext.xbase.interpreter.IEvaluationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.inject.Inject;
 import com.google.inject.Injector;
 
 /**
- * Implementation of Quartz {@link Job}-Interface. It takes a rule
- * and simply executes it.
+ * This job is scheduled by the {@link RuleTriggerManager} for the timer triggers of a rule. It looks up the rule by
+ * its model and rule name and hands it over to the {@link RuleExecutor}, so that a cron triggered run does not overlap
+ * with other runs of the same rule.
  *
  * @author Kai Kreuzer - Initial contribution and API
  */
-public class ExecuteRuleJob implements Job {
+public class ExecuteRuleJob implements Runnable {
 
     private final Logger logger = LoggerFactory.getLogger(ExecuteRuleJob.class);
 
-    public static final String JOB_DATA_RULEMODEL = "model";
-    public static final String JOB_DATA_RULENAME = "rule";
+    private final String modelName;
 
-    @Inject
-    private Injector injector;
+    private final String ruleName;
 
-    @Override
-    public void execute(JobExecutionContext context) throws JobExecutionException {
-        String modelName = (String) context.getJobDetail().getJobDataMap().get(JOB_DATA_RULEMODEL);
-        String ruleName = (String) context.getJobDetail().getJobDataMap().get(JOB_DATA_RULENAME);
+    private final Injector injector;
+
+    private final RuleExecutor ruleExecutor;
 
+    public ExecuteRuleJob(String modelName, String ruleName, Injector injector, RuleExecutor ruleExecutor) {
+        this.modelName = modelName;
+        this.ruleName = ruleName;
+        this.injector = injector;
+        this.ruleExecutor = ruleExecutor;
+    }
+
+    @Override
+    public void run() {
         ModelRepository modelRepository = RuleRuntimeActivator.modelRepositoryTracker.getService();
         ScriptEngine scriptEngine = RuleRuntimeActivator.scriptEngineTracker.getService();
 
@@ -52,15 +56,21 @@ public class ExecuteRuleJob implements Job {
             EObject model = modelRepository.getModel(modelName);
             if (model instanceof RuleModel) {
                 RuleModel ruleModel = (RuleModel) model;
-                Rule rule = getRule(ruleModel, ruleName);
+                final Rule rule = getRule(ruleModel, ruleName);
                 if (rule != null) {
-                    Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
-                    logger.debug("Executing scheduled rule '{}'", rule.getName());
-                    try {
-                        script.execute(RuleContextHelper.getContext(rule, injector));
-                    } catch (ScriptExecutionException e) {
-                        logger.error("Error during the execution of rule {}", rule.getName(), e.getCause());
-                    }
+                    final Script script = RuleContextHelper.getScript(rule, scriptEngine);
+                    final IEvaluationContext context = RuleContextHelper.getContext(rule, injector);
+                    ruleExecutor.execute(rule.getName(), new Runnable() {
+                        @Override
+                        public void run() {
+                            logger.debug("Executing scheduled rule '{}'", rule.getName());
+                            try {
+                                script.execute(context);
+                            } catch (ScriptExecutionException e) {
+                                logger.error("Error during the execution of rule {}", rule.getName(), e.getCause());
+                            }
+                        }
+                    });
                 } else {
                     logger.debug("Scheduled rule '{}' does not exist", ruleName);
                 }
@@ -8,11 +8,13 @@
 package org.eclipse.smarthome.model.rule.runtime.internal.engine;
 
 import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.smarthome.model.rule.rules.Rule;
 import org.eclipse.smarthome.model.rule.rules.RuleModel;
 import org.eclipse.smarthome.model.rule.rules.VariableDeclaration;
 import org.eclipse.smarthome.model.rule.runtime.internal.RuleRuntimeActivator;
+import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
 import org.eclipse.xtext.naming.QualifiedName;
@@ -24,7 +26,7 @@ import com.google.inject.Injector;
 import com.google.inject.Provider;
 
 /**
- * Helper class to deal with rule evaluation contexts.
+ * Helper class to deal with rule evaluation contexts and rule scripts.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
@@ -74,6 +76,29 @@ public class RuleContextHelper {
         }
     }
 
+    /**
+     * Retrieves the script of a rule. The script is created once and kept on the rule, so that it is not created
+     * again on every execution. As a modified rule model consists of new rule objects, the scripts of its rules are
+     * created again.
+     *
+     * @param rule the rule to get the script for
+     * @param scriptEngine the script engine to create the script with
+     * @return the script of the rule
+     */
+    public static synchronized Script getScript(Rule rule, ScriptEngine scriptEngine) {
+        for (Adapter adapter : rule.eAdapters()) {
+            if (adapter instanceof RuleScriptAdapter) {
+                RuleScriptAdapter scriptAdapter = (RuleScriptAdapter) adapter;
+                if (scriptAdapter.getScriptEngine() == scriptEngine) {
+                    return scriptAdapter.getScript();
+                }
+            }
+        }
+        Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
+        rule.eAdapters().add(new RuleScriptAdapter(scriptEngine, script));
+        return script;
+    }
+
     /**
      * Inner class that wraps an evaluation context into an EMF adapters
      */
@@ -91,4 +116,28 @@ public class RuleContextHelper {
 
     }
 
+    /**
+     * Inner class that wraps the script of a rule into an EMF adapter
+     */
+    private static class RuleScriptAdapter extends AdapterImpl {
+
+        private ScriptEngine scriptEngine;
+
+        private Script script;
+
+        public RuleScriptAdapter(ScriptEngine scriptEngine, Script script) {
+            this.scriptEngine = scriptEngine;
+            this.script = script;
+        }
+
+        public ScriptEngine getScriptEngine() {
+            return scriptEngine;
+        }
+
+        public Script getScript() {
+            return script;
+        }
+
+    }
+
 }
@@ -15,7 +15,10 @@ import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTrigg
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -30,6 +33,7 @@ import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
 import org.eclipse.smarthome.core.items.StateChangeListener;
 import org.eclipse.smarthome.core.items.events.AbstractItemEventSubscriber;
 import org.eclipse.smarthome.core.items.events.ItemCommandEvent;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.model.core.ModelRepository;
@@ -39,10 +43,10 @@ import org.eclipse.smarthome.model.rule.jvmmodel.RulesJvmModelInferrer;
 import org.eclipse.smarthome.model.rule.rules.Rule;
 import org.eclipse.smarthome.model.rule.rules.RuleModel;
 import org.eclipse.smarthome.model.rule.runtime.RuleEngine;
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleExecutor.OverflowPolicy;
 import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
-import org.eclipse.smarthome.model.script.engine.ScriptExecutionThread;
 import org.eclipse.xtext.naming.QualifiedName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +58,10 @@ import com.google.inject.Injector;
  * This class is the core of the openHAB rule engine.
  * It listens to changes to the rules folder, evaluates the trigger conditions of the rules and
  * schedules them for execution dependent on their triggering conditions.
+ * <p>
+ * Triggered rules, including the startup rules and the rules with timer triggers, are executed by a
+ * {@link RuleExecutor}, which can be configured by the properties 'poolSize', 'queueSize' and 'overflowPolicy'
+ * ('REJECT' or 'DISCARD_OLDEST').
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Oliver Libutzki - Bugfixing
@@ -63,6 +71,13 @@ import com.google.inject.Injector;
 public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemRegistryChangeListener, StateChangeListener,
         ModelRepositoryChangeListener, RuleEngine {
 
+    private static final String POOL_SIZE = "poolSize";
+    private static final String QUEUE_SIZE = "queueSize";
+    private static final String OVERFLOW_POLICY = "overflowPolicy";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(RuleEngineImpl.class);
 
     protected final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
@@ -70,13 +85,19 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
     private ItemRegistry itemRegistry;
     private ModelRepository modelRepository;
     private ScriptEngine scriptEngine;
+    private SchedulerService schedulerService;
 
     private RuleTriggerManager triggerManager;
 
+    private RuleExecutor ruleExecutor;
+
     private Injector injector;
     
     private ScheduledFuture<?> startupJob;
 
+    // the startup rules, which have been handed over to the rule executor and have not been executed yet
+    private final Set<Rule> pendingStartupRules = Collections.newSetFromMap(new ConcurrentHashMap<Rule, Boolean>());
+
     private Runnable startupRunnable = new Runnable() {
         @Override
         public void run() {
@@ -84,9 +105,28 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
         }
     };
 
-    public void activate() {
+    public void activate(Map<String, Object> properties) {
+        int poolSize = DEFAULT_POOL_SIZE;
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+        if (properties != null) {
+            poolSize = getIntProperty(properties, POOL_SIZE, DEFAULT_POOL_SIZE);
+            queueSize = getIntProperty(properties, QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+            Object policy = properties.get(OVERFLOW_POLICY);
+            if (policy != null) {
+                try {
+                    overflowPolicy = OverflowPolicy.valueOf(policy.toString().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid overflow policy '{}', using '{}'.", policy, overflowPolicy);
+                }
+            }
+        }
+        ruleExecutor = new RuleExecutor(poolSize, queueSize, overflowPolicy);
+
         injector = RulesStandaloneSetup.getInjector();
         triggerManager = injector.getInstance(RuleTriggerManager.class);
+        triggerManager.setRuleExecutor(ruleExecutor);
+        triggerManager.setSchedulerService(schedulerService);
 
         if (!isEnabled()) {
             logger.info("Rule engine is disabled.");
@@ -118,6 +158,24 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
         executeRules(triggerManager.getRules(SHUTDOWN));
         triggerManager.clearAll();
         triggerManager = null;
+        ruleExecutor.shutdown();
+        logger.debug("Rule execution statistics: {}", ruleExecutor.getStatistics());
+    }
+
+    private int getIntProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.toString().trim());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            logger.warn("Invalid value '{}' for '{}', using {}.", new Object[] { value, name, defaultValue });
+        }
+        return defaultValue;
     }
 
     public void setItemRegistry(ItemRegistry itemRegistry) {
@@ -148,6 +206,14 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
         this.scriptEngine = null;
     }
 
+    public void setSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
+    }
+
+    public void unsetSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -257,57 +323,85 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
     }
     
     private void runStartupRules() {
+        final RuleTriggerManager triggerManager = this.triggerManager;
         if (triggerManager != null) {
-            Iterable<Rule> startupRules = triggerManager.getRules(STARTUP);
-            List<Rule> executedRules = Lists.newArrayList();
-
-            for (Rule rule : startupRules) {
-                try {
-                    Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
-                    logger.debug("Executing startup rule '{}'", rule.getName());
-                    RuleEvaluationContext context = new RuleEvaluationContext();
-                    context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
-                    script.execute(context);
-                    executedRules.add(rule);
-                } catch (ScriptExecutionException e) {
-                    if(!e.getMessage().contains("cannot be resolved to an item or type")) {
-                        logger.error("Error during the execution of startup rule '{}': {}", new Object[] { rule.getName(),
-                                e.getCause().getMessage() });
-                        executedRules.add(rule);
-                    } else {
-                        logger.debug("Execution of startup rule '{}' has been postponed as items are still missing.", rule.getName());
+            for (final Rule rule : triggerManager.getRules(STARTUP)) {
+                if (!pendingStartupRules.add(rule)) {
+                    // the rule is still waiting for its execution
+                    continue;
+                }
+                boolean scheduled = ruleExecutor.execute(rule.getName(), new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            runStartupRule(triggerManager, rule);
+                        } finally {
+                            pendingStartupRules.remove(rule);
+                        }
                     }
+                });
+                if (!scheduled) {
+                    // the rule is retried with the next startup run
+                    pendingStartupRules.remove(rule);
                 }
             }
-            for (Rule rule : executedRules) {
+        }
+    }
+
+    private void runStartupRule(RuleTriggerManager triggerManager, Rule rule) {
+        try {
+            Script script = RuleContextHelper.getScript(rule, scriptEngine);
+            logger.debug("Executing startup rule '{}'", rule.getName());
+            RuleEvaluationContext context = new RuleEvaluationContext();
+            context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
+            script.execute(context);
+            triggerManager.removeRule(STARTUP, rule);
+        } catch (ScriptExecutionException e) {
+            if(!e.getMessage().contains("cannot be resolved to an item or type")) {
+                logger.error("Error during the execution of startup rule '{}': {}", new Object[] { rule.getName(),
+                        e.getCause().getMessage() });
                 triggerManager.removeRule(STARTUP, rule);
+            } else {
+                logger.debug("Execution of startup rule '{}' has been postponed as items are still missing.", rule.getName());
             }
         }
     }
 
-    protected synchronized void executeRule(Rule rule) {
+    protected void executeRule(Rule rule) {
         executeRule(rule, new RuleEvaluationContext());
     }
 
-    protected synchronized void executeRule(Rule rule, RuleEvaluationContext context) {
-        Script script = scriptEngine.newScriptFromXExpression(rule.getScript());
-
-        logger.debug("Executing rule '{}'", rule.getName());
+    protected void executeRule(final Rule rule, final RuleEvaluationContext context) {
+        final Script script = RuleContextHelper.getScript(rule, scriptEngine);
 
         context.setGlobalContext(RuleContextHelper.getContext(rule, injector));
 
-        ScriptExecutionThread thread = new ScriptExecutionThread(rule.getName(), script, context);
-        thread.start();
+        ruleExecutor.execute(rule.getName(), new Runnable() {
+            @Override
+            public void run() {
+                logger.debug("Executing rule '{}'", rule.getName());
+                try {
+                    script.execute(context);
+                } catch (ScriptExecutionException e) {
+                    String msg = e.getCause().getMessage();
+                    if (msg == null) {
+                        logger.error("Error during the execution of rule '{}'", rule.getName(), e.getCause());
+                    } else {
+                        logger.error("Error during the execution of rule '{}': {}", rule.getName(), msg);
+                    }
+                }
+            }
+        });
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules) {
+    protected void executeRules(Iterable<Rule> rules) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             executeRule(rule, context);
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, Command command) {
+    protected void executeRules(Iterable<Rule> rules, Command command) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_RECEIVED_COMMAND), command);
@@ -315,7 +409,7 @@ public class RuleEngineImpl extends AbstractItemEventSubscriber implements ItemR
         }
     }
 
-    protected synchronized void executeRules(Iterable<Rule> rules, State oldState) {
+    protected void executeRules(Iterable<Rule> rules, State oldState) {
         for (Rule rule : rules) {
             RuleEvaluationContext context = new RuleEvaluationContext();
             context.newValue(QualifiedName.create(RulesJvmModelInferrer.VAR_PREVIOUS_STATE), oldState);
@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RuleExecutor} executes triggered rules on a bounded thread pool. Runs of the same rule are serialized,
+ * so that two runs of a rule never overlap, while different rules are executed in parallel.
+ *
+ * The number of pending runs of all rules is limited by the queue size. If a rule is triggered while the queue is
+ * full, the {@link OverflowPolicy} decides whether the new run is rejected or replaces the oldest pending run of the
+ * same rule. For each rule name the executor keeps {@link Statistics} of its runs.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleExecutor {
+
+    /**
+     * Defines how a {@link RuleExecutor} behaves if a rule is triggered while its queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The new run is rejected.
+         */
+        REJECT,
+        /**
+         * The oldest pending run of the same rule is discarded, otherwise the new run is rejected.
+         */
+        DISCARD_OLDEST
+    }
+
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(RuleExecutor.class);
+
+    private final int queueSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final ExecutorService executor;
+
+    /** the pending runs and statistics of each rule, guarded by itself */
+    private final Map<String, RuleQueue> ruleQueues = new HashMap<String, RuleQueue>();
+
+    /** the number of pending runs of all rules, guarded by ruleQueues */
+    private int pendingRuns = 0;
+
+    /** the number of rules with pending or running runs, guarded by ruleQueues */
+    private int activeRules = 0;
+
+    /** true, if no more runs are accepted, guarded by ruleQueues */
+    private boolean shutdown = false;
+
+    /**
+     * Creates a new executor and its thread pool.
+     *
+     * @param poolSize the maximum number of rules, which are executed in parallel (must be positive)
+     * @param queueSize the maximum number of pending runs of all rules (must be positive)
+     * @param overflowPolicy the overflow policy (must not be null)
+     */
+    public RuleExecutor(int poolSize, int queueSize, OverflowPolicy overflowPolicy) {
+        if (poolSize < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("Pool size and queue size must be positive.");
+        }
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        // each rule occupies at most one slot of the work queue, the pending runs are bounded by the rule queues
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ESH-rule-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * Schedules a run of a rule. This method never blocks. The run is executed after all previously scheduled runs
+     * of the same rule have finished.
+     *
+     * @param ruleName the name of the rule (must not be null)
+     * @param run the run of the rule (must not be null)
+     * @return true, if the run has been scheduled, false if it has been rejected
+     */
+    public boolean execute(String ruleName, Runnable run) {
+        RuleQueue ruleQueue;
+        boolean start;
+        synchronized (ruleQueues) {
+            if (shutdown) {
+                logger.debug("Rejected execution of rule '{}', because the rule executor has been shut down.",
+                        ruleName);
+                return false;
+            }
+            ruleQueue = ruleQueues.get(ruleName);
+            if (ruleQueue == null) {
+                ruleQueue = new RuleQueue(ruleName);
+                ruleQueues.put(ruleName, ruleQueue);
+            }
+            if (pendingRuns >= queueSize) {
+                ruleQueue.statistics.rejectedRuns.incrementAndGet();
+                if (overflowPolicy != OverflowPolicy.DISCARD_OLDEST || ruleQueue.pendingRuns.isEmpty()) {
+                    logger.warn("Rejected execution of rule '{}', because {} runs are pending.", ruleName,
+                            pendingRuns);
+                    return false;
+                }
+                ruleQueue.pendingRuns.poll();
+                pendingRuns--;
+                logger.warn("Discarded the oldest pending run of rule '{}', because the queue is full.", ruleName);
+            }
+            ruleQueue.pendingRuns.add(new PendingRun(run));
+            pendingRuns++;
+            start = !ruleQueue.active;
+            setActive(ruleQueue, true);
+        }
+        if (start) {
+            submit(ruleQueue);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the statistics of all rules, which have been scheduled since the executor has been created.
+     *
+     * @return an unmodifiable map of the statistics by rule name
+     */
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> statistics = new HashMap<String, Statistics>();
+        synchronized (ruleQueues) {
+            for (RuleQueue ruleQueue : ruleQueues.values()) {
+                statistics.put(ruleQueue.ruleName, ruleQueue.statistics);
+            }
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Rejects all further runs, waits for the pending and running runs to finish and stops the thread pool. Runs,
+     * which are still pending after the shutdown timeout, are discarded.
+     */
+    public void shutdown() {
+        synchronized (ruleQueues) {
+            shutdown = true;
+            long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+            long remaining = SHUTDOWN_TIMEOUT;
+            try {
+                while (activeRules > 0 && remaining > 0) {
+                    ruleQueues.wait(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (activeRules > 0) {
+                logger.warn("Discarding {} pending rule runs, as rules are still running after {} ms.", pendingRuns,
+                        SHUTDOWN_TIMEOUT);
+            }
+            for (RuleQueue ruleQueue : ruleQueues.values()) {
+                ruleQueue.pendingRuns.clear();
+            }
+            pendingRuns = 0;
+        }
+        executor.shutdown();
+    }
+
+    private void submit(RuleQueue ruleQueue) {
+        try {
+            executor.execute(ruleQueue);
+        } catch (RejectedExecutionException e) {
+            // the thread pool has been stopped
+            synchronized (ruleQueues) {
+                pendingRuns -= ruleQueue.pendingRuns.size();
+                ruleQueue.pendingRuns.clear();
+                setActive(ruleQueue, false);
+            }
+        }
+    }
+
+    private void setActive(RuleQueue ruleQueue, boolean active) {
+        if (ruleQueue.active != active) {
+            ruleQueue.active = active;
+            activeRules += active ? 1 : -1;
+            if (activeRules == 0) {
+                ruleQueues.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Executes the next pending run of a rule and resubmits itself, if there are more pending runs, so that a
+     * frequently triggered rule does not block the other rules.
+     */
+    private class RuleQueue implements Runnable {
+
+        private final String ruleName;
+
+        private final Deque<PendingRun> pendingRuns = new ArrayDeque<PendingRun>();
+
+        private final Statistics statistics = new Statistics();
+
+        /** true, while a run of the rule is pending or executed */
+        private boolean active = false;
+
+        private RuleQueue(String ruleName) {
+            this.ruleName = ruleName;
+        }
+
+        @Override
+        public void run() {
+            PendingRun pendingRun;
+            synchronized (ruleQueues) {
+                pendingRun = pendingRuns.poll();
+                if (pendingRun == null) {
+                    setActive(this, false);
+                    return;
+                }
+                RuleExecutor.this.pendingRuns--;
+            }
+            long start = System.nanoTime();
+            try {
+                pendingRun.run.run();
+            } catch (RuntimeException e) {
+                logger.error("Error during the execution of rule '{}'", ruleName, e);
+            } finally {
+                statistics.addRun(start - pendingRun.queued, System.nanoTime() - start);
+            }
+            boolean resubmit;
+            synchronized (ruleQueues) {
+                resubmit = !pendingRuns.isEmpty();
+                setActive(this, resubmit);
+            }
+            if (resubmit) {
+                submit(this);
+            }
+        }
+
+    }
+
+    private static class PendingRun {
+
+        private final Runnable run;
+
+        private final long queued = System.nanoTime();
+
+        private PendingRun(Runnable run) {
+            this.run = run;
+        }
+
+    }
+
+    /**
+     * The {@link Statistics} of the runs of a single rule. All times are in milliseconds.
+     */
+    public static class Statistics {
+
+        private final AtomicLong executedRuns = new AtomicLong();
+
+        private final AtomicLong rejectedRuns = new AtomicLong();
+
+        private final AtomicLong totalWaitTime = new AtomicLong();
+
+        private final AtomicLong maxWaitTime = new AtomicLong();
+
+        private final AtomicLong totalRunTime = new AtomicLong();
+
+        private final AtomicLong maxRunTime = new AtomicLong();
+
+        private void addRun(long waitTime, long runTime) {
+            executedRuns.incrementAndGet();
+            totalWaitTime.addAndGet(waitTime);
+            totalRunTime.addAndGet(runTime);
+            updateMax(maxWaitTime, waitTime);
+            updateMax(maxRunTime, runTime);
+        }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        /**
+         * @return the number of executed runs
+         */
+        public long getExecutedRuns() {
+            return executedRuns.get();
+        }
+
+        /**
+         * @return the number of runs, which have been rejected or discarded because the queue was full
+         */
+        public long getRejectedRuns() {
+            return rejectedRuns.get();
+        }
+
+        /**
+         * @return the total time the executed runs have been waiting in the queue
+         */
+        public long getTotalWaitTime() {
+            return TimeUnit.NANOSECONDS.toMillis(totalWaitTime.get());
+        }
+
+        /**
+         * @return the maximum time a single run has been waiting in the queue
+         */
+        public long getMaxWaitTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+        }
+
+        /**
+         * @return the total execution time of the executed runs
+         */
+        public long getTotalRunTime() {
+            return TimeUnit.NANOSECONDS.toMillis(totalRunTime.get());
+        }
+
+        /**
+         * @return the maximum execution time of a single run
+         */
+        public long getMaxRunTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxRunTime.get());
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics [executedRuns=" + executedRuns + ", rejectedRuns=" + rejectedRuns + ", totalWaitTime="
+                    + getTotalWaitTime() + ", maxWaitTime=" + getMaxWaitTime() + ", totalRunTime=" + getTotalRunTime()
+                    + ", maxRunTime=" + getMaxRunTime() + "]";
+        }
+
+    }
+
+}
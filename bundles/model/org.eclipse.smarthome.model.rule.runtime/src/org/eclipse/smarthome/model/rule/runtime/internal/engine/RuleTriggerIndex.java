@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.model.rule.runtime.internal.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.Type;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.eclipse.smarthome.model.rule.rules.ChangedEventTrigger;
+import org.eclipse.smarthome.model.rule.rules.CommandEventTrigger;
+import org.eclipse.smarthome.model.rule.rules.EventTrigger;
+import org.eclipse.smarthome.model.rule.rules.Rule;
+import org.eclipse.smarthome.model.rule.rules.RuleModel;
+import org.eclipse.smarthome.model.rule.rules.UpdateEventTrigger;
+import org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes;
+
+/**
+ * The {@link RuleTriggerIndex} keeps the update, change and command triggers of the rules by item name. The state
+ * and command literals of the triggers are parsed once for the accepted types of an item, so that the rules for an
+ * event are found by a few hash lookups and are returned as prebuilt immutable lists.
+ *
+ * The index is replaced as a whole on each modification, so that events are dispatched without any locking.
+ *
+ * @author agent - Initial contribution
+ */
+public class RuleTriggerIndex {
+
+    private volatile Map<String, ItemTriggers> itemTriggers = Collections.emptyMap();
+
+    /**
+     * Adds the update, change and command triggers of a rule to the index.
+     *
+     * @param rule the rule to add
+     */
+    public synchronized void addRule(Rule rule) {
+        Map<String, ItemTriggers> newItemTriggers = null;
+        for (EventTrigger t : rule.getEventtrigger()) {
+            String itemName;
+            TriggerEntry entry;
+            if (t instanceof UpdateEventTrigger) {
+                UpdateEventTrigger ut = (UpdateEventTrigger) t;
+                itemName = ut.getItem();
+                entry = new TriggerEntry(TriggerTypes.UPDATE, rule, null, ut.getState());
+            } else if (t instanceof ChangedEventTrigger) {
+                ChangedEventTrigger ct = (ChangedEventTrigger) t;
+                itemName = ct.getItem();
+                entry = new TriggerEntry(TriggerTypes.CHANGE, rule, ct.getOldState(), ct.getNewState());
+            } else if (t instanceof CommandEventTrigger) {
+                CommandEventTrigger ct = (CommandEventTrigger) t;
+                itemName = ct.getItem();
+                entry = new TriggerEntry(TriggerTypes.COMMAND, rule, null, ct.getCommand());
+            } else {
+                continue;
+            }
+            if (newItemTriggers == null) {
+                newItemTriggers = new HashMap<String, ItemTriggers>(itemTriggers);
+            }
+            ItemTriggers triggers = newItemTriggers.get(itemName);
+            List<TriggerEntry> entries = triggers != null ? new ArrayList<TriggerEntry>(triggers.entries)
+                    : new ArrayList<TriggerEntry>();
+            entries.add(entry);
+            newItemTriggers.put(itemName, new ItemTriggers(entries));
+        }
+        if (newItemTriggers != null) {
+            itemTriggers = Collections.unmodifiableMap(newItemTriggers);
+        }
+    }
+
+    /**
+     * Removes the triggers of the given type of a rule from the index.
+     *
+     * @param type the trigger type
+     * @param rule the rule to remove
+     */
+    public synchronized void removeRule(TriggerTypes type, Rule rule) {
+        removeEntries(type, Collections.singleton(rule), false);
+    }
+
+    /**
+     * Removes the triggers of all rules of a model and of all proxified rules from the index.
+     *
+     * @param model the rule model (may be null, if only the proxified rules should be removed)
+     */
+    public synchronized void removeRuleModel(RuleModel model) {
+        Set<Rule> rules = model != null ? new LinkedHashSet<Rule>(model.getRules()) : Collections.<Rule> emptySet();
+        removeEntries(null, rules, true);
+    }
+
+    /**
+     * Removes all triggers of the given type from the index.
+     *
+     * @param type the trigger type
+     */
+    public synchronized void clear(TriggerTypes type) {
+        removeEntries(type, null, false);
+    }
+
+    /**
+     * Returns all rules, which have a trigger of the given type.
+     *
+     * @param type the trigger type
+     * @return the rules
+     */
+    public Iterable<Rule> getRules(TriggerTypes type) {
+        Set<Rule> rules = new LinkedHashSet<Rule>();
+        for (ItemTriggers triggers : itemTriggers.values()) {
+            for (TriggerEntry entry : triggers.entries) {
+                if (entry.type == type) {
+                    rules.add(entry.rule);
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Returns the rules, which are triggered by a state update of an item.
+     *
+     * @param item the item
+     * @param state the new state
+     * @return an immutable list of the rules
+     */
+    public List<Rule> getUpdateRules(Item item, State state) {
+        ItemTriggers triggers = itemTriggers.get(item.getName());
+        if (triggers == null) {
+            return Collections.emptyList();
+        }
+        CompiledTriggers compiled = triggers.compile(item);
+        List<Rule> rules = compiled.updateRules.get(getKey(state));
+        return rules != null ? rules : compiled.anyUpdateRules;
+    }
+
+    /**
+     * Returns the rules, which are triggered by a state change of an item.
+     *
+     * @param item the item
+     * @param oldState the previous state
+     * @param newState the new state
+     * @return an immutable list of the rules
+     */
+    public List<Rule> getChangeRules(Item item, State oldState, State newState) {
+        ItemTriggers triggers = itemTriggers.get(item.getName());
+        if (triggers == null) {
+            return Collections.emptyList();
+        }
+        CompiledTriggers compiled = triggers.compile(item);
+        Object oldKey = getKey(oldState);
+        Object newKey = getKey(newState);
+        return merge(compiled.anyChangeRules, compiled.changeFromRules.get(oldKey),
+                compiled.changeToRules.get(newKey), compiled.changeRules.get(Arrays.asList(oldKey, newKey)));
+    }
+
+    /**
+     * Returns the rules, which are triggered by a command to an item.
+     *
+     * @param item the item
+     * @param command the command
+     * @return an immutable list of the rules
+     */
+    public List<Rule> getCommandRules(Item item, Command command) {
+        ItemTriggers triggers = itemTriggers.get(item.getName());
+        if (triggers == null) {
+            return Collections.emptyList();
+        }
+        CompiledTriggers compiled = triggers.compile(item);
+        List<Rule> rules = compiled.commandRules.get(getKey(command));
+        return rules != null ? rules : compiled.anyCommandRules;
+    }
+
+    private void removeEntries(TriggerTypes type, Set<Rule> rules, boolean removeProxies) {
+        Map<String, ItemTriggers> newItemTriggers = new HashMap<String, ItemTriggers>();
+        boolean modified = false;
+        for (Map.Entry<String, ItemTriggers> mapEntry : itemTriggers.entrySet()) {
+            List<TriggerEntry> entries = new ArrayList<TriggerEntry>(mapEntry.getValue().entries);
+            for (Iterator<TriggerEntry> iterator = entries.iterator(); iterator.hasNext();) {
+                TriggerEntry entry = iterator.next();
+                if (((type == null || entry.type == type) && (rules == null || rules.contains(entry.rule)))
+                        || (removeProxies && entry.rule.eIsProxy())) {
+                    iterator.remove();
+                }
+            }
+            if (entries.size() == mapEntry.getValue().entries.size()) {
+                newItemTriggers.put(mapEntry.getKey(), mapEntry.getValue());
+            } else {
+                modified = true;
+                if (!entries.isEmpty()) {
+                    newItemTriggers.put(mapEntry.getKey(), new ItemTriggers(entries));
+                }
+            }
+        }
+        if (modified) {
+            itemTriggers = Collections.unmodifiableMap(newItemTriggers);
+        }
+    }
+
+    /**
+     * Returns the key of a state or command for the lookup maps. The keys of two types are equal, if a state or
+     * command of the item is equal to a parsed trigger literal. As {@link DecimalType#equals(Object)} ignores the
+     * scale of the value, while its hash code does not, decimal values and the components of colors are normalized.
+     */
+    private static Object getKey(Type type) {
+        if (type instanceof HSBType) {
+            HSBType hsb = (HSBType) type;
+            return Arrays.asList(HSBType.class, getKey(hsb.getHue()), getKey(hsb.getSaturation()),
+                    getKey(hsb.getBrightness()));
+        } else if (type instanceof DecimalType) {
+            BigDecimal value = ((DecimalType) type).toBigDecimal();
+            return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+        }
+        return type;
+    }
+
+    @SafeVarargs
+    private static List<Rule> merge(List<Rule> anyRules, List<Rule>... ruleLists) {
+        List<Rule> result = anyRules;
+        Set<Rule> merged = null;
+        for (List<Rule> rules : ruleLists) {
+            if (rules == null) {
+                continue;
+            }
+            if (result.isEmpty()) {
+                result = rules;
+            } else {
+                if (merged == null) {
+                    merged = new LinkedHashSet<Rule>(result);
+                }
+                merged.addAll(rules);
+            }
+        }
+        return merged != null ? Collections.unmodifiableList(new ArrayList<Rule>(merged)) : result;
+    }
+
+    /**
+     * A trigger of a rule with its unparsed state or command literals.
+     */
+    private static class TriggerEntry {
+
+        private final TriggerTypes type;
+
+        private final Rule rule;
+
+        /** the old state of a change trigger */
+        private final String fromValue;
+
+        /** the state of an update trigger, the new state of a change trigger or the command of a command trigger */
+        private final String toValue;
+
+        private TriggerEntry(TriggerTypes type, Rule rule, String fromValue, String toValue) {
+            this.type = type;
+            this.rule = rule;
+            this.fromValue = fromValue;
+            this.toValue = toValue;
+        }
+
+    }
+
+    /**
+     * The triggers of a single item. The triggers are compiled for the accepted types of the item on the first
+     * event and compiled again, if the accepted types of the item differ.
+     */
+    private static class ItemTriggers {
+
+        private final List<TriggerEntry> entries;
+
+        private volatile CompiledTriggers compiled;
+
+        private ItemTriggers(List<TriggerEntry> entries) {
+            this.entries = entries;
+        }
+
+        private CompiledTriggers compile(Item item) {
+            CompiledTriggers compiled = this.compiled;
+            if (compiled == null || !compiled.acceptedDataTypes.equals(item.getAcceptedDataTypes())
+                    || !compiled.acceptedCommandTypes.equals(item.getAcceptedCommandTypes())) {
+                compiled = new CompiledTriggers(entries, item.getAcceptedDataTypes(), item.getAcceptedCommandTypes());
+                this.compiled = compiled;
+            }
+            return compiled;
+        }
+
+    }
+
+    /**
+     * The triggers of a single item, whose literals are parsed for the accepted types of the item. The rule lists of
+     * the update and command values already contain the rules, which are triggered by any value.
+     */
+    private static class CompiledTriggers {
+
+        private final List<Class<? extends State>> acceptedDataTypes;
+
+        private final List<Class<? extends Command>> acceptedCommandTypes;
+
+        private final List<Rule> anyUpdateRules;
+
+        private final Map<Object, List<Rule>> updateRules = new HashMap<Object, List<Rule>>();
+
+        private final List<Rule> anyChangeRules;
+
+        private final Map<Object, List<Rule>> changeFromRules = new HashMap<Object, List<Rule>>();
+
+        private final Map<Object, List<Rule>> changeToRules = new HashMap<Object, List<Rule>>();
+
+        private final Map<Object, List<Rule>> changeRules = new HashMap<Object, List<Rule>>();
+
+        private final List<Rule> anyCommandRules;
+
+        private final Map<Object, List<Rule>> commandRules = new HashMap<Object, List<Rule>>();
+
+        private CompiledTriggers(List<TriggerEntry> entries, List<Class<? extends State>> acceptedDataTypes,
+                List<Class<? extends Command>> acceptedCommandTypes) {
+            this.acceptedDataTypes = new ArrayList<Class<? extends State>>(acceptedDataTypes);
+            this.acceptedCommandTypes = new ArrayList<Class<? extends Command>>(acceptedCommandTypes);
+
+            Set<Rule> anyUpdates = new LinkedHashSet<Rule>();
+            Set<Rule> anyChanges = new LinkedHashSet<Rule>();
+            Set<Rule> anyCommands = new LinkedHashSet<Rule>();
+            Map<Object, Set<Rule>> updates = new HashMap<Object, Set<Rule>>();
+            Map<Object, Set<Rule>> changesFrom = new HashMap<Object, Set<Rule>>();
+            Map<Object, Set<Rule>> changesTo = new HashMap<Object, Set<Rule>>();
+            Map<Object, Set<Rule>> changes = new HashMap<Object, Set<Rule>>();
+            Map<Object, Set<Rule>> commands = new HashMap<Object, Set<Rule>>();
+
+            for (TriggerEntry entry : entries) {
+                switch (entry.type) {
+                    case UPDATE:
+                        if (entry.toValue == null) {
+                            anyUpdates.add(entry.rule);
+                        } else {
+                            add(updates, parseState(entry.toValue), entry.rule);
+                        }
+                        break;
+                    case CHANGE:
+                        if (entry.fromValue == null && entry.toValue == null) {
+                            anyChanges.add(entry.rule);
+                        } else if (entry.toValue == null) {
+                            add(changesFrom, parseState(entry.fromValue), entry.rule);
+                        } else if (entry.fromValue == null) {
+                            add(changesTo, parseState(entry.toValue), entry.rule);
+                        } else {
+                            Object fromKey = parseState(entry.fromValue);
+                            Object toKey = parseState(entry.toValue);
+                            if (fromKey != null && toKey != null) {
+                                add(changes, Arrays.asList(fromKey, toKey), entry.rule);
+                            }
+                        }
+                        break;
+                    case COMMAND:
+                        if (entry.toValue == null) {
+                            anyCommands.add(entry.rule);
+                        } else {
+                            Command command = TypeParser.parseCommand(acceptedCommandTypes, entry.toValue);
+                            add(commands, command != null ? getKey(command) : null, entry.rule);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            anyUpdateRules = toList(anyUpdates);
+            anyChangeRules = toList(anyChanges);
+            anyCommandRules = toList(anyCommands);
+            fill(updateRules, updates, anyUpdates);
+            fill(changeFromRules, changesFrom, null);
+            fill(changeToRules, changesTo, null);
+            fill(changeRules, changes, null);
+            fill(commandRules, commands, anyCommands);
+        }
+
+        private Object parseState(String value) {
+            State state = TypeParser.parseState(acceptedDataTypes, value);
+            return state != null ? getKey(state) : null;
+        }
+
+        private static void add(Map<Object, Set<Rule>> map, Object key, Rule rule) {
+            // literals, which cannot be parsed for the item, never match
+            if (key != null) {
+                Set<Rule> rules = map.get(key);
+                if (rules == null) {
+                    rules = new LinkedHashSet<Rule>();
+                    map.put(key, rules);
+                }
+                rules.add(rule);
+            }
+        }
+
+        private static void fill(Map<Object, List<Rule>> target, Map<Object, Set<Rule>> source, Set<Rule> anyRules) {
+            for (Map.Entry<Object, Set<Rule>> entry : source.entrySet()) {
+                Set<Rule> rules = entry.getValue();
+                if (anyRules != null && !anyRules.isEmpty()) {
+                    rules = new LinkedHashSet<Rule>(anyRules);
+                    rules.addAll(entry.getValue());
+                }
+                target.put(entry.getKey(), toList(rules));
+            }
+        }
+
+        private static List<Rule> toList(Set<Rule> rules) {
+            if (rules.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(new ArrayList<Rule>(rules));
+        }
+
+    }
+
+}
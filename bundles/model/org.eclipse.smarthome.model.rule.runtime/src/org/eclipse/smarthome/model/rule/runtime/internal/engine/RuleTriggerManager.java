@@ -13,11 +13,11 @@ import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTrigg
 import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes.STARTUP;
 import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes.TIMER;
 import static org.eclipse.smarthome.model.rule.runtime.internal.engine.RuleTriggerManager.TriggerTypes.UPDATE;
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -26,34 +26,20 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.scheduler.ScheduledJob;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.Type;
-import org.eclipse.smarthome.core.types.TypeParser;
-import org.eclipse.smarthome.model.rule.rules.ChangedEventTrigger;
-import org.eclipse.smarthome.model.rule.rules.CommandEventTrigger;
 import org.eclipse.smarthome.model.rule.rules.EventTrigger;
 import org.eclipse.smarthome.model.rule.rules.Rule;
 import org.eclipse.smarthome.model.rule.rules.RuleModel;
 import org.eclipse.smarthome.model.rule.rules.SystemOnShutdownTrigger;
 import org.eclipse.smarthome.model.rule.rules.SystemOnStartupTrigger;
 import org.eclipse.smarthome.model.rule.rules.TimerTrigger;
-import org.eclipse.smarthome.model.rule.rules.UpdateEventTrigger;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.Job;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
-import org.quartz.impl.matchers.GroupMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -62,6 +48,8 @@ import com.google.inject.Injector;
  * This is a helper class which deals with everything about rule triggers.
  * It keeps lists of which rule must be executed for which trigger and takes
  * over the evaluation of states and trigger conditions for the rule engine.
+ * The update, change and command triggers are kept in a {@link RuleTriggerIndex}, so that events are dispatched
+ * without iterating over the triggers of the rules.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
@@ -79,25 +67,44 @@ public class RuleTriggerManager {
         TIMER // fires at a given time
     }
 
-    // lookup maps for different triggering conditions
-    private Map<String, Set<Rule>> updateEventTriggeredRules = Maps.newHashMap();
-    private Map<String, Set<Rule>> changedEventTriggeredRules = Maps.newHashMap();
-    private Map<String, Set<Rule>> commandEventTriggeredRules = Maps.newHashMap();
+    // lookup tables for different triggering conditions
+    private final RuleTriggerIndex eventTriggeredRules = new RuleTriggerIndex();
     private Set<Rule> systemStartupTriggeredRules = new CopyOnWriteArraySet<>();
     private Set<Rule> systemShutdownTriggeredRules = new CopyOnWriteArraySet<>();
     private Set<Rule> timerEventTriggeredRules = new CopyOnWriteArraySet<>();
 
-    // the scheduler used for timer events
-    private Scheduler scheduler;
+    // the scheduled jobs of the timer triggers by the identity of their rule, guarded by itself
+    private final Map<String, List<ScheduledJob>> timerJobs = new HashMap<>();
+
+    private final Injector injector;
+
+    // the executor of the rules, which are triggered by a timer
+    private RuleExecutor ruleExecutor;
+
+    // the scheduler of the timer triggers
+    private SchedulerService schedulerService;
 
     @Inject
     public RuleTriggerManager(Injector injector) {
-        try {
-            scheduler = StdSchedulerFactory.getDefaultScheduler();
-            scheduler.setJobFactory(injector.getInstance(GuiceAwareJobFactory.class));
-        } catch (SchedulerException e) {
-            logger.error("initializing scheduler throws exception", e);
-        }
+        this.injector = injector;
+    }
+
+    /**
+     * Sets the executor of the rules, which are triggered by a timer. It must be set before a rule model is added.
+     * 
+     * @param ruleExecutor the rule executor
+     */
+    public void setRuleExecutor(RuleExecutor ruleExecutor) {
+        this.ruleExecutor = ruleExecutor;
+    }
+
+    /**
+     * Sets the scheduler of the timer triggers. It must be set before a rule model is added.
+     * 
+     * @param schedulerService the scheduler service
+     */
+    public void setSchedulerService(SchedulerService schedulerService) {
+        this.schedulerService = schedulerService;
     }
 
     /**
@@ -119,13 +126,9 @@ public class RuleTriggerManager {
                 result = timerEventTriggeredRules;
                 break;
             case UPDATE:
-                result = Iterables.concat(updateEventTriggeredRules.values());
-                break;
             case CHANGE:
-                result = Iterables.concat(changedEventTriggeredRules.values());
-                break;
             case COMMAND:
-                result = Iterables.concat(commandEventTriggeredRules.values());
+                result = eventTriggeredRules.getRules(type);
                 break;
             default:
                 result = Sets.newHashSet();
@@ -170,29 +173,7 @@ public class RuleTriggerManager {
         return internalGetRules(triggerType, item, null, command);
     }
 
-    private Iterable<Rule> getAllRules(TriggerTypes type, String itemName) {
-        switch (type) {
-            case STARTUP:
-                return systemStartupTriggeredRules;
-            case SHUTDOWN:
-                return systemShutdownTriggeredRules;
-            case UPDATE:
-                return updateEventTriggeredRules.get(itemName);
-            case CHANGE:
-                return changedEventTriggeredRules.get(itemName);
-            case COMMAND:
-                return commandEventTriggeredRules.get(itemName);
-            default:
-                return Sets.newHashSet();
-        }
-    }
-
     private Iterable<Rule> internalGetRules(TriggerTypes triggerType, Item item, Type oldType, Type newType) {
-        List<Rule> result = Lists.newArrayList();
-        Iterable<Rule> rules = getAllRules(triggerType, item.getName());
-        if (rules == null) {
-            rules = Lists.newArrayList();
-        }
         switch (triggerType) {
             case STARTUP:
                 return systemStartupTriggeredRules;
@@ -202,80 +183,21 @@ public class RuleTriggerManager {
                 return timerEventTriggeredRules;
             case UPDATE:
                 if (newType instanceof State) {
-                    State state = (State) newType;
-                    for (Rule rule : rules) {
-                        for (EventTrigger t : rule.getEventtrigger()) {
-                            if (t instanceof UpdateEventTrigger) {
-                                UpdateEventTrigger ut = (UpdateEventTrigger) t;
-                                if (ut.getItem().equals(item.getName())) {
-                                    if (ut.getState() != null) {
-                                        State triggerState = TypeParser.parseState(item.getAcceptedDataTypes(),
-                                                ut.getState());
-                                        if (!state.equals(triggerState)) {
-                                            continue;
-                                        }
-                                    }
-                                    result.add(rule);
-                                }
-                            }
-                        }
-                    }
+                    return eventTriggeredRules.getUpdateRules(item, (State) newType);
                 }
                 break;
             case CHANGE:
                 if (newType instanceof State && oldType instanceof State) {
-                    State newState = (State) newType;
-                    State oldState = (State) oldType;
-                    for (Rule rule : rules) {
-                        for (EventTrigger t : rule.getEventtrigger()) {
-                            if (t instanceof ChangedEventTrigger) {
-                                ChangedEventTrigger ct = (ChangedEventTrigger) t;
-                                if (ct.getItem().equals(item.getName())) {
-                                    if (ct.getOldState() != null) {
-                                        State triggerOldState = TypeParser.parseState(item.getAcceptedDataTypes(),
-                                                ct.getOldState());
-                                        if (!oldState.equals(triggerOldState)) {
-                                            continue;
-                                        }
-                                    }
-                                    if (ct.getNewState() != null) {
-                                        State triggerNewState = TypeParser.parseState(item.getAcceptedDataTypes(),
-                                                ct.getNewState());
-                                        if (!newState.equals(triggerNewState)) {
-                                            continue;
-                                        }
-                                    }
-                                    result.add(rule);
-                                }
-                            }
-                        }
-                    }
+                    return eventTriggeredRules.getChangeRules(item, (State) oldType, (State) newType);
                 }
                 break;
             case COMMAND:
                 if (newType instanceof Command) {
-                    final Command command = (Command) newType;
-                    for (Rule rule : rules) {
-                        for (final EventTrigger t : rule.getEventtrigger()) {
-                            if (t instanceof CommandEventTrigger) {
-                                final CommandEventTrigger ct = (CommandEventTrigger) t;
-                                if (ct.getItem().equals(item.getName())) {
-                                    if (ct.getCommand() != null) {
-                                        final Command triggerCommand = TypeParser.parseCommand(
-                                                item.getAcceptedCommandTypes(), ct.getCommand());
-                                        if (!command.equals(triggerCommand)) {
-                                            continue;
-                                        }
-                                    }
-                                    result.add(rule);
-                                }
-                            }
-                        }
-                    }
+                    return eventTriggeredRules.getCommandRules(item, (Command) newType);
                 }
                 break;
         }
-        return result;
+        return Collections.emptyList();
     }
 
     /**
@@ -292,17 +214,13 @@ public class RuleTriggerManager {
                 systemShutdownTriggeredRules.clear();
                 break;
             case UPDATE:
-                updateEventTriggeredRules.clear();
-                break;
             case CHANGE:
-                changedEventTriggeredRules.clear();
-                break;
             case COMMAND:
-                commandEventTriggeredRules.clear();
+                eventTriggeredRules.clear(type);
                 break;
             case TIMER:
                 for (Rule rule : timerEventTriggeredRules) {
-                    removeTimerRule(rule);
+                    removeTimer(rule);
                 }
                 timerEventTriggeredRules.clear();
                 break;
@@ -327,43 +245,16 @@ public class RuleTriggerManager {
      * @param rule the rule to add
      */
     public synchronized void addRule(Rule rule) {
+        eventTriggeredRules.addRule(rule);
         for (EventTrigger t : rule.getEventtrigger()) {
             // add the rule to the lookup map for the trigger kind
             if (t instanceof SystemOnStartupTrigger) {
                 systemStartupTriggeredRules.add(rule);
             } else if (t instanceof SystemOnShutdownTrigger) {
                 systemShutdownTriggeredRules.add(rule);
-            } else if (t instanceof CommandEventTrigger) {
-                CommandEventTrigger ceTrigger = (CommandEventTrigger) t;
-                Set<Rule> rules = commandEventTriggeredRules.get(ceTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    commandEventTriggeredRules.put(ceTrigger.getItem(), rules);
-                }
-                rules.add(rule);
-            } else if (t instanceof UpdateEventTrigger) {
-                UpdateEventTrigger ueTrigger = (UpdateEventTrigger) t;
-                Set<Rule> rules = updateEventTriggeredRules.get(ueTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    updateEventTriggeredRules.put(ueTrigger.getItem(), rules);
-                }
-                rules.add(rule);
-            } else if (t instanceof ChangedEventTrigger) {
-                ChangedEventTrigger ceTrigger = (ChangedEventTrigger) t;
-                Set<Rule> rules = changedEventTriggeredRules.get(ceTrigger.getItem());
-                if (rules == null) {
-                    rules = new HashSet<Rule>();
-                    changedEventTriggeredRules.put(ceTrigger.getItem(), rules);
-                }
-                rules.add(rule);
             } else if (t instanceof TimerTrigger) {
                 if (timerEventTriggeredRules.add(rule)) {
-                    try {
-                        createTimer(rule, (TimerTrigger) t);
-                    } catch (SchedulerException e) {
-                        logger.error("Cannot create timer for rule '{}': {}", rule.getName(), e.getMessage());
-                    }
+                    createTimer(rule, (TimerTrigger) t);
                 }
             }
         }
@@ -384,17 +275,13 @@ public class RuleTriggerManager {
                 systemShutdownTriggeredRules.remove(rule);
                 break;
             case UPDATE:
-                updateEventTriggeredRules.remove(rule);
-                break;
             case CHANGE:
-                changedEventTriggeredRules.remove(rule);
-                break;
             case COMMAND:
-                commandEventTriggeredRules.remove(rule);
+                eventTriggeredRules.removeRule(type, rule);
                 break;
             case TIMER:
                 timerEventTriggeredRules.remove(rule);
-                removeTimerRule(rule);
+                removeTimer(rule);
                 break;
         }
     }
@@ -416,9 +303,7 @@ public class RuleTriggerManager {
      * @param ruleModel the rule model
      */
     public void removeRuleModel(RuleModel ruleModel) {
-        removeRules(UPDATE, updateEventTriggeredRules.values(), ruleModel);
-        removeRules(CHANGE, changedEventTriggeredRules.values(), ruleModel);
-        removeRules(COMMAND, commandEventTriggeredRules.values(), ruleModel);
+        eventTriggeredRules.removeRuleModel(ruleModel);
         removeRules(STARTUP, Collections.singletonList(systemStartupTriggeredRules), ruleModel);
         removeRules(SHUTDOWN, Collections.singletonList(systemShutdownTriggeredRules), ruleModel);
         removeRules(TIMER, Collections.singletonList(timerEventTriggeredRules), ruleModel);
@@ -431,7 +316,7 @@ public class RuleTriggerManager {
                 for (Rule rule : model.getRules()) {
                     ruleSet.remove(rule);
                     if (type == TIMER) {
-                        removeTimerRule(rule);
+                        removeTimer(rule);
                     }
                 }
             }
@@ -442,30 +327,20 @@ public class RuleTriggerManager {
                 if (rule.eIsProxy()) {
                     ruleSet.remove(rule);
                     if (type == TIMER) {
-                        removeTimerRule(rule);
+                        removeTimer(rule);
                     }
                 }
             }
         }
     }
 
-    private void removeTimerRule(Rule rule) {
-        try {
-            removeTimer(rule);
-        } catch (SchedulerException e) {
-            logger.error("Cannot remove timer for rule '{}'", rule.getName(), e);
-        }
-    }
-
     /**
-     * Creates and schedules a new quartz-job and trigger with model and rule name as jobData.
+     * Schedules a new {@link ExecuteRuleJob} with the cron expression of the trigger.
      * 
      * @param rule the rule to schedule
      * @param trigger the defined trigger
-     * 
-     * @throws SchedulerException if there is an internal Scheduler error.
      */
-    private void createTimer(Rule rule, TimerTrigger trigger) throws SchedulerException {
+    private void createTimer(Rule rule, TimerTrigger trigger) {
         String cronExpression = trigger.getCron();
         if (trigger.getTime() != null) {
             if (trigger.getTime().equals("noon")) {
@@ -479,50 +354,46 @@ public class RuleTriggerManager {
             }
         }
 
-        String jobIdentity = getJobIdentityString(rule, trigger);
-
         try {
-            JobDetail job = newJob(ExecuteRuleJob.class)
-                    .usingJobData(ExecuteRuleJob.JOB_DATA_RULEMODEL, rule.eResource().getURI().path())
-                    .usingJobData(ExecuteRuleJob.JOB_DATA_RULENAME, rule.getName()).withIdentity(jobIdentity).build();
-            Trigger quartzTrigger = newTrigger().withSchedule(CronScheduleBuilder.cronSchedule(cronExpression)).build();
-            scheduler.scheduleJob(job, quartzTrigger);
+            ScheduledJob job = schedulerService.schedule(
+                    new ExecuteRuleJob(rule.eResource().getURI().path(), rule.getName(), injector, ruleExecutor),
+                    cronExpression);
+            String jobIdentity = getJobIdentityString(rule);
+            synchronized (timerJobs) {
+                List<ScheduledJob> jobs = timerJobs.get(jobIdentity);
+                if (jobs == null) {
+                    jobs = new ArrayList<>();
+                    timerJobs.put(jobIdentity, jobs);
+                }
+                jobs.add(job);
+            }
 
             logger.debug("Scheduled rule {} with cron expression {}", new String[] { rule.getName(), cronExpression });
-        } catch (RuntimeException e) {
-            throw new SchedulerException(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("Cannot create timer for rule '{}': {}", rule.getName(), e.getMessage());
         }
     }
 
     /**
-     * Delete all {@link Job}s of the DEFAULT group whose name starts with <code>rule.getName()</code>.
+     * Cancels all scheduled jobs of the timer triggers of a rule.
      * 
-     * @throws SchedulerException if there is an internal Scheduler error.
+     * @param rule the rule
      */
-    private void removeTimer(Rule rule) throws SchedulerException {
-        Set<JobKey> jobKeys = scheduler.getJobKeys(GroupMatcher.jobGroupEquals(Scheduler.DEFAULT_GROUP));
-        for (JobKey jobKey : jobKeys) {
-            String jobIdentityString = getJobIdentityString(rule, null);
-            if (jobKey.getName().startsWith(jobIdentityString)) {
-                boolean success = scheduler.deleteJob(jobKey);
-                if (!success) {
-                    logger.warn("Failed to delete cron job '{}'", jobKey.getName());
-                } else {
-                    logger.debug("Removed scheduled cron job '{}'", jobKey.getName());
-                }
+    private void removeTimer(Rule rule) {
+        String jobIdentity = getJobIdentityString(rule);
+        List<ScheduledJob> jobs;
+        synchronized (timerJobs) {
+            jobs = timerJobs.remove(jobIdentity);
+        }
+        if (jobs != null) {
+            for (ScheduledJob job : jobs) {
+                job.cancel();
             }
+            logger.debug("Removed {} scheduled cron jobs of '{}'", jobs.size(), jobIdentity);
         }
     }
 
-    private String getJobIdentityString(Rule rule, TimerTrigger trigger) {
-        String jobIdentity = EcoreUtil.getURI(rule).trimFragment().appendFragment(rule.getName()).toString();
-        if (trigger != null) {
-            if (trigger.getTime() != null) {
-                jobIdentity += "#" + trigger.getTime();
-            } else if (trigger.getCron() != null) {
-                jobIdentity += "#" + trigger.getCron();
-            }
-        }
-        return jobIdentity;
+    private String getJobIdentityString(Rule rule) {
+        return EcoreUtil.getURI(rule).trimFragment().appendFragment(rule.getName()).toString();
     }
 }
@@ -31,6 +31,9 @@ public class ScriptImpl implements Script {
 
     private XExpression xExpression;
 
+    /** the interpreter of the expression, which is obtained on the first execution */
+    private volatile IExpressionInterpreter interpreter;
+
     @Inject
     public ScriptImpl() {
     }
@@ -39,6 +42,7 @@ public class ScriptImpl implements Script {
     void setXExpression(XExpression xExpression) {
 
         this.xExpression = xExpression;
+        this.interpreter = null;
     }
 
     /* package-local */
@@ -64,12 +68,7 @@ public class ScriptImpl implements Script {
     @Override
     public Object execute(final IEvaluationContext evaluationContext) throws ScriptExecutionException {
         if (xExpression != null) {
-            Resource resource = xExpression.eResource();
-            IExpressionInterpreter interpreter = null;
-            if (resource instanceof XtextResource) {
-                IResourceServiceProvider provider = ((XtextResource) resource).getResourceServiceProvider();
-                interpreter = provider.get(IExpressionInterpreter.class);
-            }
+            IExpressionInterpreter interpreter = getInterpreter();
             if (interpreter == null) {
                 throw new ScriptExecutionException("Script interpreter couldn't be obtain");
             }
@@ -97,4 +96,17 @@ public class ScriptImpl implements Script {
             throw new ScriptExecutionException("Script does not contain any expression");
         }
     }
+
+    private IExpressionInterpreter getInterpreter() {
+        IExpressionInterpreter interpreter = this.interpreter;
+        if (interpreter == null) {
+            Resource resource = xExpression.eResource();
+            if (resource instanceof XtextResource) {
+                IResourceServiceProvider provider = ((XtextResource) resource).getResourceServiceProvider();
+                interpreter = provider.get(IExpressionInterpreter.class);
+                this.interpreter = interpreter;
+            }
+        }
+        return interpreter;
+    }
 }
@@ -7,25 +7,17 @@
  */
 package org.eclipse.smarthome.model.script.actions;
 
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.TriggerBuilder.newTrigger;
-
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.model.core.ModelRepository;
 import org.eclipse.smarthome.model.script.engine.Script;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.ScriptExecutionException;
 import org.eclipse.smarthome.model.script.internal.ScriptActivator;
-import org.eclipse.smarthome.model.script.internal.actions.TimerExecutionJob;
 import org.eclipse.smarthome.model.script.internal.actions.TimerImpl;
 import org.eclipse.xtext.xbase.XExpression;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
 import org.joda.time.base.AbstractInstant;
-import org.quartz.JobDataMap;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +31,9 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("restriction")
 public class ScriptExecution {
 
+    /** the maximum time in milliseconds to wait for the scheduler service, e.g. during the startup */
+    private static final long SCHEDULER_TIMEOUT = 5000;
+
     /**
      * Calls a script which must be located in the configurations/scripts folder.
      * 
@@ -83,19 +78,21 @@ public class ScriptExecution {
      */
     public static Timer createTimer(AbstractInstant instant, Procedure0 closure) {
         Logger logger = LoggerFactory.getLogger(ScriptExecution.class);
-        JobKey jobKey = new JobKey(instant.toString() + ": " + closure.toString());
-        Trigger trigger = newTrigger().startAt(instant.toDate()).build();
-        Timer timer = new TimerImpl(jobKey, trigger.getKey(), instant);
+        SchedulerService schedulerService = getSchedulerService();
+        if (schedulerService == null) {
+            logger.error("Failed to schedule code for execution, as the scheduler service is not available.");
+            return null;
+        }
+        Timer timer = new TimerImpl(schedulerService, closure, instant);
+        logger.debug("Scheduled code for execution at {}", instant.toString());
+        return timer;
+    }
+
+    private static SchedulerService getSchedulerService() {
         try {
-            JobDataMap dataMap = new JobDataMap();
-            dataMap.put("procedure", closure);
-            dataMap.put("timer", timer);
-            JobDetail job = newJob(TimerExecutionJob.class).withIdentity(jobKey).usingJobData(dataMap).build();
-            TimerImpl.scheduler.scheduleJob(job, trigger);
-            logger.debug("Scheduled code for execution at {}", instant.toString());
-            return timer;
-        } catch (SchedulerException e) {
-            logger.error("Failed to schedule code for execution.", e);
+            return ScriptActivator.schedulerServiceTracker.waitForService(SCHEDULER_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return null;
         }
     }
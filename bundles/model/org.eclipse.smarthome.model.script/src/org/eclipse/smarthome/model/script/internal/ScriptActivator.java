@@ -9,6 +9,7 @@ package org.eclipse.smarthome.model.script.internal;
 
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.model.core.ModelRepository;
 import org.eclipse.smarthome.model.script.engine.ScriptEngine;
 import org.eclipse.smarthome.model.script.engine.action.ActionService;
@@ -28,6 +29,7 @@ public class ScriptActivator implements BundleActivator {
     public static ServiceTracker<ModelRepository, ModelRepository> modelRepositoryTracker;
     public static ServiceTracker<ScriptEngine, ScriptEngine> scriptEngineTracker;
     public static ServiceTracker<ActionService, ActionService> actionServiceTracker;
+    public static ServiceTracker<SchedulerService, SchedulerService> schedulerServiceTracker;
 
     /**
      * Called whenever the OSGi framework starts our bundle
@@ -48,6 +50,10 @@ public class ScriptActivator implements BundleActivator {
 
         scriptEngineTracker = new ServiceTracker<ScriptEngine, ScriptEngine>(bc, ScriptEngine.class, null);
         scriptEngineTracker.open();
+
+        schedulerServiceTracker = new ServiceTracker<SchedulerService, SchedulerService>(bc, SchedulerService.class,
+                null);
+        schedulerServiceTracker.open();
     }
 
     /**
@@ -60,6 +66,7 @@ public class ScriptActivator implements BundleActivator {
         modelRepositoryTracker.close();
         scriptEngineTracker.close();
         actionServiceTracker.close();
+        schedulerServiceTracker.close();
     }
 
 }
@@ -7,24 +7,16 @@
  */
 package org.eclipse.smarthome.model.script.internal.actions;
 
-import static org.quartz.TriggerBuilder.newTrigger;
-
+import org.eclipse.smarthome.core.scheduler.ScheduledJob;
+import org.eclipse.smarthome.core.scheduler.SchedulerService;
 import org.eclipse.smarthome.model.script.actions.Timer;
-import org.joda.time.DateTime;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
 import org.joda.time.base.AbstractInstant;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.TriggerKey;
-import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This is an implementation of the {@link Timer} interface using the Quartz
- * library for scheduling.
+ * This is an implementation of the {@link Timer} interface using the {@link SchedulerService} for scheduling.
  *
  * @author Kai Kreuzer - Initial contribution and API
  *
@@ -33,74 +25,60 @@ public class TimerImpl implements Timer {
 
     private final Logger logger = LoggerFactory.getLogger(TimerImpl.class);
 
-    // the scheduler used for timer events
-    public static Scheduler scheduler;
+    private final SchedulerService schedulerService;
 
-    static {
-        try {
-            scheduler = StdSchedulerFactory.getDefaultScheduler();
-        } catch (SchedulerException e) {
-            LoggerFactory.getLogger(TimerImpl.class).error("initializing scheduler throws exception", e);
-        }
-    }
+    private final Procedure0 closure;
+
+    // the job of the current schedule, guarded by this
+    private ScheduledJob job;
 
-    private JobKey jobKey;
-    private TriggerKey triggerKey;
-    private AbstractInstant startTime;
+    // the number of the current schedule, guarded by this
+    private int generation = 0;
 
-    private boolean cancelled = false;
-    private boolean terminated = false;
+    private volatile boolean terminated = false;
 
-    public TimerImpl(JobKey jobKey, TriggerKey triggerKey, AbstractInstant startTime) {
-        this.jobKey = jobKey;
-        this.triggerKey = triggerKey;
-        this.startTime = startTime;
+    public TimerImpl(SchedulerService schedulerService, Procedure0 closure, AbstractInstant startTime) {
+        this.schedulerService = schedulerService;
+        this.closure = closure;
+        schedule(startTime);
     }
 
-    @Override
-    public boolean cancel() {
-        try {
-            boolean result = scheduler.deleteJob(jobKey);
-            if (result) {
-                cancelled = true;
+    private synchronized void schedule(final AbstractInstant startTime) {
+        final int scheduled = ++generation;
+        job = schedulerService.schedule(new Runnable() {
+            @Override
+            public void run() {
+                logger.debug("Executing timer scheduled at {}", startTime);
+                try {
+                    closure.apply();
+                } finally {
+                    synchronized (TimerImpl.this) {
+                        // a rescheduled timer is not terminated by a previous execution
+                        if (scheduled == generation) {
+                            terminated = true;
+                        }
+                    }
+                }
             }
-        } catch (SchedulerException e) {
-            logger.warn("An error occured while cancelling the job '{}': {}",
-                    new String[] { jobKey.toString(), e.getMessage() });
-        }
-        return cancelled;
+        }, startTime.toDate());
     }
 
     @Override
-    public boolean reschedule(AbstractInstant newTime) {
-        try {
-            Trigger trigger = newTrigger().startAt(newTime.toDate()).build();
-            scheduler.rescheduleJob(triggerKey, trigger);
-            this.triggerKey = trigger.getKey();
-            this.cancelled = false;
-            this.terminated = false;
-            return true;
-        } catch (SchedulerException e) {
-            logger.warn("An error occured while rescheduling the job '{}': {}",
-                    new String[] { jobKey.toString(), e.getMessage() });
-            return false;
-        }
+    public synchronized boolean cancel() {
+        return job.cancel() || job.isCancelled();
     }
 
     @Override
-    public boolean isRunning() {
-        try {
-            for (JobExecutionContext context : scheduler.getCurrentlyExecutingJobs()) {
-                if (context.getJobDetail().getKey().equals(jobKey)) {
-                    return true;
-                }
-            }
-            return false;
-        } catch (SchedulerException e) {
-            // fallback implementation
-            logger.debug("An error occured getting currently running jobs: {}", e.getMessage());
-            return DateTime.now().isAfter(startTime) && !terminated;
-        }
+    public synchronized boolean reschedule(AbstractInstant newTime) {
+        job.cancel();
+        terminated = false;
+        schedule(newTime);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return job.isRunning();
     }
 
     @Override
@@ -108,7 +86,4 @@ public class TimerImpl implements Timer {
         return terminated;
     }
 
-    public void setTerminated(boolean terminated) {
-        this.terminated = terminated;
-    }
 }
@@ -73,11 +73,7 @@ public class ScriptInterpreter extends XbaseInterpreter {
 	}
 
 	def protected Type getStateOrCommand(String name) {
-		for (Type type : stateAndCommandProvider.getAllTypes()) {
-			if (type.toString == name) {
-				return type
-			}
-		}
+		return stateAndCommandProvider.getType(name)
 	}
 
 	def protected Item getItem(String name) {
@@ -105,6 +105,52 @@ class StorageServiceOSGiTest extends OSGiTest {
         assertThat bigDecimal instanceof BigDecimal, is(true)
     }
     
+    @Test
+    void 'assert cached records are replaced and removed'() {
+        assertThat storageService.getStorage('TestStorage', this.getClass().getClassLoader()), is(sameInstance(storage))
+        assertThat storageService.getStorage('TestStorage', null), is(sameInstance(storage))
+        assertThat storageService.getStorage('TestStorage', this.getClass().getClassLoader()), is(sameInstance(storage))
+
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+        PersistedItem pItem = storage.get 'Key1'
+        pItem.itemType = 'Switch'
+        assertThat storage.get('Key1'), is(not(sameInstance(pItem)))
+        assertThat storage.get('Key1').itemType, is('String')
+        assertThat storage.getValues().size(), is(1)
+
+        assertThat storage.put('Key1', new PersistedItem('Number', ['TEMPERATURE'])).itemType, is('String')
+        assertThat storage.get('Key1').itemType, is('Number')
+
+        storage.remove 'Key1'
+        assertThat storage.get('Key1'), is(nullValue())
+        assertThat storage.getValues().size(), is(0)
+    }
+
+    @Test
+    void 'assert immutable values are deserialized once and shared'() {
+        storage.put 'Key1', 'Value'
+        assertThat storage.get('Key1'), is(sameInstance(storage.get('Key1')))
+
+        storage.put 'Key1', 'Other value'
+        assertThat storage.get('Key1'), is('Other value')
+    }
+
+    @Test
+    void 'assert bulk removals and snapshots'() {
+        storage.put 'Key1', new PersistedItem('String', ['LIGHT'])
+        storage.put 'Key2', new PersistedItem('Number', ['TEMPERATURE'])
+        storage.put 'Key3', new PersistedItem('Switch', [])
+
+        def entries = storage.entries()
+        storage.remove 'Key2'
+        assertThat entries.collect { it.key } as Set, is(['Key1', 'Key2', 'Key3'] as Set)
+
+        def removed = storage.removeAll(['Key1', 'Key2', 'Key3'])
+        assertThat removed.keySet(), is(['Key1', 'Key3'] as Set)
+        assertThat removed['Key3'].itemType, is('Switch')
+        assertThat storage.getKeys().size(), is(0)
+    }
+
     private class MockConfiguration {
         private Map<String, Object> configuration = new HashMap<String, Object>();
         
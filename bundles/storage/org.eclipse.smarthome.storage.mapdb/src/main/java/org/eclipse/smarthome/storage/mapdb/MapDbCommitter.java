@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.storage.mapdb;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.mapdb.DB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link MapDbCommitter} coalesces the commits of all storages of a MapDB database. Instead of committing after
+ * every single mutation, the mutations within the commit interval are committed together, or as soon as the batch size
+ * is reached.
+ *
+ * As MapDB writes a transaction log, a crash never leaves the database in an inconsistent state, but may lose the
+ * mutations of the last commit interval. With a commit interval of 0, every mutation is committed immediately.
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbCommitter {
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbCommitter.class);
+
+    private final DB db;
+
+    private final long commitInterval;
+
+    private final int commitBatchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** the number of uncommitted mutations, guarded by this */
+    private int pendingMutations = 0;
+
+    /** true, if a commit has been scheduled, guarded by this */
+    private boolean scheduled = false;
+
+    private final Runnable commitTask = new Runnable() {
+        @Override
+        public void run() {
+            commit();
+        }
+    };
+
+    /**
+     * Creates a new committer.
+     *
+     * @param db the database (must not be null)
+     * @param commitInterval the maximum time in milliseconds a mutation stays uncommitted, 0 to commit immediately
+     * @param commitBatchSize the number of mutations, which are committed without waiting for the commit interval
+     */
+    public MapDbCommitter(DB db, long commitInterval, int commitBatchSize) {
+        this.db = db;
+        this.commitInterval = commitInterval;
+        this.commitBatchSize = commitBatchSize;
+        if (commitInterval > 0) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ESH-mapdb-commit");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            this.scheduler = executor;
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Must be called after each mutation of the database. Commits the pending mutations, if the batch size has been
+     * reached, otherwise schedules a commit.
+     */
+    public synchronized void mutated() {
+        pendingMutations++;
+        if (scheduler == null || pendingMutations >= commitBatchSize) {
+            commit();
+        } else if (!scheduled) {
+            try {
+                scheduler.schedule(commitTask, commitInterval, TimeUnit.MILLISECONDS);
+                scheduled = true;
+            } catch (RejectedExecutionException e) {
+                // the committer has been shut down
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Executes mutations, which must be persisted together, and commits them immediately. No other commit happens
+     * while the mutations are executed, so that either all or none of them survive a crash.
+     *
+     * @param mutations the mutations of the database
+     */
+    public synchronized void commitAtomically(Runnable mutations) {
+        mutations.run();
+        pendingMutations++;
+        commit();
+    }
+
+    /**
+     * Commits all pending mutations.
+     */
+    public synchronized void commit() {
+        scheduled = false;
+        if (pendingMutations == 0) {
+            return;
+        }
+        logger.trace("Committing {} mutations to MapDB.", pendingMutations);
+        db.commit();
+        pendingMutations = 0;
+    }
+
+    /**
+     * Commits all pending mutations and stops scheduling commits. Further mutations are committed immediately.
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        commit();
+    }
+
+}
@@ -7,10 +7,30 @@
  */
 package org.eclipse.smarthome.storage.mapdb;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.smarthome.core.storage.BatchStorage;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.mapdb.DB;
 import org.slf4j.Logger;
@@ -18,6 +38,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 
 /**
  * The MapDbStorage is concrete implementation of the {@link Storage} interface.
@@ -26,36 +48,99 @@ import com.google.gson.GsonBuilder;
  * This transformation should help maintaining version compatibility of the stored
  * data.
  *
+ * Each value is stored as a binary record, which starts with a format version and the id of the value type in the
+ * class dictionary of this storage, followed by the UTF-8 encoded JSON document. Values, which have been stored by
+ * former versions as {@code type@@@json} strings, are still read and are converted when they are stored again.
+ * The records are cached together with their parsed JSON tree, so that they are only read and parsed once. Values of
+ * immutable types are deserialized once and shared. Every other read creates a new value from the parsed tree, so
+ * that callers can modify the returned values without affecting the storage or each other. The cache entry of a key
+ * is replaced when the key is put and dropped when it is removed.
+ * Mutations are committed by the {@link MapDbCommitter} of the database.
+ *
  * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
  * @author Alex Tugarev - Loading with Class.forName() if classLoader is null
+ * @author agent - Added binary records, class dictionary, value cache and group commit
  */
-public class MapDbStorage<T> implements Storage<T> {
+public class MapDbStorage<T> implements BatchStorage<T> {
 
     private static final String TYPE_SEPARATOR = "@@@";
 
+    private static final String CLASS_DICTIONARY_SUFFIX = "@@@classes";
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** the types, whose values cannot be modified and can therefore be shared by all callers */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(String.class,
+            Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+            Double.class, BigInteger.class, BigDecimal.class));
+
     private final Logger logger = LoggerFactory.getLogger(MapDbStorage.class);
 
     private DB db;
-    private ClassLoader classLoader;
-    private Map<String, String> map;
+    private volatile ClassLoader classLoader;
+    private MapDbCommitter committer;
+
+    /** the stored records, either a byte array or a string of a former version */
+    private Map<String, Object> map;
+
+    /** the persistent class dictionary, maps the qualified type names to their ids, mutations are guarded by db */
+    private Map<String, Integer> classIds;
+
+    /** the type names by their id, as read from the class dictionary */
+    private final Map<Integer, String> classNames = new ConcurrentHashMap<Integer, String>();
+
+    /** the types by their id, loaded by the current class loader */
+    private final Map<Integer, Class<T>> classes = new ConcurrentHashMap<Integer, Class<T>>();
+
+    /** the cached records by their key, mutations of the map and of the cache are guarded by this */
+    private final Map<String, CachedRecord> cache = new ConcurrentHashMap<String, CachedRecord>();
 
     private transient Gson mapper;
 
     public MapDbStorage(DB db, String name, ClassLoader classLoader) {
+        this(db, name, classLoader, new MapDbCommitter(db, 0, 1));
+    }
+
+    public MapDbStorage(DB db, String name, ClassLoader classLoader, MapDbCommitter committer) {
         this.db = db;
         this.classLoader = classLoader;
+        this.committer = committer;
         this.map = db.createTreeMap(name).makeOrGet();
+        this.classIds = db.createTreeMap(name + CLASS_DICTIONARY_SUFFIX).makeOrGet();
         this.mapper = new GsonBuilder().registerTypeAdapterFactory(new PropertiesTypeAdapterFactory()).create();
     }
 
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Replaces the class loader of the stored types, e.g. because the bundle of the types has been updated. The types,
+     * and cached values, which have been loaded by the former class loader, are discarded.
+     *
+     * @param classLoader the new class loader (can be null)
+     */
+    synchronized void setClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        classes.clear();
+        cache.clear();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public T put(String key, T value) {
-        String previousValue = map.put(key, serialize(value));
-        db.commit();
-        return deserialize(previousValue);
+        byte[] record = serialize(value);
+        Object previousRecord;
+        synchronized (this) {
+            previousRecord = map.put(key, record);
+            cache.put(key, new CachedRecord(record));
+            committer.mutated();
+        }
+        return deserialize(previousRecord);
     }
 
     /**
@@ -63,9 +148,93 @@ public class MapDbStorage<T> implements Storage<T> {
      */
     @Override
     public T remove(String key) {
-        String removedElement = map.remove(key);
-        db.commit();
-        return deserialize(removedElement);
+        Object removedRecord;
+        synchronized (this) {
+            cache.remove(key);
+            removedRecord = map.remove(key);
+            if (removedRecord != null) {
+                committer.mutated();
+            }
+        }
+        return deserialize(removedRecord);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Map<String, T> removeAll(final Collection<String> keys) {
+        final List<SnapshotEntry> removedEntries = new ArrayList<SnapshotEntry>();
+        Map<String, T> removedValues = new LinkedHashMap<String, T>();
+        if (keys.isEmpty()) {
+            return removedValues;
+        }
+        committer.commitAtomically(new Runnable() {
+            @Override
+            public void run() {
+                for (String key : keys) {
+                    cache.remove(key);
+                    Object removedRecord = map.remove(key);
+                    if (removedRecord != null) {
+                        removedEntries.add(new SnapshotEntry(key, removedRecord));
+                    }
+                }
+            }
+        });
+        // the records are deserialized after they have been committed
+        for (SnapshotEntry removedEntry : removedEntries) {
+            T removedValue = deserialize(removedEntry.record);
+            if (removedValue != null) {
+                removedValues.put(removedEntry.key, removedValue);
+            }
+        }
+        return removedValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Map.Entry<String, T>> entries() {
+        final List<SnapshotEntry> snapshot = new ArrayList<SnapshotEntry>();
+        synchronized (this) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                snapshot.add(new SnapshotEntry(entry.getKey(), entry.getValue()));
+            }
+        }
+        return new Iterator<Map.Entry<String, T>>() {
+            private final Iterator<SnapshotEntry> iterator = snapshot.iterator();
+
+            private Map.Entry<String, T> next;
+
+            @Override
+            public boolean hasNext() {
+                // values, which cannot be deserialized, are skipped
+                while (next == null && iterator.hasNext()) {
+                    SnapshotEntry entry = iterator.next();
+                    T value = deserialize(entry.record);
+                    if (value != null) {
+                        next = new AbstractMap.SimpleImmutableEntry<String, T>(entry.key, value);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<String, T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<String, T> entry = next;
+                next = null;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("The entries of a snapshot cannot be removed.");
+            }
+        };
     }
 
     /**
@@ -73,7 +242,21 @@ public class MapDbStorage<T> implements Storage<T> {
      */
     @Override
     public T get(String key) {
-        return deserialize(map.get(key));
+        CachedRecord cachedRecord = cache.get(key);
+        if (cachedRecord == null) {
+            synchronized (this) {
+                cachedRecord = cache.get(key);
+                if (cachedRecord == null) {
+                    Object record = map.get(key);
+                    if (record == null) {
+                        return null;
+                    }
+                    cachedRecord = new CachedRecord(record);
+                    cache.put(key, cachedRecord);
+                }
+            }
+        }
+        return cachedRecord.getValue();
     }
 
     /**
@@ -91,72 +274,267 @@ public class MapDbStorage<T> implements Storage<T> {
     public Collection<T> getValues() {
         Collection<T> values = new ArrayList<T>();
         for (String key : getKeys()) {
-            values.add(get(key));
+            T value = get(key);
+            if (value != null) {
+                values.add(value);
+            }
         }
         return values;
     }
 
     /**
-     * Transforms the given {@code value} into its JSON representation using {@code Gson}. Since we do not know the type
-     * of {@code value} while
-     * deserializing it afterwards we prepend its qualified type name to the
-     * JSON String.
-     * 
+     * Transforms the given {@code value} into a binary record. Since we do not know the type of {@code value} while
+     * deserializing it afterwards, the record starts with the id of its type in the class dictionary, followed by its
+     * JSON representation.
+     *
      * @param value the {@code value} to store
-     * @return the JSON document prepended with the qualified type name of {@code value}
+     * @return the binary record of {@code value}
      */
-    private String serialize(T value) {
+    private byte[] serialize(T value) {
 
         if (value == null) {
             throw new IllegalArgumentException("Cannot serialize NULL");
         }
 
-        String valueTypeName = value.getClass().getName();
-        String valueAsString = mapper.toJson(value);
-        String concatValue = valueTypeName + TYPE_SEPARATOR + valueAsString;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(FORMAT_VERSION);
+        writeVarInt(out, getClassId(value.getClass().getName()));
+        try {
+            Writer writer = new OutputStreamWriter(out, UTF8);
+            mapper.toJson(value, writer);
+            writer.flush();
+        } catch (IOException e) {
+            // writing to a byte array never fails
+            throw new IllegalStateException(e);
+        }
 
-        logger.trace("serialized value '{}' to MapDB", concatValue);
-        return concatValue;
+        logger.trace("serialized value '{}' to MapDB", value);
+        return out.toByteArray();
     }
 
     /**
      * Deserializes and instantiates an object of type {@code T} out of the
-     * given JSON String. A special classloader (other than the one of the
+     * given record. A special classloader (other than the one of the
      * MapDB bundle) is used in order to load the classes in the context of
      * the calling bundle.
-     * 
-     * @param json
-     * @return
+     *
+     * @param record a binary record or a JSON String of a former version
+     * @return the value or null, if the record is null or could not be deserialized
      */
-    @SuppressWarnings("unchecked")
-    public T deserialize(String json) {
+    public T deserialize(Object record) {
+        ParsedRecord parsedRecord = parse(record);
+        return parsedRecord != null ? parsedRecord.newValue() : null;
+    }
+
+    /**
+     * Reads the type and the JSON tree of a record.
+     *
+     * @param record a binary record or a JSON String of a former version
+     * @return the parsed record or null, if the record is null or could not be parsed
+     */
+    private ParsedRecord parse(Object record) {
 
-        if (json == null) {
+        if (record == null) {
             // nothing to deserialize
             return null;
         }
 
-        String[] concatValue = json.split(TYPE_SEPARATOR);
-        String valueTypeName = concatValue[0];
-        String valueAsString = concatValue[1];
+        if (record instanceof String) {
+            return parseString((String) record);
+        }
 
-        T value = null;
+        byte[] bytes = (byte[]) record;
         try {
-            // load required class within the given bundle context
-            Class<T> loadedValueType = null;
-            if (classLoader == null) {
-                loadedValueType = (Class<T>) Class.forName(valueTypeName);
-            } else {
-                loadedValueType = (Class<T>) classLoader.loadClass(valueTypeName);
+            if (bytes[0] != FORMAT_VERSION) {
+                throw new IllegalArgumentException("unknown record format " + bytes[0]);
             }
+            ByteArrayInputStream in = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+            Class<T> loadedValueType = getClass(readVarInt(in));
+            Reader reader = new InputStreamReader(in, UTF8);
+            return new ParsedRecord(loadedValueType, new JsonParser().parse(reader));
+        } catch (Exception e) {
+            logger.warn("Couldn't deserialize record of {} bytes. Root cause is: {}", bytes.length, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parses a value, which has been stored by a former version as qualified type name and JSON String.
+     */
+    private ParsedRecord parseString(String json) {
+        int separator = json.indexOf(TYPE_SEPARATOR);
+        if (separator < 0) {
+            logger.warn("Couldn't deserialize value '{}'. Root cause is: missing type name", json);
+            return null;
+        }
+        String valueTypeName = json.substring(0, separator);
+        String valueAsString = json.substring(separator + TYPE_SEPARATOR.length());
 
-            value = mapper.fromJson(valueAsString, loadedValueType);
-            logger.trace("deserialized value '{}' from MapDB", value);
+        try {
+            return new ParsedRecord(loadClass(valueTypeName), new JsonParser().parse(valueAsString));
         } catch (Exception e) {
             logger.warn("Couldn't deserialize value '{}'. Root cause is: {}", json, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the id of a type in the class dictionary. A new type is added to the dictionary, which is committed
+     * together with the first value of the type. As ids are never reassigned, they can be cached by every instance
+     * of a storage.
+     */
+    private int getClassId(String className) {
+        Integer id = classIds.get(className);
+        if (id == null) {
+            synchronized (db) {
+                id = classIds.get(className);
+                if (id == null) {
+                    id = classIds.size();
+                    classIds.put(className, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    private Class<T> getClass(int id) throws ClassNotFoundException {
+        Class<T> loadedValueType = classes.get(id);
+        if (loadedValueType == null) {
+            String className = classNames.get(id);
+            if (className == null) {
+                for (Map.Entry<String, Integer> entry : classIds.entrySet()) {
+                    classNames.put(entry.getValue(), entry.getKey());
+                }
+                className = classNames.get(id);
+                if (className == null) {
+                    throw new ClassNotFoundException("unknown class id " + id);
+                }
+            }
+            loadedValueType = loadClass(className);
+            classes.put(id, loadedValueType);
+        }
+        return loadedValueType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<T> loadClass(String className) throws ClassNotFoundException {
+        // load required class within the given bundle context
+        if (classLoader == null) {
+            return (Class<T>) Class.forName(className);
+        } else {
+            return (Class<T>) classLoader.loadClass(className);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteArrayInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("truncated record");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed class id");
+    }
+
+    /**
+     * A key with its record.
+     */
+    private static class SnapshotEntry {
+
+        private final String key;
+
+        private final Object record;
+
+        private SnapshotEntry(String key, Object record) {
+            this.key = key;
+            this.record = record;
+        }
+
+    }
+
+    /**
+     * A cached record with its lazily parsed JSON tree.
+     */
+    private class CachedRecord {
+
+        private final Object record;
+
+        private volatile ParsedRecord parsedRecord;
+
+        private CachedRecord(Object record) {
+            this.record = record;
+        }
+
+        private T getValue() {
+            ParsedRecord parsedRecord = this.parsedRecord;
+            if (parsedRecord == null) {
+                parsedRecord = parse(record);
+                if (parsedRecord == null) {
+                    return null;
+                }
+                this.parsedRecord = parsedRecord;
+            }
+            return parsedRecord.getValue();
+        }
+
+    }
+
+    /**
+     * The type and the JSON tree of a record, from which new values are created without parsing the record again.
+     */
+    private class ParsedRecord {
+
+        private final Class<T> type;
+
+        private final JsonElement tree;
+
+        private volatile T immutableValue;
+
+        private ParsedRecord(Class<T> type, JsonElement tree) {
+            this.type = type;
+            this.tree = tree;
+        }
+
+        /**
+         * Returns the shared value of an immutable type or a new value otherwise.
+         */
+        private T getValue() {
+            if (!IMMUTABLE_TYPES.contains(type) && !type.isEnum()) {
+                return newValue();
+            }
+            T value = immutableValue;
+            if (value == null) {
+                value = newValue();
+                immutableValue = value;
+            }
+            return value;
+        }
+
+        private T newValue() {
+            try {
+                T value = mapper.fromJson(tree, type);
+                logger.trace("deserialized value '{}' from MapDB", value);
+                return value;
+            } catch (Exception e) {
+                logger.warn("Couldn't deserialize value of type '{}'. Root cause is: {}", type.getName(),
+                        e.getMessage());
+                return null;
+            }
         }
 
-        return value;
     }
 
 }
@@ -8,6 +8,8 @@
 package org.eclipse.smarthome.storage.mapdb;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.storage.Storage;
@@ -21,8 +23,18 @@ import org.slf4j.LoggerFactory;
  * This implementation of {@link StorageService} provides abilities to store
  * data in the lightweight key-value-store <a href="http://www.mapdb.org">MapDB</a>.
  *
+ * The mutations of all storages are committed in groups by a {@link MapDbCommitter}, which is configured by the
+ * properties {@code commitInterval} (in milliseconds, 0 commits every mutation immediately) and
+ * {@code commitBatchSize}. There is a single {@link MapDbStorage} instance for each storage name, so that its cache of
+ * records is consistent. If a storage is requested with another class loader, the class loader of the instance is
+ * replaced.
+ *
+ * Instead of the shutdown hook of MapDB, which would close the database without committing the pending mutations, a
+ * shutdown hook of this service commits them before the database is closed.
+ *
  * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
  * @author Alex Tugarev - Added getStorage for name only
+ * @author agent - Added group commit and shared storage instances
  */
 public class MapDbStorageService implements StorageService {
 
@@ -31,13 +43,36 @@ public class MapDbStorageService implements StorageService {
     /** the name of the mapdb database ({@code storage.mapdb}) */
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    private static final String COMMIT_INTERVAL = "commitInterval";
+
+    private static final String COMMIT_BATCH_SIZE = "commitBatchSize";
+
+    private static final int DEFAULT_COMMIT_INTERVAL = 100;
+
+    private static final int DEFAULT_COMMIT_BATCH_SIZE = 100;
+
     /** holds the local instance of the MapDB database */
     private DB db;
 
+    private MapDbCommitter committer;
+
+    /** commits the pending mutations and closes the database, if the JVM exits without deactivating this service */
+    private Thread shutdownHook;
+
+    /** the storages by their name, guarded by itself */
+    private final Map<String, MapDbStorage<?>> storages = new HashMap<String, MapDbStorage<?>>();
+
     /** the folder name to store mapdb databases ({@code mapdb} by default) */
     private String dbFolderName = "mapdb";
 
-    public void activate() {
+    public void activate(Map<String, Object> properties) {
+        int commitInterval = DEFAULT_COMMIT_INTERVAL;
+        int commitBatchSize = DEFAULT_COMMIT_BATCH_SIZE;
+        if (properties != null) {
+            commitInterval = getIntProperty(properties, COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL);
+            commitBatchSize = getIntProperty(properties, COMMIT_BATCH_SIZE, DEFAULT_COMMIT_BATCH_SIZE);
+        }
+
         dbFolderName = ConfigConstants.getUserDataFolder() + File.separator + dbFolderName;
         File folder = new File(dbFolderName);
         if (!folder.exists()) {
@@ -45,19 +80,52 @@ public class MapDbStorageService implements StorageService {
         }
 
         File dbFile = new File(dbFolderName, DB_FILE_NAME);
-        db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
+        db = DBMaker.newFileDB(dbFile).make();
+        committer = new MapDbCommitter(db, commitInterval, commitBatchSize);
+        shutdownHook = new Thread("ESH-mapdb-shutdown") {
+            @Override
+            public void run() {
+                close();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
 
         logger.debug("Opened MapDB file at '{}'.", dbFile.getAbsolutePath());
     }
 
     public void deactivate() {
-        db.close();
+        synchronized (storages) {
+            storages.clear();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is shutting down and the hook closes the database
+        }
+        close();
         logger.debug("Deactivated MapDB Storage Service.");
     }
 
+    private synchronized void close() {
+        if (!db.isClosed()) {
+            committer.shutdown();
+            db.close();
+        }
+    }
+
     @Override
+    @SuppressWarnings("unchecked")
     public <T> Storage<T> getStorage(String name, ClassLoader classLoader) {
-        return new MapDbStorage<T>(db, name, classLoader);
+        synchronized (storages) {
+            MapDbStorage<?> storage = storages.get(name);
+            if (storage == null) {
+                storage = new MapDbStorage<T>(db, name, classLoader, committer);
+                storages.put(name, storage);
+            } else if (storage.getClassLoader() != classLoader) {
+                storage.setClassLoader(classLoader);
+            }
+            return (Storage<T>) storage;
+        }
     }
 
     @Override
@@ -65,4 +133,20 @@ public class MapDbStorageService implements StorageService {
         return getStorage(name, null);
     }
 
+    private int getIntProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.toString().trim());
+                if (intValue >= 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // handled below
+            }
+            logger.warn("Invalid value '{}' for '{}', using {}.", new Object[] { value, name, defaultValue });
+        }
+        return defaultValue;
+    }
+
 }
@@ -7,10 +7,17 @@
  */
 package org.eclipse.smarthome.test.storage;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.smarthome.core.storage.BatchStorage;
 import org.eclipse.smarthome.core.storage.Storage;
 
 /**
@@ -18,8 +25,9 @@ import org.eclipse.smarthome.core.storage.Storage;
  * 
  * @author Thomas.Eichstaedt-Engelen - Initial Contribution and API
  * @author Kai Kreuzer - improved return values
+ * @author agent - Added bulk operations
  */
-public class VolatileStorage<T> implements Storage<T> {
+public class VolatileStorage<T> implements BatchStorage<T> {
 
     Map<String, T> storage = new ConcurrentHashMap<String, T>();
 
@@ -27,7 +35,7 @@ public class VolatileStorage<T> implements Storage<T> {
      * {@inheritDoc}
      */
     @Override
-    public T put(String key, T value) {
+    public synchronized T put(String key, T value) {
         return storage.put(key, value);
     }
 
@@ -35,10 +43,39 @@ public class VolatileStorage<T> implements Storage<T> {
      * {@inheritDoc}
      */
     @Override
-    public T remove(String key) {
+    public synchronized T remove(String key) {
         return storage.remove(key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Map<String, T> removeAll(Collection<String> keys) {
+        Map<String, T> removedValues = new LinkedHashMap<String, T>();
+        for (String key : keys) {
+            T removedValue = storage.remove(key);
+            if (removedValue != null) {
+                removedValues.put(key, removedValue);
+            }
+        }
+        return removedValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Map.Entry<String, T>> entries() {
+        List<Map.Entry<String, T>> snapshot = new ArrayList<Map.Entry<String, T>>();
+        synchronized (this) {
+            for (Map.Entry<String, T> entry : storage.entrySet()) {
+                snapshot.add(new AbstractMap.SimpleImmutableEntry<String, T>(entry));
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -8,8 +8,6 @@
 package org.eclipse.smarthome.ui.classic.internal.servlet;
 
 import java.io.IOException;
-import java.util.Date;
-import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
@@ -20,18 +18,13 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.smarthome.core.items.GenericItem;
-import org.eclipse.smarthome.core.items.Item;
-import org.eclipse.smarthome.core.items.ItemNotFoundException;
-import org.eclipse.smarthome.core.items.StateChangeListener;
-import org.eclipse.smarthome.core.types.State;
-import org.eclipse.smarthome.model.sitemap.Frame;
 import org.eclipse.smarthome.model.sitemap.LinkableWidget;
 import org.eclipse.smarthome.model.sitemap.Sitemap;
 import org.eclipse.smarthome.model.sitemap.SitemapProvider;
 import org.eclipse.smarthome.model.sitemap.Widget;
 import org.eclipse.smarthome.ui.classic.internal.render.PageRenderer;
 import org.eclipse.smarthome.ui.classic.render.RenderException;
+import org.eclipse.smarthome.ui.items.PageChangeListener;
 import org.osgi.service.http.NamespaceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,8 +32,13 @@ import org.slf4j.LoggerFactory;
 /**
  * This is the main servlet for the Classic UI.
  * It serves the Html code based on the sitemap model.
+ * <p>
+ * A polling request waits until a state of an item on the page changes and is then answered with the rendered page.
+ * The servlet is registered through the OSGi HttpService, which does not support asynchronous requests, so the
+ * waiting request occupies a thread of the container.
  *
  * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Wait for page changes instead of sleeping
  *
  */
 public class WebAppServlet extends BaseServlet {
@@ -137,9 +135,8 @@ public class WebAppServlet extends BaseServlet {
                 // we are at the homepage, so we render the children of the sitemap root node
                 String label = sitemap.getLabel() != null ? sitemap.getLabel() : sitemapName;
                 EList<Widget> children = sitemap.getChildren();
-                if (poll && waitForChanges(children) == false) {
-                    // we have reached the timeout, so we do not return any content as nothing has changed
-                    res.getWriter().append(getTimeoutResponse()).close();
+                if (poll) {
+                    waitForChanges(res, "Home", sitemapName, label, children, async);
                     return;
                 }
                 result.append(renderer.processPage("Home", sitemapName, label, sitemap.getChildren(), async));
@@ -154,18 +151,21 @@ public class WebAppServlet extends BaseServlet {
                         throw new RenderException("Widget '" + w + "' can not have any content");
                     }
                     EList<Widget> children = renderer.getItemUIRegistry().getChildren((LinkableWidget) w);
-                    if (poll && waitForChanges(children) == false) {
-                        // we have reached the timeout, so we do not return any content as nothing has changed
-                        res.getWriter().append(getTimeoutResponse()).close();
+                    String pageId = renderer.getItemUIRegistry().getWidgetId(w);
+                    if (poll) {
+                        waitForChanges(res, pageId, sitemapName, label, children, async);
                         return;
                     }
-                    result.append(renderer.processPage(renderer.getItemUIRegistry().getWidgetId(w), sitemapName, label,
-                            children, async));
+                    result.append(renderer.processPage(pageId, sitemapName, label, children, async));
                 }
             }
         } catch (RenderException e) {
             throw new ServletException(e.getMessage(), e);
         }
+        writeResponse(res, result, async);
+    }
+
+    private void writeResponse(ServletResponse res, CharSequence result, boolean async) throws IOException {
         if (async) {
             res.setContentType("application/xml;charset=UTF-8");
         } else {
@@ -185,99 +185,25 @@ public class WebAppServlet extends BaseServlet {
     }
 
     /**
-     * This method only returns when a change has occurred to any item on the page to display
+     * Responds to a polling request with the rendered page, as soon as a change has occurred to any item on the page.
+     * If nothing changes until the timeout, the timeout response is returned.
      *
+     * @param res the response of the polling request
+     * @param pageId the id of the page to render
+     * @param sitemapName the name of the sitemap
+     * @param label the label of the page
      * @param widgets the widgets of the page to observe
+     * @param async true, if the page is requested by an asynchronous request of the UI
      */
-    private boolean waitForChanges(EList<Widget> widgets) {
-        long startTime = (new Date()).getTime();
-        boolean timeout = false;
-        BlockingStateChangeListener listener = new BlockingStateChangeListener();
-        // let's get all items for these widgets
-        Set<GenericItem> items = getAllItems(widgets);
-        for (GenericItem item : items) {
-            item.addStateChangeListener(listener);
-        }
-        while (!listener.hasChangeOccurred() && !timeout) {
-            timeout = (new Date()).getTime() - startTime > TIMEOUT_IN_MS;
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                timeout = true;
-                break;
-            }
-        }
-        for (GenericItem item : items) {
-            item.removeStateChangeListener(listener);
-        }
-        return !timeout;
-    }
-
-    /**
-     * Collects all items that are represented by a given list of widgets
-     *
-     * @param widgets the widget list to get the items for
-     * @return all items that are represented by the list of widgets
-     */
-    private Set<GenericItem> getAllItems(EList<Widget> widgets) {
-        Set<GenericItem> items = new HashSet<GenericItem>();
-        if (itemRegistry != null) {
-            for (Widget widget : widgets) {
-                String itemName = widget.getItem();
-                if (itemName != null) {
-                    try {
-                        Item item = itemRegistry.getItem(itemName);
-                        if (item instanceof GenericItem) {
-                            final GenericItem gItem = (GenericItem) item;
-                            items.add(gItem);
-                        }
-                    } catch (ItemNotFoundException e) {
-                        // ignore
-                    }
-                } else {
-                    if (widget instanceof Frame) {
-                        items.addAll(getAllItems(((Frame) widget).getChildren()));
-                    }
-                }
-            }
-        }
-        return items;
-    }
-
-    /**
-     * This is a state change listener, which is merely used to determine, if a state
-     * change has occurred on one of a list of items.
-     *
-     * @author Kai Kreuzer - Initial contribution and API
-     *
-     */
-    private static class BlockingStateChangeListener implements StateChangeListener {
-
-        private boolean changed = false;
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void stateChanged(Item item, State oldState, State newState) {
-            changed = true;
-        }
-
-        /**
-         * determines, whether a state change has occurred since its creation
-         *
-         * @return true, if a state has changed
-         */
-        public boolean hasChangeOccurred() {
-            return changed;
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void stateUpdated(Item item, State state) {
-            // ignore if the state did not change
+    private void waitForChanges(ServletResponse res, String pageId, String sitemapName, String label,
+            EList<Widget> widgets, boolean async) throws IOException, RenderException {
+        PageChangeListener listener = new PageChangeListener(itemRegistry, widgets);
+        listener.register();
+        if (listener.await(TIMEOUT_IN_MS)) {
+            writeResponse(res, renderer.processPage(pageId, sitemapName, label, widgets, async), async);
+        } else {
+            // we have reached the timeout, so we do not return any content as nothing has changed
+            res.getWriter().append(getTimeoutResponse()).close();
         }
     }
 
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.ui.items;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.smarthome.core.items.ItemNotFoundException;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.model.sitemap.Frame;
+import org.eclipse.smarthome.model.sitemap.Widget;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PageChangeListener}, which is used by the UIs to wait for changes of a sitemap page.
+ *
+ * @author agent - Initial contribution
+ */
+public class PageChangeListenerTest {
+
+    private ItemRegistry itemRegistry;
+
+    private SwitchItem item;
+
+    private SwitchItem frameItem;
+
+    private EList<Widget> widgets;
+
+    @Before
+    public void setUp() throws ItemNotFoundException {
+        item = new SwitchItem("Switch");
+        item.setState(OnOffType.OFF);
+        frameItem = new SwitchItem("FrameSwitch");
+        frameItem.setState(OnOffType.OFF);
+
+        itemRegistry = mock(ItemRegistry.class);
+        when(itemRegistry.getItem("Switch")).thenReturn(item);
+        when(itemRegistry.getItem("FrameSwitch")).thenReturn(frameItem);
+
+        EList<Widget> frameChildren = new BasicEList<Widget>();
+        frameChildren.add(createWidget("FrameSwitch"));
+        Frame frame = mock(Frame.class);
+        when(frame.getChildren()).thenReturn(frameChildren);
+
+        widgets = new BasicEList<Widget>();
+        widgets.add(createWidget("Switch"));
+        widgets.add(frame);
+    }
+
+    @Test
+    public void pageChangedIsCalledOnceForTheFirstChange() {
+        CountingPageChangeListener listener = new CountingPageChangeListener();
+        listener.register();
+
+        item.setState(OnOffType.ON);
+        item.setState(OnOffType.OFF);
+
+        assertEquals(1, listener.changes);
+        assertFalse(listener.unregister());
+    }
+
+    @Test
+    public void changesOfItemsInFramesAreObserved() {
+        CountingPageChangeListener listener = new CountingPageChangeListener();
+        listener.register();
+
+        frameItem.setState(OnOffType.ON);
+
+        assertEquals(1, listener.changes);
+    }
+
+    @Test
+    public void updatesWithoutChangeAreIgnored() {
+        CountingPageChangeListener listener = new CountingPageChangeListener();
+        listener.register();
+
+        item.setState(OnOffType.OFF);
+
+        assertEquals(0, listener.changes);
+        assertTrue(listener.unregister());
+    }
+
+    @Test
+    public void unregisteredListenerIsNotNotified() {
+        CountingPageChangeListener listener = new CountingPageChangeListener();
+        listener.register();
+        listener.unregister();
+
+        item.setState(OnOffType.ON);
+
+        assertEquals(0, listener.changes);
+    }
+
+    @Test
+    public void awaitReturnsTrueIfThePageChanges() throws InterruptedException {
+        final PageChangeListener listener = new PageChangeListener(itemRegistry, widgets);
+        listener.register();
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                item.setState(OnOffType.ON);
+            }
+        };
+        thread.start();
+
+        assertTrue(listener.await(5000));
+        thread.join();
+    }
+
+    @Test
+    public void awaitReturnsFalseAndUnregistersOnTimeout() {
+        PageChangeListener listener = new PageChangeListener(itemRegistry, widgets);
+        listener.register();
+
+        assertFalse(listener.await(50));
+        assertFalse(listener.unregister());
+    }
+
+    private Widget createWidget(String itemName) {
+        Widget widget = mock(Widget.class);
+        when(widget.getItem()).thenReturn(itemName);
+        return widget;
+    }
+
+    private class CountingPageChangeListener extends PageChangeListener {
+
+        private int changes = 0;
+
+        public CountingPageChangeListener() {
+            super(itemRegistry, widgets);
+        }
+
+        @Override
+        protected void pageChanged() {
+            changes++;
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.ui.items;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemNotFoundException;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.StateChangeListener;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.model.sitemap.Frame;
+import org.eclipse.smarthome.model.sitemap.Widget;
+
+/**
+ * This is a state change listener, which is notified about the first state change of any item of a sitemap page. It
+ * is used by the UIs to answer polling requests as soon as the page has changed. The listener is unregistered from all
+ * items as soon as a change has occurred or it is unregistered explicitly.
+ *
+ * A change is either handled by overriding {@link #pageChanged()}, which is called by the thread that has changed the
+ * item state, or by waiting for it with {@link #await(long)}.
+ *
+ * @author Kai Kreuzer - Initial contribution and API
+ * @author agent - Shared by the UIs
+ */
+public class PageChangeListener implements StateChangeListener {
+
+    private final Set<GenericItem> items;
+
+    private final AtomicBoolean registered = new AtomicBoolean(true);
+
+    private final CountDownLatch changed = new CountDownLatch(1);
+
+    /**
+     * Creates a listener for the items of the given widgets.
+     *
+     * @param itemRegistry the registry to look up the items of the widgets (can be null)
+     * @param widgets the widgets of the page to observe (must not be null)
+     */
+    public PageChangeListener(ItemRegistry itemRegistry, EList<Widget> widgets) {
+        this.items = getAllItems(itemRegistry, widgets);
+    }
+
+    /**
+     * Registers the listener at all items of the page.
+     */
+    public void register() {
+        for (GenericItem item : items) {
+            item.addStateChangeListener(this);
+        }
+    }
+
+    /**
+     * Unregisters the listener from all items.
+     *
+     * @return true, if the listener has been unregistered, false if it has already been unregistered before
+     */
+    public boolean unregister() {
+        if (registered.compareAndSet(true, false)) {
+            for (GenericItem item : items) {
+                item.removeStateChangeListener(this);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits for a state change and unregisters the listener.
+     *
+     * @param timeout the timeout in milliseconds
+     * @return true, if a state has changed
+     */
+    public boolean await(long timeout) {
+        try {
+            changed.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !unregister();
+    }
+
+    /**
+     * Is called once, when the first state change has occurred.
+     */
+    protected void pageChanged() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stateChanged(Item item, State oldState, State newState) {
+        if (unregister()) {
+            changed.countDown();
+            pageChanged();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stateUpdated(Item item, State state) {
+        // ignore if the state did not change
+    }
+
+    /**
+     * Collects all items that are represented by a given list of widgets
+     *
+     * @param itemRegistry the registry to look up the items
+     * @param widgets the widget list to get the items for
+     * @return all items that are represented by the list of widgets
+     */
+    private static Set<GenericItem> getAllItems(ItemRegistry itemRegistry, EList<Widget> widgets) {
+        Set<GenericItem> items = new HashSet<GenericItem>();
+        if (itemRegistry != null) {
+            for (Widget widget : widgets) {
+                String itemName = widget.getItem();
+                if (itemName != null) {
+                    try {
+                        Item item = itemRegistry.getItem(itemName);
+                        if (item instanceof GenericItem) {
+                            items.add((GenericItem) item);
+                        }
+                    } catch (ItemNotFoundException e) {
+                        // ignore
+                    }
+                } else {
+                    if (widget instanceof Frame) {
+                        items.addAll(getAllItems(itemRegistry, ((Frame) widget).getChildren()));
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.persistence.timeseries.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricAggregate;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class TimeSeriesTest {
+
+    private static final long START = 1420070400000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File folder;
+
+    private TimeSeries series;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = new File(temporaryFolder.getRoot(), "Temperature");
+        series = new TimeSeries(folder, 4096);
+    }
+
+    @After
+    public void tearDown() {
+        series.close();
+    }
+
+    @Test
+    public void testQueryReturnsAllStatesInTheRequestedOrder() throws IOException {
+        appendRamp(1000);
+
+        List<HistoricItem> ascending = series.query("Temperature",
+                new FilterCriteria().setOrdering(Ordering.ASCENDING));
+        assertEquals(1000, ascending.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(new Date(START + i * 1000L), ascending.get(i).getTimestamp());
+            assertEquals(new DecimalType(getValue(i)), ascending.get(i).getState());
+            assertEquals("Temperature", ascending.get(i).getName());
+        }
+
+        List<HistoricItem> descending = series.query("Temperature", new FilterCriteria());
+        assertEquals(1000, descending.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ascending.get(999 - i).getTimestamp(), descending.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testQueryFiltersByTimeRangeAndPage() throws IOException {
+        appendRamp(2000);
+
+        FilterCriteria filter = new FilterCriteria().setBeginDate(new Date(START + 500 * 1000L))
+                .setEndDate(new Date(START + 1499 * 1000L)).setOrdering(Ordering.ASCENDING).setPageSize(100)
+                .setPageNumber(3);
+        List<HistoricItem> page = series.query("Temperature", filter);
+        assertEquals(100, page.size());
+        assertEquals(new Date(START + 800 * 1000L), page.get(0).getTimestamp());
+        assertEquals(new Date(START + 899 * 1000L), page.get(99).getTimestamp());
+
+        filter.setOrdering(Ordering.DESCENDING);
+        page = series.query("Temperature", filter);
+        assertEquals(100, page.size());
+        assertEquals(new Date(START + 1199 * 1000L), page.get(0).getTimestamp());
+        assertEquals(new Date(START + 1100 * 1000L), page.get(99).getTimestamp());
+
+        filter.setPageNumber(9);
+        assertEquals(100, series.query("Temperature", filter).size());
+        filter.setPageNumber(10);
+        assertTrue(series.query("Temperature", filter).isEmpty());
+    }
+
+    @Test
+    public void testQueryFiltersByState() throws IOException {
+        appendRamp(300);
+
+        FilterCriteria filter = new FilterCriteria().setOperator(Operator.GTE).setState(new DecimalType(20));
+        for (HistoricItem item : series.query("Temperature", filter)) {
+            assertTrue(((DecimalType) item.getState()).doubleValue() >= 20);
+        }
+        filter.setOperator(Operator.EQ).setState(new DecimalType(getValue(42)));
+        List<HistoricItem> items = series.query("Temperature", filter);
+        assertTrue(items.size() >= 1);
+        assertEquals(new DecimalType(getValue(42)), items.get(0).getState());
+    }
+
+    @Test
+    public void testAggregateOfTimeWindow() throws IOException {
+        series.append(START, new DecimalType(10));
+        series.append(START + 1000, new DecimalType(20));
+        series.append(START + 2000, new DecimalType(20));
+        series.append(START + 4000, new DecimalType(5));
+        series.append(START + 5000, new StringType("ignored"));
+        series.append(START + 6000, new DecimalType(30));
+
+        HistoricAggregate aggregate = series.aggregate("Temperature", START + 500, START + 8000);
+        assertEquals(5, aggregate.getCount());
+        assertEquals(4, aggregate.getDecimalCount());
+        assertEquals(4, aggregate.getChangeCount());
+        assertEquals(new DecimalType(75), aggregate.getSum());
+        assertEquals(new DecimalType(10), aggregate.getInitial().getState());
+        assertEquals(new Date(START + 1000), aggregate.getFirst().getTimestamp());
+        assertEquals(new Date(START + 6000), aggregate.getLast().getTimestamp());
+        assertEquals(new DecimalType(5), aggregate.getMinimum().getState());
+        assertEquals(new Date(START + 6000), aggregate.getMaximum().getTimestamp());
+        // 10 for 0.5s, 20 for 3s, 5 for 1s and 30 for 2s within 6.5s with a decimal state
+        assertEquals(new DecimalType(20), aggregate.getTimeWeightedAverage());
+
+        aggregate = series.aggregate("Temperature", START + 10000, START + 20000);
+        assertEquals(0, aggregate.getCount());
+        assertNull(aggregate.getMinimum());
+        assertEquals(new DecimalType(30), aggregate.getInitial().getState());
+        assertEquals(new DecimalType(30), aggregate.getTimeWeightedAverage());
+    }
+
+    @Test
+    public void testStatesOfDifferentTypesAreRestored() throws IOException {
+        series.append(START, OnOffType.ON);
+        series.append(START + 1, OnOffType.OFF);
+        series.append(START + 2, new StringType("open"));
+        series.append(START + 3, new StringType("open"));
+        series.append(START + 4, new PercentType(42));
+        series.append(START + 5, new HSBType("120,100,50"));
+        series.append(START + 6, new DecimalType("-3.25"));
+
+        List<HistoricItem> items = series.query("Temperature", new FilterCriteria().setOrdering(Ordering.ASCENDING));
+        assertEquals(7, items.size());
+        assertEquals(OnOffType.ON, items.get(0).getState());
+        assertEquals(OnOffType.OFF, items.get(1).getState());
+        assertEquals(new StringType("open"), items.get(2).getState());
+        assertEquals(new StringType("open"), items.get(3).getState());
+        assertEquals(new PercentType(42), items.get(4).getState());
+        assertTrue(items.get(4).getState() instanceof PercentType);
+        assertEquals(new HSBType("120,100,50"), items.get(5).getState());
+        assertEquals(new DecimalType("-3.25"), items.get(6).getState());
+    }
+
+    @Test
+    public void testEarlierTimestampsAreReplacedByTheLatestTimestamp() throws IOException {
+        series.append(START + 1000, new DecimalType(1));
+        series.append(START, new DecimalType(2));
+
+        List<HistoricItem> items = series.query("Temperature", new FilterCriteria().setOrdering(Ordering.ASCENDING));
+        assertEquals(new Date(START + 1000), items.get(1).getTimestamp());
+    }
+
+    @Test
+    public void testStatesAreRestoredAfterReopening() throws IOException {
+        appendRamp(1500);
+        series.close();
+
+        // simulate a crash, after which the last keyframes are missing in the index
+        File index = new File(folder, "index");
+        new RandomAccessFile(index, "rw").getChannel().truncate(16).close();
+
+        series = new TimeSeries(folder, 4096);
+        for (int i = 1500; i < 1600; i++) {
+            series.append(START + i * 1000L, new DecimalType(getValue(i)));
+        }
+
+        List<HistoricItem> items = series.query("Temperature", new FilterCriteria().setOrdering(Ordering.ASCENDING));
+        assertEquals(1600, items.size());
+        for (int i = 0; i < 1600; i++) {
+            assertEquals(new Date(START + i * 1000L), items.get(i).getTimestamp());
+            assertEquals(new DecimalType(getValue(i)), items.get(i).getState());
+        }
+        FilterCriteria filter = new FilterCriteria().setEndDate(new Date(START + 1200 * 1000L)).setPageSize(1);
+        assertEquals(new Date(START + 1200 * 1000L), series.query("Temperature", filter).get(0).getTimestamp());
+    }
+
+    private void appendRamp(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            series.append(START + i * 1000L, new DecimalType(getValue(i)));
+        }
+    }
+
+    private String getValue(int i) {
+        // repeat some values, so that unchanged values are covered
+        return String.valueOf(15 + (i / 3 % 100) * 0.25);
+    }
+
+}
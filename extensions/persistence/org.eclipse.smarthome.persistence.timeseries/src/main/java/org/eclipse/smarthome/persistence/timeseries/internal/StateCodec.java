@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.persistence.timeseries.internal;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link StateCodec} maps the supported states to a type code and either a numeric or a textual value. Numeric
+ * values are stored as doubles, so that consecutive values of a time series can be compressed. All other supported
+ * states are stored by their string representation.
+ *
+ * @author agent - Initial contribution
+ */
+final class StateCodec {
+
+    /** the code of unsupported states */
+    static final int UNSUPPORTED = 0;
+
+    static final int DECIMAL = 1;
+    static final int PERCENT = 2;
+    static final int ON_OFF = 3;
+    static final int OPEN_CLOSED = 4;
+    static final int UP_DOWN = 5;
+    static final int DATE_TIME = 6;
+
+    static final int STRING = 8;
+    static final int HSB = 9;
+    static final int POINT = 10;
+
+    private StateCodec() {
+    }
+
+    /**
+     * Returns the type code of the given state.
+     *
+     * @param state the state
+     * @return the type code or {@link #UNSUPPORTED}, if the state cannot be stored
+     */
+    static int getCode(State state) {
+        // subclasses have to be checked first, as HSBType extends PercentType, which extends DecimalType
+        if (state instanceof HSBType) {
+            return HSB;
+        } else if (state instanceof PercentType) {
+            return PERCENT;
+        } else if (state instanceof DecimalType) {
+            return DECIMAL;
+        } else if (state instanceof OnOffType) {
+            return ON_OFF;
+        } else if (state instanceof OpenClosedType) {
+            return OPEN_CLOSED;
+        } else if (state instanceof UpDownType) {
+            return UP_DOWN;
+        } else if (state instanceof DateTimeType) {
+            return DATE_TIME;
+        } else if (state instanceof StringType) {
+            return STRING;
+        } else if (state instanceof PointType) {
+            return POINT;
+        }
+        return UNSUPPORTED;
+    }
+
+    /**
+     * Returns whether states of the given type code are stored as numeric value.
+     *
+     * @param code the type code
+     * @return true, if the value is numeric, false if it is textual
+     */
+    static boolean isNumeric(int code) {
+        return code < STRING;
+    }
+
+    /**
+     * Returns whether states of the given type code are restored as {@link DecimalType}.
+     *
+     * @param code the type code
+     * @return true, if the state is a decimal state
+     */
+    static boolean isDecimal(int code) {
+        return code == DECIMAL || code == PERCENT;
+    }
+
+    /**
+     * Returns the numeric value of a state with a numeric type code.
+     *
+     * @param state the state
+     * @return the numeric value
+     */
+    static double toDouble(State state) {
+        if (state instanceof DecimalType) {
+            return ((DecimalType) state).doubleValue();
+        } else if (state instanceof DateTimeType) {
+            return ((DateTimeType) state).getCalendar().getTimeInMillis();
+        } else {
+            return state == OnOffType.ON || state == OpenClosedType.OPEN || state == UpDownType.DOWN ? 1 : 0;
+        }
+    }
+
+    /**
+     * Restores a state from its numeric value.
+     *
+     * @param code the numeric type code
+     * @param value the numeric value
+     * @return the state
+     */
+    static State toState(int code, double value) {
+        switch (code) {
+            case DECIMAL:
+                return new DecimalType(toBigDecimal(value));
+            case PERCENT:
+                return new PercentType(toBigDecimal(value));
+            case ON_OFF:
+                return value != 0 ? OnOffType.ON : OnOffType.OFF;
+            case OPEN_CLOSED:
+                return value != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case UP_DOWN:
+                return value != 0 ? UpDownType.DOWN : UpDownType.UP;
+            case DATE_TIME:
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis((long) value);
+                return new DateTimeType(calendar);
+            default:
+                throw new IllegalArgumentException("Unknown numeric type code " + code);
+        }
+    }
+
+    /**
+     * Restores a state from its textual value.
+     *
+     * @param code the textual type code
+     * @param value the textual value
+     * @return the state
+     */
+    static State toState(int code, String value) {
+        switch (code) {
+            case STRING:
+                return new StringType(value);
+            case HSB:
+                return new HSBType(value);
+            case POINT:
+                return new PointType(value);
+            default:
+                throw new IllegalArgumentException("Unknown textual type code " + code);
+        }
+    }
+
+    private static BigDecimal toBigDecimal(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return BigDecimal.valueOf((long) value);
+        }
+        return BigDecimal.valueOf(value);
+    }
+
+}
@@ -0,0 +1,922 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.persistence.timeseries.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricAggregate;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TimeSeries} stores the states of a single item in a folder. The states are appended to memory-mapped
+ * segment files of a fixed size, so that storing a state neither requires a system call nor the allocation of objects
+ * apart from textual values.
+ *
+ * Each record starts with a header byte, which contains the type code of the state and flags. Every
+ * {@link #KEYFRAME_INTERVAL}th record and the first record of each segment is a keyframe, which contains the absolute
+ * timestamp and value. All other records only contain the difference of the timestamp delta to the previous delta as
+ * variable-length integer and the XOR of the value with the previous value without its leading and trailing zero
+ * bytes. Unchanged values are only flagged in the header. The position of each keyframe is stored in an index file,
+ * which is kept in memory, so that queries find the first record of a time range by binary search and only decode
+ * the blocks between two keyframes they need.
+ *
+ * Timestamps have to be ascending, earlier timestamps are replaced by the latest timestamp of the series. After a
+ * crash, the records written after the last indexed keyframe are recovered when the time series is opened again.
+ *
+ * This class is thread-safe.
+ *
+ * @author agent - Initial contribution
+ */
+public class TimeSeries {
+
+    /** the default size of a segment file (1 MiB) */
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    /** the number of records between two keyframes */
+    static final int KEYFRAME_INTERVAL = 256;
+
+    private static final int MAX_RECORD_SIZE = 1 << 16;
+
+    private static final int MAX_HEADER_SIZE = 32;
+
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private static final int MAX_CACHED_SEGMENTS = 4;
+
+    private static final String INDEX_FILE_NAME = "index";
+
+    private static final String SEGMENT_FILE_NAME = "%08d.seg";
+
+    private static final int HEADER_VALID = 0x80;
+    private static final int HEADER_KEYFRAME = 0x40;
+    private static final int HEADER_UNCHANGED = 0x10;
+    private static final int HEADER_CODE = 0x0F;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Logger logger = LoggerFactory.getLogger(TimeSeries.class);
+
+    private final File folder;
+
+    private final int segmentSize;
+
+    private final int maxRecordSize;
+
+    private final FileChannel indexChannel;
+
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+
+    private long[] keyframeTimestamps = new long[64];
+
+    private int[] keyframeSegments = new int[64];
+
+    private int[] keyframeOffsets = new int[64];
+
+    private int keyframeCount = 0;
+
+    private int segmentCount = 0;
+
+    private MappedByteBuffer activeSegment;
+
+    private int writeOffset;
+
+    private final Map<Integer, ByteBuffer> segmentCache = new LinkedHashMap<Integer, ByteBuffer>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+            return size() > MAX_CACHED_SEGMENTS;
+        }
+    };
+
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private long lastDelta = 0;
+
+    private long lastBits = 0;
+
+    private String lastText = null;
+
+    private int recordsSinceKeyframe = 0;
+
+    private byte[] record = new byte[64];
+
+    private int recordLength = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Opens the time series in the given folder with the default segment size. The folder is created, if it does not
+     * exist yet.
+     *
+     * @param folder the folder of the time series (must not be null)
+     * @throws IOException if the time series cannot be opened
+     */
+    public TimeSeries(File folder) throws IOException {
+        this(folder, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the time series in the given folder. The folder is created, if it does not exist yet.
+     *
+     * @param folder the folder of the time series (must not be null)
+     * @param segmentSize the size of new segment files in bytes
+     * @throws IOException if the time series cannot be opened
+     */
+    TimeSeries(File folder, int segmentSize) throws IOException {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create the folder '" + folder + "'.");
+        }
+        this.folder = folder;
+        this.segmentSize = segmentSize;
+        this.maxRecordSize = Math.min(MAX_RECORD_SIZE, segmentSize);
+        this.indexChannel = new RandomAccessFile(new File(folder, INDEX_FILE_NAME), "rw").getChannel();
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a state to the time series.
+     *
+     * @param timestamp the point in time of the state in milliseconds
+     * @param state the state (must not be null)
+     * @throws IOException if a new segment file cannot be created
+     * @throws IllegalArgumentException if the state type is not supported or the state is too large
+     */
+    public synchronized void append(long timestamp, State state) throws IOException {
+        checkOpen();
+        int code = StateCodec.getCode(state);
+        if (code == StateCodec.UNSUPPORTED) {
+            throw new IllegalArgumentException("States of type " + state.getClass().getSimpleName()
+                    + " are not supported.");
+        }
+        long bits = 0;
+        String text = null;
+        byte[] textBytes = null;
+        if (StateCodec.isNumeric(code)) {
+            bits = Double.doubleToLongBits(StateCodec.toDouble(state));
+        } else {
+            text = state.toString();
+            textBytes = text.getBytes(UTF_8);
+            if (textBytes.length > maxRecordSize - MAX_HEADER_SIZE) {
+                throw new IllegalArgumentException("The state is too large to be stored.");
+            }
+        }
+        if (timestamp < lastTimestamp) {
+            timestamp = lastTimestamp;
+        }
+
+        boolean keyframe = writeOffset == 0 || recordsSinceKeyframe >= KEYFRAME_INTERVAL;
+        encode(keyframe, timestamp, code, bits, text, textBytes);
+        if (writeOffset + recordLength > activeSegment.capacity()) {
+            createSegment();
+            keyframe = true;
+            encode(keyframe, timestamp, code, bits, text, textBytes);
+        }
+
+        // the header is written last, so that readers never see an incomplete record
+        ByteBuffer target = activeSegment.duplicate();
+        target.position(writeOffset + 1);
+        target.put(record, 1, recordLength - 1);
+        activeSegment.put(writeOffset, record[0]);
+
+        if (keyframe) {
+            addKeyframe(timestamp, segmentCount - 1, writeOffset);
+            recordsSinceKeyframe = 0;
+            lastDelta = 0;
+            lastBits = 0;
+            lastText = null;
+        } else {
+            lastDelta = timestamp - lastTimestamp;
+        }
+        lastTimestamp = timestamp;
+        if (text == null) {
+            lastBits = bits;
+        } else {
+            lastText = text;
+        }
+        writeOffset += recordLength;
+        recordsSinceKeyframe++;
+    }
+
+    /**
+     * Queries the time series. The item name of the filter is ignored.
+     *
+     * @param name the name of the returned historic items
+     * @param filter the filter (must not be null)
+     * @return the states of the time series, which match the filter
+     * @throws IOException if a segment file cannot be read
+     */
+    public synchronized List<HistoricItem> query(String name, FilterCriteria filter) throws IOException {
+        checkOpen();
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        int limit = filter.getPageSize();
+
+        List<HistoricItem> result = new ArrayList<HistoricItem>();
+        if (keyframeCount == 0 || begin > end || limit <= 0) {
+            return result;
+        }
+
+        Cursor cursor = new Cursor();
+        if (filter.getOrdering() == Ordering.ASCENDING) {
+            cursor.seek(Math.max(findKeyframe(begin, false), 0));
+            while (result.size() < limit && cursor.hasNext()) {
+                cursor.next();
+                if (cursor.timestamp > end) {
+                    break;
+                }
+                if (cursor.timestamp >= begin && matches(cursor, filter)) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        result.add(cursor.toHistoricItem(name));
+                    }
+                }
+            }
+        } else {
+            // blocks can only be decoded forwards, so they are decoded one after the other starting with the last one
+            List<HistoricItem> block = new ArrayList<HistoricItem>(KEYFRAME_INTERVAL);
+            for (int keyframe = findKeyframe(end, true); keyframe >= 0 && result.size() < limit; keyframe--) {
+                block.clear();
+                cursor.seek(keyframe);
+                boolean first = true;
+                while (cursor.hasNext() && (first || !cursor.isKeyframeNext())) {
+                    first = false;
+                    cursor.next();
+                    if (cursor.timestamp > end) {
+                        break;
+                    }
+                    if (cursor.timestamp >= begin && matches(cursor, filter)) {
+                        block.add(cursor.toHistoricItem(name));
+                    }
+                }
+                for (int i = block.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        result.add(block.get(i));
+                    }
+                }
+                if (keyframeTimestamps[keyframe] < begin) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Aggregates the states within the given time window without creating objects for the single states.
+     *
+     * @param name the name of the returned historic items
+     * @param begin the begin of the time window in milliseconds
+     * @param end the end of the time window in milliseconds
+     * @return the aggregated states
+     * @throws IOException if a segment file cannot be read
+     */
+    public synchronized HistoricAggregate aggregate(String name, long begin, long end) throws IOException {
+        checkOpen();
+        HistoricAggregate aggregate = new HistoricAggregate();
+        if (keyframeCount == 0 || begin > end) {
+            return aggregate;
+        }
+
+        int count = 0;
+        int decimalCount = 0;
+        int changeCount = 0;
+        double sum = 0;
+        double weightedSum = 0;
+        long weightedTime = 0;
+        Record previous = null;
+        Record initial = null;
+        Record first = null;
+        Record minimum = null;
+        Record maximum = null;
+
+        Cursor cursor = new Cursor();
+        cursor.seek(Math.max(findKeyframe(begin, false), 0));
+        while (cursor.hasNext()) {
+            cursor.next();
+            if (cursor.timestamp > end) {
+                break;
+            }
+            if (cursor.timestamp >= begin) {
+                if (count == 0) {
+                    if (previous != null) {
+                        initial = new Record();
+                        initial.set(previous);
+                    }
+                    first = new Record();
+                    first.set(cursor);
+                }
+                if (previous != null) {
+                    if (!previous.hasSameValue(cursor)) {
+                        changeCount++;
+                    }
+                    if (StateCodec.isDecimal(previous.code)) {
+                        long from = Math.max(previous.timestamp, begin);
+                        weightedSum += previous.getValue() * (cursor.timestamp - from);
+                        weightedTime += cursor.timestamp - from;
+                    }
+                }
+                count++;
+                if (StateCodec.isDecimal(cursor.code)) {
+                    double value = cursor.getValue();
+                    decimalCount++;
+                    sum += value;
+                    if (minimum == null) {
+                        minimum = new Record();
+                        maximum = new Record();
+                        minimum.set(cursor);
+                        maximum.set(cursor);
+                    } else if (value < minimum.getValue()) {
+                        minimum.set(cursor);
+                    } else if (value > maximum.getValue()) {
+                        maximum.set(cursor);
+                    }
+                }
+            }
+            if (previous == null) {
+                previous = new Record();
+            }
+            previous.set(cursor);
+        }
+
+        if (count == 0) {
+            initial = previous;
+        }
+        if (previous != null && StateCodec.isDecimal(previous.code)) {
+            long from = Math.max(previous.timestamp, begin);
+            if (end > from) {
+                weightedSum += previous.getValue() * (end - from);
+                weightedTime += end - from;
+            }
+        }
+
+        aggregate.setCount(count).setDecimalCount(decimalCount).setChangeCount(changeCount);
+        aggregate.setSum(new DecimalType(BigDecimal.valueOf(sum)));
+        if (weightedTime > 0) {
+            aggregate.setTimeWeightedAverage(new DecimalType(BigDecimal.valueOf(weightedSum / weightedTime)));
+        } else if (previous != null && StateCodec.isDecimal(previous.code)) {
+            aggregate.setTimeWeightedAverage((DecimalType) previous.getState());
+        }
+        if (initial != null) {
+            aggregate.setInitial(initial.toHistoricItem(name));
+        }
+        if (count > 0) {
+            aggregate.setFirst(first.toHistoricItem(name));
+            aggregate.setLast(previous.toHistoricItem(name));
+        }
+        if (minimum != null) {
+            aggregate.setMinimum(minimum.toHistoricItem(name));
+            aggregate.setMaximum(maximum.toHistoricItem(name));
+        }
+        return aggregate;
+    }
+
+    /**
+     * Writes all changes to the disk and closes the time series.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            activeSegment.force();
+            indexChannel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the time series in '{}': {}", folder, e.getMessage());
+        }
+        activeSegment = null;
+        segmentCache.clear();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The time series in '" + folder + "' is closed.");
+        }
+    }
+
+    private void open() throws IOException {
+        readIndex();
+        while (getSegmentFile(segmentCount).exists()) {
+            segmentCount++;
+        }
+        if (segmentCount == 0) {
+            createSegment();
+            return;
+        }
+
+        int validKeyframes = keyframeCount;
+        while (validKeyframes > 0 && keyframeSegments[validKeyframes - 1] >= segmentCount) {
+            validKeyframes--;
+        }
+        if (validKeyframes < keyframeCount) {
+            keyframeCount = validKeyframes;
+            indexChannel.truncate((long) keyframeCount * INDEX_ENTRY_SIZE);
+        }
+
+        activeSegment = (MappedByteBuffer) mapSegment(segmentCount - 1, MapMode.READ_WRITE);
+        writeOffset = activeSegment.capacity();
+        recover();
+    }
+
+    private void readIndex() throws IOException {
+        long size = indexChannel.size();
+        int entries = (int) (size / INDEX_ENTRY_SIZE);
+        if (size % INDEX_ENTRY_SIZE != 0) {
+            indexChannel.truncate((long) entries * INDEX_ENTRY_SIZE);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entries * INDEX_ENTRY_SIZE);
+        while (buffer.hasRemaining()) {
+            if (indexChannel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        ensureKeyframeCapacity(entries);
+        while (buffer.remaining() >= INDEX_ENTRY_SIZE) {
+            keyframeTimestamps[keyframeCount] = buffer.getLong();
+            keyframeSegments[keyframeCount] = buffer.getInt();
+            keyframeOffsets[keyframeCount] = buffer.getInt();
+            keyframeCount++;
+        }
+    }
+
+    /**
+     * Scans the records after the last indexed keyframe, adds the missing keyframes to the index and restores the
+     * state of the last record.
+     */
+    private void recover() throws IOException {
+        int indexedKeyframes = keyframeCount;
+        Cursor cursor = new Cursor();
+        boolean indexed = keyframeCount > 0;
+        if (indexed) {
+            cursor.seek(keyframeCount - 1);
+        } else {
+            cursor.seek(0, 0);
+        }
+        boolean found = false;
+        while (true) {
+            int segment = cursor.segment;
+            int offset = cursor.offset;
+            try {
+                if (!cursor.hasNext()) {
+                    break;
+                }
+                segment = cursor.segment;
+                offset = cursor.offset;
+                cursor.next();
+            } catch (IndexOutOfBoundsException e) {
+                logger.warn("Ignoring the corrupt end of segment {} of the time series in '{}' at offset {}.",
+                        new Object[] { segment, folder, offset });
+                if (segment >= segmentCount - 1) {
+                    break;
+                }
+                cursor.seek(segment + 1, 0);
+                continue;
+            }
+            if (cursor.keyframe) {
+                if (!indexed) {
+                    addKeyframe(cursor.timestamp, segment, offset);
+                }
+                indexed = false;
+                recordsSinceKeyframe = 0;
+            }
+            recordsSinceKeyframe++;
+            found = true;
+        }
+
+        writeOffset = cursor.segment == segmentCount - 1 ? cursor.offset : 0;
+        int validKeyframes = keyframeCount;
+        while (validKeyframes > 0 && keyframeSegments[validKeyframes - 1] == segmentCount - 1
+                && keyframeOffsets[validKeyframes - 1] >= writeOffset) {
+            validKeyframes--;
+        }
+        if (validKeyframes < keyframeCount) {
+            keyframeCount = validKeyframes;
+            indexChannel.truncate((long) keyframeCount * INDEX_ENTRY_SIZE);
+        }
+
+        if (found) {
+            lastTimestamp = cursor.timestamp;
+            if (writeOffset > 0) {
+                lastDelta = cursor.delta;
+                lastBits = cursor.bits;
+                lastText = cursor.getText();
+            }
+        } else if (keyframeCount > 0) {
+            lastTimestamp = keyframeTimestamps[keyframeCount - 1];
+        }
+
+        // remove the remainders of an incompletely written record
+        int end = Math.min(activeSegment.capacity(), writeOffset + maxRecordSize);
+        for (int i = writeOffset; i < end; i++) {
+            if (activeSegment.get(i) != 0) {
+                activeSegment.put(i, (byte) 0);
+            }
+        }
+
+        if (keyframeCount > indexedKeyframes) {
+            logger.debug("Recovered {} keyframes of the time series in '{}'.", keyframeCount - indexedKeyframes,
+                    folder);
+        }
+    }
+
+    private void encode(boolean keyframe, long timestamp, int code, long bits, String text, byte[] textBytes) {
+        boolean numeric = textBytes == null;
+        boolean unchanged = !keyframe && (numeric ? bits == lastBits : text.equals(lastText));
+        int capacity = MAX_HEADER_SIZE + (numeric ? 0 : textBytes.length);
+        if (record.length < capacity) {
+            record = new byte[Math.max(capacity, record.length * 2)];
+        }
+
+        recordLength = 0;
+        record[recordLength++] = (byte) (HEADER_VALID | (keyframe ? HEADER_KEYFRAME : 0)
+                | (unchanged ? HEADER_UNCHANGED : 0) | code);
+        if (keyframe) {
+            writeBytes(timestamp, 8);
+        } else {
+            long deltaOfDelta = timestamp - lastTimestamp - lastDelta;
+            writeVarLong((deltaOfDelta << 1) ^ (deltaOfDelta >> 63));
+        }
+        if (unchanged) {
+            return;
+        }
+        if (!numeric) {
+            writeVarLong(textBytes.length);
+            System.arraycopy(textBytes, 0, record, recordLength, textBytes.length);
+            recordLength += textBytes.length;
+        } else if (keyframe) {
+            writeBytes(bits, 8);
+        } else {
+            long xor = bits ^ lastBits;
+            int leadingBytes = Long.numberOfLeadingZeros(xor) / 8;
+            int trailingBytes = Long.numberOfTrailingZeros(xor) / 8;
+            record[recordLength++] = (byte) (leadingBytes << 4 | trailingBytes);
+            writeBytes(xor >>> (trailingBytes * 8), 8 - leadingBytes - trailingBytes);
+        }
+    }
+
+    private void writeBytes(long value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            record[recordLength++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            record[recordLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record[recordLength++] = (byte) value;
+    }
+
+    private void addKeyframe(long timestamp, int segment, int offset) throws IOException {
+        ensureKeyframeCapacity(keyframeCount + 1);
+        keyframeTimestamps[keyframeCount] = timestamp;
+        keyframeSegments[keyframeCount] = segment;
+        keyframeOffsets[keyframeCount] = offset;
+
+        indexEntry.clear();
+        indexEntry.putLong(timestamp).putInt(segment).putInt(offset);
+        indexEntry.flip();
+        long position = (long) keyframeCount * INDEX_ENTRY_SIZE;
+        while (indexEntry.hasRemaining()) {
+            position += indexChannel.write(indexEntry, position);
+        }
+        keyframeCount++;
+    }
+
+    private void ensureKeyframeCapacity(int capacity) {
+        if (keyframeTimestamps.length < capacity) {
+            int newLength = Math.max(capacity, keyframeTimestamps.length * 2);
+            keyframeTimestamps = Arrays.copyOf(keyframeTimestamps, newLength);
+            keyframeSegments = Arrays.copyOf(keyframeSegments, newLength);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, newLength);
+        }
+    }
+
+    /**
+     * Returns the index of the last keyframe before the given timestamp.
+     *
+     * @param timestamp the timestamp
+     * @param inclusive true, if the keyframe may have the given timestamp
+     * @return the index of the keyframe or -1, if there is none
+     */
+    private int findKeyframe(long timestamp, boolean inclusive) {
+        int low = 0;
+        int high = keyframeCount - 1;
+        int result = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long keyframeTimestamp = keyframeTimestamps[middle];
+            if (keyframeTimestamp < timestamp || (inclusive && keyframeTimestamp == timestamp)) {
+                result = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return result;
+    }
+
+    private void createSegment() throws IOException {
+        if (activeSegment != null) {
+            activeSegment.force();
+        }
+        File file = getSegmentFile(segmentCount);
+        try (RandomAccessFile segmentFile = new RandomAccessFile(file, "rw")) {
+            segmentFile.setLength(segmentSize);
+            activeSegment = segmentFile.getChannel().map(MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segmentCount++;
+        writeOffset = 0;
+    }
+
+    private ByteBuffer getSegment(int segment) throws IOException {
+        if (segment == segmentCount - 1) {
+            return activeSegment;
+        }
+        ByteBuffer buffer = segmentCache.get(segment);
+        if (buffer == null) {
+            buffer = mapSegment(segment, MapMode.READ_ONLY);
+            segmentCache.put(segment, buffer);
+        }
+        return buffer;
+    }
+
+    private ByteBuffer mapSegment(int segment, MapMode mode) throws IOException {
+        try (RandomAccessFile segmentFile = new RandomAccessFile(getSegmentFile(segment),
+                mode == MapMode.READ_ONLY ? "r" : "rw")) {
+            FileChannel channel = segmentFile.getChannel();
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    private File getSegmentFile(int segment) {
+        return new File(folder, String.format(SEGMENT_FILE_NAME, segment));
+    }
+
+    private static boolean matches(Cursor cursor, FilterCriteria filter) {
+        State filterState = filter.getState();
+        if (filterState == null) {
+            return true;
+        }
+        State state = cursor.getState();
+        Operator operator = filter.getOperator();
+        if (operator == Operator.EQ) {
+            return state.equals(filterState);
+        } else if (operator == Operator.NEQ) {
+            return !state.equals(filterState);
+        } else if (state instanceof DecimalType && filterState instanceof DecimalType) {
+            int comparison = ((DecimalType) state).compareTo((DecimalType) filterState);
+            switch (operator) {
+                case GT:
+                    return comparison > 0;
+                case GTE:
+                    return comparison >= 0;
+                case LT:
+                    return comparison < 0;
+                case LTE:
+                    return comparison <= 0;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A {@link Cursor} decodes the records of the time series one after the other. A cursor is only valid as long as
+     * the lock of the time series is held.
+     */
+    private class Cursor extends Record {
+
+        private int segment;
+        private int offset;
+        private ByteBuffer buffer;
+        private int position;
+
+        private boolean keyframe;
+        private long delta;
+        private State state;
+
+        void seek(int keyframe) throws IOException {
+            seek(keyframeSegments[keyframe], keyframeOffsets[keyframe]);
+        }
+
+        void seek(int segment, int offset) throws IOException {
+            this.segment = segment;
+            this.offset = offset;
+            this.buffer = getSegment(segment);
+        }
+
+        /**
+         * Moves to the next segment if the end of the current one is reached.
+         *
+         * @return true, if there is a next record
+         */
+        boolean hasNext() throws IOException {
+            while (offset >= getLimit() || buffer.get(offset) == 0) {
+                if (segment + 1 >= segmentCount) {
+                    return false;
+                }
+                seek(segment + 1, 0);
+            }
+            return true;
+        }
+
+        /**
+         * Returns whether the next record is a keyframe. Must only be called if {@link #hasNext()} returned true.
+         */
+        boolean isKeyframeNext() {
+            return (buffer.get(offset) & HEADER_KEYFRAME) != 0;
+        }
+
+        /**
+         * Decodes the next record. Must only be called if {@link #hasNext()} returned true. If the record is
+         * incomplete, the cursor is left unchanged.
+         */
+        void next() {
+            position = offset;
+            int header = buffer.get(position++) & 0xFF;
+            boolean nextKeyframe = (header & HEADER_KEYFRAME) != 0;
+            int nextCode = header & HEADER_CODE;
+            long nextTimestamp;
+            long nextDelta;
+            long nextBits = nextKeyframe ? 0 : bits;
+            ByteBuffer nextTextBuffer = nextKeyframe ? null : textBuffer;
+            int nextTextOffset = textOffset;
+            int nextTextLength = textLength;
+
+            if (nextKeyframe) {
+                nextTimestamp = buffer.getLong(position);
+                nextDelta = 0;
+                position += 8;
+            } else {
+                long zigzag = readVarLong();
+                nextDelta = delta + ((zigzag >>> 1) ^ -(zigzag & 1));
+                nextTimestamp = timestamp + nextDelta;
+            }
+            if ((header & HEADER_UNCHANGED) == 0) {
+                if (!StateCodec.isNumeric(nextCode)) {
+                    nextTextLength = (int) readVarLong();
+                    nextTextOffset = position;
+                    nextTextBuffer = buffer;
+                    position += nextTextLength;
+                    if (position > buffer.limit()) {
+                        throw new IndexOutOfBoundsException();
+                    }
+                } else if (nextKeyframe) {
+                    nextBits = buffer.getLong(position);
+                    position += 8;
+                } else {
+                    int lengths = buffer.get(position++) & 0xFF;
+                    int trailingBytes = lengths & 0x0F;
+                    int count = 8 - (lengths >>> 4) - trailingBytes;
+                    long xor = 0;
+                    for (int i = 0; i < count; i++) {
+                        xor = (xor << 8) | (buffer.get(position++) & 0xFF);
+                    }
+                    nextBits ^= xor << (trailingBytes * 8);
+                }
+            }
+
+            offset = position;
+            keyframe = nextKeyframe;
+            code = nextCode;
+            timestamp = nextTimestamp;
+            delta = nextDelta;
+            bits = nextBits;
+            textBuffer = nextTextBuffer;
+            textOffset = nextTextOffset;
+            textLength = nextTextLength;
+            state = null;
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get(position++);
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private int getLimit() {
+            return segment == segmentCount - 1 ? writeOffset : buffer.capacity();
+        }
+
+        @Override
+        State getState() {
+            if (state == null) {
+                state = super.getState();
+            }
+            return state;
+        }
+    }
+
+    /**
+     * A {@link Record} holds the values of a decoded record. Textual values are referenced within the segment, so
+     * that they are only decoded if the state is needed.
+     */
+    private static class Record {
+
+        protected int code;
+        protected long timestamp;
+        protected long bits;
+        protected ByteBuffer textBuffer;
+        protected int textOffset;
+        protected int textLength;
+
+        void set(Record record) {
+            code = record.code;
+            timestamp = record.timestamp;
+            bits = record.bits;
+            textBuffer = record.textBuffer;
+            textOffset = record.textOffset;
+            textLength = record.textLength;
+        }
+
+        boolean hasSameValue(Record record) {
+            if (code != record.code) {
+                return false;
+            } else if (StateCodec.isNumeric(code)) {
+                return bits == record.bits;
+            } else if (textLength != record.textLength) {
+                return false;
+            }
+            for (int i = 0; i < textLength; i++) {
+                if (textBuffer.get(textOffset + i) != record.textBuffer.get(record.textOffset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double getValue() {
+            return Double.longBitsToDouble(bits);
+        }
+
+        String getText() {
+            if (textBuffer == null) {
+                return null;
+            }
+            byte[] bytes = new byte[textLength];
+            ByteBuffer source = textBuffer.duplicate();
+            source.position(textOffset);
+            source.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        State getState() {
+            if (StateCodec.isNumeric(code)) {
+                return StateCodec.toState(code, getValue());
+            } else {
+                return StateCodec.toState(code, getText());
+            }
+        }
+
+        HistoricItem toHistoricItem(String name) {
+            return new TimeSeriesHistoricItem(name, getState(), new Date(timestamp));
+        }
+    }
+
+}
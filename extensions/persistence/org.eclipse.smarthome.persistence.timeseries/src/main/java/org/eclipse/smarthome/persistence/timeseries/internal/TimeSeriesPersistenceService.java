@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2014-2015 openHAB UG (haftungsbeschraenkt) and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.smarthome.persistence.timeseries.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.persistence.AggregatingPersistenceService;
+import org.eclipse.smarthome.core.persistence.BatchPersistenceService;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.HistoricAggregate;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.persistence.PersistenceRecord;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This is the implementation of the embedded time series {@link AggregatingPersistenceService}. The states of each
+ * item (or alias) are stored in a separate {@link TimeSeries} in the folder {@code persistence/timeseries} of the user
+ * data folder, so that neither an external database nor any third-party library is required.
+ *
+ * @author agent - Initial contribution
+ */
+public class TimeSeriesPersistenceService implements AggregatingPersistenceService, BatchPersistenceService {
+
+    private static final String SERVICE_NAME = "timeseries";
+
+    private final Logger logger = LoggerFactory.getLogger(TimeSeriesPersistenceService.class);
+
+    private final Map<String, TimeSeries> timeSeries = new ConcurrentHashMap<String, TimeSeries>();
+
+    private File folder;
+
+    protected void activate() {
+        folder = new File(ConfigConstants.getUserDataFolder() + File.separator + "persistence" + File.separator
+                + SERVICE_NAME);
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        logger.debug("Time series persistence service stores its data in '{}'.", folder.getAbsolutePath());
+    }
+
+    protected void deactivate() {
+        synchronized (timeSeries) {
+            for (TimeSeries series : timeSeries.values()) {
+                series.close();
+            }
+            timeSeries.clear();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void store(Item item) {
+        store(item, null);
+    }
+
+    @Override
+    public void store(Item item, String alias) {
+        store(alias != null ? alias : item.getName(), item.getState(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void store(Collection<PersistenceRecord> records) {
+        for (PersistenceRecord record : records) {
+            String name = record.getAlias() != null ? record.getAlias() : record.getItemName();
+            store(name, record.getState(), record.getTimestamp().getTime());
+        }
+    }
+
+    private void store(String name, State state, long timestamp) {
+        if (state instanceof UnDefType) {
+            return;
+        }
+        try {
+            getTimeSeries(name, true).append(timestamp, state);
+        } catch (IOException e) {
+            logger.error("Could not store the state of item '{}': {}", name, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring the state of item '{}': {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public Iterable<HistoricItem> query(FilterCriteria filter) {
+        String name = filter.getItemName();
+        if (name == null) {
+            logger.debug("The time series persistence service only supports queries for a single item.");
+            return Collections.emptyList();
+        }
+        try {
+            TimeSeries series = getTimeSeries(name, false);
+            if (series == null) {
+                return Collections.emptyList();
+            }
+            return series.query(name, filter);
+        } catch (IOException e) {
+            logger.error("Could not query the states of item '{}': {}", name, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public HistoricAggregate aggregate(FilterCriteria filter) {
+        String name = filter.getItemName();
+        if (name == null) {
+            logger.debug("The time series persistence service only supports aggregations for a single item.");
+            return new HistoricAggregate();
+        }
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : System.currentTimeMillis();
+        try {
+            TimeSeries series = getTimeSeries(name, false);
+            if (series == null) {
+                return new HistoricAggregate();
+            }
+            return series.aggregate(name, begin, end);
+        } catch (IOException e) {
+            logger.error("Could not aggregate the states of item '{}': {}", name, e.getMessage());
+            return new HistoricAggregate();
+        }
+    }
+
+    private TimeSeries getTimeSeries(String name, boolean create) throws IOException {
+        TimeSeries series = timeSeries.get(name);
+        if (series == null) {
+            synchronized (timeSeries) {
+                series = timeSeries.get(name);
+                if (series == null) {
+                    File seriesFolder = new File(folder, encode(name));
+                    if (!create && !seriesFolder.isDirectory()) {
+                        return null;
+                    }
+                    series = new TimeSeries(seriesFolder);
+                    timeSeries.put(name, series);
+                }
+            }
+        }
+        return series;
+    }
+
+    private String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+
+}